@@ -3,6 +3,14 @@ plugins {
     ai.djl.publish
 }
 
+// JMH micro benchmarks, run with: ./gradlew :api:jmh -Pjmh.includes=NonMaxSuppression
+val jmh by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output
+    runtimeClasspath += sourceSets.main.get().output
+}
+configurations[jmh.implementationConfigurationName].extendsFrom(configurations.implementation.get())
+configurations[jmh.runtimeOnlyConfigurationName].extendsFrom(configurations.runtimeOnly.get())
+
 dependencies {
     api(libs.google.gson)
     api(libs.jna)
@@ -17,11 +25,36 @@ dependencies {
     testImplementation(libs.slf4j.simple)
     testRuntimeOnly(project(":engines:pytorch:pytorch-model-zoo"))
     testRuntimeOnly(project(":engines:pytorch:pytorch-jni"))
+
+    "jmhImplementation"(libs.jmh.core)
+    "jmhAnnotationProcessor"(libs.jmh.generator.annprocess)
+    "jmhRuntimeOnly"(project(":engines:pytorch:pytorch-model-zoo"))
+    "jmhRuntimeOnly"(project(":engines:pytorch:pytorch-jni"))
 }
 
 tasks {
     compileJava { dependsOn(processResources) }
 
+    named<JavaCompile>(jmh.compileJavaTaskName) {
+        options.apply {
+            release = 11
+            encoding = "UTF-8"
+            compilerArgs = listOf("-Xlint:all,-options,-static,-processing")
+        }
+    }
+    named("pmdJmh") { enabled = false }
+    named("spotbugsJmh") { enabled = false }
+
+    register<JavaExec>("jmh") {
+        group = "benchmark"
+        description = "Runs the JMH micro benchmarks."
+        classpath = jmh.runtimeClasspath
+        mainClass = "org.openjdk.jmh.Main"
+        args(project.findProperty("jmh.includes")?.toString() ?: ".*", "-rf", "json")
+        args("-rff", layout.buildDirectory.file("reports/jmh/results.json").get().asFile)
+        doFirst { layout.buildDirectory.dir("reports/jmh").get().asFile.mkdirs() }
+    }
+
     processResources {
         inputs.properties(mapOf("version" to version))
         filesMatching("**/api.properties") {
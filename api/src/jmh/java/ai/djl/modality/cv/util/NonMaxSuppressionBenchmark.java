@@ -0,0 +1,126 @@
+/*
+ * Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.modality.cv.util;
+
+import ai.djl.modality.cv.output.Rectangle;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NonMaxSuppressionBenchmark {
+
+    @Param({"1000", "4000", "10000"})
+    public int count;
+
+    @Param({"1", "80"})
+    public int numClasses;
+
+    private float[] boxes;
+    private float[] scores;
+    private int[] classIds;
+    private List<Rectangle> rectangles;
+    private List<Double> scoreList;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(0);
+        boxes = new float[count * 4];
+        scores = new float[count];
+        classIds = new int[count];
+        rectangles = new ArrayList<>(count);
+        scoreList = new ArrayList<>(count);
+        // cluster the boxes around a few objects, similar to the raw output of a detector
+        int objects = Math.max(1, count / 50);
+        float[] centers = new float[objects * 2];
+        for (int i = 0; i < centers.length; ++i) {
+            centers[i] = random.nextFloat() * 640;
+        }
+        for (int i = 0; i < count; ++i) {
+            int object = random.nextInt(objects);
+            float w = 20 + random.nextFloat() * 80;
+            float h = 20 + random.nextFloat() * 80;
+            float x = centers[object * 2] + (float) random.nextGaussian() * 8 - w / 2;
+            float y = centers[object * 2 + 1] + (float) random.nextGaussian() * 8 - h / 2;
+            boxes[i * 4] = x;
+            boxes[i * 4 + 1] = y;
+            boxes[i * 4 + 2] = w;
+            boxes[i * 4 + 3] = h;
+            scores[i] = random.nextFloat();
+            classIds[i] = random.nextInt(numClasses);
+            rectangles.add(new Rectangle(x, y, w, h));
+            scoreList.add((double) scores[i]);
+        }
+    }
+
+    @Benchmark
+    public int[] nms() {
+        return NonMaxSuppression.nms(boxes, scores, classIds, count, 0.45f, count);
+    }
+
+    @Benchmark
+    public int[] softNms() {
+        float[] s = scores.clone();
+        return NonMaxSuppression.softNms(boxes, s, classIds, count, 0.5f, 0.25f, 300);
+    }
+
+    @Benchmark
+    public List<Integer> legacyNms() {
+        return legacyNms(rectangles, scoreList, 0.45f);
+    }
+
+    /** The {@code PriorityQueue} based implementation that was used before, for comparison. */
+    private static List<Integer> legacyNms(
+            List<Rectangle> boxes, List<Double> scores, float nmsThreshold) {
+        List<Integer> ret = new ArrayList<>();
+        PriorityQueue<Integer> pq =
+                new PriorityQueue<>(
+                        50, (lhs, rhs) -> Double.compare(scores.get(rhs), scores.get(lhs)));
+        for (int i = 0; i < boxes.size(); ++i) {
+            pq.add(i);
+        }
+        while (!pq.isEmpty()) {
+            int[] detections = pq.stream().mapToInt(Integer::intValue).toArray();
+            ret.add(detections[0]);
+            Rectangle box = boxes.get(detections[0]);
+            pq.clear();
+            for (int i = 1; i < detections.length; i++) {
+                int detection = detections[i];
+                if (box.getIoU(boxes.get(detection)) < nmsThreshold) {
+                    pq.add(detection);
+                }
+            }
+        }
+        return ret;
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.training.evaluator;
+
+import ai.djl.ndarray.NDArray;
+import ai.djl.ndarray.NDList;
+import ai.djl.ndarray.NDManager;
+import ai.djl.ndarray.types.DataType;
+import ai.djl.ndarray.types.Shape;
+import ai.djl.training.loss.Loss;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the training steps per second of reading an evaluator back every batch with reading it
+ * back every {@link #readInterval} batches.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EvaluatorBenchmark {
+
+    private static final String KEY = "train";
+
+    @Param({"accuracy", "loss"})
+    public String evaluatorName;
+
+    @Param({"32", "1024"})
+    public int batchSize;
+
+    @Param({"100"})
+    public int readInterval;
+
+    private NDManager manager;
+    private Evaluator evaluator;
+    private NDList labels;
+    private NDList predictions;
+    private int step;
+
+    @Setup
+    public void setup() {
+        manager = NDManager.newBaseManager();
+        switch (evaluatorName) {
+            case "accuracy":
+                evaluator = new Accuracy();
+                break;
+            case "loss":
+                evaluator = Loss.softmaxCrossEntropyLoss();
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported evaluator: " + evaluatorName);
+        }
+        evaluator.addAccumulator(KEY);
+        NDArray label = manager.randomInteger(0, 10, new Shape(batchSize), DataType.INT64);
+        labels = new NDList(label);
+        predictions = new NDList(manager.randomNormal(new Shape(batchSize, 10)));
+    }
+
+    @TearDown
+    public void tearDown() {
+        manager.close();
+    }
+
+    @Benchmark
+    public float readEveryBatch() {
+        return step(1);
+    }
+
+    @Benchmark
+    public float readEveryInterval() {
+        return step(readInterval);
+    }
+
+    private float step(int interval) {
+        try (NDManager batchManager = manager.newSubManager()) {
+            labels.tempAttach(batchManager);
+            predictions.tempAttach(batchManager);
+            evaluator.updateAccumulators(new String[] {KEY}, labels, predictions);
+            if (++step >= interval) {
+                step = 0;
+                return evaluator.getAccumulator(KEY);
+            }
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.training.optimizer;
+
+import ai.djl.ndarray.NDArray;
+import ai.djl.ndarray.NDManager;
+import ai.djl.ndarray.types.Shape;
+import ai.djl.training.tracker.Tracker;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/** Compares the per parameter optimizer update with the multi-tensor update of a whole step. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OptimizerBenchmark {
+
+    @Param({"sgd", "adam", "adamw"})
+    public String optimizerName;
+
+    // a BERT base model has about 200 parameters, most of them are small bias and norm vectors
+    @Param({"200"})
+    public int numParameters;
+
+    @Param({"768", "65536"})
+    public int parameterSize;
+
+    private NDManager manager;
+    private Optimizer optimizer;
+    private String[] parameterIds;
+    private NDArray[] weights;
+    private NDArray[] grads;
+
+    @Setup
+    public void setup() {
+        manager = NDManager.newBaseManager();
+        switch (optimizerName) {
+            case "sgd":
+                optimizer =
+                        Optimizer.sgd()
+                                .setLearningRateTracker(Tracker.fixed(0.01f))
+                                .optMomentum(0.9f)
+                                .build();
+                break;
+            case "adam":
+                optimizer = Optimizer.adam().build();
+                break;
+            case "adamw":
+                optimizer = Optimizer.adamW().build();
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported optimizer: " + optimizerName);
+        }
+        parameterIds = new String[numParameters];
+        weights = new NDArray[numParameters];
+        grads = new NDArray[numParameters];
+        for (int i = 0; i < numParameters; ++i) {
+            parameterIds[i] = "param_" + i;
+            weights[i] = manager.randomNormal(new Shape(parameterSize));
+            grads[i] = manager.randomNormal(new Shape(parameterSize)).mul(0.01f);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        manager.close();
+    }
+
+    @Benchmark
+    public void perParameterUpdate() {
+        for (int i = 0; i < numParameters; ++i) {
+            optimizer.update(parameterIds[i], weights[i], grads[i]);
+        }
+    }
+
+    @Benchmark
+    public void multiTensorUpdate() {
+        optimizer.update(parameterIds, weights, grads);
+    }
+}
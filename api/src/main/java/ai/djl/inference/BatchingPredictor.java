@@ -0,0 +1,252 @@
+/*
+ * Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.inference;
+
+import ai.djl.metric.Metrics;
+import ai.djl.metric.Unit;
+import ai.djl.translate.TranslateException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@code BatchingPredictor} combines concurrent single item requests into dynamic batches.
+ *
+ * <p>Each call to {@link #predict(Object)} or {@link #predictAsync(Object)} is put into a queue. A
+ * background thread collects the queued requests and runs them through {@link
+ * Predictor#batchPredict(List)} once the batch reaches {@code maxBatchSize} or the oldest request
+ * has waited for {@code maxDelayMillis}. The batch is assembled with the translator's {@link
+ * ai.djl.translate.Batchifier}, so the translator must support batching to get any benefit.
+ *
+ * <pre>
+ * try (BatchingPredictor&lt;Image, Classifications&gt; predictor =
+ *         new BatchingPredictor&lt;&gt;(model.newPredictor(), 32, 5)) {
+ *     // can be called from many threads
+ *     Classifications result = predictor.predict(image);
+ * }
+ * </pre>
+ *
+ * @param <I> the input type
+ * @param <O> the output type
+ */
+public class BatchingPredictor<I, O> implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchingPredictor.class);
+
+    private Predictor<I, O> predictor;
+    private int maxBatchSize;
+    private long maxDelayNanos;
+    private BlockingQueue<Job<I, O>> queue;
+    private Thread worker;
+    private Metrics metrics;
+    private volatile boolean closed;
+
+    /**
+     * Constructs a new {@code BatchingPredictor} instance.
+     *
+     * <p>The {@code BatchingPredictor} takes the ownership of the wrapped {@link Predictor}, it
+     * will be closed when the {@code BatchingPredictor} is closed.
+     *
+     * @param predictor the predictor to run the batches with
+     * @param maxBatchSize the maximum number of requests in a batch
+     * @param maxDelayMillis the maximum time in milliseconds a request waits for a batch to fill
+     */
+    public BatchingPredictor(Predictor<I, O> predictor, int maxBatchSize, int maxDelayMillis) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("maxBatchSize must be greater than 0");
+        }
+        if (maxDelayMillis < 0) {
+            throw new IllegalArgumentException("maxDelayMillis must not be negative");
+        }
+        this.predictor = predictor;
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMillis);
+        queue = new LinkedBlockingQueue<>();
+        worker = new Thread(this::run, "batching-predictor");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Predicts an item for inference, waiting until the batch that contains it finishes.
+     *
+     * @param input the input
+     * @return the output object defined by the user
+     * @throws TranslateException if an error occurs during prediction
+     */
+    public O predict(I input) throws TranslateException {
+        try {
+            return predictAsync(input).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TranslateException("Prediction interrupted", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof TranslateException) {
+                throw (TranslateException) cause;
+            }
+            throw new TranslateException(cause);
+        }
+    }
+
+    /**
+     * Submits an item for inference.
+     *
+     * @param input the input
+     * @return a {@code CompletableFuture} that completes with the output when the batch finishes
+     */
+    public CompletableFuture<O> predictAsync(I input) {
+        Job<I, O> job = new Job<>(input);
+        if (closed) {
+            job.future.completeExceptionally(
+                    new IllegalStateException("BatchingPredictor is closed"));
+            return job.future;
+        }
+        queue.add(job);
+        if (closed && !worker.isAlive()) {
+            failPending();
+        }
+        return job.future;
+    }
+
+    /**
+     * Attaches a Metrics param to use for benchmark.
+     *
+     * <p>In addition to the metrics recorded by the wrapped {@link Predictor}, the {@code
+     * BatchingPredictor} records "QueueWait" for each request and "BatchSize" for each batch.
+     *
+     * @param metrics the Metrics class
+     */
+    public void setMetrics(Metrics metrics) {
+        this.metrics = metrics;
+        predictor.setMetrics(metrics);
+    }
+
+    /**
+     * Returns the number of requests waiting to be batched.
+     *
+     * @return the number of requests waiting to be batched
+     */
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    private void run() {
+        List<Job<I, O>> jobs = new ArrayList<>(maxBatchSize);
+        while (!closed || !queue.isEmpty()) {
+            try {
+                Job<I, O> first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                jobs.add(first);
+                long deadline = first.begin + maxDelayNanos;
+                while (jobs.size() < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        queue.drainTo(jobs, maxBatchSize - jobs.size());
+                        break;
+                    }
+                    Job<I, O> job = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (job == null) {
+                        break;
+                    }
+                    jobs.add(job);
+                }
+                runBatch(jobs);
+            } catch (InterruptedException e) {
+                logger.warn("BatchingPredictor worker interrupted", e);
+                for (Job<I, O> job : jobs) {
+                    job.future.completeExceptionally(e);
+                }
+                Thread.currentThread().interrupt();
+                break;
+            } finally {
+                jobs.clear();
+            }
+        }
+        failPending();
+    }
+
+    private void runBatch(List<Job<I, O>> jobs) {
+        int batchSize = jobs.size();
+        List<I> inputs = new ArrayList<>(batchSize);
+        long now = System.nanoTime();
+        for (Job<I, O> job : jobs) {
+            inputs.add(job.input);
+            if (metrics != null) {
+                long wait = (now - job.begin) / 1000;
+                metrics.addMetric("QueueWait", wait, Unit.MICROSECONDS, predictor.dimension);
+            }
+        }
+        if (metrics != null) {
+            metrics.addMetric("BatchSize", batchSize, Unit.COUNT, predictor.dimension);
+        }
+
+        try {
+            List<O> outputs = predictor.batchPredict(inputs);
+            for (int i = 0; i < batchSize; ++i) {
+                jobs.get(i).future.complete(outputs.get(i));
+            }
+        } catch (Throwable t) { // NOPMD
+            for (Job<I, O> job : jobs) {
+                job.future.completeExceptionally(t);
+            }
+        }
+    }
+
+    private void failPending() {
+        Job<I, O> job;
+        while ((job = queue.poll()) != null) {
+            job.future.completeExceptionally(
+                    new IllegalStateException("BatchingPredictor is closed"));
+        }
+    }
+
+    /**
+     * Stops accepting new requests, finishes the queued requests and closes the wrapped {@link
+     * Predictor}.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            worker.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        failPending();
+        predictor.close();
+    }
+
+    private static final class Job<I, O> {
+
+        I input;
+        long begin;
+        CompletableFuture<O> future;
+
+        Job(I input) {
+            this.input = input;
+            begin = System.nanoTime();
+            future = new CompletableFuture<>();
+        }
+    }
+}
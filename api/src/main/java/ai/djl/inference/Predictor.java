@@ -38,7 +38,11 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * The {@code Predictor} interface provides a session for model inference.
@@ -97,6 +101,11 @@ public class Predictor<I, O> implements AutoCloseable {
     protected Block block;
     protected ParameterStore parameterStore;
     protected Dimension dimension;
+    protected ExecutorService executorService;
+
+    private volatile PredictorPipeline<I, O> pipeline;
+    private int pipelineBatchSize = 1;
+    private int pipelineQueueSize = 4;
 
     /**
      * Creates a new instance of {@code BasePredictor} with the given {@link Model} and {@link
@@ -133,6 +142,58 @@ public class Predictor<I, O> implements AutoCloseable {
         return batchPredict(Collections.singletonList(input)).get(0);
     }
 
+    /**
+     * Submits an item for asynchronous inference.
+     *
+     * <p>The first call starts a pipeline with three stages: pre-processing, inference and
+     * post-processing, each running on its own thread and connected by bounded queues. Requests
+     * that are waiting when the pre-processing stage becomes free are combined into one batch, so
+     * batch N+1 is pre-processed while batch N runs the forward pass and batch N-1 is
+     * post-processed. This method blocks when the pipeline is full. The engine must support
+     * multi-threaded inference, and {@code predictAsync} should not be mixed with the synchronous
+     * predict methods on the same {@code Predictor}.
+     *
+     * <p>Besides the per-stage "Preprocess", "Inference", "Postprocess" and "Prediction" metrics,
+     * the pipeline records "PipelineQueueWait" for each request and "PreprocessBackpressure" and
+     * "InferenceBackpressure" for the time a stage is blocked by the next stage.
+     *
+     * @param input the input
+     * @return a {@code CompletableFuture} that completes with the output object defined by the user
+     * @see #setPipelineConfig(int, int)
+     */
+    public CompletableFuture<O> predictAsync(I input) {
+        PredictorPipeline<I, O> p = pipeline;
+        if (p == null) {
+            synchronized (this) {
+                p = pipeline;
+                if (p == null) {
+                    p = new PredictorPipeline<>(this, pipelineBatchSize, pipelineQueueSize);
+                    pipeline = p;
+                }
+            }
+        }
+        return p.submit(input);
+    }
+
+    /**
+     * Sets the batch and queue size of the {@link #predictAsync(Object)} pipeline.
+     *
+     * <p>This must be called before the first {@link #predictAsync(Object)} call.
+     *
+     * @param maxBatchSize the maximum number of requests combined into a batch
+     * @param queueSize the number of batches that can wait between two stages
+     */
+    public void setPipelineConfig(int maxBatchSize, int queueSize) {
+        if (pipeline != null) {
+            throw new IllegalStateException("The pipeline has already started.");
+        }
+        if (maxBatchSize < 1 || queueSize < 1) {
+            throw new IllegalArgumentException("maxBatchSize and queueSize must be positive");
+        }
+        pipelineBatchSize = maxBatchSize;
+        pipelineQueueSize = queueSize;
+    }
+
     /**
      * Predicts an item for inference.
      *
@@ -182,14 +243,24 @@ public class Predictor<I, O> implements AutoCloseable {
 
             timestamp = System.nanoTime();
             long begin = timestamp;
-            NDList ndList = translator.batchProcessInput(context, inputs);
-            preprocessEnd(ndList, batchSize);
+            NDList ndList;
+            if (isParallelInput(batchSize)) {
+                ndList = parallelProcessInputs(context, inputs);
+            } else {
+                ndList = translator.batchProcessInput(context, inputs);
+                preprocessEnd(ndList, batchSize);
+            }
 
             NDList result = predictInternal(context, ndList);
             predictEnd(result, batchSize);
 
-            List<O> ret = translator.batchProcessOutput(context, result);
-            postProcessEnd(begin, batchSize);
+            List<O> ret;
+            if (isParallelOutput(batchSize)) {
+                ret = parallelProcessOutputs(context, result, begin);
+            } else {
+                ret = translator.batchProcessOutput(context, result);
+                postProcessEnd(begin, batchSize);
+            }
             return ret;
         } catch (TranslateException e) {
             throw e;
@@ -286,7 +357,156 @@ public class Predictor<I, O> implements AutoCloseable {
         this.metrics = metrics;
     }
 
-    private void waitToRead(NDList list) {
+    /**
+     * Sets the {@link ExecutorService} to run the per item pre-processing and post-processing of a
+     * batch in parallel.
+     *
+     * <p>This is opt-in and only applies to translators that use the default {@link
+     * Translator#batchProcessInput(TranslatorContext, List)} and {@link
+     * Translator#batchProcessOutput(TranslatorContext, NDList)}. Each item is processed with its
+     * own child {@link NDManager} of the {@link TranslatorContext}. When enabled, the "Preprocess"
+     * and "Postprocess" metrics report the average per item time, and the "PreprocessWall" and
+     * "PostprocessWall" metrics report the wall time of the whole batch.
+     *
+     * @param executorService the executor service, or {@code null} to process items sequentially
+     */
+    public void setExecutorService(ExecutorService executorService) {
+        this.executorService = executorService;
+    }
+
+    private boolean isParallelInput(int batchSize) {
+        return executorService != null
+                && batchSize > 1
+                && !overrides("batchProcessInput", TranslatorContext.class, List.class);
+    }
+
+    private boolean isParallelOutput(int batchSize) {
+        return executorService != null
+                && batchSize > 1
+                && !overrides("batchProcessOutput", TranslatorContext.class, NDList.class);
+    }
+
+    private boolean overrides(String methodName, Class<?>... parameterTypes) {
+        try {
+            return translator.getClass().getMethod(methodName, parameterTypes).getDeclaringClass()
+                    != Translator.class;
+        } catch (NoSuchMethodException e) {
+            return true;
+        }
+    }
+
+    @SuppressWarnings("PMD.SignatureDeclareThrowsException")
+    private NDList parallelProcessInputs(PredictorContext ctx, List<I> inputs) throws Exception {
+        int batchSize = inputs.size();
+        AtomicLong itemTime = new AtomicLong();
+        List<ItemContext> contexts = new ArrayList<>(batchSize);
+        try {
+            List<CompletableFuture<NDList>> futures = new ArrayList<>(batchSize);
+            for (I input : inputs) {
+                ItemContext itemCtx = new ItemContext(ctx);
+                contexts.add(itemCtx);
+                futures.add(
+                        CompletableFuture.supplyAsync(
+                                () -> {
+                                    long start = System.nanoTime();
+                                    try {
+                                        NDList list = translator.processInput(itemCtx, input);
+                                        waitToRead(list);
+                                        return list;
+                                    } catch (Exception e) {
+                                        throw new CompletionException(e);
+                                    } finally {
+                                        itemTime.addAndGet(System.nanoTime() - start);
+                                    }
+                                },
+                                executorService));
+            }
+            NDList[] preprocessed = new NDList[batchSize];
+            for (int i = 0; i < batchSize; ++i) {
+                preprocessed[i] = join(futures.get(i));
+            }
+            NDList ndList = translator.getBatchifier().batchify(preprocessed);
+            ndList.attach(ctx.getNDManager());
+            parallelEnd(ndList, "Preprocess", itemTime.get(), batchSize);
+            return ndList;
+        } finally {
+            for (ItemContext itemCtx : contexts) {
+                itemCtx.close();
+            }
+        }
+    }
+
+    @SuppressWarnings("PMD.SignatureDeclareThrowsException")
+    private List<O> parallelProcessOutputs(PredictorContext ctx, NDList result, long begin)
+            throws Exception {
+        NDList[] unbatched = translator.getBatchifier().unbatchify(result);
+        int batchSize = unbatched.length;
+        AtomicLong itemTime = new AtomicLong();
+        List<ItemContext> contexts = new ArrayList<>(batchSize);
+        try {
+            List<CompletableFuture<O>> futures = new ArrayList<>(batchSize);
+            for (NDList output : unbatched) {
+                ItemContext itemCtx = new ItemContext(ctx);
+                contexts.add(itemCtx);
+                futures.add(
+                        CompletableFuture.supplyAsync(
+                                () -> {
+                                    long start = System.nanoTime();
+                                    try {
+                                        return translator.processOutput(itemCtx, output);
+                                    } catch (Exception e) {
+                                        throw new CompletionException(e);
+                                    } finally {
+                                        itemTime.addAndGet(System.nanoTime() - start);
+                                    }
+                                },
+                                executorService));
+            }
+            List<O> ret = new ArrayList<>(batchSize);
+            for (CompletableFuture<O> future : futures) {
+                ret.add(join(future));
+            }
+            parallelEnd(null, "Postprocess", itemTime.get(), batchSize);
+            if (metrics != null) {
+                long prediction = (timestamp - begin) / 1000;
+                metrics.addMetric("Prediction", prediction, Unit.MICROSECONDS, dimension);
+            }
+            return ret;
+        } finally {
+            for (ItemContext itemCtx : contexts) {
+                itemCtx.close();
+            }
+        }
+    }
+
+    @SuppressWarnings("PMD.SignatureDeclareThrowsException")
+    private static <T> T join(CompletableFuture<T> future) throws Exception {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw e;
+        }
+    }
+
+    private void parallelEnd(NDList list, String metricName, long itemTime, int batchSize) {
+        if (metrics != null) {
+            if (list != null) {
+                waitToRead(list);
+            }
+            long tmp = System.nanoTime();
+            long wall = (tmp - timestamp) / 1000;
+            timestamp = tmp;
+            long duration = itemTime / 1000 / batchSize;
+            metrics.addMetric(metricName, duration, Unit.MICROSECONDS, dimension);
+            metrics.addMetric(metricName + "Wall", wall, Unit.MICROSECONDS, dimension);
+        }
+    }
+
+    void waitToRead(NDList list) {
         for (NDArray array : list) {
             if (array instanceof LazyNDArray) {
                 ((LazyNDArray) array).waitToRead();
@@ -338,6 +558,9 @@ public class Predictor<I, O> implements AutoCloseable {
     /** {@inheritDoc} */
     @Override
     public void close() {
+        if (pipeline != null) {
+            pipeline.close();
+        }
         manager.close();
     }
 
@@ -414,4 +637,65 @@ public class Predictor<I, O> implements AutoCloseable {
             attachments.put(key, value);
         }
     }
+
+    /** A {@link TranslatorContext} for processing a single item of a batch on its own thread. */
+    private final class ItemContext implements TranslatorContext {
+
+        private PredictorContext parent;
+        private NDManager itemManager;
+
+        ItemContext(PredictorContext parent) {
+            this.parent = parent;
+            itemManager = parent.getNDManager().newSubManager();
+            itemManager.setName("predictor item ctx");
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public Model getModel() {
+            return model;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public NDManager getNDManager() {
+            return itemManager;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public NDManager getPredictorManager() {
+            return manager;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public Block getBlock() {
+            return block;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public Metrics getMetrics() {
+            return metrics;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public Object getAttachment(String key) {
+            return parent.getAttachment(key);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void setAttachment(String key, Object value) {
+            parent.setAttachment(key, value);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void close() {
+            itemManager.close();
+        }
+    }
 }
@@ -0,0 +1,289 @@
+/*
+ * Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.inference;
+
+import ai.djl.metric.Metrics;
+import ai.djl.metric.Unit;
+import ai.djl.ndarray.NDList;
+import ai.djl.translate.Batchifier;
+import ai.djl.translate.Translator;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A three stage pipeline that overlaps pre-processing, inference and post-processing of
+ * consecutive batches for {@link Predictor#predictAsync(Object)}.
+ *
+ * <p>Each stage runs on its own thread and the stages are connected by bounded queues, so a slow
+ * stage blocks the stages in front of it instead of buffering unbounded work.
+ *
+ * @param <I> the input type
+ * @param <O> the output type
+ */
+final class PredictorPipeline<I, O> implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(PredictorPipeline.class);
+
+    private Predictor<I, O> predictor;
+    private int maxBatchSize;
+    private BlockingQueue<Job<I, O>> inputQueue;
+    private BlockingQueue<Batch<I, O>> inferenceQueue;
+    private BlockingQueue<Batch<I, O>> postprocessQueue;
+    private Thread[] threads;
+    private volatile boolean closed;
+
+    PredictorPipeline(Predictor<I, O> predictor, int maxBatchSize, int queueSize) {
+        this.predictor = predictor;
+        this.maxBatchSize = maxBatchSize;
+        inputQueue = new ArrayBlockingQueue<>(Math.max(queueSize, maxBatchSize));
+        inferenceQueue = new ArrayBlockingQueue<>(queueSize);
+        postprocessQueue = new ArrayBlockingQueue<>(queueSize);
+        threads =
+                new Thread[] {
+                    new Thread(this::preprocess, "predictor-preprocess"),
+                    new Thread(this::inference, "predictor-inference"),
+                    new Thread(this::postprocess, "predictor-postprocess")
+                };
+        for (Thread thread : threads) {
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    CompletableFuture<O> submit(I input) {
+        Job<I, O> job = new Job<>(input);
+        if (closed) {
+            job.future.completeExceptionally(new IllegalStateException("Predictor is closed"));
+            return job.future;
+        }
+        try {
+            // blocks the caller when the pipeline is saturated
+            inputQueue.put(job);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.future.completeExceptionally(e);
+        }
+        if (closed && !threads[0].isAlive()) {
+            failPending();
+        }
+        return job.future;
+    }
+
+    private void preprocess() {
+        Translator<I, O> translator = predictor.translator;
+        Batchifier batchifier = translator.getBatchifier();
+        int limit = batchifier == null ? 1 : maxBatchSize;
+        while (!closed || !inputQueue.isEmpty()) {
+            Batch<I, O> batch = null;
+            try {
+                Job<I, O> first = inputQueue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                List<Job<I, O>> jobs = new ArrayList<>(limit);
+                jobs.add(first);
+                inputQueue.drainTo(jobs, limit - 1);
+                batch = new Batch<>(jobs, predictor.new PredictorContext());
+
+                long begin = System.nanoTime();
+                Metrics metrics = predictor.metrics;
+                if (metrics != null) {
+                    for (Job<I, O> job : jobs) {
+                        long wait = (begin - job.begin) / 1000;
+                        addMetric("PipelineQueueWait", wait);
+                    }
+                }
+                if (!predictor.prepared) {
+                    translator.prepare(batch.context);
+                    predictor.prepared = true;
+                }
+                if (batchifier == null) {
+                    batch.data = translator.processInput(batch.context, first.input);
+                } else {
+                    batch.data = translator.batchProcessInput(batch.context, batch.getInputs());
+                }
+                stageEnd(batch, "Preprocess", begin);
+                handOff(inferenceQueue, batch, "PreprocessBackpressure");
+            } catch (InterruptedException e) {
+                fail(batch, e);
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                fail(batch, e);
+            }
+        }
+        shutdown(inferenceQueue);
+    }
+
+    private void inference() {
+        while (true) {
+            Batch<I, O> batch = null;
+            try {
+                batch = inferenceQueue.take();
+                if (batch.jobs == null) {
+                    break;
+                }
+                long begin = System.nanoTime();
+                batch.data = predictor.predictInternal(batch.context, batch.data);
+                stageEnd(batch, "Inference", begin);
+                handOff(postprocessQueue, batch, "InferenceBackpressure");
+            } catch (InterruptedException e) {
+                fail(batch, e);
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                fail(batch, e);
+            }
+        }
+        shutdown(postprocessQueue);
+    }
+
+    private void postprocess() {
+        Translator<I, O> translator = predictor.translator;
+        while (true) {
+            Batch<I, O> batch = null;
+            try {
+                batch = postprocessQueue.take();
+                if (batch.jobs == null) {
+                    break;
+                }
+                long begin = System.nanoTime();
+                List<O> outputs;
+                if (translator.getBatchifier() == null) {
+                    O output = translator.processOutput(batch.context, batch.data);
+                    outputs = Collections.singletonList(output);
+                } else {
+                    outputs = translator.batchProcessOutput(batch.context, batch.data);
+                }
+                stageEnd(batch, "Postprocess", begin);
+                for (int i = 0; i < batch.jobs.size(); ++i) {
+                    Job<I, O> job = batch.jobs.get(i);
+                    job.future.complete(outputs.get(i));
+                    if (predictor.metrics != null) {
+                        addMetric("Prediction", (System.nanoTime() - job.begin) / 1000);
+                    }
+                }
+                batch.context.close();
+            } catch (InterruptedException e) {
+                fail(batch, e);
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                fail(batch, e);
+            }
+        }
+    }
+
+    private void handOff(BlockingQueue<Batch<I, O>> queue, Batch<I, O> batch, String metricName)
+            throws InterruptedException {
+        long begin = System.nanoTime();
+        queue.put(batch);
+        if (predictor.metrics != null) {
+            addMetric(metricName, (System.nanoTime() - begin) / 1000);
+        }
+    }
+
+    private void stageEnd(Batch<I, O> batch, String metricName, long begin) {
+        if (predictor.metrics != null) {
+            predictor.waitToRead(batch.data);
+            long duration = (System.nanoTime() - begin) / 1000 / batch.jobs.size();
+            addMetric(metricName, duration);
+        }
+    }
+
+    private void addMetric(String metricName, long value) {
+        predictor.metrics.addMetric(metricName, value, Unit.MICROSECONDS, predictor.dimension);
+    }
+
+    private void fail(Batch<I, O> batch, Throwable t) {
+        if (batch == null || batch.jobs == null) {
+            return;
+        }
+        logger.debug("Pipeline batch failed", t);
+        for (Job<I, O> job : batch.jobs) {
+            job.future.completeExceptionally(t);
+        }
+        batch.context.close();
+    }
+
+    private void shutdown(BlockingQueue<Batch<I, O>> next) {
+        try {
+            next.put(new Batch<>(null, null));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** Finishes the queued requests and stops the stage threads. */
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        failPending();
+    }
+
+    private void failPending() {
+        Job<I, O> job;
+        while ((job = inputQueue.poll()) != null) {
+            job.future.completeExceptionally(new IllegalStateException("Predictor is closed"));
+        }
+    }
+
+    private static final class Job<I, O> {
+
+        I input;
+        long begin;
+        CompletableFuture<O> future;
+
+        Job(I input) {
+            this.input = input;
+            begin = System.nanoTime();
+            future = new CompletableFuture<>();
+        }
+    }
+
+    private static final class Batch<I, O> {
+
+        List<Job<I, O>> jobs;
+        Predictor<I, O>.PredictorContext context;
+        NDList data;
+
+        Batch(List<Job<I, O>> jobs, Predictor<I, O>.PredictorContext context) {
+            this.jobs = jobs;
+            this.context = context;
+        }
+
+        List<I> getInputs() {
+            List<I> inputs = new ArrayList<>(jobs.size());
+            for (Job<I, O> job : jobs) {
+                inputs.add(job.input);
+            }
+            return inputs;
+        }
+    }
+}
@@ -0,0 +1,249 @@
+/*
+ * Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.inference;
+
+import ai.djl.metric.Metric;
+import ai.djl.metric.MetricType;
+import ai.djl.metric.Metrics;
+import ai.djl.metric.Unit;
+import ai.djl.translate.TranslateException;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * A {@code PredictorPool} shares a bounded number of {@link Predictor}s among many threads.
+ *
+ * <p>A {@link Predictor} is not thread-safe, so each request borrows a predictor from the pool for
+ * the duration of the call and returns it afterwards. Predictors are created lazily up to the pool
+ * size and are reused, so {@link ai.djl.translate.Translator#prepare} only runs once per pooled
+ * predictor. Borrowing and returning an idle predictor are lock-free, threads only block when all
+ * predictors are in use.
+ *
+ * <pre>
+ * try (PredictorPool&lt;Image, Classifications&gt; pool = model.newPredictorPool(4)) {
+ *     // can be called from many threads
+ *     Classifications result = pool.predict(image);
+ * }
+ * </pre>
+ *
+ * @param <I> the input type
+ * @param <O> the output type
+ */
+public class PredictorPool<I, O> implements AutoCloseable {
+
+    private Supplier<Predictor<I, O>> factory;
+    private int size;
+    private Queue<Predictor<I, O>> idle;
+    private Semaphore permits;
+    private AtomicInteger created;
+    private AtomicInteger active;
+    private volatile Metrics metrics;
+    private volatile boolean closed;
+
+    /**
+     * Constructs a new {@code PredictorPool} instance.
+     *
+     * @param factory the function to create a new {@link Predictor}
+     * @param size the maximum number of predictors in the pool
+     */
+    public PredictorPool(Supplier<Predictor<I, O>> factory, int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Pool size must be greater than 0");
+        }
+        this.factory = factory;
+        this.size = size;
+        idle = new ConcurrentLinkedQueue<>();
+        permits = new Semaphore(size);
+        created = new AtomicInteger();
+        active = new AtomicInteger();
+    }
+
+    /**
+     * Predicts an item for inference with a pooled {@link Predictor}.
+     *
+     * @param input the input
+     * @return the output object defined by the user
+     * @throws TranslateException if an error occurs during prediction
+     */
+    public O predict(I input) throws TranslateException {
+        return batchPredict(Collections.singletonList(input)).get(0);
+    }
+
+    /**
+     * Predicts a batch for inference with a pooled {@link Predictor}.
+     *
+     * @param inputs a list of inputs
+     * @return a list of output objects defined by the user
+     * @throws TranslateException if an error occurs during prediction
+     */
+    public List<O> batchPredict(List<I> inputs) throws TranslateException {
+        Predictor<I, O> predictor;
+        try {
+            predictor = borrow();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TranslateException("Interrupted while waiting for predictor", e);
+        }
+        try {
+            return predictor.batchPredict(inputs);
+        } finally {
+            release(predictor);
+        }
+    }
+
+    /**
+     * Borrows a {@link Predictor} from the pool, waiting if all predictors are in use.
+     *
+     * <p>The predictor must be returned with {@link #release(Predictor)} and must not be closed by
+     * the caller.
+     *
+     * @return a {@link Predictor}
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public Predictor<I, O> borrow() throws InterruptedException {
+        if (closed) {
+            throw new IllegalStateException("PredictorPool is closed");
+        }
+        permits.acquire();
+        Predictor<I, O> predictor = idle.poll();
+        if (predictor == null) {
+            try {
+                predictor = factory.get();
+            } catch (RuntimeException e) {
+                permits.release();
+                throw e;
+            }
+            created.incrementAndGet();
+        }
+        // the metrics may have been changed while the predictor was borrowed by another thread
+        predictor.setMetrics(metrics);
+        active.incrementAndGet();
+        recordGauges(predictor);
+        return predictor;
+    }
+
+    /**
+     * Returns a borrowed {@link Predictor} to the pool.
+     *
+     * @param predictor the predictor obtained from {@link #borrow()}
+     */
+    public void release(Predictor<I, O> predictor) {
+        active.decrementAndGet();
+        if (closed) {
+            predictor.close();
+        } else {
+            idle.offer(predictor);
+            if (closed) {
+                closeIdle();
+            }
+        }
+        permits.release();
+    }
+
+    /**
+     * Attaches a Metrics param to the pooled predictors and records the pool gauges.
+     *
+     * <p>The metrics are applied to each predictor when it is borrowed, predictors that are in use
+     * keep the previous metrics until the current call completes. The "PoolActive" and
+     * "PoolWaiting" gauges are recorded each time a predictor is borrowed.
+     *
+     * @param metrics the Metrics class
+     */
+    public void setMetrics(Metrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Returns the maximum number of predictors in the pool.
+     *
+     * @return the maximum number of predictors in the pool
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Returns the number of predictors created so far.
+     *
+     * @return the number of predictors created so far
+     */
+    public int getCreatedCount() {
+        return created.get();
+    }
+
+    /**
+     * Returns the number of predictors currently in use.
+     *
+     * @return the number of predictors currently in use
+     */
+    public int getActiveCount() {
+        return active.get();
+    }
+
+    /**
+     * Returns the approximate number of threads waiting for a predictor.
+     *
+     * @return the approximate number of threads waiting for a predictor
+     */
+    public int getWaitingCount() {
+        return permits.getQueueLength();
+    }
+
+    /**
+     * Returns the fraction of the pool currently in use, between 0 and 1.
+     *
+     * @return the fraction of the pool currently in use
+     */
+    public double getUtilization() {
+        return (double) active.get() / size;
+    }
+
+    private void recordGauges(Predictor<I, O> predictor) {
+        if (metrics != null) {
+            metrics.addMetric(
+                    new Metric(
+                            "PoolActive",
+                            MetricType.GAUGE,
+                            active.get(),
+                            Unit.COUNT,
+                            predictor.dimension));
+            metrics.addMetric(
+                    new Metric(
+                            "PoolWaiting",
+                            MetricType.GAUGE,
+                            permits.getQueueLength(),
+                            Unit.COUNT,
+                            predictor.dimension));
+        }
+    }
+
+    /** Closes the idle predictors, borrowed predictors are closed when they are returned. */
+    @Override
+    public void close() {
+        closed = true;
+        closeIdle();
+    }
+
+    private void closeIdle() {
+        Predictor<I, O> predictor;
+        while ((predictor = idle.poll()) != null) {
+            predictor.close();
+        }
+    }
+}
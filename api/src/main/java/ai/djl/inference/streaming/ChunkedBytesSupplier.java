@@ -29,7 +29,20 @@ public class ChunkedBytesSupplier implements BytesSupplier {
 
     /** Constructs a new {code ChunkedBytesSupplier} instance. */
     public ChunkedBytesSupplier() {
-        queue = new LinkedBlockingQueue<>();
+        this(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Constructs a new {code ChunkedBytesSupplier} instance with a limited number of pending
+     * chunks.
+     *
+     * <p>{@link #appendContent(BytesSupplier, boolean)} blocks when {@code capacity} chunks are
+     * not consumed yet, this applies backpressure to the producer.
+     *
+     * @param capacity the maximum number of pending chunks
+     */
+    public ChunkedBytesSupplier(int capacity) {
+        queue = new LinkedBlockingQueue<>(capacity);
         completed = new AtomicBoolean();
     }
 
@@ -50,10 +63,16 @@ public class ChunkedBytesSupplier implements BytesSupplier {
      * @param lastChunk true if this is the last chunk
      */
     public void appendContent(BytesSupplier bytesSupplier, boolean lastChunk) {
+        try {
+            queue.put(bytesSupplier);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Append content interrupted.", e);
+        }
+        // only completed once the last chunk is in the queue, put() may block on a full queue
         if (lastChunk) {
             completed.set(true);
         }
-        queue.offer(bytesSupplier);
     }
 
     /**
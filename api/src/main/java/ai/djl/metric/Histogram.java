@@ -0,0 +1,209 @@
+/*
+ * Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.metric;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.DoubleAccumulator;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free, fixed precision histogram of {@code double} values.
+ *
+ * <p>Values are counted in log-linear buckets: each power of two is split into 128 linear
+ * sub-buckets, so a percentile is accurate to within 1% of the recorded value. Magnitudes from
+ * 2<sup>-32</sup> to 2<sup>64</sup> are tracked; smaller magnitudes are counted as zero and larger
+ * ones are counted in the top bucket. The buckets of a power of two are only allocated when a value
+ * in that range is recorded, so the memory usage is bounded and independent of the number of
+ * samples. Count, sum, min and max are tracked exactly with striped adders.
+ */
+public final class Histogram {
+
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MIN_EXPONENT = -32;
+    private static final int MAX_EXPONENT = 63;
+    private static final int EXPONENTS = MAX_EXPONENT - MIN_EXPONENT + 1;
+
+    private AtomicReferenceArray<AtomicLongArray> positive;
+    private AtomicReferenceArray<AtomicLongArray> negative;
+    private LongAdder zeros;
+    private LongAdder count;
+    private DoubleAdder sum;
+    private DoubleAccumulator min;
+    private DoubleAccumulator max;
+
+    /** Constructs an empty {@code Histogram}. */
+    public Histogram() {
+        positive = new AtomicReferenceArray<>(EXPONENTS);
+        negative = new AtomicReferenceArray<>(EXPONENTS);
+        zeros = new LongAdder();
+        count = new LongAdder();
+        sum = new DoubleAdder();
+        min = new DoubleAccumulator(Math::min, Double.POSITIVE_INFINITY);
+        max = new DoubleAccumulator(Math::max, Double.NEGATIVE_INFINITY);
+    }
+
+    /**
+     * Records a value, {@code NaN} is ignored.
+     *
+     * @param value the value to record
+     */
+    public void record(double value) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        count.increment();
+        sum.add(value);
+        min.accumulate(value);
+        max.accumulate(value);
+
+        double abs = Math.abs(value);
+        int exponent = Math.getExponent(abs);
+        if (exponent < MIN_EXPONENT) {
+            zeros.increment();
+            return;
+        }
+        int subBucket;
+        if (exponent > MAX_EXPONENT) {
+            exponent = MAX_EXPONENT;
+            subBucket = SUB_BUCKETS - 1;
+        } else {
+            long bits = Double.doubleToRawLongBits(abs);
+            subBucket = (int) (bits >>> (52 - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        }
+        AtomicReferenceArray<AtomicLongArray> buckets = value < 0 ? negative : positive;
+        getBuckets(buckets, exponent - MIN_EXPONENT).incrementAndGet(subBucket);
+    }
+
+    /**
+     * Returns the number of recorded values.
+     *
+     * @return the number of recorded values
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Returns the sum of the recorded values.
+     *
+     * @return the sum of the recorded values
+     */
+    public double getSum() {
+        return sum.sum();
+    }
+
+    /**
+     * Returns the smallest recorded value, or {@code NaN} if empty.
+     *
+     * @return the smallest recorded value
+     */
+    public double getMin() {
+        return getCount() == 0 ? Double.NaN : min.get();
+    }
+
+    /**
+     * Returns the largest recorded value, or {@code NaN} if empty.
+     *
+     * @return the largest recorded value
+     */
+    public double getMax() {
+        return getCount() == 0 ? Double.NaN : max.get();
+    }
+
+    /**
+     * Returns the average of the recorded values, or {@code NaN} if empty.
+     *
+     * @return the average of the recorded values
+     */
+    public double getMean() {
+        long n = getCount();
+        return n == 0 ? Double.NaN : getSum() / n;
+    }
+
+    /**
+     * Returns the approximate value at the given percentile, or {@code NaN} if empty.
+     *
+     * <p>The cost is proportional to the number of allocated buckets, not the number of samples.
+     * The buckets are read in place without a snapshot, so a value recorded concurrently may or
+     * may not be counted.
+     *
+     * @param percentile the percentile between 0 and 100
+     * @return the approximate value at the given percentile
+     */
+    public double percentile(double percentile) {
+        long total = getCount();
+        if (total == 0) {
+            return Double.NaN;
+        }
+        long rank = (long) (total * percentile / 100);
+        if (rank >= total - 1) {
+            return getMax();
+        }
+
+        long seen = 0;
+        for (int i = EXPONENTS - 1; i >= 0; --i) {
+            AtomicLongArray buckets = negative.get(i);
+            if (buckets == null) {
+                continue;
+            }
+            for (int j = SUB_BUCKETS - 1; j >= 0; --j) {
+                seen += buckets.get(j);
+                if (seen > rank) {
+                    return clamp(-bucketValue(i, j));
+                }
+            }
+        }
+        seen += zeros.sum();
+        if (seen > rank) {
+            return clamp(0);
+        }
+        for (int i = 0; i < EXPONENTS; ++i) {
+            AtomicLongArray buckets = positive.get(i);
+            if (buckets == null) {
+                continue;
+            }
+            for (int j = 0; j < SUB_BUCKETS; ++j) {
+                seen += buckets.get(j);
+                if (seen > rank) {
+                    return clamp(bucketValue(i, j));
+                }
+            }
+        }
+        // the count is incremented before the bucket of a concurrent record
+        return getMax();
+    }
+
+    private double clamp(double value) {
+        return Math.max(getMin(), Math.min(getMax(), value));
+    }
+
+    private static double bucketValue(int exponentIndex, int subBucket) {
+        double mantissa = 1.0 + (double) subBucket / SUB_BUCKETS;
+        return Math.scalb(mantissa, exponentIndex + MIN_EXPONENT);
+    }
+
+    private static AtomicLongArray getBuckets(
+            AtomicReferenceArray<AtomicLongArray> buckets, int index) {
+        AtomicLongArray array = buckets.get(index);
+        if (array == null) {
+            array = new AtomicLongArray(SUB_BUCKETS);
+            if (!buckets.compareAndSet(index, null, array)) {
+                array = buckets.get(index);
+            }
+        }
+        return array;
+    }
+}
@@ -0,0 +1,33 @@
+/*
+ * Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.metric;
+
+import java.io.IOException;
+
+/**
+ * An interface to publish a snapshot of {@link Metrics} to an external monitoring system.
+ *
+ * <p>A {@code MetricsExporter} is usually called periodically by a {@link MetricsReporter}.
+ *
+ * @see PrometheusExporter
+ */
+public interface MetricsExporter {
+
+    /**
+     * Publishes the current values of the {@link Metrics}.
+     *
+     * @param metrics the {@link Metrics} to export
+     * @throws IOException if failed to publish the metrics
+     */
+    void export(Metrics metrics) throws IOException;
+}
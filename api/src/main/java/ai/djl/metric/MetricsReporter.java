@@ -0,0 +1,88 @@
+/*
+ * Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.metric;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@code MetricsReporter} periodically passes a {@link Metrics} to one or more {@link
+ * MetricsExporter}s.
+ *
+ * <pre>
+ * StreamingMetrics metrics = new StreamingMetrics();
+ * predictor.setMetrics(metrics);
+ * PrometheusExporter exporter = new PrometheusExporter(new PrometheusFormat(false));
+ * try (MetricsReporter reporter = new MetricsReporter(metrics, 10, TimeUnit.SECONDS, exporter)) {
+ *     // serve exporter.getText() on the /metrics endpoint
+ * }
+ * </pre>
+ */
+public class MetricsReporter implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(MetricsReporter.class);
+
+    private Metrics metrics;
+    private MetricsExporter[] exporters;
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * Constructs a new {@code MetricsReporter} and starts reporting.
+     *
+     * @param metrics the {@link Metrics} to report
+     * @param period the period between two reports
+     * @param unit the time unit of the period
+     * @param exporters the {@link MetricsExporter}s to report to
+     */
+    public MetricsReporter(
+            Metrics metrics, long period, TimeUnit unit, MetricsExporter... exporters) {
+        this.metrics = metrics;
+        this.exporters = exporters;
+        scheduler =
+                Executors.newSingleThreadScheduledExecutor(
+                        r -> {
+                            Thread thread = new Thread(r, "metrics-reporter");
+                            thread.setDaemon(true);
+                            return thread;
+                        });
+        scheduler.scheduleAtFixedRate(this::report, period, period, unit);
+    }
+
+    /** Exports the current metrics to all exporters immediately. */
+    public void report() {
+        for (MetricsExporter exporter : exporters) {
+            try {
+                exporter.export(metrics);
+            } catch (IOException | RuntimeException e) {
+                logger.warn("Failed to export metrics with {}", exporter.getClass().getName(), e);
+            }
+        }
+    }
+
+    /** Stops reporting after a final report. */
+    @Override
+    public void close() {
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        report();
+    }
+}
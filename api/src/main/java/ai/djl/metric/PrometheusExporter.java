@@ -0,0 +1,87 @@
+/*
+ * Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.metric;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * A {@link MetricsExporter} that renders the {@link Metrics} with a {@link PrometheusFormat}.
+ *
+ * <p>The latest rendered text can be served by an HTTP endpoint with {@link #getText()}, or written
+ * to a file for the node exporter textfile collector.
+ */
+public class PrometheusExporter implements MetricsExporter {
+
+    private PrometheusFormat format;
+    private Path file;
+    private volatile String text;
+
+    /**
+     * Constructs a new {@code PrometheusExporter} instance.
+     *
+     * @param format the {@link PrometheusFormat} to render with
+     */
+    public PrometheusExporter(PrometheusFormat format) {
+        this(format, null);
+    }
+
+    /**
+     * Constructs a new {@code PrometheusExporter} instance that also writes to a file.
+     *
+     * @param format the {@link PrometheusFormat} to render with
+     * @param file the file to write the rendered text to, can be null
+     */
+    public PrometheusExporter(PrometheusFormat format, Path file) {
+        this.format = format;
+        this.file = file;
+        text = "";
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void export(Metrics metrics) throws IOException {
+        String content = format.format(metrics);
+        text = content;
+        if (file != null) {
+            Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            Files.write(tmp, content.getBytes(StandardCharsets.UTF_8));
+            Files.move(
+                    tmp,
+                    file,
+                    StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+
+    /**
+     * Returns the text rendered by the last {@link #export(Metrics)}.
+     *
+     * @return the text rendered by the last {@link #export(Metrics)}
+     */
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * Returns the HTTP content type of the rendered text.
+     *
+     * @return the HTTP content type of the rendered text
+     */
+    public String getContentType() {
+        return format.getContentType();
+    }
+}
@@ -0,0 +1,273 @@
+/*
+ * Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.metric;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Renders {@link Metrics} in the Prometheus text exposition format or the OpenMetrics format.
+ *
+ * <p>Metric names are converted to snake case with a {@code djl_} prefix, time units are converted
+ * to seconds, and metric {@link Dimension}s (for example the model name recorded by the {@link
+ * ai.djl.inference.Predictor}) become labels, next to the constant labels of the format such as
+ * the device. Gauges are rendered with their latest value, other metrics are rendered as summaries
+ * with quantiles, sum and count. With {@link StreamingMetrics} rendering does not depend on the
+ * number of samples.
+ */
+public class PrometheusFormat {
+
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99};
+
+    private boolean openMetrics;
+    private Map<String, String> labels;
+
+    /**
+     * Constructs a new {@code PrometheusFormat} instance.
+     *
+     * @param openMetrics true to render the OpenMetrics format, false for the Prometheus text
+     *     format
+     */
+    public PrometheusFormat(boolean openMetrics) {
+        this(openMetrics, Collections.emptyMap());
+    }
+
+    /**
+     * Constructs a new {@code PrometheusFormat} instance.
+     *
+     * @param openMetrics true to render the OpenMetrics format, false for the Prometheus text
+     *     format
+     * @param labels the labels added to every metric, for example the device of a {@link
+     *     ai.djl.inference.Predictor}, or the model name and device of a {@link
+     *     ai.djl.training.Trainer}
+     */
+    public PrometheusFormat(boolean openMetrics, Map<String, String> labels) {
+        this.openMetrics = openMetrics;
+        this.labels = labels;
+    }
+
+    /**
+     * Returns the HTTP content type of the rendered text.
+     *
+     * @return the HTTP content type of the rendered text
+     */
+    public String getContentType() {
+        if (openMetrics) {
+            return "application/openmetrics-text; version=1.0.0; charset=utf-8";
+        }
+        return "text/plain; version=0.0.4; charset=utf-8";
+    }
+
+    /**
+     * Renders the {@link Metrics}.
+     *
+     * @param metrics the {@link Metrics} to render
+     * @return the rendered text
+     */
+    public String format(Metrics metrics) {
+        StringBuilder sb = new StringBuilder(4096);
+        for (String name : new TreeSet<>(metrics.getMetricNames())) {
+            if (metrics instanceof StreamingMetrics) {
+                formatStreaming((StreamingMetrics) metrics, name, sb);
+            } else {
+                formatMetrics(metrics, name, sb);
+            }
+        }
+        if (openMetrics) {
+            sb.append("# EOF\n");
+        }
+        return sb.toString();
+    }
+
+    private void formatStreaming(StreamingMetrics metrics, String name, StringBuilder sb) {
+        Metric latest = metrics.latestMetric(name);
+        Unit unit = metrics.getUnit(name);
+        if (latest.getMetricType() == MetricType.GAUGE) {
+            formatGauge(latest, sb);
+            return;
+        }
+        Map<List<Dimension>, Histogram> histograms = metrics.getHistograms(name);
+        if (histograms.isEmpty()) {
+            Histogram histogram = metrics.getHistogram(name);
+            histograms = Collections.singletonMap(Collections.emptyList(), histogram);
+        }
+        formatSummary(name, unit, histograms, sb);
+    }
+
+    private void formatMetrics(Metrics metrics, String name, StringBuilder sb) {
+        List<Metric> list = new ArrayList<>(metrics.getMetric(name));
+        if (list.isEmpty()) {
+            return;
+        }
+        Metric latest = list.get(list.size() - 1);
+        if (latest.getMetricType() == MetricType.GAUGE) {
+            formatGauge(latest, sb);
+            return;
+        }
+        Map<List<Dimension>, Histogram> histograms = new LinkedHashMap<>(); // NOPMD
+        Map<String, List<Dimension>> keys = new LinkedHashMap<>(); // NOPMD
+        for (Metric metric : list) {
+            String key = labelKey(metric.getDimensions());
+            List<Dimension> dims =
+                    keys.computeIfAbsent(key, k -> Arrays.asList(metric.getDimensions()));
+            histograms.computeIfAbsent(dims, k -> new Histogram()).record(metric.getValue());
+        }
+        formatSummary(name, latest.getUnit(), histograms, sb);
+    }
+
+    private void formatGauge(Metric metric, StringBuilder sb) {
+        Unit unit = metric.getUnit();
+        String name = metricName(metric.getMetricName(), unit);
+        sb.append("# TYPE ").append(name).append(" gauge\n");
+        sb.append(name);
+        appendLabels(Arrays.asList(metric.getDimensions()), null, sb);
+        sb.append(' ').append(scale(metric.getValue(), unit)).append('\n');
+    }
+
+    private void formatSummary(
+            String metricName,
+            Unit unit,
+            Map<List<Dimension>, Histogram> histograms,
+            StringBuilder sb) {
+        String name = metricName(metricName, unit);
+        sb.append("# TYPE ").append(name).append(" summary\n");
+        for (Map.Entry<List<Dimension>, Histogram> entry : histograms.entrySet()) {
+            List<Dimension> dims = entry.getKey();
+            Histogram histogram = entry.getValue();
+            if (histogram == null || histogram.getCount() == 0) {
+                continue;
+            }
+            for (double quantile : QUANTILES) {
+                sb.append(name);
+                appendLabels(dims, String.valueOf(quantile), sb);
+                double value = histogram.percentile(quantile * 100);
+                sb.append(' ').append(scale(value, unit)).append('\n');
+            }
+            sb.append(name).append("_sum");
+            appendLabels(dims, null, sb);
+            sb.append(' ').append(scale(histogram.getSum(), unit)).append('\n');
+            sb.append(name).append("_count");
+            appendLabels(dims, null, sb);
+            sb.append(' ').append(histogram.getCount()).append('\n');
+        }
+    }
+
+    private void appendLabels(List<Dimension> dims, String quantile, StringBuilder sb) {
+        boolean first = true;
+        for (Map.Entry<String, String> label : labels.entrySet()) {
+            first = appendLabel(label.getKey(), label.getValue(), first, sb);
+        }
+        if (dims != null) {
+            for (Dimension dim : dims) {
+                if (dim != null && !labels.containsKey(sanitize(dim.getName()))) {
+                    first = appendLabel(dim.getName(), dim.getValue(), first, sb);
+                }
+            }
+        }
+        if (quantile != null) {
+            first = appendLabel("quantile", quantile, first, sb);
+        }
+        if (!first) {
+            sb.append('}');
+        }
+    }
+
+    private static boolean appendLabel(String key, String value, boolean first, StringBuilder sb) {
+        sb.append(first ? '{' : ',').append(sanitize(key)).append("=\"");
+        for (int i = 0; i < value.length(); ++i) {
+            char c = value.charAt(i);
+            if (c == '\\' || c == '"') {
+                sb.append('\\').append(c);
+            } else if (c == '\n') {
+                sb.append("\\n");
+            } else {
+                sb.append(c);
+            }
+        }
+        sb.append('"');
+        return false;
+    }
+
+    private static String labelKey(Dimension[] dims) {
+        StringBuilder sb = new StringBuilder();
+        for (Dimension dim : dims) {
+            if (dim != null) {
+                sb.append(dim.getName()).append('\u0000').append(dim.getValue()).append('\u0000');
+            }
+        }
+        return sb.toString();
+    }
+
+    static String metricName(String name, Unit unit) {
+        StringBuilder sb = new StringBuilder("djl_");
+        sb.append(sanitize(name));
+        String suffix = unitSuffix(unit);
+        if (!suffix.isEmpty() && !sb.toString().endsWith(suffix)) {
+            sb.append('_').append(suffix);
+        }
+        return sb.toString();
+    }
+
+    static String sanitize(String name) {
+        StringBuilder sb = new StringBuilder(name.length() + 8);
+        char prev = 0;
+        for (int i = 0; i < name.length(); ++i) {
+            char c = name.charAt(i);
+            if (Character.isUpperCase(c)
+                    && (Character.isLowerCase(prev) || Character.isDigit(prev))) {
+                sb.append('_');
+            }
+            if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')) {
+                sb.append(Character.toLowerCase(c));
+            } else {
+                sb.append('_');
+            }
+            prev = c;
+        }
+        if (sb.length() == 0 || Character.isDigit(sb.charAt(0))) {
+            sb.insert(0, '_');
+        }
+        return sb.toString();
+    }
+
+    private static String unitSuffix(Unit unit) {
+        if (unit == null) {
+            return "";
+        }
+        switch (unit) {
+            case MICROSECONDS:
+            case MILLISECONDS:
+                return "seconds";
+            case COUNT:
+            case NONE:
+                return "";
+            default:
+                return unit.getValue().toLowerCase(Locale.ROOT).replace("/", "_per_");
+        }
+    }
+
+    private static double scale(double value, Unit unit) {
+        if (unit == Unit.MICROSECONDS) {
+            return value / 1_000_000;
+        } else if (unit == Unit.MILLISECONDS) {
+            return value / 1_000;
+        }
+        return value;
+    }
+}
@@ -0,0 +1,282 @@
+/*
+ * Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.metric;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+
+/**
+ * A {@link Metrics} that aggregates the values into a {@link Histogram} instead of storing every
+ * {@link Metric}.
+ *
+ * <p>{@code StreamingMetrics} is a drop-in replacement for {@link Metrics} in long-running
+ * services: recording is lock-free and does not allocate a {@link Metric} object, the memory usage
+ * does not grow with the number of samples, and {@link #percentile(String, int)} and {@link
+ * #mean(String)} do not sort the recorded values. Values are kept per metric name, and per metric
+ * name and dimensions. Percentiles are approximate, see {@link Histogram} for the precision.
+ *
+ * <p>Since individual samples are not retained, the list of samples returned by {@link
+ * #getMetric(String)} and the sample limit of {@link #setLimit(int)} are not supported, use {@link
+ * #latestMetric(String)}, {@link #getHistogram(String)} and {@link #getHistograms(String)} instead.
+ */
+public class StreamingMetrics extends Metrics {
+
+    private static final int MAX_DIMENSIONS = 64;
+    private static final Dimension[] EMPTY = {};
+
+    private Map<String, Series> series;
+
+    /** Constructs an empty {@code StreamingMetrics} instance. */
+    public StreamingMetrics() {
+        series = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Not supported, the memory usage of {@code StreamingMetrics} does not grow with the number of
+     * samples.
+     *
+     * @param limit the number of {@link Metric} objects to keep
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void setLimit(int limit) {
+        throw new UnsupportedOperationException("StreamingMetrics does not retain samples");
+    }
+
+    /**
+     * Not supported, the memory usage of {@code StreamingMetrics} does not grow with the number of
+     * samples.
+     *
+     * @param onLimit the callback function
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void setOnLimit(BiConsumer<Metrics, String> onLimit) {
+        throw new UnsupportedOperationException("StreamingMetrics does not retain samples");
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void addMetric(Metric metric) {
+        record(
+                metric.getMetricName(),
+                metric.getMetricType(),
+                metric.getValue(),
+                metric.getUnit(),
+                metric.getDimensions());
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void addMetric(String name, Number value) {
+        record(name, null, value.doubleValue(), Unit.COUNT, EMPTY);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void addMetric(String name, Number value, Unit unit, Dimension... dimensions) {
+        record(name, null, value.doubleValue(), unit, dimensions);
+    }
+
+    /**
+     * Records a value without creating a {@link Metric}.
+     *
+     * @param name the metric name
+     * @param type the metric type, can be null
+     * @param value the metric value
+     * @param unit the metric unit
+     * @param dimensions the metric dimensions
+     */
+    public void record(
+            String name, MetricType type, double value, Unit unit, Dimension... dimensions) {
+        Series s = series.computeIfAbsent(name, k -> new Series());
+        s.type = type;
+        s.unit = unit;
+        s.dimensions = dimensions;
+        s.latest = value;
+        s.all.record(value);
+        Histogram histogram = s.getHistogram(dimensions);
+        if (histogram != null) {
+            histogram.record(value);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean hasMetric(String name) {
+        return series.containsKey(name);
+    }
+
+    /**
+     * Not supported, the individual samples are not retained.
+     *
+     * <p>Use {@link #latestMetric(String)} for the latest value and {@link #getHistogram(String)}
+     * for the distribution of the values.
+     *
+     * @param name the name of the metric
+     * @return nothing, the method always throws
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public List<Metric> getMetric(String name) {
+        throw new UnsupportedOperationException(
+                "StreamingMetrics does not retain samples, use latestMetric() or getHistogram()");
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Set<String> getMetricNames() {
+        return series.keySet();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Metric latestMetric(String name) {
+        Series s = series.get(name);
+        if (s == null) {
+            throw new IllegalArgumentException("Could not find metric: " + name);
+        }
+        return s.toMetric(name, s.latest);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Metric percentile(String metricName, int percentile) {
+        Series s = getSeries(metricName);
+        return s.toMetric(metricName + "_p" + percentile, s.all.percentile(percentile));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double mean(String metricName) {
+        return getSeries(metricName).all.getMean();
+    }
+
+    /**
+     * Returns the {@link Histogram} of all values of the specified metric.
+     *
+     * @param metricName the name of the metric
+     * @return the {@link Histogram} of the specified metric
+     * @throws IllegalArgumentException if the given name is not found
+     */
+    public Histogram getHistogram(String metricName) {
+        return getSeries(metricName).all;
+    }
+
+    /**
+     * Returns the {@link Histogram}s of the specified metric keyed by dimensions.
+     *
+     * @param metricName the name of the metric
+     * @return the {@link Histogram}s of the specified metric keyed by dimensions
+     * @throws IllegalArgumentException if the given name is not found
+     */
+    public Map<List<Dimension>, Histogram> getHistograms(String metricName) {
+        Map<List<Dimension>, Histogram> map = new LinkedHashMap<>(); // NOPMD
+        for (Entry entry : getSeries(metricName).entries.get()) {
+            map.put(Arrays.asList(entry.dimensions), entry.histogram);
+        }
+        return map;
+    }
+
+    /**
+     * Returns the {@link Unit} of the specified metric.
+     *
+     * @param metricName the name of the metric
+     * @return the {@link Unit} of the specified metric
+     * @throws IllegalArgumentException if the given name is not found
+     */
+    public Unit getUnit(String metricName) {
+        return getSeries(metricName).unit;
+    }
+
+    private Series getSeries(String metricName) {
+        Series s = series.get(metricName);
+        if (s == null) {
+            throw new IllegalArgumentException("Metric name not found: " + metricName);
+        }
+        return s;
+    }
+
+    private static boolean matches(Dimension[] a, Dimension[] b) {
+        if (a == b) {
+            return true;
+        }
+        if (a.length != b.length) {
+            return false;
+        }
+        for (int i = 0; i < a.length; ++i) {
+            Dimension x = a[i];
+            Dimension y = b[i];
+            if (x != y
+                    && (x == null
+                            || y == null
+                            || !Objects.equals(x.getName(), y.getName())
+                            || !Objects.equals(x.getValue(), y.getValue()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static final class Series {
+
+        Histogram all = new Histogram();
+        AtomicReference<Entry[]> entries = new AtomicReference<>(new Entry[0]);
+        volatile double latest;
+        volatile MetricType type;
+        volatile Unit unit;
+        volatile Dimension[] dimensions;
+
+        Histogram getHistogram(Dimension[] dims) {
+            while (true) {
+                Entry[] current = entries.get();
+                for (Entry entry : current) {
+                    if (matches(entry.dimensions, dims)) {
+                        return entry.histogram;
+                    }
+                }
+                if (current.length >= MAX_DIMENSIONS) {
+                    return null;
+                }
+                Entry[] updated = Arrays.copyOf(current, current.length + 1);
+                updated[current.length] = new Entry(dims.clone());
+                if (entries.compareAndSet(current, updated)) {
+                    return updated[current.length].histogram;
+                }
+            }
+        }
+
+        Metric toMetric(String name, double value) {
+            Unit u = unit == null ? Unit.COUNT : unit;
+            return new Metric(name, type, value, u, dimensions);
+        }
+    }
+
+    private static final class Entry {
+
+        Dimension[] dimensions;
+        Histogram histogram;
+
+        Entry(Dimension[] dimensions) {
+            this.dimensions = dimensions;
+            histogram = new Histogram();
+        }
+    }
+}
@@ -32,11 +32,18 @@ import java.awt.FontMetrics;
 import java.awt.Graphics2D;
 import java.awt.RenderingHints;
 import java.awt.image.BufferedImage;
+import java.awt.image.ComponentSampleModel;
+import java.awt.image.DataBuffer;
 import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.awt.image.SampleModel;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
 import java.nio.file.Path;
 import java.util.List;
 import java.util.Map;
@@ -239,45 +246,194 @@ public class BufferedImageFactory extends ImageFactory {
         public NDArray toNDArray(NDManager manager, Flag flag) {
             int width = image.getWidth();
             int height = image.getHeight();
-            int channel;
-            if (flag == Flag.GRAYSCALE) {
-                channel = 1;
-            } else {
-                channel = 3;
+            int channel = flag == Flag.GRAYSCALE ? 1 : 3;
+
+            // the pixels are written straight into the buffer of the NDArray
+            ByteBuffer bb = manager.allocateDirect(width * height * channel);
+            readPixels(channel, (pixel, c, value) -> bb.put(pixel * channel + c, (byte) value));
+            return manager.create(bb, new Shape(height, width, channel), DataType.UINT8);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public NDArray toTensor(NDManager manager, Flag flag, float[] mean, float[] std) {
+            if (!NDImageUtils.isTensorCHW(manager)) {
+                return Image.super.toTensor(manager, flag, mean, std);
+            }
+            int width = image.getWidth();
+            int height = image.getHeight();
+            int channel = flag == Flag.GRAYSCALE ? 1 : 3;
+            int area = width * height;
+
+            // ToTensor and Normalize fused into a lookup table per channel
+            float[][] lut = new float[channel][256];
+            for (int c = 0; c < channel; ++c) {
+                for (int i = 0; i < 256; ++i) {
+                    float value = i / 255f;
+                    if (mean != null && std != null) {
+                        value = (value - mean[c]) / std[c];
+                    }
+                    lut[c][i] = value;
+                }
+            }
+
+            // the pixels are converted while they are written to the buffer in CHW layout
+            ByteBuffer bb = manager.allocateDirect(area * channel * 4);
+            FloatBuffer fb = bb.asFloatBuffer();
+            readPixels(channel, (pixel, c, value) -> fb.put(c * area + pixel, lut[c][value]));
+            return manager.create(bb, new Shape(channel, height, width), DataType.FLOAT32);
+        }
+
+        /**
+         * Reads the pixels row by row, RGB order for 3 channels.
+         *
+         * <p>Common image types are read directly from the raster, other types are converted with
+         * {@link BufferedImage#getRGB(int, int, int, int, int[], int, int)}.
+         */
+        private void readPixels(int channel, PixelWriter out) {
+            int width = image.getWidth();
+            int height = image.getHeight();
+
+            WritableRaster raster = image.getRaster();
+            SampleModel sm = raster.getSampleModel();
+            DataBuffer db = raster.getDataBuffer();
+            // a sub image shares the data of its parent
+            int x0 = -raster.getSampleModelTranslateX();
+            int y0 = -raster.getSampleModelTranslateY();
+            switch (image.getType()) {
+                case BufferedImage.TYPE_BYTE_GRAY:
+                case BufferedImage.TYPE_3BYTE_BGR:
+                case BufferedImage.TYPE_4BYTE_ABGR:
+                    if (sm instanceof ComponentSampleModel && db instanceof DataBufferByte) {
+                        ComponentSampleModel csm = (ComponentSampleModel) sm;
+                        byte[] data = ((DataBufferByte) db).getData();
+                        int[] bands = csm.getBandOffsets();
+                        int pixelStride = csm.getPixelStride();
+                        int scanline = csm.getScanlineStride();
+                        int base = db.getOffset() + y0 * scanline + x0 * pixelStride;
+                        if (bands.length == 1) {
+                            readGray(data, base, scanline, pixelStride, bands[0], channel, out);
+                        } else {
+                            readBytes(data, base, scanline, pixelStride, bands, channel, out);
+                        }
+                        return;
+                    }
+                    break;
+                case BufferedImage.TYPE_INT_RGB:
+                case BufferedImage.TYPE_INT_ARGB:
+                case BufferedImage.TYPE_INT_BGR:
+                    if (sm instanceof SinglePixelPackedSampleModel && db instanceof DataBufferInt) {
+                        SinglePixelPackedSampleModel spp = (SinglePixelPackedSampleModel) sm;
+                        int[] data = ((DataBufferInt) db).getData();
+                        int scanline = spp.getScanlineStride();
+                        int base = db.getOffset() + y0 * scanline + x0;
+                        readInts(data, base, scanline, spp.getBitOffsets(), channel, out);
+                        return;
+                    }
+                    break;
+                default:
+                    break;
             }
 
-            ByteBuffer bb = manager.allocateDirect(channel * height * width);
             if (image.getType() == BufferedImage.TYPE_BYTE_GRAY) {
                 int[] data = new int[width * height];
                 image.getData().getPixels(0, 0, width, height, data);
-                for (int gray : data) {
-                    byte b = (byte) gray;
-                    bb.put(b);
-                    if (flag != Flag.GRAYSCALE) {
-                        bb.put(b);
-                        bb.put(b);
+                for (int pixel = 0; pixel < data.length; ++pixel) {
+                    for (int c = 0; c < channel; ++c) {
+                        out.write(pixel, c, data[pixel]);
                     }
                 }
-            } else {
-                // get an array of integer pixels in the default RGB color mode
-                int[] pixels = image.getRGB(0, 0, width, height, null, 0, width);
-                for (int rgb : pixels) {
-                    int red = (rgb >> 16) & 0xFF;
-                    int green = (rgb >> 8) & 0xFF;
-                    int blue = rgb & 0xFF;
-
-                    if (flag == Flag.GRAYSCALE) {
-                        int gray = Math.round(0.299f * red + 0.587f * green + 0.114f * blue);
-                        bb.put((byte) gray);
-                    } else {
-                        bb.put((byte) red);
-                        bb.put((byte) green);
-                        bb.put((byte) blue);
+                return;
+            }
+            // get an array of integer pixels in the default RGB color mode
+            int[] pixels = image.getRGB(0, 0, width, height, null, 0, width);
+            readInts(pixels, 0, width, new int[] {16, 8, 0}, channel, out);
+        }
+
+        private void readGray(
+                byte[] data,
+                int base,
+                int scanline,
+                int pixelStride,
+                int band,
+                int channel,
+                PixelWriter out) {
+            int width = image.getWidth();
+            int height = image.getHeight();
+            int pixel = 0;
+            for (int y = 0; y < height; ++y) {
+                int index = base + y * scanline + band;
+                for (int x = 0; x < width; ++x) {
+                    int gray = data[index] & 0xFF;
+                    for (int c = 0; c < channel; ++c) {
+                        out.write(pixel, c, gray);
                     }
+                    ++pixel;
+                    index += pixelStride;
+                }
+            }
+        }
+
+        private void readBytes(
+                byte[] data,
+                int base,
+                int scanline,
+                int pixelStride,
+                int[] bands,
+                int channel,
+                PixelWriter out) {
+            int width = image.getWidth();
+            int height = image.getHeight();
+            int r = bands[0];
+            int g = bands[1];
+            int b = bands[2];
+            int pixel = 0;
+            for (int y = 0; y < height; ++y) {
+                int index = base + y * scanline;
+                int end = index + width * pixelStride;
+                for (; index < end; index += pixelStride) {
+                    int red = data[index + r] & 0xFF;
+                    int green = data[index + g] & 0xFF;
+                    int blue = data[index + b] & 0xFF;
+                    write(out, pixel++, channel, red, green, blue);
                 }
             }
-            bb.rewind();
-            return manager.create(bb, new Shape(height, width, channel), DataType.UINT8);
+        }
+
+        private void readInts(
+                int[] data,
+                int base,
+                int scanline,
+                int[] bitOffsets,
+                int channel,
+                PixelWriter out) {
+            int width = image.getWidth();
+            int height = image.getHeight();
+            int r = bitOffsets[0];
+            int g = bitOffsets[1];
+            int b = bitOffsets[2];
+            int pixel = 0;
+            for (int y = 0; y < height; ++y) {
+                int index = base + y * scanline;
+                int end = index + width;
+                for (; index < end; ++index) {
+                    int value = data[index];
+                    int red = (value >> r) & 0xFF;
+                    int green = (value >> g) & 0xFF;
+                    int blue = (value >> b) & 0xFF;
+                    write(out, pixel++, channel, red, green, blue);
+                }
+            }
+        }
+
+        private void write(PixelWriter out, int pixel, int channel, int red, int green, int blue) {
+            if (channel == 1) {
+                out.write(pixel, 0, Math.round(0.299f * red + 0.587f * green + 0.114f * blue));
+            } else {
+                out.write(pixel, 0, red);
+                out.write(pixel, 1, green);
+                out.write(pixel, 2, blue);
+            }
         }
 
         /** {@inheritDoc} */
@@ -509,4 +665,17 @@ public class BufferedImageFactory extends ImageFactory {
             g.dispose();
         }
     }
+
+    /** Receives the pixels of an image. */
+    private interface PixelWriter {
+
+        /**
+         * Writes the value of a channel of a pixel.
+         *
+         * @param pixel the index of the pixel, row by row
+         * @param channel the channel
+         * @param value the value in [0, 255]
+         */
+        void write(int pixel, int channel, int value);
+    }
 }
@@ -17,6 +17,7 @@ import ai.djl.modality.cv.output.DetectedObjects;
 import ai.djl.modality.cv.output.Joints;
 import ai.djl.modality.cv.output.Point;
 import ai.djl.modality.cv.output.Rectangle;
+import ai.djl.modality.cv.util.NDImageUtils;
 import ai.djl.ndarray.NDArray;
 import ai.djl.ndarray.NDManager;
 
@@ -106,6 +107,28 @@ public interface Image {
      */
     NDArray toNDArray(NDManager manager, Flag flag);
 
+    /**
+     * Converts image to a float32 {@link NDArray} scaled to [0, 1] and optionally normalized.
+     *
+     * <p>This is equivalent to {@link #toNDArray(NDManager, Flag)} followed by {@link
+     * ai.djl.modality.cv.transform.ToTensor} and {@link ai.djl.modality.cv.transform.Normalize},
+     * implementations may convert and normalize the pixels in a single pass.
+     *
+     * @param manager a {@link NDManager} to create the new NDArray with
+     * @param flag the color mode
+     * @param mean the mean for each channel, or {@code null} to skip normalization
+     * @param std the standard deviation for each channel, or {@code null} to skip normalization
+     * @return {@link NDArray} in CHW format, or HWC if {@link NDImageUtils#isTensorCHW(NDManager)}
+     *     is false
+     */
+    default NDArray toTensor(NDManager manager, Flag flag, float[] mean, float[] std) {
+        NDArray array = NDImageUtils.toTensor(toNDArray(manager, flag));
+        if (mean != null && std != null) {
+            array = NDImageUtils.normalize(array, mean, std);
+        }
+        return array;
+    }
+
     /**
      * Save the image to file.
      *
@@ -49,4 +49,12 @@ public class CenterCrop implements Transform {
         }
         return NDImageUtils.centerCrop(array, width, height);
     }
+
+    int getWidth() {
+        return width;
+    }
+
+    int getHeight() {
+        return height;
+    }
 }
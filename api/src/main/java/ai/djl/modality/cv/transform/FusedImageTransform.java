@@ -0,0 +1,301 @@
+/*
+ * Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.modality.cv.transform;
+
+import ai.djl.Device;
+import ai.djl.modality.cv.Image;
+import ai.djl.modality.cv.util.NDImageUtils;
+import ai.djl.ndarray.NDArray;
+import ai.djl.ndarray.NDManager;
+import ai.djl.ndarray.types.DataType;
+import ai.djl.ndarray.types.Shape;
+import ai.djl.translate.Pipeline;
+import ai.djl.translate.Transform;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A {@link Transform} that runs an optional {@link Resize}, an optional {@link CenterCrop}, {@link
+ * ToTensor} and an optional {@link Normalize} in a single pass.
+ *
+ * <p>The pixels are computed in Java directly from the HWC input, so only the output {@link
+ * NDArray} is created on the engine. This works with every engine, including the ones where some
+ * of the image operations are slow or not supported. Only bilinear and nearest interpolation are
+ * fused, bilinear resize uses half-pixel centers like PyTorch and OpenCV. Inputs that are not a
+ * single HWC image of type uint8 or float32 on the CPU are processed by the original transforms,
+ * so images on a GPU are not copied to the host.
+ *
+ * <p>The resized pixels are not rounded to uint8 like some engines do, so the result may differ
+ * from the unfused transforms by up to half an intensity level before normalization.
+ *
+ * <pre>
+ * Pipeline pipeline = new Pipeline(new Resize(256), new CenterCrop(224, 224), new ToTensor());
+ * pipeline = pipeline.fuse(FusedImageTransform::of);
+ * </pre>
+ */
+public class FusedImageTransform implements Transform {
+
+    private List<Transform> transforms;
+    private Resize resize;
+    private CenterCrop crop;
+    private float[] mean;
+    private float[] std;
+
+    FusedImageTransform(List<Transform> transforms) {
+        this.transforms = new ArrayList<>(transforms);
+        for (Transform transform : transforms) {
+            if (transform instanceof Resize) {
+                resize = (Resize) transform;
+            } else if (transform instanceof CenterCrop) {
+                crop = (CenterCrop) transform;
+            } else if (transform instanceof Normalize) {
+                mean = ((Normalize) transform).getMean();
+                std = ((Normalize) transform).getStd();
+            }
+        }
+    }
+
+    /**
+     * Returns a {@code FusedImageTransform} for the transforms, or {@code null} if they can not be
+     * fused.
+     *
+     * <p>The supported sequence is {@code [Resize] [CenterCrop] ToTensor [Normalize]}, with at
+     * least two transforms.
+     *
+     * @param transforms the transforms to fuse
+     * @return a {@code FusedImageTransform}, or {@code null} if they can not be fused
+     * @see Pipeline#fuse(java.util.function.Function)
+     */
+    public static FusedImageTransform of(List<Transform> transforms) {
+        if (transforms.size() < 2) {
+            return null;
+        }
+        // Resize, CenterCrop, ToTensor, Normalize
+        int stage = 0;
+        boolean toTensor = false;
+        for (Transform transform : transforms) {
+            Class<?> type = transform.getClass();
+            int next;
+            if (type == Resize.class) {
+                Image.Interpolation interpolation = ((Resize) transform).getInterpolation();
+                if (interpolation != Image.Interpolation.BILINEAR
+                        && interpolation != Image.Interpolation.NEAREST) {
+                    return null;
+                }
+                next = 1;
+            } else if (type == CenterCrop.class) {
+                next = 2;
+            } else if (type == ToTensor.class) {
+                next = 3;
+                toTensor = true;
+            } else if (type == Normalize.class) {
+                next = 4;
+            } else {
+                return null;
+            }
+            if (next <= stage || (next == 4 && !toTensor)) {
+                return null;
+            }
+            stage = next;
+        }
+        if (!toTensor) {
+            return null;
+        }
+        return new FusedImageTransform(transforms);
+    }
+
+    /**
+     * Converts an image and applies the transforms.
+     *
+     * <p>Without {@link Resize} and {@link CenterCrop}, the pixels are converted and normalized
+     * while they are read from the image with {@link Image#toTensor(NDManager, Image.Flag, float[],
+     * float[])}, without an intermediate uint8 {@link NDArray}.
+     *
+     * @param image the image to convert
+     * @param manager the {@link NDManager} to create the {@link NDArray} with
+     * @param flag the color mode
+     * @return the transformed {@link NDArray}
+     */
+    public NDArray transform(Image image, NDManager manager, Image.Flag flag) {
+        if (resize == null && crop == null) {
+            return image.toTensor(manager, flag, mean, std);
+        }
+        return transform(image.toNDArray(manager, flag));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NDArray transform(NDArray array) {
+        Shape shape = array.getShape();
+        DataType dataType = array.getDataType();
+        if (!isSupported(array.getDevice(), shape, dataType)) {
+            NDArray result = array;
+            for (Transform transform : transforms) {
+                result = transform.transform(result);
+            }
+            return result;
+        }
+
+        int inHeight = Math.toIntExact(shape.get(0));
+        int inWidth = Math.toIntExact(shape.get(1));
+        int channel = Math.toIntExact(shape.get(2));
+        int height = resize == null ? inHeight : resize.getHeight();
+        int width = resize == null ? inWidth : resize.getWidth();
+
+        // the crop window in the resized image, same as NDImageUtils.centerCrop
+        int x = 0;
+        int y = 0;
+        if (crop != null) {
+            int cropWidth = crop.getWidth();
+            int cropHeight = crop.getHeight();
+            if (cropWidth < 0) {
+                cropWidth = Math.min(width, height);
+                cropHeight = cropWidth;
+            }
+            int dw = (width - cropWidth) / 2;
+            int dh = (height - cropHeight) / 2;
+            if (dw > 0) {
+                x = dw;
+                width = cropWidth;
+            }
+            if (dh > 0) {
+                y = dh;
+                height = cropHeight;
+            }
+        }
+
+        boolean nearest =
+                resize != null && resize.getInterpolation() == Image.Interpolation.NEAREST;
+        Sampler sx = new Sampler(inWidth, resize == null ? inWidth : resize.getWidth(), x, width);
+        Sampler sy =
+                new Sampler(inHeight, resize == null ? inHeight : resize.getHeight(), y, height);
+        if (nearest) {
+            sx.nearest();
+            sy.nearest();
+        }
+
+        // uint8 pixels are read as bytes, without a second full size copy as float
+        byte[] bytes = null;
+        float[] floats = null;
+        if (dataType == DataType.UINT8) {
+            bytes = array.toByteArray();
+        } else {
+            floats = array.toFloatArray();
+        }
+
+        // some engines keep HWC layout for ToTensor and Normalize
+        boolean hwc = !NDImageUtils.isTensorCHW(array.getManager());
+        int area = width * height;
+        float[] out = new float[area * channel];
+        int rowStride = inWidth * channel;
+        for (int oy = 0; oy < height; ++oy) {
+            int row0 = sy.index0[oy] * rowStride;
+            int row1 = sy.index1[oy] * rowStride;
+            float wy1 = sy.lambda[oy];
+            float wy0 = 1 - wy1;
+            for (int ox = 0; ox < width; ++ox) {
+                int col0 = sx.index0[ox] * channel;
+                int col1 = sx.index1[ox] * channel;
+                float wx1 = sx.lambda[ox];
+                float wx0 = 1 - wx1;
+                for (int c = 0; c < channel; ++c) {
+                    float p00 = pixel(bytes, floats, row0 + col0 + c);
+                    float p01 = pixel(bytes, floats, row0 + col1 + c);
+                    float p10 = pixel(bytes, floats, row1 + col0 + c);
+                    float p11 = pixel(bytes, floats, row1 + col1 + c);
+                    float value = wy0 * (wx0 * p00 + wx1 * p01) + wy1 * (wx0 * p10 + wx1 * p11);
+                    value /= 255f;
+                    if (mean != null) {
+                        value = (value - mean[c]) / std[c];
+                    }
+                    int pos = oy * width + ox;
+                    if (hwc) {
+                        out[pos * channel + c] = value;
+                    } else {
+                        out[c * area + pos] = value;
+                    }
+                }
+            }
+        }
+        Shape outShape;
+        if (hwc) {
+            outShape = new Shape(height, width, channel);
+        } else {
+            outShape = new Shape(channel, height, width);
+        }
+        return array.getManager().create(out, outShape);
+    }
+
+    private static float pixel(byte[] bytes, float[] floats, int index) {
+        return bytes != null ? bytes[index] & 0xFF : floats[index];
+    }
+
+    private boolean isSupported(Device device, Shape shape, DataType dataType) {
+        // images on other devices would be copied to the host and back
+        if (!Device.Type.CPU.equals(device.getDeviceType())) {
+            return false;
+        }
+        if (shape.dimension() != 3
+                || (dataType != DataType.UINT8 && dataType != DataType.FLOAT32)) {
+            return false;
+        }
+        // only HWC images that NDImageUtils does not take for CHW
+        long channel = shape.get(2);
+        if (shape.get(0) == 1 || shape.get(0) == 3 || (channel != 1 && channel != 3)) {
+            return false;
+        }
+        return mean == null || (mean.length == channel && std.length == channel);
+    }
+
+    /** The source indices and weights along one axis. */
+    private static final class Sampler {
+
+        int[] index0;
+        int[] index1;
+        float[] lambda;
+        private int in;
+        private int resized;
+        private int offset;
+
+        Sampler(int in, int resized, int offset, int size) {
+            this.in = in;
+            this.resized = resized;
+            this.offset = offset;
+            index0 = new int[size];
+            index1 = new int[size];
+            lambda = new float[size];
+            float scale = (float) in / resized;
+            for (int i = 0; i < size; ++i) {
+                float src = scale * (i + offset + 0.5f) - 0.5f;
+                if (src < 0) {
+                    src = 0;
+                }
+                int i0 = Math.min((int) src, in - 1);
+                index0[i] = i0;
+                index1[i] = i0 < in - 1 ? i0 + 1 : i0;
+                lambda[i] = src - i0;
+            }
+        }
+
+        void nearest() {
+            float scale = (float) in / resized;
+            for (int i = 0; i < index0.length; ++i) {
+                int i0 = Math.min((int) Math.floor((i + offset) * scale), in - 1);
+                index0[i] = i0;
+                index1[i] = i0;
+                lambda[i] = 0;
+            }
+        }
+    }
+}
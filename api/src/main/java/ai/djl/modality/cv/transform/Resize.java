@@ -62,4 +62,16 @@ public class Resize implements Transform {
     public NDArray transform(NDArray array) {
         return NDImageUtils.resize(array, width, height, interpolation);
     }
+
+    int getWidth() {
+        return width;
+    }
+
+    int getHeight() {
+        return height;
+    }
+
+    Image.Interpolation getInterpolation() {
+        return interpolation;
+    }
 }
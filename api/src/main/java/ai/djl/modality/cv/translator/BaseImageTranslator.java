@@ -16,6 +16,7 @@ import ai.djl.Model;
 import ai.djl.modality.cv.Image;
 import ai.djl.modality.cv.transform.CenterCrop;
 import ai.djl.modality.cv.transform.CenterFit;
+import ai.djl.modality.cv.transform.FusedImageTransform;
 import ai.djl.modality.cv.transform.Normalize;
 import ai.djl.modality.cv.transform.Resize;
 import ai.djl.modality.cv.transform.ToTensor;
@@ -62,6 +63,9 @@ public abstract class BaseImageTranslator<T> implements Translator<Image, T> {
     public BaseImageTranslator(BaseBuilder<?> builder) {
         flag = builder.flag;
         pipeline = builder.pipeline;
+        if (pipeline != null && builder.fuseTransforms) {
+            pipeline = pipeline.fuse(FusedImageTransform::of);
+        }
         batchifier = builder.batchifier;
         width = builder.width;
         height = builder.height;
@@ -76,9 +80,15 @@ public abstract class BaseImageTranslator<T> implements Translator<Image, T> {
     /** {@inheritDoc} */
     @Override
     public NDList processInput(TranslatorContext ctx, Image input) {
-        NDArray array = input.toNDArray(ctx.getNDManager(), flag);
         ctx.setAttachment("width", input.getWidth());
         ctx.setAttachment("height", input.getHeight());
+        List<Transform> transforms = pipeline.getTransforms(0);
+        if (transforms.size() == 1 && transforms.get(0) instanceof FusedImageTransform) {
+            // the whole pipeline is fused, it reads the pixels from the image directly
+            FusedImageTransform transform = (FusedImageTransform) transforms.get(0);
+            return new NDList(transform.transform(input, ctx.getNDManager(), flag));
+        }
+        NDArray array = input.toNDArray(ctx.getNDManager(), flag);
         return pipeline.transform(new NDList(array));
     }
 
@@ -95,6 +105,7 @@ public abstract class BaseImageTranslator<T> implements Translator<Image, T> {
         protected Image.Flag flag = Image.Flag.COLOR;
         protected Pipeline pipeline;
         protected Batchifier batchifier = Batchifier.STACK;
+        protected boolean fuseTransforms;
 
         /**
          * Sets the optional {@link ai.djl.modality.cv.Image.Flag} (default is {@link
@@ -144,6 +155,22 @@ public abstract class BaseImageTranslator<T> implements Translator<Image, T> {
             return self();
         }
 
+        /**
+         * Sets whether to run the common image transforms of the {@link Pipeline} in a single pass
+         * (default is false).
+         *
+         * <p>The fused transforms are computed in Java on images that are on the CPU, the results
+         * may differ slightly from the engine's image operations.
+         *
+         * @param fuseTransforms true to fuse the transforms
+         * @return this builder
+         * @see FusedImageTransform
+         */
+        public T optFuseTransforms(boolean fuseTransforms) {
+            this.fuseTransforms = fuseTransforms;
+            return self();
+        }
+
         protected abstract T self();
 
         protected void validate() {
@@ -214,6 +241,7 @@ public abstract class BaseImageTranslator<T> implements Translator<Image, T> {
             if (arguments.containsKey("batchifier")) {
                 batchifier = Batchifier.fromString((String) arguments.get("batchifier"));
             }
+            fuseTransforms = ArgumentsUtil.booleanValue(arguments, "fuseTransforms");
         }
 
         protected void configPostProcess(Map<String, ?> arguments) {}
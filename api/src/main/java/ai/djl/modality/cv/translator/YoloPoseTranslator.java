@@ -14,7 +14,7 @@ package ai.djl.modality.cv.translator;
 
 import ai.djl.modality.cv.output.Joints;
 import ai.djl.modality.cv.output.Joints.Joint;
-import ai.djl.modality.cv.output.Rectangle;
+import ai.djl.modality.cv.util.NonMaxSuppression;
 import ai.djl.ndarray.NDArray;
 import ai.djl.ndarray.NDList;
 import ai.djl.translate.ArgumentsUtil;
@@ -63,28 +63,24 @@ public class YoloPoseTranslator extends BaseImageTranslator<Joints[]> {
         float[] confidences = split.get(1).toFloatArray();
         float[] mask = split.get(2).toFloatArray();
 
-        List<Rectangle> boxes = new ArrayList<>(numBox);
-        List<Double> scores = new ArrayList<>(numBox);
-
+        float[] boxes = new float[numBox * 4];
         for (int i = 0; i < numBox; ++i) {
             float xPos = buf[i * 4];
             float yPos = buf[i * 4 + 1];
-            float w = buf[i * 4 + 2] - xPos;
-            float h = buf[i * 4 + 3] - yPos;
-            Rectangle rect = new Rectangle(xPos, yPos, w, h);
-            boxes.add(rect);
-            scores.add((double) confidences[i]);
-        }
-        List<Integer> nms = Rectangle.nms(boxes, scores, nmsThreshold);
-        if (nms.size() > MAX_DETECTION) {
-            nms = nms.subList(0, MAX_DETECTION);
+            boxes[i * 4] = xPos;
+            boxes[i * 4 + 1] = yPos;
+            boxes[i * 4 + 2] = buf[i * 4 + 2] - xPos;
+            boxes[i * 4 + 3] = buf[i * 4 + 3] - yPos;
         }
-        Joints[] ret = new Joints[nms.size()];
+        int[] nms =
+                NonMaxSuppression.nms(
+                        boxes, confidences, null, numBox, nmsThreshold, MAX_DETECTION);
+        Joints[] ret = new Joints[nms.length];
         for (int i = 0; i < ret.length; ++i) {
             List<Joint> joints = new ArrayList<>();
             ret[i] = new Joints(joints);
 
-            int index = nms.get(i);
+            int index = nms[i];
             int pos = index * 51;
             for (int j = 0; j < 17; ++j) {
                 joints.add(
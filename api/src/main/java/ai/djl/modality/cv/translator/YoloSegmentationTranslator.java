@@ -15,7 +15,7 @@ package ai.djl.modality.cv.translator;
 import ai.djl.modality.cv.output.BoundingBox;
 import ai.djl.modality.cv.output.DetectedObjects;
 import ai.djl.modality.cv.output.Mask;
-import ai.djl.modality.cv.output.Rectangle;
+import ai.djl.modality.cv.util.NonMaxSuppression;
 import ai.djl.ndarray.NDArray;
 import ai.djl.ndarray.NDList;
 import ai.djl.ndarray.types.DataType;
@@ -67,19 +67,21 @@ public class YoloSegmentationTranslator extends YoloV5Translator {
         float[] confidences = split.get(1).max(AXIS_1).toFloatArray();
         long[] ids = split.get(1).argMax(1).toLongArray();
 
-        List<Rectangle> boxes = new ArrayList<>(numBox);
-        List<Double> scores = new ArrayList<>(numBox);
+        float[] boxes = new float[numBox * 4];
         for (int i = 0; i < numBox; ++i) {
             float xPos = buf[i * 4];
             float yPos = buf[i * 4 + 1];
-            float w = buf[i * 4 + 2] - xPos;
-            float h = buf[i * 4 + 3] - yPos;
-            Rectangle rect = new Rectangle(xPos, yPos, w, h);
-            boxes.add(rect);
-            scores.add((double) confidences[i]);
+            boxes[i * 4] = xPos;
+            boxes[i * 4 + 1] = yPos;
+            boxes[i * 4 + 2] = buf[i * 4 + 2] - xPos;
+            boxes[i * 4 + 3] = buf[i * 4 + 3] - yPos;
+        }
+        int[] nms =
+                NonMaxSuppression.nms(boxes, confidences, null, numBox, nmsThreshold, numBox);
+        long[] idx = new long[nms.length];
+        for (int i = 0; i < nms.length; ++i) {
+            idx[i] = nms[i];
         }
-        List<Integer> nms = Rectangle.nms(boxes, scores, nmsThreshold);
-        long[] idx = nms.stream().mapToLong(Integer::longValue).toArray();
         NDArray selected = box.getManager().create(idx);
         NDArray masks = split.get(2).get(selected);
 
@@ -89,7 +91,7 @@ public class YoloSegmentationTranslator extends YoloV5Translator {
         protos = protos.reshape(32, (long) maskH * maskW);
         masks =
                 masks.matMul(protos)
-                        .reshape(nms.size(), maskH, maskW)
+                        .reshape(nms.length, maskH, maskW)
                         .gt(0f)
                         .toType(DataType.FLOAT32, true);
 
@@ -105,7 +107,7 @@ public class YoloSegmentationTranslator extends YoloV5Translator {
             float y = buf[i * 4 + 1] / height;
             float w = buf[i * 4 + 2] / width - x;
             float h = buf[i * 4 + 3] / width - y;
-            int id = nms.get(i);
+            int id = nms[i];
             retClasses.add(classes.get((int) ids[id]));
             retProbs.add((double) confidences[id]);
 
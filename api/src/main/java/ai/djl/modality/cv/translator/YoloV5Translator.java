@@ -15,6 +15,7 @@ package ai.djl.modality.cv.translator;
 import ai.djl.modality.cv.output.BoundingBox;
 import ai.djl.modality.cv.output.DetectedObjects;
 import ai.djl.modality.cv.output.Rectangle;
+import ai.djl.modality.cv.util.NonMaxSuppression;
 import ai.djl.ndarray.NDList;
 import ai.djl.ndarray.types.DataType;
 import ai.djl.translate.ArgumentsUtil;
@@ -73,50 +74,67 @@ public class YoloV5Translator extends ObjectDetectionTranslator {
             List<Rectangle> boxes,
             List<Integer> classIds,
             List<Float> scores) {
-        List<String> retClasses = new ArrayList<>();
-        List<Double> retProbs = new ArrayList<>();
-        List<BoundingBox> retBB = new ArrayList<>();
-
-        for (int classId = 0; classId < classes.size(); classId++) {
-            List<Rectangle> r = new ArrayList<>();
-            List<Double> s = new ArrayList<>();
-            List<Integer> map = new ArrayList<>();
-            for (int j = 0; j < classIds.size(); ++j) {
-                if (classIds.get(j) == classId) {
-                    r.add(boxes.get(j));
-                    s.add(scores.get(j).doubleValue());
-                    map.add(j);
-                }
-            }
-            if (r.isEmpty()) {
-                continue;
-            }
-            List<Integer> nms = Rectangle.nms(r, s, nmsThreshold);
-            for (int index : nms) {
-                int pos = map.get(index);
-                int id = classIds.get(pos);
-                retClasses.add(classes.get(id));
-                retProbs.add(scores.get(pos).doubleValue());
-                Rectangle rect = boxes.get(pos);
-                if (removePadding) {
-                    int padW = (width - imageWidth) / 2;
-                    int padH = (height - imageHeight) / 2;
-                    rect =
-                            new Rectangle(
-                                    (rect.getX() - padW) / imageWidth,
-                                    (rect.getY() - padH) / imageHeight,
-                                    rect.getWidth() / imageWidth,
-                                    rect.getHeight() / imageHeight);
-                } else if (applyRatio) {
-                    rect =
-                            new Rectangle(
-                                    rect.getX() / width,
-                                    rect.getY() / height,
-                                    rect.getWidth() / width,
-                                    rect.getHeight() / height);
-                }
-                retBB.add(rect);
+        int count = boxes.size();
+        float[] buf = new float[count * 4];
+        float[] s = new float[count];
+        int[] ids = new int[count];
+        for (int i = 0; i < count; ++i) {
+            Rectangle rect = boxes.get(i);
+            buf[i * 4] = (float) rect.getX();
+            buf[i * 4 + 1] = (float) rect.getY();
+            buf[i * 4 + 2] = (float) rect.getWidth();
+            buf[i * 4 + 3] = (float) rect.getHeight();
+            s[i] = scores.get(i);
+            ids[i] = classIds.get(i);
+        }
+        return nms(imageWidth, imageHeight, buf, s, ids, count);
+    }
+
+    /**
+     * Applies non-maximum suppression per class and builds the {@link DetectedObjects}.
+     *
+     * @param imageWidth the width of the original image
+     * @param imageHeight the height of the original image
+     * @param boxes the boxes, 4 values {@code (x, y, width, height)} per box in pixels
+     * @param scores the score of each box
+     * @param classIds the class id of each box
+     * @param count the number of boxes
+     * @return the {@link DetectedObjects}
+     */
+    protected DetectedObjects nms(
+            int imageWidth,
+            int imageHeight,
+            float[] boxes,
+            float[] scores,
+            int[] classIds,
+            int count) {
+        int[] keep = NonMaxSuppression.nms(boxes, scores, classIds, count, nmsThreshold, count);
+        List<String> retClasses = new ArrayList<>(keep.length);
+        List<Double> retProbs = new ArrayList<>(keep.length);
+        List<BoundingBox> retBB = new ArrayList<>(keep.length);
+        for (int pos : keep) {
+            retClasses.add(classes.get(classIds[pos]));
+            retProbs.add((double) scores[pos]);
+            double x = boxes[pos * 4];
+            double y = boxes[pos * 4 + 1];
+            double w = boxes[pos * 4 + 2];
+            double h = boxes[pos * 4 + 3];
+            Rectangle rect;
+            if (removePadding) {
+                int padW = (width - imageWidth) / 2;
+                int padH = (height - imageHeight) / 2;
+                rect =
+                        new Rectangle(
+                                (x - padW) / imageWidth,
+                                (y - padH) / imageHeight,
+                                w / imageWidth,
+                                h / imageHeight);
+            } else if (applyRatio) {
+                rect = new Rectangle(x / width, y / height, w / width, h / height);
+            } else {
+                rect = new Rectangle(x, y, w, h);
             }
+            retBB.add(rect);
         }
         return new DetectedObjects(retClasses, retProbs, retBB);
     }
@@ -127,9 +145,10 @@ public class YoloV5Translator extends ObjectDetectionTranslator {
         int stride = 5 + sizeClasses;
         int size = flattened.length / stride;
 
-        ArrayList<Rectangle> boxes = new ArrayList<>();
-        ArrayList<Float> scores = new ArrayList<>();
-        ArrayList<Integer> classIds = new ArrayList<>();
+        float[] boxes = new float[size * 4];
+        float[] scores = new float[size];
+        int[] classIds = new int[size];
+        int count = 0;
 
         for (int i = 0; i < size; i++) {
             int indexBase = i * stride;
@@ -147,14 +166,16 @@ public class YoloV5Translator extends ObjectDetectionTranslator {
                 float yPos = flattened[indexBase + 1];
                 float w = flattened[indexBase + 2];
                 float h = flattened[indexBase + 3];
-                Rectangle rect =
-                        new Rectangle(Math.max(0, xPos - w / 2), Math.max(0, yPos - h / 2), w, h);
-                boxes.add(rect);
-                scores.add(score);
-                classIds.add(maxIndex);
+                boxes[count * 4] = Math.max(0, xPos - w / 2);
+                boxes[count * 4 + 1] = Math.max(0, yPos - h / 2);
+                boxes[count * 4 + 2] = w;
+                boxes[count * 4 + 3] = h;
+                scores[count] = score;
+                classIds[count] = maxIndex;
+                ++count;
             }
         }
-        return nms(imageWidth, imageHeight, boxes, classIds, scores);
+        return nms(imageWidth, imageHeight, boxes, scores, classIds, count);
     }
 
     private DetectedObjects processFromDetectOutput() {
@@ -14,15 +14,22 @@ package ai.djl.modality.cv.util;
 
 import ai.djl.modality.cv.Image;
 import ai.djl.ndarray.NDArray;
+import ai.djl.ndarray.NDManager;
+import ai.djl.ndarray.types.DataType;
 import ai.djl.ndarray.types.Shape;
 import ai.djl.util.RandomUtils;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 /**
  * {@code NDImageUtils} is an image processing utility to load, reshape, and convert images using
  * {@link NDArray} images.
  */
 public final class NDImageUtils {
 
+    private static final Map<String, Boolean> TENSOR_CHW = new ConcurrentHashMap<>();
+
     private NDImageUtils() {}
 
     /**
@@ -336,4 +343,28 @@ public final class NDImageUtils {
         }
         throw new IllegalArgumentException("Image is neither CHW nor HWC");
     }
+
+    /**
+     * Returns whether {@link #toTensor(NDArray)} converts images to CHW with the engine of the
+     * given manager.
+     *
+     * <p>Most engines convert images to CHW, some keep HWC. The layout is detected once per engine
+     * with {@link #isCHW(Shape)} on the output of {@link #toTensor(NDArray)}. Engines that don't
+     * support {@link #toTensor(NDArray)} are assumed to use CHW.
+     *
+     * @param manager the manager of the images
+     * @return true if images are converted to CHW, false if they stay HWC
+     */
+    public static boolean isTensorCHW(NDManager manager) {
+        return TENSOR_CHW.computeIfAbsent(
+                manager.getEngine().getEngineName(),
+                k -> {
+                    try (NDManager probe = manager.newSubManager()) {
+                        NDArray image = probe.zeros(new Shape(2, 2, 3), DataType.UINT8);
+                        return isCHW(toTensor(image).getShape());
+                    } catch (UnsupportedOperationException e) {
+                        return true;
+                    }
+                });
+    }
 }
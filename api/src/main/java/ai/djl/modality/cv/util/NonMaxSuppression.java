@@ -0,0 +1,307 @@
+/*
+ * Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.modality.cv.util;
+
+import java.util.Arrays;
+
+/**
+ * {@code NonMaxSuppression} is a non-maximum suppression implementation on primitive arrays.
+ *
+ * <p>Boxes are passed as a flat {@code float[]} with 4 values per box: the upper-left corner
+ * {@code (x, y)}, the width and the height, the same convention as {@link
+ * ai.djl.modality.cv.output.Rectangle}. The boxes are sorted once by score, and when class ids are
+ * given, boxes are only suppressed by boxes of the same class, and the boxes with the highest
+ * scores of all classes are kept. The working arrays are cached per thread, so repeated calls don't
+ * allocate except for the returned indices.
+ *
+ * <pre>
+ * int[] keep = NonMaxSuppression.nms(boxes, scores, classIds, count, 0.45f, 300);
+ * </pre>
+ */
+public final class NonMaxSuppression {
+
+    private static final ThreadLocal<Workspace> WORKSPACE = ThreadLocal.withInitial(Workspace::new);
+
+    private NonMaxSuppression() {}
+
+    /**
+     * Applies non-maximum suppression.
+     *
+     * @param boxes the boxes, 4 values {@code (x, y, width, height)} per box
+     * @param scores the score of each box
+     * @param classIds the class id of each box, or {@code null} to suppress across classes
+     * @param count the number of boxes
+     * @param iouThreshold a box is removed if its IoU with a kept box of the same class is greater
+     *     than or equal to this threshold
+     * @param maxDetections the maximum number of boxes to keep
+     * @return the indices of the kept boxes, ordered by descending score
+     * @throws IllegalArgumentException if a class id is negative
+     */
+    public static int[] nms(
+            float[] boxes,
+            float[] scores,
+            int[] classIds,
+            int count,
+            float iouThreshold,
+            int maxDetections) {
+        int[] output = WORKSPACE.get().output(Math.min(count, maxDetections));
+        int size = nms(boxes, scores, classIds, count, iouThreshold, maxDetections, output);
+        return Arrays.copyOf(output, size);
+    }
+
+    /**
+     * Applies non-maximum suppression and writes the result to an existing array.
+     *
+     * @param boxes the boxes, 4 values {@code (x, y, width, height)} per box
+     * @param scores the score of each box
+     * @param classIds the class id of each box, or {@code null} to suppress across classes
+     * @param count the number of boxes
+     * @param iouThreshold a box is removed if its IoU with a kept box of the same class is greater
+     *     than or equal to this threshold
+     * @param maxDetections the maximum number of boxes to keep
+     * @param output the array that receives the indices of the kept boxes, ordered by descending
+     *     score
+     * @return the number of kept boxes
+     * @throws IllegalArgumentException if a class id is negative
+     */
+    public static int nms(
+            float[] boxes,
+            float[] scores,
+            int[] classIds,
+            int count,
+            float iouThreshold,
+            int maxDetections,
+            int[] output) {
+        Workspace ws = WORKSPACE.get();
+        int[] order = ws.sort(boxes, scores, classIds, count, false);
+        int limit = Math.min(maxDetections, output.length);
+        // the kept boxes of each class are chained by their position in the output
+        int[] heads = ws.heads();
+        int[] next = ws.next;
+        int kept = 0;
+        // a box visited by descending score is only compared with the kept boxes of its class, so
+        // the search stops as soon as the best boxes of all classes are found
+        for (int i = 0; i < count && kept < limit; ++i) {
+            int index = order[i];
+            int cls = classIds == null ? 0 : classIds[index];
+            boolean suppressed = false;
+            for (int k = heads[cls]; k >= 0; k = next[k]) {
+                if (ws.iou(index, output[k]) >= iouThreshold) {
+                    suppressed = true;
+                    break;
+                }
+            }
+            if (!suppressed) {
+                next[kept] = heads[cls];
+                heads[cls] = kept;
+                output[kept++] = index;
+            }
+        }
+        return kept;
+    }
+
+    /**
+     * Applies Gaussian soft non-maximum suppression.
+     *
+     * <p>Instead of removing overlapping boxes, soft-NMS decays their score by {@code exp(-iou^2 /
+     * sigma)} and removes the boxes whose score falls below {@code scoreThreshold}. The decayed
+     * scores are written back to {@code scores}.
+     *
+     * @param boxes the boxes, 4 values {@code (x, y, width, height)} per box
+     * @param scores the score of each box, updated with the decayed scores
+     * @param classIds the class id of each box, or {@code null} to suppress across classes
+     * @param count the number of boxes
+     * @param sigma the Gaussian decay parameter
+     * @param scoreThreshold the minimum score of a kept box
+     * @param maxDetections the maximum number of boxes to keep
+     * @return the indices of the kept boxes, ordered by descending decayed score
+     * @throws IllegalArgumentException if a class id is negative
+     */
+    public static int[] softNms(
+            float[] boxes,
+            float[] scores,
+            int[] classIds,
+            int count,
+            float sigma,
+            float scoreThreshold,
+            int maxDetections) {
+        Workspace ws = WORKSPACE.get();
+        int[] order = ws.sort(boxes, scores, classIds, count, true);
+        int[] output = ws.output(count);
+        int kept = 0;
+        int start = 0;
+        while (start < count) {
+            int end = start + 1;
+            if (classIds != null) {
+                int cls = classIds[order[start]];
+                while (end < count && classIds[order[end]] == cls) {
+                    ++end;
+                }
+            } else {
+                end = count;
+            }
+            // order[start, end) holds the remaining boxes of a class, no class keeps more than
+            // maxDetections boxes
+            int limit = kept + maxDetections;
+            for (int i = start; i < end && kept < limit; ++i) {
+                int best = i;
+                for (int j = i + 1; j < end; ++j) {
+                    if (scores[order[j]] > scores[order[best]]) {
+                        best = j;
+                    }
+                }
+                int index = order[best];
+                if (scores[index] < scoreThreshold) {
+                    break;
+                }
+                order[best] = order[i];
+                order[i] = index;
+                output[kept++] = index;
+                for (int j = i + 1; j < end; ++j) {
+                    int other = order[j];
+                    float iou = ws.iou(index, other);
+                    scores[other] *= (float) Math.exp(-(iou * iou) / sigma);
+                }
+            }
+            start = end;
+        }
+        if (classIds != null) {
+            // keeps the boxes with the highest decayed scores of all classes
+            long[] keys = ws.keys;
+            for (int i = 0; i < kept; ++i) {
+                keys[i] = key(scores[output[i]], output[i]);
+            }
+            Arrays.sort(keys, 0, kept);
+            kept = Math.min(kept, maxDetections);
+            for (int i = 0; i < kept; ++i) {
+                output[i] = (int) keys[i];
+            }
+        }
+        return Arrays.copyOf(output, kept);
+    }
+
+    /** Returns a key that sorts by descending score, then by ascending index. */
+    private static long key(float score, int index) {
+        int bits = Float.floatToIntBits(score);
+        // flip the bits so that signed int order matches float order, then reverse it
+        bits ^= (bits >> 31) & 0x7fffffff;
+        return ((long) ~bits << 32) | index;
+    }
+
+    private static final class Workspace {
+
+        long[] keys = new long[0];
+        int[] order = new int[0];
+        int[] sorted = new int[0];
+        int[] counts = new int[0];
+        int[] next = new int[0];
+        int[] output = new int[0];
+        int numClasses;
+        float[] corners = new float[0];
+        float[] areas = new float[0];
+
+        int[] output(int size) {
+            if (output.length < size) {
+                output = new int[size];
+            }
+            return output;
+        }
+
+        int[] heads() {
+            if (counts.length < numClasses) {
+                counts = new int[numClasses];
+            }
+            Arrays.fill(counts, 0, numClasses, -1);
+            return counts;
+        }
+
+        int[] sort(float[] boxes, float[] scores, int[] classIds, int count, boolean group) {
+            if (order.length < count) {
+                int capacity = Math.max(count, order.length * 2);
+                keys = new long[capacity];
+                order = new int[capacity];
+                sorted = new int[capacity];
+                next = new int[capacity];
+                corners = new float[capacity * 4];
+                areas = new float[capacity];
+            }
+            int maxClass = 0;
+            for (int i = 0; i < count; ++i) {
+                keys[i] = key(scores[i], i);
+
+                int pos = i * 4;
+                float x = boxes[pos];
+                float y = boxes[pos + 1];
+                float w = boxes[pos + 2];
+                float h = boxes[pos + 3];
+                corners[pos] = x;
+                corners[pos + 1] = y;
+                corners[pos + 2] = x + w;
+                corners[pos + 3] = y + h;
+                areas[i] = w * h;
+                if (classIds != null) {
+                    if (classIds[i] < 0) {
+                        throw new IllegalArgumentException(
+                                "Negative class id: " + classIds[i] + " of box " + i);
+                    }
+                    maxClass = Math.max(maxClass, classIds[i]);
+                }
+            }
+            Arrays.sort(keys, 0, count);
+            numClasses = maxClass + 1;
+            if (classIds == null || !group) {
+                for (int i = 0; i < count; ++i) {
+                    order[i] = (int) keys[i];
+                }
+                return order;
+            }
+
+            // stable counting sort by class id keeps the score order within each class
+            if (counts.length < numClasses + 1) {
+                counts = new int[numClasses + 1];
+            }
+            Arrays.fill(counts, 0, numClasses + 1, 0);
+            for (int i = 0; i < count; ++i) {
+                ++counts[classIds[i] + 1];
+            }
+            for (int c = 0; c < numClasses; ++c) {
+                counts[c + 1] += counts[c];
+            }
+            for (int i = 0; i < count; ++i) {
+                int index = (int) keys[i];
+                sorted[counts[classIds[index]]++] = index;
+            }
+            System.arraycopy(sorted, 0, order, 0, count);
+            return order;
+        }
+
+        float iou(int a, int b) {
+            int pa = a * 4;
+            int pb = b * 4;
+            float w =
+                    Math.min(corners[pa + 2], corners[pb + 2])
+                            - Math.max(corners[pa], corners[pb]);
+            if (w <= 0) {
+                return 0;
+            }
+            float h =
+                    Math.min(corners[pa + 3], corners[pb + 3])
+                            - Math.max(corners[pa + 1], corners[pb + 1]);
+            if (h <= 0) {
+                return 0;
+            }
+            float intersection = w * h;
+            return intersection / (areas[a] + areas[b] - intersection);
+        }
+    }
+}
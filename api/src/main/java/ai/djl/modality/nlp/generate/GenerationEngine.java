@@ -0,0 +1,293 @@
+/*
+ * Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.modality.nlp.generate;
+
+import ai.djl.ndarray.NDArray;
+import ai.djl.ndarray.NDManager;
+import ai.djl.ndarray.types.Shape;
+import ai.djl.translate.TranslateException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+
+/**
+ * A {@code GenerationEngine} drives a {@link SeqBatchScheduler} from a background thread to serve
+ * text generation requests with continuous batching.
+ *
+ * <p>Requests can be submitted from any thread. Before each forward step, the queued requests are
+ * added to the running batch as long as the batch stays within {@code maxBatchSize} sequences and
+ * {@code maxBatchTokens} tokens (batch size times sequence length, which bounds the size of the kv
+ * cache). A request completes as soon as {@link SeqBatcher#exitCriteria(NDArray, long, long)}
+ * retires its sequence, without waiting for the rest of the batch.
+ *
+ * <pre>
+ * SeqBatchScheduler scheduler = new ContrastiveSeqBatchScheduler(predictor, config);
+ * try (GenerationEngine engine = new GenerationEngine(scheduler, manager, 16, 8192)) {
+ *     // can be called from many threads
+ *     long[] outputIds = engine.submit(inputIds, token -&gt; print(token)).get();
+ * }
+ * </pre>
+ */
+public class GenerationEngine implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(GenerationEngine.class);
+
+    private SeqBatchScheduler scheduler;
+    private NDManager manager;
+    private int maxBatchSize;
+    private long maxBatchTokens;
+    private BlockingQueue<Request> queue;
+    private Map<Long, Request> running;
+    private AtomicLong uidGenerator;
+    private Thread worker;
+    private volatile boolean closed;
+
+    /**
+     * Constructs a new {@code GenerationEngine} instance and starts the generation loop.
+     *
+     * <p>The {@code GenerationEngine} must be the only user of the scheduler, the scheduler's
+     * {@link ai.djl.inference.Predictor} is not closed by the engine.
+     *
+     * @param scheduler the scheduler to run the generation steps with
+     * @param manager the manager to create the input arrays
+     * @param maxBatchSize the maximum number of sequences in the running batch
+     * @param maxBatchTokens the maximum of batch size times sequence length in the running batch
+     */
+    public GenerationEngine(
+            SeqBatchScheduler scheduler, NDManager manager, int maxBatchSize, long maxBatchTokens) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("maxBatchSize must be greater than 0");
+        }
+        this.scheduler = scheduler;
+        this.manager = manager.newSubManager();
+        this.maxBatchSize = maxBatchSize;
+        this.maxBatchTokens = maxBatchTokens;
+        queue = new LinkedBlockingQueue<>();
+        running = new ConcurrentHashMap<>();
+        uidGenerator = new AtomicLong();
+        worker = new Thread(this::run, "generation-engine");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Submits a generation request.
+     *
+     * @param inputIds the input token ids of a single sequence
+     * @return a {@code CompletableFuture} that completes with the input and generated token ids
+     */
+    public CompletableFuture<long[]> submit(long[] inputIds) {
+        return submit(inputIds, null);
+    }
+
+    /**
+     * Submits a generation request and receives the generated tokens as they are produced.
+     *
+     * <p>The listener is called from the generation thread and should return quickly.
+     *
+     * @param inputIds the input token ids of a single sequence
+     * @param listener the listener that receives each generated token id, can be null
+     * @return a {@code CompletableFuture} that completes with the input and generated token ids
+     */
+    public CompletableFuture<long[]> submit(long[] inputIds, LongConsumer listener) {
+        if (inputIds.length == 0) {
+            throw new IllegalArgumentException("inputIds must not be empty");
+        }
+        Request request = new Request(uidGenerator.getAndIncrement(), inputIds, listener);
+        if (closed) {
+            request.future.completeExceptionally(
+                    new IllegalStateException("GenerationEngine is closed"));
+            return request.future;
+        }
+        queue.add(request);
+        if (closed && !worker.isAlive()) {
+            failPending(new IllegalStateException("GenerationEngine is closed"));
+        }
+        return request.future;
+    }
+
+    /**
+     * Returns the number of requests waiting to join the running batch.
+     *
+     * @return the number of requests waiting to join the running batch
+     */
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    /**
+     * Returns the number of sequences in the running batch.
+     *
+     * @return the number of sequences in the running batch
+     */
+    public int getRunningSize() {
+        return running.size();
+    }
+
+    private void run() {
+        while (!closed || !queue.isEmpty() || !running.isEmpty()) {
+            try {
+                if (running.isEmpty()) {
+                    Request first = queue.poll(100, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    admit(first);
+                } else {
+                    admit(null);
+                }
+                step();
+            } catch (InterruptedException e) {
+                logger.warn("GenerationEngine worker interrupted", e);
+                failRunning(e);
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Throwable t) { // NOPMD
+                logger.warn("Generation step failed", t);
+                failRunning(t);
+            }
+        }
+        failPending(new IllegalStateException("GenerationEngine is closed"));
+    }
+
+    private void admit(Request first) throws TranslateException {
+        long batchSize = scheduler.getBatchSize();
+        long seqLength = scheduler.getSeqLength();
+
+        List<Request> admitted = new ArrayList<>();
+        int maxLength = 0;
+        Request request = first == null ? queue.peek() : first;
+        while (request != null && batchSize + admitted.size() < maxBatchSize) {
+            int length = Math.max(maxLength, request.inputIds.length);
+            long tokens = (batchSize + admitted.size() + 1) * Math.max(seqLength, length);
+            if (tokens > maxBatchTokens && (batchSize > 0 || !admitted.isEmpty())) {
+                break;
+            }
+            if (request != first) {
+                queue.poll();
+            }
+            admitted.add(request);
+            maxLength = length;
+            request = queue.peek();
+        }
+        if (admitted.isEmpty()) {
+            return;
+        }
+
+        // left pad the new sequences to the same length
+        long padTokenId = scheduler.getConfig().getPadTokenId();
+        long[] ids = new long[admitted.size() * maxLength];
+        long[] uids = new long[admitted.size()];
+        for (int i = 0; i < admitted.size(); ++i) {
+            Request r = admitted.get(i);
+            int pad = maxLength - r.inputIds.length;
+            for (int j = 0; j < pad; ++j) {
+                ids[i * maxLength + j] = padTokenId;
+            }
+            System.arraycopy(r.inputIds, 0, ids, i * maxLength + pad, r.inputIds.length);
+            uids[i] = r.uid;
+            running.put(r.uid, r);
+        }
+
+        NDArray inputIds = manager.create(ids, new Shape(admitted.size(), maxLength));
+        NDArray batchUids = manager.create(uids);
+        scheduler.admit(inputIds, batchUids);
+    }
+
+    private void step() throws TranslateException {
+        if (scheduler.isEmpty()) {
+            return;
+        }
+        long[] tokens;
+        try (NDArray outputIds = scheduler.step()) {
+            tokens = outputIds.toLongArray();
+        }
+        long[] uids = scheduler.getBatchUids();
+        for (int i = 0; i < uids.length; ++i) {
+            Request request = running.get(uids[i]);
+            if (request != null && request.listener != null) {
+                try {
+                    request.listener.accept(tokens[i]);
+                } catch (RuntimeException e) {
+                    logger.warn("Token listener failed", e);
+                }
+            }
+        }
+
+        for (Map.Entry<Long, NDArray> entry : scheduler.evict().entrySet()) {
+            NDArray output = entry.getValue();
+            Request request = running.remove(entry.getKey());
+            if (request != null) {
+                request.future.complete(output.toLongArray());
+            }
+            output.close();
+        }
+    }
+
+    private void failRunning(Throwable t) {
+        for (Request request : running.values()) {
+            request.future.completeExceptionally(t);
+        }
+        running.clear();
+        scheduler.release();
+    }
+
+    private void failPending(Throwable t) {
+        Request request;
+        while ((request = queue.poll()) != null) {
+            request.future.completeExceptionally(t);
+        }
+    }
+
+    /**
+     * Stops accepting new requests, finishes the queued and running requests and stops the
+     * generation loop.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            worker.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        failPending(new IllegalStateException("GenerationEngine is closed"));
+        manager.close();
+    }
+
+    private static final class Request {
+
+        long uid;
+        long[] inputIds;
+        LongConsumer listener;
+        CompletableFuture<long[]> future;
+
+        Request(long uid, long[] inputIds, LongConsumer listener) {
+            this.uid = uid;
+            this.inputIds = inputIds;
+            this.listener = listener;
+            future = new CompletableFuture<>();
+        }
+    }
+}
@@ -25,6 +25,14 @@ public class SearchConfig {
     private long padTokenId;
     private long eosTokenId;
     private boolean suffixPadding;
+    private float temperature;
+    private int topK;
+    private float topP;
+    private float minP;
+    private float repetitionPenalty;
+    private float presencePenalty;
+    private Long seed;
+    private int numDraftTokens;
 
     /** Constructs a new {@code ContrastiveSearchConfig} instance with default values. */
     public SearchConfig() {
@@ -34,6 +42,10 @@ public class SearchConfig {
         this.maxSeqLength = 30;
         this.eosTokenId = 50256;
         this.padTokenId = 50256;
+        this.temperature = 1f;
+        this.topP = 1f;
+        this.repetitionPenalty = 1f;
+        this.numDraftTokens = 4;
     }
 
     /**
@@ -152,4 +164,155 @@ public class SearchConfig {
     public void setSuffixPadding(boolean suffixPadding) {
         this.suffixPadding = suffixPadding;
     }
+
+    /**
+     * Returns the value of the temperature.
+     *
+     * @return the value of temperature
+     */
+    public float getTemperature() {
+        return temperature;
+    }
+
+    /**
+     * Sets the temperature used to scale the logits in sampling, 0 selects the most probable token.
+     *
+     * @param temperature the temperature used to scale the logits
+     */
+    public void setTemperature(float temperature) {
+        this.temperature = temperature;
+    }
+
+    /**
+     * Returns the value of the topK.
+     *
+     * @return the value of topK
+     */
+    public int getTopK() {
+        return topK;
+    }
+
+    /**
+     * Sets the number of the most probable tokens to sample from, 0 disables top-k filtering.
+     *
+     * <p>This is different from {@link #setK(int)}, which is the number of candidates in
+     * contrastive search.
+     *
+     * @param topK the number of the most probable tokens to sample from
+     */
+    public void setTopK(int topK) {
+        this.topK = topK;
+    }
+
+    /**
+     * Returns the value of the topP.
+     *
+     * @return the value of topP
+     */
+    public float getTopP() {
+        return topP;
+    }
+
+    /**
+     * Sets the cumulative probability of the most probable tokens to sample from (nucleus
+     * sampling), 1 disables top-p filtering.
+     *
+     * @param topP the cumulative probability of the most probable tokens to sample from
+     */
+    public void setTopP(float topP) {
+        this.topP = topP;
+    }
+
+    /**
+     * Returns the value of the minP.
+     *
+     * @return the value of minP
+     */
+    public float getMinP() {
+        return minP;
+    }
+
+    /**
+     * Sets the minimum probability of a token relative to the most probable token, 0 disables
+     * min-p filtering.
+     *
+     * @param minP the minimum probability relative to the most probable token
+     */
+    public void setMinP(float minP) {
+        this.minP = minP;
+    }
+
+    /**
+     * Returns the value of the repetitionPenalty.
+     *
+     * @return the value of repetitionPenalty
+     */
+    public float getRepetitionPenalty() {
+        return repetitionPenalty;
+    }
+
+    /**
+     * Sets the penalty for the tokens that already appeared, 1 means no penalty.
+     *
+     * <p>A positive logit is divided by the penalty, a negative logit is multiplied by it.
+     *
+     * @param repetitionPenalty the penalty for the tokens that already appeared
+     */
+    public void setRepetitionPenalty(float repetitionPenalty) {
+        this.repetitionPenalty = repetitionPenalty;
+    }
+
+    /**
+     * Returns the value of the presencePenalty.
+     *
+     * @return the value of presencePenalty
+     */
+    public float getPresencePenalty() {
+        return presencePenalty;
+    }
+
+    /**
+     * Sets the value subtracted from the logits of the tokens that already appeared.
+     *
+     * @param presencePenalty the value subtracted from the logits of the tokens that appeared
+     */
+    public void setPresencePenalty(float presencePenalty) {
+        this.presencePenalty = presencePenalty;
+    }
+
+    /**
+     * Returns the seed of the random generator used in sampling.
+     *
+     * @return the seed of the random generator, or {@code null} if not set
+     */
+    public Long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Sets the seed of the random generator used in sampling, to make the output reproducible.
+     *
+     * @param seed the seed of the random generator
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Returns the value of the numDraftTokens.
+     *
+     * @return the value of numDraftTokens
+     */
+    public int getNumDraftTokens() {
+        return numDraftTokens;
+    }
+
+    /**
+     * Sets the number of tokens proposed by the draft model in each step of speculative decoding.
+     *
+     * @param numDraftTokens the number of tokens proposed by the draft model in each step
+     */
+    public void setNumDraftTokens(int numDraftTokens) {
+        this.numDraftTokens = numDraftTokens;
+    }
 }
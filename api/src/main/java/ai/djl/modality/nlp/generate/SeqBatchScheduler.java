@@ -24,7 +24,9 @@ import ai.djl.translate.TranslateException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Collections;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
@@ -110,13 +112,141 @@ public abstract class SeqBatchScheduler {
      */
     public void addRequest(NDArray inputIds, NDArray batchUids) throws TranslateException {
         SeqBatcher seqBatcherNew = initForward(inputIds, batchUids);
-        if (seqBatcher == null) {
+        if (seqBatcher == null || seqBatcher.getData() == null) {
             seqBatcher = seqBatcherNew;
         } else {
             seqBatcher.addBatch(seqBatcherNew);
         }
     }
 
+    /**
+     * Adds new sequences to the running batch and releases the search state they replace.
+     *
+     * <p>Unlike {@link #addRequest(NDArray, NDArray)}, this method is meant for a long-running
+     * loop: the sub-manager of the replaced or merged {@link SeqBatcher} is closed, and the arrays
+     * of the previous search state, including {@code inputIds} and {@code batchUids}, are closed
+     * once they are no longer part of the running batch.
+     *
+     * @param inputIds the left padded input token ids
+     * @param batchUids the request uid identifying each sequence
+     * @throws TranslateException if forward fails
+     */
+    public void admit(NDArray inputIds, NDArray batchUids) throws TranslateException {
+        SeqBatcher added = initForward(inputIds, batchUids);
+        Set<NDArray> previous = added.snapshot();
+        previous.add(inputIds);
+        previous.add(batchUids);
+        if (isEmpty()) {
+            if (seqBatcher != null) {
+                seqBatcher.manager.close();
+            }
+            seqBatcher = added;
+        } else {
+            previous.addAll(seqBatcher.snapshot());
+            seqBatcher.addBatch(added);
+            added.manager.close();
+        }
+        seqBatcher.release(previous);
+    }
+
+    /**
+     * Runs one forward step on the running batch.
+     *
+     * <p>The arrays of the previous search state that are no longer used are closed. The caller
+     * owns the returned array.
+     *
+     * @return the output token ids of the running sequences, in the order of {@link
+     *     #getBatchUids()}
+     * @throws TranslateException if forward fails
+     */
+    public NDArray step() throws TranslateException {
+        if (isEmpty()) {
+            throw new IllegalStateException("No running sequences, please call admit first");
+        }
+        Set<NDArray> previous = seqBatcher.snapshot();
+        NDArray outputIds = inferenceCall();
+        seqBatcher.release(previous);
+        return outputIds;
+    }
+
+    /**
+     * Removes the finished sequences from the running batch.
+     *
+     * <p>The arrays of the previous search state that are no longer used are closed. The caller
+     * owns the returned arrays.
+     *
+     * @return the finished sequences stored as a map from requestUid to output token ids
+     */
+    public Map<Long, NDArray> evict() {
+        if (isEmpty() || !seqBatcher.sequenceComplete()) {
+            return Collections.emptyMap();
+        }
+        Set<NDArray> previous = seqBatcher.snapshot();
+        Map<Long, NDArray> finished = seqBatcher.collectAndTrim();
+        seqBatcher.release(previous);
+        return finished;
+    }
+
+    /**
+     * Drops the running batch and the collected results, and closes their arrays.
+     *
+     * <p>The scheduler can be used again after {@link #admit(NDArray, NDArray)}.
+     */
+    public void release() {
+        if (seqBatcher != null) {
+            seqBatcher.manager.close();
+            seqBatcher = null;
+        }
+        for (NDArray array : collectResults().values()) {
+            array.close();
+        }
+    }
+
+    /**
+     * Returns whether there is no running sequence.
+     *
+     * @return whether there is no running sequence
+     */
+    public boolean isEmpty() {
+        return seqBatcher == null || seqBatcher.getData() == null;
+    }
+
+    /**
+     * Returns the number of running sequences.
+     *
+     * @return the number of running sequences
+     */
+    public long getBatchSize() {
+        return isEmpty() ? 0 : seqBatcher.batchSize;
+    }
+
+    /**
+     * Returns the padded sequence length of the running batch.
+     *
+     * @return the padded sequence length of the running batch
+     */
+    public long getSeqLength() {
+        return isEmpty() ? 0 : seqBatcher.seqLength;
+    }
+
+    /**
+     * Returns the request uids of the running sequences, in batch order.
+     *
+     * @return the request uids of the running sequences
+     */
+    public long[] getBatchUids() {
+        return isEmpty() ? new long[0] : seqBatcher.batchUid.toLongArray();
+    }
+
+    /**
+     * Returns the search configuration.
+     *
+     * @return the search configuration
+     */
+    public SearchConfig getConfig() {
+        return config;
+    }
+
     /**
      * Collects finished results.
      *
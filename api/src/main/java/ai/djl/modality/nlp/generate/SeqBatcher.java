@@ -19,7 +19,9 @@ import ai.djl.ndarray.NDScope;
 import ai.djl.ndarray.index.NDIndex;
 import ai.djl.ndarray.types.Shape;
 
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -298,4 +300,36 @@ public class SeqBatcher {
     public boolean sequenceComplete() {
         return !exitIndexEndPosition.isEmpty();
     }
+
+    /**
+     * Returns the arrays that make up the current search state.
+     *
+     * <p>Each step creates new arrays for the search state and leaves the old ones attached to the
+     * manager. Together with {@link #release(Set)}, the arrays of a previous state that are not
+     * part of the current state can be closed, which keeps a long-running batch from growing the
+     * manager without bound.
+     *
+     * @return the arrays that make up the current search state
+     */
+    Set<NDArray> snapshot() {
+        Set<NDArray> set = Collections.newSetFromMap(new IdentityHashMap<>());
+        if (data != null) {
+            set.addAll(data.getList());
+        }
+        set.add(batchUid);
+        set.add(offSets);
+        return set;
+    }
+
+    /**
+     * Closes the arrays of a previous {@link #snapshot()} that are not part of the current state.
+     *
+     * @param previous the arrays of a previous search state
+     */
+    void release(Set<NDArray> previous) {
+        previous.removeAll(snapshot());
+        for (NDArray array : previous) {
+            array.close();
+        }
+    }
 }
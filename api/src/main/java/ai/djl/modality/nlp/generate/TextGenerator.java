@@ -13,6 +13,8 @@
 package ai.djl.modality.nlp.generate;
 
 import ai.djl.inference.Predictor;
+import ai.djl.metric.Metrics;
+import ai.djl.metric.Unit;
 import ai.djl.ndarray.NDArray;
 import ai.djl.ndarray.NDList;
 import ai.djl.ndarray.NDManager;
@@ -22,7 +24,9 @@ import ai.djl.ndarray.types.DataType;
 import ai.djl.ndarray.types.Shape;
 import ai.djl.translate.TranslateException;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -38,11 +42,15 @@ public class TextGenerator {
     private String searchName;
     private SearchConfig config;
     private Predictor<NDList, CausalLMOutput> predictor;
+    private Predictor<NDList, CausalLMOutput> draftPredictor;
+    private Metrics metrics;
 
     private NDArray positionOffset;
 
     private long[] endPosition;
 
+    private TokenListener tokenListener;
+
     /**
      * Constructs a new {@code TextGenerator} instance.
      *
@@ -59,83 +67,160 @@ public class TextGenerator {
         this.config = searchConfig;
     }
 
+    /**
+     * Constructs a new {@code TextGenerator} instance with a draft model for speculative decoding.
+     *
+     * @param predictor the language model
+     * @param searchName the autoregressive search name
+     * @param searchConfig the autoregressive search configuration
+     * @param draftPredictor the smaller draft model that shares the tokenizer of the language
+     *     model
+     * @see #speculativeSearch(NDArray)
+     */
+    public TextGenerator(
+            Predictor<NDList, CausalLMOutput> predictor,
+            String searchName,
+            SearchConfig searchConfig,
+            Predictor<NDList, CausalLMOutput> draftPredictor) {
+        this(predictor, searchName, searchConfig);
+        this.draftPredictor = draftPredictor;
+    }
+
     /**
      * Executes greedy search.
      *
+     * <p>A sequence is removed from the batch when it generates the end of sentence token, and the
+     * search stops when all sequences are finished. The finished sequences are padded with the
+     * pad token id.
+     *
      * @param inputIds the input token ids.
      * @return the output token ids stored as NDArray and the endPosition of each sentence
      * @throws TranslateException if forward fails
      */
-    @SuppressWarnings("try")
     public NDArray greedySearch(NDArray inputIds) throws TranslateException {
+        return greedySearch(inputIds, null);
+    }
+
+    /**
+     * Generates text by sampling the next token.
+     *
+     * <p>The temperature, top-k, top-p, min-p and penalties of the {@link SearchConfig} are
+     * applied. The output is reproducible if {@link SearchConfig#setSeed(long)} is set. Finished
+     * sequences are removed from the batch as in {@link #greedySearch(NDArray)}.
+     *
+     * @param inputIds the input token ids
+     * @return the output token ids stored as NDArray and the endPosition of each sentence
+     * @throws TranslateException if forward fails
+     */
+    public NDArray sampleSearch(NDArray inputIds) throws TranslateException {
+        return greedySearch(inputIds, new TokenSampler(config));
+    }
+
+    @SuppressWarnings("try")
+    private NDArray greedySearch(NDArray inputIds, TokenSampler sampler)
+            throws TranslateException {
         // Initialize the end position of each sentence
-        endPosition = new long[Math.toIntExact(inputIds.getShape().get(0))];
+        int numBatch = Math.toIntExact(inputIds.getShape().get(0));
+        endPosition = new long[numBatch];
         Arrays.fill(endPosition, config.getMaxSeqLength());
 
         NDArray attentionMask = prepareAttentionMaskOffset(inputIds, config);
-        NDManager manager = inputIds.getManager();
-        GreedyBatchTensorList searchState =
-                new GreedyBatchTensorList(inputIds, null, null, attentionMask);
+        long seqLength = inputIds.getShape().get(1);
+
+        // The attention mask is allocated once and the generated tokens are collected on the host,
+        // instead of concatenating them in each step
+        int capacity = getCapacity(seqLength);
+        NDArray attentionMaskBuffer = newAttentionMaskBuffer(attentionMask, capacity);
+        attentionMask.close();
+        long[] outputIds = newOutputIds(inputIds, capacity);
+
+        // The original batch index of the unfinished sequences
+        int[] rows = range(numBatch);
+        NDArray offSets = positionOffset;
+
+        GreedyBatchTensorList searchState = new GreedyBatchTensorList(inputIds, null, null, null);
         while (true) {
+            NDArray nextInputIds = searchState.getNextInputIds();
+            NDList pastKeyValues = searchState.getPastKeyValues();
             try (NDScope ignore = new NDScope()) {
-                NDArray pastOutputIds = searchState.getPastOutputIds();
-                NDArray nextInputIds = searchState.getNextInputIds();
-                NDArray pastAttentionMask = searchState.getPastAttentionMask();
-                NDList pastKeyValues = searchState.getPastKeyValues();
-                long pastSeqLength =
-                        pastOutputIds == null ? 0 : pastOutputIds.getShape().getLastDimension();
-                NDList modelInput = prepareInput(nextInputIds, pastAttentionMask, pastSeqLength, 1);
+                long pastSeqLength = seqLength - nextInputIds.getShape().getLastDimension();
+                NDArray pastAttentionMask = attentionMaskBuffer.get(":, :{}", seqLength);
+                NDList modelInput =
+                        prepareInput(nextInputIds, pastAttentionMask, pastSeqLength, offSets, 1);
                 if (pastKeyValues != null) {
                     modelInput.addAll(pastKeyValues);
                 }
                 CausalLMOutput modelOutput = predictor.predict(modelInput);
 
-                NDArray outputIds = StepGeneration.greedyStepGen(modelOutput.getLogits());
-
-                // Update searchState
-                if (pastOutputIds == null) {
-                    pastOutputIds = nextInputIds;
-                    searchState.setPastOutputIds(pastOutputIds);
+                NDArray outputIdsStep;
+                if (sampler == null) {
+                    outputIdsStep = StepGeneration.greedyStepGen(modelOutput.getLogits());
                 } else {
-                    pastOutputIds = pastOutputIds.concat(nextInputIds, 1);
-                    searchState.setPastOutputIds(pastOutputIds);
+                    NDArray logits = modelOutput.getLogits().get(":, -1, :");
+                    long[] tokens =
+                            sampleTokens(sampler, logits, rows, seqLength, outputIds, capacity);
+                    outputIdsStep =
+                            inputIds.getManager().create(tokens, new Shape(tokens.length, 1));
                 }
-                nextInputIds = outputIds;
-                searchState.setNextInputIds(nextInputIds);
-                pastKeyValues = modelOutput.getPastKeyValuesList();
-                searchState.setPastKeyValues(pastKeyValues);
-                pastAttentionMask =
-                        pastAttentionMask.concat(
-                                manager.ones(
-                                        new Shape(inputIds.getShape().get(0), 1), DataType.INT64),
-                                1);
-                searchState.setPastAttentionMask(pastAttentionMask);
+
+                // Update searchState
+                searchState.setNextInputIds(outputIdsStep);
+                searchState.setPastKeyValues(modelOutput.getPastKeyValuesList());
 
                 // memory management
-                NDScope.unregister(nextInputIds, pastAttentionMask, pastOutputIds);
-                NDScope.unregister(pastKeyValues);
+                NDScope.unregister(outputIdsStep);
+                NDScope.unregister(modelOutput.getPastKeyValuesList());
             }
 
-            // Termination Criteria
-            long[] outputIdsArray = searchState.getNextInputIds().toLongArray();
-            for (int i = 0; i < endPosition.length; ++i) {
-                for (long tokenId : outputIdsArray) {
-                    if (tokenId == config.getEosTokenId()) {
-                        endPosition[i] = searchState.getPastOutputIds().getShape().get(1) + 1;
-                        break;
-                    }
-                }
+            // The previous step is not referenced anymore
+            if (nextInputIds != inputIds) {
+                nextInputIds.close();
+            }
+            if (pastKeyValues != null) {
+                pastKeyValues.close();
             }
-            if (searchState.getPastOutputIds().getShape().get(1) + 1 >= config.getMaxSeqLength()) {
+
+            // Termination Criteria
+            long[] tokens = searchState.getNextInputIds().toLongArray();
+            int[] keep = collectTokens(tokens, rows, seqLength, outputIds, capacity);
+            seqLength++;
+            if (keep.length == 0 || seqLength >= config.getMaxSeqLength()) {
                 break;
             }
+
+            // Remove the finished sequences from the batch
+            if (keep.length < rows.length) {
+                try (NDArray keepIndex = inputIds.getManager().create(toLongArray(keep))) {
+                    NDIndex index = new NDIndex("{}", keepIndex);
+                    searchState.setNextInputIds(select(searchState.getNextInputIds(), index));
+                    searchState.setPastKeyValues(select(searchState.getPastKeyValues(), index));
+                    attentionMaskBuffer = select(attentionMaskBuffer, index);
+                    offSets = selectOffSets(offSets, index);
+                }
+                rows = select(rows, keep);
+            }
         }
-        return searchState.getPastOutputIds().concat(searchState.getNextInputIds(), 1);
+        searchState.getNextInputIds().close();
+        searchState.getPastKeyValues().close();
+        attentionMaskBuffer.close();
+        if (offSets != positionOffset) {
+            offSets.close();
+        }
+        return toOutputIds(inputIds.getManager(), outputIds, numBatch, capacity, seqLength);
     }
 
     /**
      * Generates text using beam search.
      *
+     * <p>A beam that generates the end of sentence token is moved to the finished hypotheses of its
+     * sentence, scored by its sum of log probabilities divided by its length, and the best {@code
+     * beam} hypotheses are kept. A sentence is removed from the batch when it has {@code beam}
+     * finished hypotheses and its best unfinished beam can not score better than the worst of them,
+     * and the search stops when all sentences are finished. The unfinished beams of the remaining
+     * sentences compete with the finished hypotheses when the maximum length is reached. The beams
+     * of each sentence are returned from the best to the worst score, and padded with the pad token
+     * id.
+     *
      * @param inputIds input tokens ids
      * @return the output token ids stored as NDArray and the endPosition of each sentence
      * @throws TranslateException if failed run forward
@@ -144,76 +229,123 @@ public class TextGenerator {
     @SuppressWarnings("try")
     public NDArray beamSearch(NDArray inputIds) throws TranslateException {
         // Initialize the end position of each sentence
-        endPosition = new long[Math.toIntExact(inputIds.getShape().get(0))];
+        int numBatch = Math.toIntExact(inputIds.getShape().get(0));
+        endPosition = new long[numBatch];
         Arrays.fill(endPosition, config.getMaxSeqLength());
 
         NDArray attentionMask = prepareAttentionMaskOffset(inputIds, config);
         NDManager manager = inputIds.getManager();
-        long numBeam = config.getBeam();
-        long numBatch = inputIds.getShape().get(0);
-        BeamBatchTensorList searchState = new BeamBatchTensorList();
+        int numBeam = config.getBeam();
+        long seqLength = inputIds.getShape().get(1);
+
+        // All beams of a sentence share the same attention mask, which is allocated once. The
+        // generated tokens are tracked with back pointers on the host, instead of re-selecting the
+        // past output ids in each step
+        NDArray attentionMaskBuffer;
+        try (NDArray repeated = attentionMask.repeat(0, numBeam)) {
+            attentionMaskBuffer = newAttentionMaskBuffer(repeated, getCapacity(seqLength));
+        }
+        List<long[]> tokens = new ArrayList<>();
+        List<long[]> sourceBeams = new ArrayList<>();
+        float[] scores = new float[numBatch * numBeam];
+        BeamHypotheses[] hypotheses = new BeamHypotheses[numBatch];
+        for (int i = 0; i < numBatch; ++i) {
+            hypotheses[i] = new BeamHypotheses(numBeam);
+        }
+        boolean[] done = new boolean[numBatch];
+
+        // The original batch index of the unfinished sentences
+        int[] rows = range(numBatch);
+        NDArray offSets = positionOffset;
+
+        BeamBatchTensorList searchState;
+        try (NDScope ignore = new NDScope()) {
+            // Initial beams
+            NDList modelInput = prepareInput(inputIds, attentionMask, 0, offSets, 1);
+            CausalLMOutput modelOutput = predictor.predict(modelInput);
+
+            // [batch, probDim], all the beams start from the input
+            NDArray logProbs = modelOutput.getLogits().get(":, -1, :").logSoftmax(1);
+            long probDim = logProbs.getShape().get(1);
+            NDList generatedOutput =
+                    selectBeams(logProbs, probDim, rows, tokens, sourceBeams, scores, hypotheses);
+            NDArray outputIds = generatedOutput.get(0);
+            NDArray lastScores = generatedOutput.get(1);
+
+            // [batch, beam, heads, seq_past, kvFeature]
+            Function<NDArray, NDArray> fn = ndarray -> ndarray.expandDims(1).repeat(1, numBeam);
+            NDList pastKeyValues =
+                    new NDList(
+                            modelOutput.getPastKeyValuesList().stream()
+                                    .map(fn)
+                                    .collect(Collectors.toList()));
+
+            // The last probs of the search state hold the sum of log probabilities of each beam
+            searchState = new BeamBatchTensorList(outputIds, null, pastKeyValues, null, lastScores);
+
+            NDScope.unregister(outputIds, lastScores);
+            NDScope.unregister(pastKeyValues);
+        }
+        attentionMask.close();
+        seqLength++;
 
-        long numHeads = 0;
-        long kvDim = 0;
         while (true) {
-            if (searchState.getPastAttentionMask() == null) {
-                // Initial beams
-                NDList modelInput = prepareInput(inputIds, attentionMask, 0, 1);
-                CausalLMOutput modelOutput = predictor.predict(modelInput);
-
-                // [batch, probDim]
-                NDArray allProbs = modelOutput.getLogits().get(":, -1, :").softmax(1);
-
-                // [batch, beam]
-                NDList topK = allProbs.topK(Math.toIntExact(numBeam), -1, true, false);
-                NDArray outputIds = topK.get(1).expandDims(2);
-                NDArray lastProbs = topK.get(0).normalize(1, 1);
-                assert outputIds.getShape().getShape().length == 3 : "Wrong shape";
-                assert lastProbs.getShape().getShape().length == 2 : "Wrong Shape";
-
-                // [batch, beam, seq + 1]
-                attentionMask =
-                        attentionMask
-                                .concat(manager.ones(new Shape(numBatch, 1), DataType.INT64), -1)
-                                .expandDims(1)
-                                .repeat(1, numBeam);
-
-                // [batch, beam, heads, seq_past, kvFeature]
-                Function<NDArray, NDArray> fn = ndarray -> ndarray.expandDims(1).repeat(1, numBeam);
-                NDList pastKeyValues =
-                        new NDList(
-                                modelOutput.getPastKeyValuesList().stream()
-                                        .map(fn)
-                                        .collect(Collectors.toList()));
-                // [batch, beam, seq_past]
-                NDArray pastOutputIds = inputIds.expandDims(1).repeat(1, numBeam);
-
-                searchState =
-                        new BeamBatchTensorList(
-                                outputIds, pastOutputIds, pastKeyValues, attentionMask, lastProbs);
+            // Termination Criteria
+            int[] keep = new int[rows.length];
+            int count = 0;
+            for (int i = 0; i < rows.length; ++i) {
+                int row = rows[i];
+                if (hypotheses[row].isDone(scores[row * numBeam], tokens.size())) {
+                    done[row] = true;
+                } else {
+                    keep[count++] = i;
+                }
+            }
+            if (count == 0 || seqLength >= config.getMaxSeqLength()) {
+                break;
+            }
 
-                numHeads = pastKeyValues.get(0).getShape().get(2);
-                kvDim = pastKeyValues.get(0).getShape().getLastDimension();
+            // Remove the finished sentences from the batch
+            if (count < rows.length) {
+                keep = Arrays.copyOf(keep, count);
+                long[] keepRows = new long[count * numBeam];
+                for (int i = 0; i < count; ++i) {
+                    for (int j = 0; j < numBeam; ++j) {
+                        keepRows[i * numBeam + j] = (long) keep[i] * numBeam + j;
+                    }
+                }
+                try (NDArray keepIndex = manager.create(toLongArray(keep));
+                        NDArray keepRowIndex = manager.create(keepRows)) {
+                    NDIndex index = new NDIndex("{}", keepIndex);
+                    searchState.setNextInputIds(select(searchState.getNextInputIds(), index));
+                    searchState.setLastProbs(select(searchState.getLastProbs(), index));
+                    searchState.setPastKeyValues(select(searchState.getPastKeyValues(), index));
+                    offSets = selectOffSets(offSets, index);
+                    attentionMaskBuffer =
+                            select(attentionMaskBuffer, new NDIndex("{}", keepRowIndex));
+                }
+                rows = select(rows, keep);
             }
 
+            int numActive = rows.length;
+            BeamBatchTensorList previous = searchState;
             try (NDScope ignore = new NDScope()) {
-                long pastSeqLength = searchState.getPastOutputIds().getShape().getLastDimension();
+                long pastSeqLength = seqLength - 1;
                 NDList modelInput =
                         prepareInput(
-                                searchState.getNextInputIds().reshape(numBatch * numBeam, 1),
-                                searchState.getPastAttentionMask().reshape(numBatch * numBeam, -1),
+                                searchState.getNextInputIds().reshape(numActive * numBeam, 1),
+                                attentionMaskBuffer.get(":, :{}", seqLength),
                                 pastSeqLength,
-                                config.getBeam());
+                                offSets,
+                                numBeam);
 
-                final long finalNumHeads = numHeads;
-                final long finalKvDim = kvDim;
+                NDArray pastKeyValue = searchState.getPastKeyValues().get(0);
+                long numHeads = pastKeyValue.getShape().get(2);
+                long kvDim = pastKeyValue.getShape().getLastDimension();
                 Function<NDArray, NDArray> fn =
                         ndarray ->
                                 ndarray.reshape(
-                                        numBatch * numBeam,
-                                        finalNumHeads,
-                                        pastSeqLength,
-                                        finalKvDim);
+                                        (long) numActive * numBeam, numHeads, pastSeqLength, kvDim);
                 NDList pastKeyValues =
                         new NDList(
                                 searchState.getPastKeyValues().stream()
@@ -222,50 +354,159 @@ public class TextGenerator {
                 modelInput.addAll(pastKeyValues);
                 CausalLMOutput modelOutput = predictor.predict(modelInput);
 
+                // Chain the log probabilities with the scores of the source beams
+                // [batch * beamSource, probDim] -> [batch, beamSource * probDim]
+                NDArray logProbs = modelOutput.getLogits().get(":, -1, :").logSoftmax(1);
+                long probDim = logProbs.getShape().get(1);
+                logProbs =
+                        logProbs.reshape(numActive, numBeam, probDim)
+                                .add(searchState.getLastProbs().expandDims(2))
+                                .reshape(numActive, numBeam * probDim);
                 NDList generatedOutput =
-                        StepGeneration.beamStepGeneration(
-                                searchState.getLastProbs(),
-                                modelOutput.getLogits(),
-                                numBatch,
-                                numBeam);
+                        selectBeams(
+                                logProbs, probDim, rows, tokens, sourceBeams, scores, hypotheses);
 
                 // Update searchState
-                searchState = updateSearchState(searchState, modelOutput, generatedOutput, manager);
+                searchState =
+                        updateSearchState(
+                                modelOutput, generatedOutput, numActive, numBeam, pastSeqLength);
 
                 // Memory management
-                NDScope.unregister(
-                        searchState.getNextInputIds(),
-                        searchState.getPastOutputIds(),
-                        searchState.getPastAttentionMask(),
-                        searchState.getLastProbs());
+                NDScope.unregister(searchState.getNextInputIds(), searchState.getLastProbs());
                 NDScope.unregister(searchState.getPastKeyValues());
             }
+            previous.getNextInputIds().close();
+            previous.getLastProbs().close();
+            previous.getPastKeyValues().close();
+            seqLength++;
+        }
+        searchState.getNextInputIds().close();
+        searchState.getLastProbs().close();
+        searchState.getPastKeyValues().close();
+        attentionMaskBuffer.close();
+        if (offSets != positionOffset) {
+            offSets.close();
+        }
 
-            // Termination Criteria
-            long[] outputIdsArray = searchState.getNextInputIds().toLongArray();
-            for (int i = 0; i < endPosition.length; ++i) {
-                for (long tokenId : outputIdsArray) {
-                    if (tokenId == config.getEosTokenId()) {
-                        endPosition[i] = searchState.getPastOutputIds().getShape().get(1) + 1;
-                        break;
-                    }
+        // The unfinished beams compete with the finished hypotheses at the maximum length
+        int lastStep = tokens.size() - 1;
+        for (int row : rows) {
+            if (!done[row]) {
+                for (int j = 0; j < numBeam; ++j) {
+                    hypotheses[row].add(scores[row * numBeam + j], lastStep, j, false);
                 }
             }
-            if (searchState.getPastOutputIds().getShape().getLastDimension() + 1
-                    >= config.getMaxSeqLength()) {
-                break;
+        }
+
+        // The past output ids of a hypothesis are found by following the back pointers from its
+        // last token
+        int initSeqLength = Math.toIntExact(inputIds.getShape().get(1));
+        int length = Math.toIntExact(seqLength);
+        long[] input = inputIds.toLongArray();
+        long[] output = new long[numBatch * numBeam * length];
+        Arrays.fill(output, config.getPadTokenId());
+        for (int b = 0; b < numBatch; ++b) {
+            List<Hypothesis> finished = hypotheses[b].list;
+            for (int j = 0; j < numBeam; ++j) {
+                int offset = (b * numBeam + j) * length;
+                System.arraycopy(input, b * initSeqLength, output, offset, initSeqLength);
+                Hypothesis hypothesis = finished.get(j);
+                int source = hypothesis.beam;
+                for (int i = hypothesis.last; i >= 0; --i) {
+                    output[offset + initSeqLength + i] = tokens.get(i)[b * numBeam + source];
+                    source = Math.toIntExact(sourceBeams.get(i)[b * numBeam + source]);
+                }
+                if (hypothesis.eos) {
+                    output[offset + initSeqLength + hypothesis.last + 1] = config.getEosTokenId();
+                }
+            }
+            Hypothesis best = finished.get(0);
+            if (best.eos) {
+                endPosition[b] = initSeqLength + best.length();
+            }
+        }
+        if (tokenListener != null) {
+            // Only the best hypothesis of a finished sentence is final
+            for (int b = 0; b < numBatch; ++b) {
+                int offset = b * numBeam * length + initSeqLength;
+                int generated = hypotheses[b].list.get(0).length();
+                for (int i = 0; i < generated; ++i) {
+                    tokenListener.onToken(b, output[offset + i], i == generated - 1);
+                }
             }
         }
+        return manager.create(output, new Shape((long) numBatch * numBeam, length));
+    }
 
-        return searchState
-                .getPastOutputIds()
-                .concat(searchState.getNextInputIds(), -1)
-                .reshape(numBatch * numBeam, -1);
+    /**
+     * Selects the next beams of each sentence from the top {@code 2 * beam} candidates.
+     *
+     * <p>The end of sentence token can be chosen once per source beam, so there are always {@code
+     * beam} other candidates. A candidate that generates it is added to the finished hypotheses if
+     * it ranks within the beam width.
+     */
+    private NDList selectBeams(
+            NDArray logProbs,
+            long probDim,
+            int[] rows,
+            List<long[]> tokens,
+            List<long[]> sourceBeams,
+            float[] scores,
+            BeamHypotheses[] hypotheses) {
+        int numBeam = config.getBeam();
+        int numCandidates = 2 * numBeam;
+        int numActive = rows.length;
+        NDList topK = logProbs.topK(numCandidates, -1, true, true);
+        float[] values = topK.get(0).toType(DataType.FLOAT32, false).toFloatArray();
+        long[] indices = topK.get(1).toLongArray();
+
+        int step = tokens.size();
+        long[] stepTokens = new long[scores.length];
+        long[] stepSources = new long[scores.length];
+        long[] nextIds = new long[numActive * numBeam];
+        float[] nextScores = new float[numActive * numBeam];
+        long[] sources = new long[numActive * numBeam];
+        for (int i = 0; i < numActive; ++i) {
+            int row = rows[i];
+            int alive = 0;
+            for (int c = 0; c < numCandidates && alive < numBeam; ++c) {
+                int k = i * numCandidates + c;
+                long token = indices[k] % probDim;
+                int source = Math.toIntExact(indices[k] / probDim);
+                if (token == config.getEosTokenId()) {
+                    if (c < numBeam) {
+                        hypotheses[row].add(values[k], step - 1, source, true);
+                    }
+                    continue;
+                }
+                int j = i * numBeam + alive;
+                nextIds[j] = token;
+                nextScores[j] = values[k];
+                sources[j] = source;
+                int r = row * numBeam + alive;
+                stepTokens[r] = token;
+                stepSources[r] = source;
+                scores[r] = values[k];
+                alive++;
+            }
+        }
+        tokens.add(stepTokens);
+        sourceBeams.add(stepSources);
+
+        NDManager manager = logProbs.getManager();
+        return new NDList(
+                manager.create(nextIds, new Shape(numActive, numBeam, 1)),
+                manager.create(nextScores, new Shape(numActive, numBeam)),
+                manager.create(sources, new Shape(numActive, numBeam)));
     }
 
     /**
      * Generates text using contrastive search.
      *
+     * <p>A sequence is removed from the batch when it generates the end of sentence token, and the
+     * search stops when all sequences are finished. The finished sequences are padded with the
+     * pad token id.
+     *
      * @param inputIds input token ids
      * @return the output token ids stored as NDArray
      * @throws TranslateException if forward failed
@@ -277,26 +518,54 @@ public class TextGenerator {
         // attentionMask: [batchSize, pastSeq]. seq-dim-size = |past_seq| + |inputIds|.
 
         // Initialize the end position of each sentence
-        endPosition = new long[Math.toIntExact(inputIds.getShape().get(0))];
+        int numBatch = Math.toIntExact(inputIds.getShape().get(0));
+        endPosition = new long[numBatch];
         Arrays.fill(endPosition, config.getMaxSeqLength());
 
         NDManager manager = inputIds.getManager();
         NDArray attentionMask = prepareAttentionMaskOffset(inputIds, config);
-        ContrastiveBatchTensorList searchState = new ContrastiveBatchTensorList();
+        long seqLength = inputIds.getShape().get(1);
+
+        // The attention mask and hidden states are allocated once and the generated tokens are
+        // collected on the host, instead of concatenating them in each step
+        int capacity = getCapacity(seqLength);
+        NDArray attentionMaskBuffer = newAttentionMaskBuffer(attentionMask, capacity);
+        NDArray hiddenStatesBuffer;
+        long[] outputIds = newOutputIds(inputIds, capacity);
+
+        // The original batch index of the unfinished sequences
+        int[] rows = range(numBatch);
+        NDArray offSets = positionOffset;
+
+        ContrastiveBatchTensorList searchState;
+        try (NDScope ignore = new NDScope()) {
+            NDList modelInput = prepareInput(inputIds, attentionMask, 0, offSets, 1);
+            CausalLMOutput output = predictor.predict(modelInput);
+            NDArray lastLogits = output.getLogits().get(":, -1, :");
+            NDArray hiddenStates = output.getHiddenState();
+            long hiddenDim = hiddenStates.getShape().getLastDimension();
+            hiddenStatesBuffer =
+                    manager.zeros(
+                            new Shape(numBatch, capacity, hiddenDim), hiddenStates.getDataType());
+            hiddenStatesBuffer.set(new NDIndex(":, :{}, :", seqLength), hiddenStates);
+            searchState =
+                    new ContrastiveBatchTensorList(
+                            null,
+                            null,
+                            null,
+                            lastLogits,
+                            output.getPastKeyValuesList(),
+                            new long[] {});
+
+            NDScope.unregister(lastLogits, hiddenStatesBuffer);
+            NDScope.unregister(output.getPastKeyValuesList());
+        }
+        attentionMask.close();
+
         while (true) {
-            if (searchState.getPastKeyValues() == null) {
-                NDList modelInput = prepareInput(inputIds, attentionMask, 0, 1);
-                CausalLMOutput output = predictor.predict(modelInput);
-                NDArray lastLogits = output.getLogits().get(":, -1, :");
-                searchState =
-                        new ContrastiveBatchTensorList(
-                                inputIds,
-                                attentionMask,
-                                output.getHiddenState(),
-                                lastLogits,
-                                output.getPastKeyValuesList(),
-                                new long[] {});
-            }
+            ContrastiveBatchTensorList previous = searchState;
+            long numActive = rows.length;
+            long[] tokens;
 
             /* Contrastive search loop main part */
             // (1) candidate tokens recall;
@@ -325,15 +594,11 @@ public class TextGenerator {
                 assert kCopyPastKeyValues.get(0).getDataType() == DataType.FLOAT32
                         : "inputIds datatype should be Float32";
 
-                // [batch, seq_past] -> [batch * topK, seq_past] -> [batch * topK, seq_past + 1]
-                long numBatch = topKIds.getShape().get(0);
+                // [batch, seq_past + 1] -> [batch * topK, seq_past + 1]
                 NDArray kCopyPastAttentionMask =
-                        searchState.getPastAttentionMask().repeat(0, config.getK());
-                kCopyPastAttentionMask =
-                        kCopyPastAttentionMask.concat(
-                                manager.ones(
-                                        new Shape(numBatch * config.getK(), 1), DataType.INT64),
-                                1);
+                        attentionMaskBuffer
+                                .get(":, :{}", seqLength + 1)
+                                .repeat(0, config.getK());
                 assert kCopyPastKeyValues.get(0).getShape().get(2) + 1
                                 == kCopyPastAttentionMask.getShape().getLastDimension()
                         : "attentionMask_seq = past_seq + new_input_seq";
@@ -343,7 +608,8 @@ public class TextGenerator {
                         prepareInput(
                                 candidateInputIds,
                                 kCopyPastAttentionMask,
-                                searchState.getPastOutputIds().getShape().getLastDimension(),
+                                seqLength,
+                                offSets,
                                 config.getK());
                 candidateModelInput.addAll(kCopyPastKeyValues);
                 CausalLMOutput candidateOutput = predictor.predict(candidateModelInput);
@@ -352,55 +618,260 @@ public class TextGenerator {
                         StepGeneration.constrastiveStepGeneration(
                                 topKIds,
                                 searchState.getLogits(),
-                                searchState.getPastHiddenStates(),
+                                hiddenStatesBuffer.get(":, :{}, :", seqLength),
                                 candidateOutput.getHiddenState(),
-                                positionOffset,
+                                offSets,
                                 config.getAlpha());
 
                 // Update searchState for next loop
                 searchState =
-                        updateSearchState(searchState, candidateOutput, generatedOutput, manager);
+                        updateSearchState(
+                                candidateOutput,
+                                generatedOutput,
+                                manager,
+                                numActive,
+                                seqLength,
+                                hiddenStatesBuffer);
+                tokens = generatedOutput.get(0).toLongArray();
 
                 // Memory
-                NDScope.unregister(
-                        searchState.getPastOutputIds(),
-                        searchState.getPastAttentionMask(),
-                        searchState.getLogits(),
-                        searchState.getPastHiddenStates());
+                NDScope.unregister(searchState.getLogits());
                 NDScope.unregister(searchState.getPastKeyValues());
             }
+            previous.getLogits().close();
+            previous.getPastKeyValues().close();
 
             // Termination Criteria
-            long[] outputIdsArray = searchState.getPastOutputIds().toLongArray();
-            for (int i = 0; i < endPosition.length; ++i) {
-                for (long tokenId : outputIdsArray) {
-                    if (tokenId == config.getEosTokenId()) {
-                        endPosition[i] = searchState.getPastOutputIds().getShape().get(1);
-                        break;
+            int[] keep = collectTokens(tokens, rows, seqLength, outputIds, capacity);
+            seqLength++;
+            if (keep.length == 0 || seqLength >= config.getMaxSeqLength()) {
+                break;
+            }
+
+            // Remove the finished sequences from the batch
+            if (keep.length < rows.length) {
+                try (NDArray keepIndex = manager.create(toLongArray(keep))) {
+                    NDIndex index = new NDIndex("{}", keepIndex);
+                    searchState.setLogits(select(searchState.getLogits(), index));
+                    searchState.setPastKeyValues(select(searchState.getPastKeyValues(), index));
+                    attentionMaskBuffer = select(attentionMaskBuffer, index);
+                    hiddenStatesBuffer = select(hiddenStatesBuffer, index);
+                    offSets = selectOffSets(offSets, index);
+                }
+                rows = select(rows, keep);
+            }
+        }
+        searchState.getLogits().close();
+        searchState.getPastKeyValues().close();
+        attentionMaskBuffer.close();
+        hiddenStatesBuffer.close();
+        if (offSets != positionOffset) {
+            offSets.close();
+        }
+        return toOutputIds(manager, outputIds, numBatch, capacity, seqLength);
+    }
+
+    /**
+     * Generates text with speculative decoding.
+     *
+     * <p>In each step, the draft model proposes {@link SearchConfig#getNumDraftTokens()} tokens
+     * one by one, and the language model verifies all of them in a single forward. The proposed
+     * tokens that match the greedy choice of the language model are accepted together with the
+     * next token chosen by the language model, and the KV cache of both models is rolled back to
+     * the accepted tokens. The output is the same as {@link #greedySearch(NDArray)}. In a batch,
+     * the number of accepted tokens is the minimum over the unfinished sequences.
+     *
+     * <p>The ratio of accepted draft tokens is recorded as "SpeculativeAcceptanceRate" in the
+     * {@link Metrics} if set.
+     *
+     * @param inputIds the input token ids
+     * @return the output token ids stored as NDArray and the endPosition of each sentence
+     * @throws TranslateException if forward fails
+     */
+    @SuppressWarnings("try")
+    public NDArray speculativeSearch(NDArray inputIds) throws TranslateException {
+        if (draftPredictor == null) {
+            throw new IllegalArgumentException(
+                    "The draft model is required for speculative decoding");
+        }
+        // Initialize the end position of each sentence
+        int numBatch = Math.toIntExact(inputIds.getShape().get(0));
+        endPosition = new long[numBatch];
+        Arrays.fill(endPosition, config.getMaxSeqLength());
+
+        NDManager manager = inputIds.getManager();
+        NDArray attentionMask = prepareAttentionMaskOffset(inputIds, config);
+        long seqLength = inputIds.getShape().get(1);
+
+        // The proposals are limited to maxSeqLength, so the attention mask never grows over the
+        // capacity
+        int capacity = getCapacity(seqLength);
+        NDArray attentionMaskBuffer = newAttentionMaskBuffer(attentionMask, capacity);
+        attentionMask.close();
+        long[] outputIds = newOutputIds(inputIds, capacity);
+
+        // The original batch index of the unfinished sequences
+        int[] rows = range(numBatch);
+        NDArray offSets = positionOffset;
+
+        NDList pastKeyValues;
+        NDList draftPastKeyValues;
+        long[] tokens;
+        try (NDScope ignore = new NDScope()) {
+            NDArray mask = attentionMaskBuffer.get(":, :{}", seqLength);
+            CausalLMOutput output = predictor.predict(prepareInput(inputIds, mask, 0, offSets, 1));
+            tokens = StepGeneration.greedyStepGen(output.getLogits()).toLongArray();
+            CausalLMOutput draftOutput =
+                    draftPredictor.predict(prepareInput(inputIds, mask, 0, offSets, 1));
+            pastKeyValues = output.getPastKeyValuesList();
+            draftPastKeyValues = draftOutput.getPastKeyValuesList();
+            NDScope.unregister(pastKeyValues);
+            NDScope.unregister(draftPastKeyValues);
+        }
+        // The KV cache of the draft model may lag behind by one token
+        long draftSeqLength = seqLength;
+        int[] active = collectTokens(tokens, rows, seqLength, outputIds, capacity);
+        seqLength++;
+
+        long numProposed = 0;
+        long numAccepted = 0;
+        while (active.length > 0 && seqLength < config.getMaxSeqLength()) {
+            // Remove the finished sequences from the batch
+            if (active.length < rows.length) {
+                try (NDArray keepIndex = manager.create(toLongArray(active))) {
+                    NDIndex index = new NDIndex("{}", keepIndex);
+                    pastKeyValues = select(pastKeyValues, index);
+                    draftPastKeyValues = select(draftPastKeyValues, index);
+                    attentionMaskBuffer = select(attentionMaskBuffer, index);
+                    offSets = selectOffSets(offSets, index);
+                }
+                rows = select(rows, active);
+            }
+
+            int numActive = rows.length;
+            long remaining = config.getMaxSeqLength() - seqLength;
+            int numDraft = Math.toIntExact(Math.min(config.getNumDraftTokens(), remaining));
+            long[][] drafts = new long[numDraft][];
+            long[] verified;
+            int numAcceptedStep;
+            NDList previous = pastKeyValues;
+            NDList draftPrevious = draftPastKeyValues;
+            try (NDScope ignore = new NDScope()) {
+                // The draft model proposes tokens one by one, starting from the committed tokens
+                // that are not in its KV cache
+                NDList draftKeyValues = draftPastKeyValues;
+                long draftPastSeqLength = draftSeqLength;
+                for (int j = 0; j < numDraft; ++j) {
+                    NDArray draftInput;
+                    if (j == 0) {
+                        draftInput =
+                                committedTokens(
+                                        manager,
+                                        outputIds,
+                                        rows,
+                                        capacity,
+                                        draftSeqLength,
+                                        seqLength);
+                    } else {
+                        draftInput = manager.create(drafts[j - 1], new Shape(numActive, 1));
+                    }
+                    long length = draftInput.getShape().get(1);
+                    NDArray mask =
+                            attentionMaskBuffer.get(":, :{}", draftPastSeqLength + length);
+                    NDList modelInput =
+                            prepareInput(draftInput, mask, draftPastSeqLength, offSets, 1);
+                    modelInput.addAll(draftKeyValues);
+                    CausalLMOutput draftOutput = draftPredictor.predict(modelInput);
+                    NDArray draftIds = StepGeneration.greedyStepGen(draftOutput.getLogits());
+                    drafts[j] = draftIds.toLongArray();
+                    draftKeyValues = draftOutput.getPastKeyValuesList();
+                    draftPastSeqLength += length;
+                }
+
+                // The language model verifies the last committed token and the proposals at once
+                long[] input = new long[numActive * (numDraft + 1)];
+                for (int i = 0; i < numActive; ++i) {
+                    int offset = i * (numDraft + 1);
+                    input[offset] = outputIds[rows[i] * capacity + Math.toIntExact(seqLength) - 1];
+                    for (int j = 0; j < numDraft; ++j) {
+                        input[offset + j + 1] = drafts[j][i];
+                    }
+                }
+                NDArray verifyInput = manager.create(input, new Shape(numActive, numDraft + 1));
+                NDArray mask = attentionMaskBuffer.get(":, :{}", seqLength + numDraft);
+                NDList modelInput = prepareInput(verifyInput, mask, seqLength - 1, offSets, 1);
+                modelInput.addAll(pastKeyValues);
+                CausalLMOutput output = predictor.predict(modelInput);
+                verified = output.getLogits().argMax(-1).toLongArray();
+
+                numAcceptedStep = numDraft;
+                for (int i = 0; i < numActive; ++i) {
+                    int accepted = 0;
+                    while (accepted < numAcceptedStep
+                            && drafts[accepted][i] == verified[i * (numDraft + 1) + accepted]) {
+                        accepted++;
                     }
+                    numAcceptedStep = accepted;
                 }
+
+                // Rolls back the KV cache to the accepted tokens
+                long pastSeqLength = seqLength + numAcceptedStep;
+                pastKeyValues = truncate(output.getPastKeyValuesList(), pastSeqLength);
+                if (numDraft > 0) {
+                    draftSeqLength = Math.min(draftPastSeqLength, pastSeqLength);
+                    draftPastKeyValues = truncate(draftKeyValues, draftSeqLength);
+                    NDScope.unregister(draftPastKeyValues);
+                }
+                NDScope.unregister(pastKeyValues);
             }
-            if (searchState.getPastOutputIds().getShape().get(1) >= config.getMaxSeqLength()) {
-                break;
+            previous.close();
+            if (draftPastKeyValues != draftPrevious) {
+                draftPrevious.close();
             }
-        }
+            numProposed += (long) numDraft * numActive;
+            numAccepted += (long) numAcceptedStep * numActive;
 
-        return searchState.getPastOutputIds();
+            // Commits the accepted tokens and the token chosen by the language model
+            active = range(numActive);
+            for (int c = 0; c <= numAcceptedStep; ++c) {
+                if (active.length == 0 || seqLength >= config.getMaxSeqLength()) {
+                    break;
+                }
+                long[] step = new long[active.length];
+                int[] stepRows = new int[active.length];
+                for (int a = 0; a < active.length; ++a) {
+                    int i = active[a];
+                    step[a] =
+                            c < numAcceptedStep
+                                    ? drafts[c][i]
+                                    : verified[i * (numDraft + 1) + numAcceptedStep];
+                    stepRows[a] = rows[i];
+                }
+                int[] keep = collectTokens(step, stepRows, seqLength, outputIds, capacity);
+                active = select(active, keep);
+                seqLength++;
+            }
+        }
+        pastKeyValues.close();
+        draftPastKeyValues.close();
+        attentionMaskBuffer.close();
+        if (offSets != positionOffset) {
+            offSets.close();
+        }
+        if (metrics != null && numProposed > 0) {
+            float rate = 100f * numAccepted / numProposed;
+            metrics.addMetric("SpeculativeAcceptanceRate", rate, Unit.PERCENT);
+        }
+        return toOutputIds(manager, outputIds, numBatch, capacity, seqLength);
     }
 
     private static BeamBatchTensorList updateSearchState(
-            BeamBatchTensorList searchState,
             CausalLMOutput modelOutput,
             NDList generatedOutput,
-            NDManager manager) {
-
-        NDList pastKeyValues = searchState.getPastKeyValues();
-        long numHeads = pastKeyValues.get(0).getShape().get(2);
-        long kvDim = pastKeyValues.get(0).getShape().getLastDimension();
-        long numBatch = searchState.getPastOutputIds().getShape().get(0);
-        long numBeam = searchState.getPastOutputIds().getShape().get(1);
-        long pastSeqLength = searchState.getPastOutputIds().getShape().getLastDimension();
-
+            long numBatch,
+            long numBeam,
+            long pastSeqLength) {
+        NDManager manager = modelOutput.getLogits().getManager();
         NDArray nextInputIds = generatedOutput.get(0);
         assert nextInputIds.getShape().getShape().length == 3 : "Wrong Shape";
         NDArray newProbs = generatedOutput.get(1);
@@ -415,49 +886,41 @@ public class TextGenerator {
                                 .repeat(1, numBeam),
                         sourceBeamSelected);
 
-        // A simple concatenation is not enough. During the beam selection process, some source
-        // beams are selected several times while some source beams are not selected even once.
-        // The pastOutput should be reselected to have the right correspondence to the
-        // newInputIds.
-        NDArray pastOutputIds =
-                searchState
-                        .getPastOutputIds()
-                        .concat(searchState.getNextInputIds(), -1)
-                        .get(sourceBeamIndex);
+        // During the beam selection process, some source beams are selected several times while
+        // some source beams are not selected even once. The kv cache is reselected to have the
+        // right correspondence to the newInputIds. The past output ids are reselected when the
+        // search finishes.
+        NDArray pastKeyValue = modelOutput.getPastKeyValuesList().get(0);
+        long numHeads = pastKeyValue.getShape().get(1);
+        long kvDim = pastKeyValue.getShape().getLastDimension();
         Function<NDArray, NDArray> fn =
                 ndarray ->
                         ndarray.reshape(numBatch, numBeam, numHeads, pastSeqLength + 1, kvDim)
                                 .get(sourceBeamIndex);
-        pastKeyValues =
+        NDList pastKeyValues =
                 new NDList(
                         modelOutput.getPastKeyValuesList().stream()
                                 .map(fn)
                                 .collect(Collectors.toList()));
 
-        NDArray pastAttentionMask =
-                searchState
-                        .getPastAttentionMask()
-                        .concat(manager.ones(new Shape(numBatch, numBeam, 1), DataType.INT64), -1)
-                        .get(sourceBeamIndex);
-
-        return new BeamBatchTensorList(
-                nextInputIds, pastOutputIds, pastKeyValues, pastAttentionMask, newProbs);
+        return new BeamBatchTensorList(nextInputIds, null, pastKeyValues, null, newProbs);
     }
 
     private static ContrastiveBatchTensorList updateSearchState(
-            ContrastiveBatchTensorList searchState,
             CausalLMOutput candidateOutput,
             NDList generatedOutput,
-            NDManager manager) {
+            NDManager manager,
+            long numBatch,
+            long pastSeqLength,
+            NDArray hiddenStatesBuffer) {
         // Update searchState for next iteration
         assert candidateOutput.getLogits().getShape().get(1) == 1
                 : "dimension check: here, outputLogits corresponds to inputSeq == 1";
-        long numBatch = searchState.getLogits().getShape().get(0);
-        long logitsDim = searchState.getLogits().getShape().get(1);
-        long pastSeqLengthPriorUpdate = searchState.getPastOutputIds().getShape().get(1);
-        long numHeads = searchState.getPastKeyValues().get(0).getShape().get(1);
-        long kvDim = searchState.getPastKeyValues().get(0).getShape().get(3);
-        long hiddenDim = searchState.getPastHiddenStates().getShape().get(2);
+        long logitsDim = candidateOutput.getLogits().getShape().getLastDimension();
+        NDArray pastKeyValue = candidateOutput.getPastKeyValuesList().get(0);
+        long numHeads = pastKeyValue.getShape().get(1);
+        long kvDim = pastKeyValue.getShape().get(3);
+        long hiddenDim = hiddenStatesBuffer.getShape().get(2);
         long k = candidateOutput.getLogits().getShape().get(0) / numBatch;
 
         // [batch, 1]
@@ -477,7 +940,7 @@ public class TextGenerator {
         // [batch * k, heads, seq_past, feature] --select--> [batch, heads, seq_past, feature]
         Function<NDArray, NDArray> fn =
                 ndarray ->
-                        ndarray.reshape(numBatch, k, numHeads, pastSeqLengthPriorUpdate + 1, kvDim)
+                        ndarray.reshape(numBatch, k, numHeads, pastSeqLength + 1, kvDim)
                                 .get(selectIndex);
         NDList nextPastKeyValue =
                 new NDList(
@@ -485,35 +948,178 @@ public class TextGenerator {
                                 .map(fn)
                                 .collect(Collectors.toList()));
 
-        // To be concatenated into searchState.pastHiddenStates
-        // [batch * k, inputSeq=1, hiddenDim]
+        // Written into the hidden states buffer
+        // [batch * k, inputSeq=1, hiddenDim] --select--> [batch, 1, hiddenDim]
         NDArray newHiddenState = candidateOutput.getHiddenState();
         assert newHiddenState.getManager() == manager : "possible leaky memory";
-        NDArray nextPastHiddenStates =
-                searchState
-                        .getPastHiddenStates()
-                        .concat(
-                                newHiddenState.reshape(numBatch, k, 1, hiddenDim).get(selectIndex),
-                                1);
-
-        // To be concatenated into searchState.outputIds
-        // [batch, seq_past]
-        NDArray outputIds = generatedOutput.get(0);
-        NDArray nextOutputIds = searchState.getPastOutputIds().concat(outputIds, 1);
-
-        // [batch, seq_past]
-        NDArray nextPastAttentionMask =
-                searchState
-                        .getPastAttentionMask()
-                        .concat(manager.ones(new Shape(numBatch, 1), DataType.INT64), 1);
+        hiddenStatesBuffer.set(
+                new NDIndex(":, {}:{}, :", pastSeqLength, pastSeqLength + 1),
+                newHiddenState.reshape(numBatch, k, 1, hiddenDim).get(selectIndex));
 
         return new ContrastiveBatchTensorList(
-                nextOutputIds,
-                nextPastAttentionMask,
-                nextPastHiddenStates,
-                nextLogits,
-                nextPastKeyValue,
-                new long[] {});
+                null, null, null, nextLogits, nextPastKeyValue, new long[] {});
+    }
+
+    private int getCapacity(long initSeqLength) {
+        // At least one token is generated
+        return Math.toIntExact(Math.max(config.getMaxSeqLength(), initSeqLength + 1));
+    }
+
+    private static NDArray newAttentionMaskBuffer(NDArray attentionMask, long capacity) {
+        // The tokens to be generated are always attended
+        long numBatch = attentionMask.getShape().get(0);
+        long seqLength = attentionMask.getShape().get(1);
+        NDManager manager = attentionMask.getManager();
+        try (NDArray ones =
+                manager.ones(new Shape(numBatch, capacity - seqLength), DataType.INT64)) {
+            return attentionMask.concat(ones, 1);
+        }
+    }
+
+    private long[] newOutputIds(NDArray inputIds, int capacity) {
+        int numBatch = Math.toIntExact(inputIds.getShape().get(0));
+        int seqLength = Math.toIntExact(inputIds.getShape().get(1));
+        long[] input = inputIds.toLongArray();
+        long[] output = new long[numBatch * capacity];
+        Arrays.fill(output, config.getPadTokenId());
+        for (int i = 0; i < numBatch; ++i) {
+            System.arraycopy(input, i * seqLength, output, i * capacity, seqLength);
+        }
+        return output;
+    }
+
+    private static long[] sampleTokens(
+            TokenSampler sampler,
+            NDArray logits,
+            int[] rows,
+            long seqLength,
+            long[] outputIds,
+            int capacity) {
+        // logits: [batch, vocab]
+        int numBatch = rows.length;
+        long[] tokens = new long[numBatch];
+        int topK = sampler.getTopK();
+        if (!sampler.hasPenalty() && topK > 0 && topK < logits.getShape().get(1)) {
+            // Only the top-k logits are copied from the engine
+            NDList topKList = logits.topK(topK, -1, true, false);
+            float[] values = topKList.get(0).toType(DataType.FLOAT32, false).toFloatArray();
+            long[] indices = topKList.get(1).toLongArray();
+            for (int i = 0; i < numBatch; ++i) {
+                int index = sampler.sample(values, i * topK, topK, null, 0, 0);
+                tokens[i] = indices[i * topK + index];
+            }
+            return tokens;
+        }
+
+        int vocabSize = Math.toIntExact(logits.getShape().get(1));
+        float[] values = logits.toType(DataType.FLOAT32, false).toFloatArray();
+        for (int i = 0; i < numBatch; ++i) {
+            int from = rows[i] * capacity;
+            int to = from + Math.toIntExact(seqLength);
+            tokens[i] = sampler.sample(values, i * vocabSize, vocabSize, outputIds, from, to);
+        }
+        return tokens;
+    }
+
+    private static NDArray committedTokens(
+            NDManager manager, long[] outputIds, int[] rows, int capacity, long from, long to) {
+        int length = Math.toIntExact(to - from);
+        long[] tokens = new long[rows.length * length];
+        for (int i = 0; i < rows.length; ++i) {
+            int offset = rows[i] * capacity + Math.toIntExact(from);
+            System.arraycopy(outputIds, offset, tokens, i * length, length);
+        }
+        return manager.create(tokens, new Shape(rows.length, length));
+    }
+
+    private static NDList truncate(NDList pastKeyValues, long pastSeqLength) {
+        // [batch, heads, seq_past, kvFeature]
+        NDList truncated = new NDList(pastKeyValues.size());
+        for (NDArray array : pastKeyValues) {
+            truncated.add(array.get(":, :, :{}", pastSeqLength));
+        }
+        return truncated;
+    }
+
+    private int[] collectTokens(
+            long[] tokens, int[] rows, long seqLength, long[] outputIds, int capacity) {
+        // Returns the index of the unfinished sequences in the current batch
+        int[] keep = new int[rows.length];
+        int count = 0;
+        for (int i = 0; i < rows.length; ++i) {
+            outputIds[rows[i] * capacity + Math.toIntExact(seqLength)] = tokens[i];
+            boolean eos = tokens[i] == config.getEosTokenId();
+            if (eos) {
+                endPosition[rows[i]] = seqLength + 1;
+            } else {
+                keep[count++] = i;
+            }
+            if (tokenListener != null) {
+                boolean last = eos || seqLength + 1 >= config.getMaxSeqLength();
+                tokenListener.onToken(rows[i], tokens[i], last);
+            }
+        }
+        return Arrays.copyOf(keep, count);
+    }
+
+    private static NDArray toOutputIds(
+            NDManager manager, long[] outputIds, int numBatch, int capacity, long seqLength) {
+        if (seqLength == capacity) {
+            return manager.create(outputIds, new Shape(numBatch, capacity));
+        }
+        int length = Math.toIntExact(seqLength);
+        long[] output = new long[numBatch * length];
+        for (int i = 0; i < numBatch; ++i) {
+            System.arraycopy(outputIds, i * capacity, output, i * length, length);
+        }
+        return manager.create(output, new Shape(numBatch, length));
+    }
+
+    private static NDArray select(NDArray array, NDIndex index) {
+        NDArray selected = array.get(index);
+        array.close();
+        return selected;
+    }
+
+    private static NDList select(NDList list, NDIndex index) {
+        NDList selected = new NDList(list.size());
+        for (NDArray array : list) {
+            selected.add(select(array, index));
+        }
+        return selected;
+    }
+
+    private NDArray selectOffSets(NDArray offSets, NDIndex index) {
+        // The positionOffset of the whole batch is kept for the caller
+        NDArray selected = offSets.get(index);
+        if (offSets != positionOffset) {
+            offSets.close();
+        }
+        return selected;
+    }
+
+    private static int[] select(int[] rows, int[] keep) {
+        int[] selected = new int[keep.length];
+        for (int i = 0; i < keep.length; ++i) {
+            selected[i] = rows[keep[i]];
+        }
+        return selected;
+    }
+
+    private static int[] range(int size) {
+        int[] range = new int[size];
+        for (int i = 0; i < size; ++i) {
+            range[i] = i;
+        }
+        return range;
+    }
+
+    private static long[] toLongArray(int[] array) {
+        long[] ret = new long[array.length];
+        for (int i = 0; i < array.length; ++i) {
+            ret[i] = array[i];
+        }
+        return ret;
     }
 
     private NDArray prepareAttentionMaskOffset(NDArray inputIds, SearchConfig config) {
@@ -555,8 +1161,12 @@ public class TextGenerator {
         return attentionMask;
     }
 
-    private NDList prepareInput(
-            NDArray inputIds, NDArray attentionMask, long pastSeqLength, int repeat) {
+    private static NDList prepareInput(
+            NDArray inputIds,
+            NDArray attentionMask,
+            long pastSeqLength,
+            NDArray offSets,
+            int repeat) {
         // Pack the model input
         NDArray positionIds =
                 inputIds.getManager()
@@ -568,7 +1178,7 @@ public class TextGenerator {
                         .expandDims(0)
                         .repeat(0, inputIds.getShape().get(0));
 
-        NDArray positionIdsShifted = positionIds.subi(positionOffset.repeat(0, repeat));
+        NDArray positionIdsShifted = positionIds.subi(offSets.repeat(0, repeat));
         positionIds = positionIdsShifted.maximum(positionIdsShifted.zerosLike());
 
         return new NDList(inputIds, positionIds, attentionMask);
@@ -589,13 +1199,36 @@ public class TextGenerator {
                 return beamSearch(inputIds);
             case "contrastive":
                 return contrastiveSearch(inputIds);
+            case "sample":
+                return sampleSearch(inputIds);
+            case "speculative":
+                return speculativeSearch(inputIds);
             default:
                 throw new IllegalArgumentException(
                         "searchName not correctly specified. Please choose among: {greedy, beam,"
-                                + " contrastive}");
+                                + " contrastive, sample, speculative}");
         }
     }
 
+    /**
+     * Attaches a Metrics param to record the speculative decoding statistics.
+     *
+     * @param metrics the Metrics class
+     */
+    public void setMetrics(Metrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Sets the {@link TokenListener} that is notified as soon as a token is generated.
+     *
+     * @param tokenListener the {@link TokenListener}, or {@code null} to remove it
+     * @see TextStreamer
+     */
+    public void setTokenListener(TokenListener tokenListener) {
+        this.tokenListener = tokenListener;
+    }
+
     /**
      * Returns the value of the positionOffset.
      *
@@ -613,4 +1246,63 @@ public class TextGenerator {
     public long[] getEndPosition() {
         return endPosition;
     }
+
+    /** The finished hypotheses of a sentence in beam search, from the best to the worst score. */
+    private static final class BeamHypotheses {
+
+        private int numBeam;
+        private List<Hypothesis> list;
+
+        BeamHypotheses(int numBeam) {
+            this.numBeam = numBeam;
+            list = new ArrayList<>(numBeam + 1);
+        }
+
+        void add(float sumLogProbs, int last, int beam, boolean eos) {
+            Hypothesis hypothesis = new Hypothesis(sumLogProbs, last, beam, eos);
+            int index = list.size();
+            while (index > 0 && list.get(index - 1).score < hypothesis.score) {
+                index--;
+            }
+            if (index < numBeam) {
+                list.add(index, hypothesis);
+                if (list.size() > numBeam) {
+                    list.remove(numBeam);
+                }
+            }
+        }
+
+        /**
+         * Returns whether the sentence is finished, the same heuristic as the default {@code
+         * early_stopping=False} of Hugging Face.
+         */
+        boolean isDone(float bestSumLogProbs, int length) {
+            return list.size() == numBeam
+                    && list.get(numBeam - 1).score >= bestSumLogProbs / length;
+        }
+    }
+
+    /**
+     * A hypothesis made of the tokens of a beam up to the step {@code last}, optionally followed by
+     * the end of sentence token.
+     */
+    private static final class Hypothesis {
+
+        float score;
+        int last;
+        int beam;
+        boolean eos;
+
+        Hypothesis(float sumLogProbs, int last, int beam, boolean eos) {
+            this.last = last;
+            this.beam = beam;
+            this.eos = eos;
+            score = sumLogProbs / length();
+        }
+
+        /** Returns the number of generated tokens. */
+        int length() {
+            return eos ? last + 2 : last + 1;
+        }
+    }
 }
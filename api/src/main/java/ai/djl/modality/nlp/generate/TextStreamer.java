@@ -0,0 +1,109 @@
+/*
+ * Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.modality.nlp.generate;
+
+import ai.djl.inference.streaming.ChunkedBytesSupplier;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.function.Function;
+
+/**
+ * A {@link TokenListener} that publishes the generated text of each sequence as a stream of text
+ * deltas through a {@link ChunkedBytesSupplier}.
+ *
+ * <p>The new tokens of a sequence are decoded together with the tokens of the previous delta, so
+ * that the decoder sees enough context for the spacing between tokens, and the text that is added
+ * by the new tokens is appended as a UTF-8 chunk. Only this sliding window is decoded, so the cost
+ * per token does not grow with the length of the sequence. A delta is held back while the decoded
+ * text ends with an incomplete character. Each supplier has a limited capacity, the generation
+ * blocks when the consumer falls behind.
+ *
+ * <pre>
+ * TextStreamer streamer = new TextStreamer(1, tokenizer::decode, 16);
+ * generator.setTokenListener(streamer);
+ * executor.submit(() -&gt; generator.generate(inputIds));
+ * ChunkedBytesSupplier text = streamer.getSupplier(0);
+ * while (text.hasNext()) {
+ *     System.out.print(new String(text.nextChunk(1, TimeUnit.MINUTES), StandardCharsets.UTF_8));
+ * }
+ * </pre>
+ */
+public class TextStreamer implements TokenListener {
+
+    private Function<long[], String> decoder;
+    private ChunkedBytesSupplier[] suppliers;
+    private long[][] tokens;
+    private int[] sizes;
+    private int[] prefixOffsets;
+    private int[] readOffsets;
+
+    /**
+     * Constructs a new {@code TextStreamer} instance.
+     *
+     * @param batchSize the number of sequences in the input batch
+     * @param decoder the function to decode the token ids into text
+     * @param capacity the maximum number of pending chunks of each sequence
+     */
+    public TextStreamer(int batchSize, Function<long[], String> decoder, int capacity) {
+        this.decoder = decoder;
+        suppliers = new ChunkedBytesSupplier[batchSize];
+        tokens = new long[batchSize][16];
+        sizes = new int[batchSize];
+        prefixOffsets = new int[batchSize];
+        readOffsets = new int[batchSize];
+        for (int i = 0; i < batchSize; ++i) {
+            suppliers[i] = new ChunkedBytesSupplier(capacity);
+        }
+    }
+
+    /**
+     * Returns the {@link ChunkedBytesSupplier} of the text of a sequence.
+     *
+     * @param index the index of the sequence in the input batch
+     * @return the {@link ChunkedBytesSupplier} of the text of the sequence
+     */
+    public ChunkedBytesSupplier getSupplier(int index) {
+        return suppliers[index];
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void onToken(int index, long tokenId, boolean last) {
+        if (sizes[index] == tokens[index].length) {
+            tokens[index] = Arrays.copyOf(tokens[index], sizes[index] * 2);
+        }
+        tokens[index][sizes[index]++] = tokenId;
+
+        int prefix = prefixOffsets[index];
+        int read = readOffsets[index];
+        String prefixText = "";
+        if (prefix < read) {
+            prefixText = decoder.apply(Arrays.copyOfRange(tokens[index], prefix, read));
+        }
+        String text = decoder.apply(Arrays.copyOfRange(tokens[index], prefix, sizes[index]));
+        if (!last && text.endsWith("\uFFFD")) {
+            // Waits for the remaining bytes of a multi-byte character
+            return;
+        }
+        String delta = "";
+        if (text.length() > prefixText.length()) {
+            delta = text.substring(prefixText.length());
+            prefixOffsets[index] = read;
+            readOffsets[index] = sizes[index];
+        }
+        if (!delta.isEmpty() || last) {
+            suppliers[index].appendContent(delta.getBytes(StandardCharsets.UTF_8), last);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.modality.nlp.generate;
+
+/**
+ * A {@code TokenListener} is notified by the {@link TextGenerator} as soon as a token is generated.
+ *
+ * <p>Greedy and contrastive search notify each token at the step it is generated. Beam search
+ * only knows the final tokens of a sentence when the search ends, so the tokens of the best beam
+ * are notified at that point.
+ *
+ * @see TextStreamer
+ */
+@FunctionalInterface
+public interface TokenListener {
+
+    /**
+     * Notifies a generated token.
+     *
+     * <p>The listener is called on the generation thread, a slow listener blocks the generation.
+     *
+     * @param index the index of the sequence in the input batch
+     * @param tokenId the generated token id
+     * @param last true if this is the last token of the sequence
+     */
+    void onToken(int index, long tokenId, boolean last);
+}
@@ -0,0 +1,271 @@
+/*
+ * Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.modality.nlp.generate;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * {@code TokenSampler} samples the next token from the logits of a language model.
+ *
+ * <p>It supports the repetition and presence penalties, temperature, top-k, min-p and nucleus
+ * (top-p) sampling configured in the {@link SearchConfig}. The candidates are selected with
+ * partial selection in reused scratch buffers, the vocabulary is never fully sorted and no memory
+ * is allocated per step.
+ *
+ * <p>A {@code TokenSampler} holds its own random generator. It is not thread-safe, a new instance
+ * should be used for each request.
+ */
+public class TokenSampler {
+
+    private SearchConfig config;
+    private Random random;
+
+    private float[] keys;
+    private int[] candidates;
+    private int[] seen;
+    private int stamp;
+    private int lower;
+    private int upper;
+
+    /**
+     * Constructs a new {@code TokenSampler} instance.
+     *
+     * <p>The random generator is seeded with {@link SearchConfig#getSeed()} if it is set, so the
+     * sampled tokens are reproducible.
+     *
+     * @param config the search configuration
+     */
+    public TokenSampler(SearchConfig config) {
+        this.config = config;
+        Long seed = config.getSeed();
+        random = seed == null ? new Random() : new Random(seed);
+        keys = new float[0];
+        candidates = new int[0];
+        seen = new int[0];
+    }
+
+    /**
+     * Returns the number of the most probable tokens to sample from.
+     *
+     * @return the number of the most probable tokens to sample from, 0 if not limited
+     */
+    public int getTopK() {
+        return config.getTemperature() <= 0f ? 1 : config.getTopK();
+    }
+
+    /**
+     * Returns true if the sampling depends on the previous tokens.
+     *
+     * @return true if the repetition or presence penalty is set
+     */
+    public boolean hasPenalty() {
+        return config.getRepetitionPenalty() != 1f || config.getPresencePenalty() != 0f;
+    }
+
+    /**
+     * Samples a token from the logits.
+     *
+     * <p>The logits are modified in place by the penalties.
+     *
+     * @param logits the logits of one or more sequences
+     * @param offset the offset of the logits of the sequence
+     * @param size the number of logits of the sequence
+     * @param history the previous tokens, can be null
+     * @param from the start index of the previous tokens of the sequence in history
+     * @param to the end index (exclusive) of the previous tokens of the sequence in history
+     * @return the index of the sampled token in the logits of the sequence
+     */
+    public int sample(float[] logits, int offset, int size, long[] history, int from, int to) {
+        if (history != null && hasPenalty()) {
+            applyPenalty(logits, offset, size, history, from, to);
+        }
+
+        float temperature = config.getTemperature();
+        if (temperature <= 0f) {
+            // Falls back to greedy
+            int best = 0;
+            for (int i = 1; i < size; ++i) {
+                if (logits[offset + i] > logits[offset + best]) {
+                    best = i;
+                }
+            }
+            return best;
+        }
+
+        if (keys.length < size) {
+            keys = new float[size];
+            candidates = new int[size];
+        }
+        for (int i = 0; i < size; ++i) {
+            candidates[i] = i;
+            keys[i] = logits[offset + i];
+        }
+
+        int n = size;
+        int topK = config.getTopK();
+        if (topK > 0 && topK < n) {
+            selectTopK(n, topK);
+            n = topK;
+        }
+
+        // Unnormalized probabilities, the most probable token has 1
+        float max = Float.NEGATIVE_INFINITY;
+        for (int i = 0; i < n; ++i) {
+            max = Math.max(max, keys[i]);
+        }
+        double sum = 0;
+        for (int i = 0; i < n; ++i) {
+            keys[i] = (float) Math.exp((keys[i] - max) / temperature);
+            sum += keys[i];
+        }
+
+        float minP = config.getMinP();
+        if (minP > 0f) {
+            int count = 0;
+            sum = 0;
+            for (int i = 0; i < n; ++i) {
+                if (keys[i] >= minP || keys[i] == 1f) {
+                    keys[count] = keys[i];
+                    candidates[count++] = candidates[i];
+                    sum += keys[i];
+                }
+            }
+            n = count;
+        }
+
+        float topP = config.getTopP();
+        if (topP < 1f) {
+            n = selectTopP(n, topP * sum);
+            sum = 0;
+            for (int i = 0; i < n; ++i) {
+                sum += keys[i];
+            }
+        }
+
+        double r = random.nextDouble() * sum;
+        for (int i = 0; i < n - 1; ++i) {
+            r -= keys[i];
+            if (r < 0) {
+                return candidates[i];
+            }
+        }
+        return candidates[n - 1];
+    }
+
+    private void applyPenalty(
+            float[] logits, int offset, int size, long[] history, int from, int to) {
+        if (seen.length < size) {
+            seen = new int[size];
+            stamp = 0;
+        }
+        if (++stamp == Integer.MAX_VALUE) {
+            Arrays.fill(seen, 0);
+            stamp = 1;
+        }
+        float repetitionPenalty = config.getRepetitionPenalty();
+        float presencePenalty = config.getPresencePenalty();
+        for (int i = from; i < to; ++i) {
+            long id = history[i];
+            if (id < 0 || id >= size || seen[(int) id] == stamp) {
+                continue;
+            }
+            seen[(int) id] = stamp;
+            int index = offset + (int) id;
+            float logit = logits[index];
+            logit = logit > 0 ? logit / repetitionPenalty : logit * repetitionPenalty;
+            logits[index] = logit - presencePenalty;
+        }
+    }
+
+    private void selectTopK(int n, int k) {
+        // Moves the k largest keys to the front
+        int lo = 0;
+        int hi = n;
+        while (lo < hi) {
+            partition(lo, hi);
+            if (k <= lower) {
+                hi = lower;
+            } else if (k <= upper) {
+                return;
+            } else {
+                lo = upper;
+            }
+        }
+    }
+
+    private int selectTopP(int n, double target) {
+        // Moves the smallest set of keys whose sum reaches the target to the front
+        if (target <= 0) {
+            selectTopK(n, 1);
+            return 1;
+        }
+        int lo = 0;
+        int hi = n;
+        double need = target;
+        while (lo < hi && need > 0) {
+            partition(lo, hi);
+            double greater = sum(lo, lower);
+            if (lower > lo && greater >= need) {
+                hi = lower;
+                continue;
+            }
+            double pivot = keys[lower];
+            double equal = sum(lower, upper);
+            if (greater + equal >= need) {
+                int count = (int) Math.ceil((need - greater) / pivot);
+                return Math.min(lower + Math.max(count, 1), upper);
+            }
+            need -= greater + equal;
+            lo = upper;
+        }
+        return lo;
+    }
+
+    private void partition(int lo, int hi) {
+        // Three-way partition in descending order: [lo, lower) > pivot, [lower, upper) == pivot
+        // and [upper, hi) < pivot
+        float pivot = keys[(lo + hi) >>> 1];
+        int lt = lo;
+        int gt = hi;
+        int i = lo;
+        while (i < gt) {
+            if (keys[i] > pivot) {
+                swap(lt++, i++);
+            } else if (keys[i] < pivot) {
+                swap(i, --gt);
+            } else {
+                ++i;
+            }
+        }
+        lower = lt;
+        upper = gt;
+    }
+
+    private double sum(int from, int to) {
+        double sum = 0;
+        for (int i = from; i < to; ++i) {
+            sum += keys[i];
+        }
+        return sum;
+    }
+
+    private void swap(int i, int j) {
+        float key = keys[i];
+        keys[i] = keys[j];
+        keys[j] = key;
+        int candidate = candidates[i];
+        candidates[i] = candidates[j];
+        candidates[j] = candidate;
+    }
+}
@@ -268,6 +268,105 @@ public interface NDArrayEx {
             float momentum,
             boolean lazyUpdate);
 
+    /**
+     * Applies the Adam update to several parameters on the same device.
+     *
+     * <p>Engines that support multi-tensor kernels update all parameters with a few fused
+     * operations. The default implementation calls {@link #adamUpdate} for each parameter.
+     *
+     * @param weights the weights to update
+     * @param grads the gradients of the weights
+     * @param means the first moment estimates of the weights
+     * @param variances the second moment estimates of the weights
+     * @param learningRates the learning rate of each weight
+     * @param learningRateBiasCorrections the bias corrected learning rate of each weight
+     * @param weightDecay the weight decay
+     * @param rescaleGrad the value to rescale the gradients with
+     * @param clipGrad the value to clip the gradients with, negative to not clip
+     * @param beta1 the decay rate of the first moment estimates
+     * @param beta2 the decay rate of the second moment estimates
+     * @param epsilon a small quantity for numerical stability
+     * @param adamw true to apply decoupled weight decay
+     */
+    default void multiAdamUpdate(
+            NDList weights,
+            NDList grads,
+            NDList means,
+            NDList variances,
+            float[] learningRates,
+            float[] learningRateBiasCorrections,
+            float weightDecay,
+            float rescaleGrad,
+            float clipGrad,
+            float beta1,
+            float beta2,
+            float epsilon,
+            boolean adamw) {
+        for (int i = 0; i < weights.size(); ++i) {
+            NDArray weight = weights.get(i);
+            NDList inputs = new NDList(weight, grads.get(i), means.get(i), variances.get(i));
+            weight.getNDArrayInternal()
+                    .adamUpdate(
+                            inputs,
+                            new NDList(weight),
+                            learningRates[i],
+                            learningRateBiasCorrections[i],
+                            weightDecay,
+                            rescaleGrad,
+                            clipGrad,
+                            beta1,
+                            beta2,
+                            epsilon,
+                            true,
+                            adamw);
+        }
+    }
+
+    /**
+     * Applies the SGD update to several parameters on the same device.
+     *
+     * <p>Engines that support multi-tensor kernels update all parameters with a few fused
+     * operations. The default implementation calls {@link #sgdUpdate} for each parameter.
+     *
+     * @param weights the weights to update
+     * @param grads the gradients of the weights
+     * @param states the momentum states of the weights, ignored if momentum is 0
+     * @param learningRates the learning rate of each weight
+     * @param weightDecay the weight decay
+     * @param rescaleGrad the value to rescale the gradients with
+     * @param clipGrad the value to clip the gradients with, negative to not clip
+     * @param momentum the momentum
+     */
+    default void multiSgdUpdate(
+            NDList weights,
+            NDList grads,
+            NDList states,
+            float[] learningRates,
+            float weightDecay,
+            float rescaleGrad,
+            float clipGrad,
+            float momentum) {
+        for (int i = 0; i < weights.size(); ++i) {
+            NDArray weight = weights.get(i);
+            NDList inputs;
+            if (momentum != 0f) {
+                inputs = new NDList(weight, grads.get(i), states.get(i));
+            } else {
+                inputs = new NDList(weight, grads.get(i));
+            }
+            weight.getNDArrayInternal()
+                    .sgdUpdate(
+                            inputs,
+                            new NDList(weight),
+                            learningRates[i],
+                            weightDecay,
+                            rescaleGrad,
+                            clipGrad,
+                            momentum,
+                            true);
+        }
+    }
+
     ////////////////////////////////////////
     // Neural network
     ////////////////////////////////////////
@@ -22,6 +22,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.BufferedInputStream;
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
@@ -34,8 +35,14 @@ import java.nio.file.StandardCopyOption;
 import java.security.DigestInputStream;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.ZipInputStream;
 
@@ -120,23 +127,59 @@ public abstract class AbstractRepository implements Repository {
 
     /** {@inheritDoc} */
     @Override
+    @SuppressWarnings("try")
     public void prepare(Artifact artifact, Progress progress) throws IOException {
         Path resourceDir = getResourceDirectory(artifact);
         if (Files.exists(resourceDir)) {
             logger.debug("Files have been downloaded already: {}", resourceDir);
+            CacheLock.touch(resourceDir);
             return;
         }
 
-        Metadata metadata = artifact.getMetadata();
-        URI baseUri = metadata.getRepositoryUri();
-        Map<String, Artifact.Item> files = artifact.getFiles();
-
         Path parentDir = resourceDir.toAbsolutePath().getParent();
         if (parentDir == null) {
             throw new AssertionError("Parent path should never be null: " + resourceDir);
         }
-
         Files.createDirectories(parentDir);
+
+        // Only one thread or process downloads the artifact, the others wait for it
+        try (CacheLock lock = CacheLock.lock(resourceDir)) {
+            if (Files.exists(resourceDir)) {
+                logger.debug("Files have been downloaded by another process: {}", resourceDir);
+                return;
+            }
+            download(artifact, resourceDir, parentDir, progress);
+            CacheLock.touch(resourceDir);
+            lock.setSize(CacheLock.getSize(resourceDir));
+        }
+        CacheLock.evict(getCacheDirectory(), resourceDir);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Closeable lockResource(Artifact artifact) throws IOException {
+        Path cacheDir = getCacheDirectory().toAbsolutePath();
+        Path resourceDir = getResourceDirectory(artifact).toAbsolutePath();
+        if (resourceDir.equals(cacheDir) || !resourceDir.startsWith(cacheDir)) {
+            return Repository.super.lockResource(artifact);
+        }
+        while (true) {
+            CacheLock lock = CacheLock.lockShared(resourceDir);
+            if (Files.exists(resourceDir)) {
+                return lock;
+            }
+            // evicted by another process before the lock was acquired
+            lock.close();
+            prepare(artifact);
+        }
+    }
+
+    private void download(Artifact artifact, Path resourceDir, Path parentDir, Progress progress)
+            throws IOException {
+        Metadata metadata = artifact.getMetadata();
+        URI baseUri = metadata.getRepositoryUri();
+        Map<String, Artifact.Item> files = artifact.getFiles();
+
         Path tmp = Files.createTempDirectory(parentDir, resourceDir.toFile().getName());
         if (progress != null) {
             long totalSize = 0;
@@ -148,8 +191,13 @@ public abstract class AbstractRepository implements Repository {
 
         try {
             logger.debug("Items to download: {}", files.size());
-            for (Artifact.Item item : files.values()) {
-                download(tmp, baseUri, item, progress);
+            int threads = getDownloadThreads();
+            if (threads > 1 && files.size() > 1) {
+                downloadConcurrently(tmp, baseUri, files, threads, progress);
+            } else {
+                for (Artifact.Item item : files.values()) {
+                    download(tmp, baseUri, item, progress);
+                }
             }
             Utils.moveQuietly(tmp, resourceDir);
         } finally {
@@ -187,11 +235,98 @@ public abstract class AbstractRepository implements Repository {
         }
 
         logger.debug("Downloading artifact: {} ...", fileUri);
+        downloadFile(tmp, fileUri, item, progress);
+    }
+
+    /**
+     * Downloads the file of an {@link Artifact.Item} from the URI.
+     *
+     * <p>An HTTP download is resumed from the partial files of a previous download.
+     *
+     * @param tmp the directory to save the item
+     * @param fileUri the absolute URI of the file
+     * @param item the item to download
+     * @param progress the (optionally null) progress tracker
+     * @throws IOException if failed to download the file
+     */
+    protected void downloadFile(Path tmp, URI fileUri, Artifact.Item item, Progress progress)
+            throws IOException {
+        String scheme = fileUri.getScheme();
+        if ("http".equalsIgnoreCase(scheme) || "https".equalsIgnoreCase(scheme)) {
+            // The partial files are kept in the cache directory to resume the download
+            Path dir = getCacheDirectory().resolve("downloads");
+            ResumableDownload download =
+                    new ResumableDownload(fileUri.toURL(), dir, getDownloadThreads(), progress);
+            InputStream content = download.download();
+            try (InputStream is = new BufferedInputStream(content)) {
+                // The progress is already tracked by the download
+                save(is, tmp, item, null);
+            } finally {
+                // The download is complete, a failure here means the content is corrupted
+                download.delete();
+            }
+            return;
+        }
         try (InputStream is = new BufferedInputStream(fileUri.toURL().openStream())) {
             save(is, tmp, item, progress);
         }
     }
 
+    /**
+     * Returns the number of concurrent downloads, set by the {@code DJL_DOWNLOAD_THREADS}
+     * environment variable or system property.
+     *
+     * @return the number of concurrent downloads
+     */
+    protected int getDownloadThreads() {
+        String threads = Utils.getEnvOrSystemProperty("DJL_DOWNLOAD_THREADS", "4");
+        try {
+            return Math.max(1, Integer.parseInt(threads));
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid DJL_DOWNLOAD_THREADS: {}", threads);
+            return 1;
+        }
+    }
+
+    private void downloadConcurrently(
+            Path tmp, URI baseUri, Map<String, Artifact.Item> files, int threads, Progress progress)
+            throws IOException {
+        Progress sync = SynchronizedProgress.of(progress);
+        ExecutorService executor =
+                Executors.newFixedThreadPool(
+                        Math.min(threads, files.size()),
+                        r -> {
+                            Thread thread = new Thread(r, "download");
+                            thread.setDaemon(true);
+                            return thread;
+                        });
+        try {
+            List<Future<Void>> futures = new ArrayList<>(files.size());
+            for (Artifact.Item item : files.values()) {
+                futures.add(
+                        executor.submit(
+                                () -> {
+                                    download(tmp, baseUri, item, sync);
+                                    return null;
+                                }));
+            }
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Download interrupted.", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException("Failed to download artifact.", cause);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
     protected void save(InputStream is, Path tmp, Artifact.Item item, Progress progress)
             throws IOException {
         ProgressInputStream pis = new ProgressInputStream(is, progress);
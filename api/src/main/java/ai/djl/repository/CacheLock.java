@@ -0,0 +1,438 @@
+/*
+ * Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.repository;
+
+import ai.djl.util.Utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * A {@code CacheLock} guards a resource directory in the repository cache against concurrent
+ * downloads and evictions from other threads and other processes.
+ *
+ * <p>Each resource directory has a hidden lock file next to it. The lock file is locked with an OS
+ * file lock across processes, and with a per JVM lock state since file locks are held by the whole
+ * JVM. A download and an eviction hold the exclusive lock, a loaded
+ * model holds the shared lock, so a resource is never evicted while it is in use.
+ *
+ * <p>The modified time of the lock file records the last access of the resource, and the lock file
+ * stores the size of the resource. They are used to evict the least recently used resources when
+ * the cache grows over {@code DJL_CACHE_MAX_SIZE}, without reading the resource directories.
+ */
+final class CacheLock implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheLock.class);
+
+    private static final String SUFFIX = ".lock";
+    // a region past the content, so that the stored size can be read while the file is locked
+    private static final long LOCK_POSITION = Long.MAX_VALUE - 1;
+    private static final Map<Path, LockState> LOCKS = new ConcurrentHashMap<>();
+
+    private LockState state;
+    private FileChannel channel;
+    private FileLock fileLock;
+
+    private CacheLock(LockState state, FileChannel channel, FileLock fileLock) {
+        this.state = state;
+        this.channel = channel;
+        this.fileLock = fileLock;
+    }
+
+    /**
+     * Waits until no other thread or process uses the resource directory, and locks it
+     * exclusively.
+     *
+     * @param resourceDir the resource directory
+     * @return the acquired lock
+     * @throws IOException if failed to lock the resource directory
+     */
+    static CacheLock lock(Path resourceDir) throws IOException {
+        Path lockFile = getLockFile(resourceDir);
+        LockState state = getState(lockFile);
+        state.acquireExclusive();
+        FileChannel channel = null;
+        try {
+            channel =
+                    FileChannel.open(
+                            lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            FileLock fileLock = channel.lock(LOCK_POSITION, 1, false);
+            return new CacheLock(state, channel, fileLock);
+        } catch (IOException | RuntimeException e) {
+            if (channel != null) {
+                channel.close();
+            }
+            state.releaseExclusive();
+            throw e;
+        }
+    }
+
+    /**
+     * Waits until no other thread or process downloads or evicts the resource directory, and locks
+     * it shared.
+     *
+     * <p>A shared lock only prevents the resource from being evicted, the resource may not exist.
+     * It can be closed by any thread.
+     *
+     * @param resourceDir the resource directory
+     * @return the acquired lock
+     * @throws IOException if failed to lock the resource directory
+     */
+    static CacheLock lockShared(Path resourceDir) throws IOException {
+        LockState state = getState(getLockFile(resourceDir));
+        state.acquireShared();
+        return new CacheLock(state, null, null);
+    }
+
+    /**
+     * Records the size of the resource directory, the lock must be exclusive.
+     *
+     * @param size the size of the resource directory
+     * @throws IOException if failed to write the lock file
+     */
+    void setSize(long size) throws IOException {
+        channel.truncate(0);
+        channel.write(ByteBuffer.wrap(String.valueOf(size).getBytes(StandardCharsets.UTF_8)), 0);
+    }
+
+    /**
+     * Records an access of the resource directory.
+     *
+     * @param resourceDir the resource directory
+     */
+    static void touch(Path resourceDir) {
+        Path lockFile = getLockFile(resourceDir);
+        try {
+            if (Files.notExists(lockFile)) {
+                Files.createFile(lockFile);
+            } else {
+                FileTime now = FileTime.fromMillis(System.currentTimeMillis());
+                Files.setLastModifiedTime(lockFile, now);
+            }
+        } catch (IOException e) {
+            logger.debug("Failed to update the access time of: {}", resourceDir, e);
+        }
+    }
+
+    /**
+     * Deletes the least recently used resource directories until the cache is smaller than the
+     * {@code DJL_CACHE_MAX_SIZE}.
+     *
+     * <p>The resource directories used by other threads or processes are skipped. The partial
+     * files of the interrupted downloads count towards the cache size, but are not evicted.
+     *
+     * @param cacheDir the cache directory
+     * @param current the resource directory that was just used and should be kept
+     * @throws IOException if failed to list the cache directory
+     */
+    static void evict(Path cacheDir, Path current) throws IOException {
+        long maxSize = getMaxSize();
+        if (maxSize <= 0 || Files.notExists(cacheDir)) {
+            return;
+        }
+
+        List<Entry> entries = listEntries(cacheDir);
+        entries.sort(Comparator.comparing(e -> e.lastAccess));
+        long total = entries.stream().mapToLong(e -> e.size).sum();
+        total += getSize(cacheDir.resolve("downloads"));
+
+        Path keep = current.toAbsolutePath();
+        for (Entry entry : entries) {
+            if (total <= maxSize) {
+                break;
+            }
+            if (entry.size == 0 || entry.dir.toAbsolutePath().equals(keep)) {
+                continue;
+            }
+            try (CacheLock lock = tryLock(entry.dir)) {
+                if (lock == null) {
+                    logger.debug("Skip evicting a resource in use: {}", entry.dir);
+                    continue;
+                }
+                logger.info("Evicting cached resource: {}", entry.dir);
+                Utils.deleteQuietly(entry.dir);
+                lock.setSize(0);
+                total -= entry.size;
+            }
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void close() throws IOException {
+        if (fileLock == null) {
+            state.releaseShared();
+            return;
+        }
+        try {
+            fileLock.release();
+            channel.close();
+        } finally {
+            state.releaseExclusive();
+        }
+    }
+
+    private static CacheLock tryLock(Path resourceDir) throws IOException {
+        Path lockFile = getLockFile(resourceDir);
+        LockState state = getState(lockFile);
+        if (!state.tryAcquireExclusive()) {
+            return null;
+        }
+        FileChannel channel = null;
+        try {
+            channel = FileChannel.open(lockFile, StandardOpenOption.WRITE);
+            FileLock fileLock = channel.tryLock(LOCK_POSITION, 1, false);
+            if (fileLock != null) {
+                return new CacheLock(state, channel, fileLock);
+            }
+            channel.close();
+            state.releaseExclusive();
+            return null;
+        } catch (IOException | RuntimeException e) {
+            if (channel != null) {
+                channel.close();
+            }
+            state.releaseExclusive();
+            throw e;
+        }
+    }
+
+    private static LockState getState(Path lockFile) {
+        return LOCKS.computeIfAbsent(lockFile, LockState::new);
+    }
+
+    private static List<Entry> listEntries(Path cacheDir) throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        Files.walkFileTree(
+                cacheDir,
+                new SimpleFileVisitor<Path>() {
+
+                    /** {@inheritDoc} */
+                    @Override
+                    public FileVisitResult preVisitDirectory(
+                            Path dir, BasicFileAttributes attrs) {
+                        if (dir.equals(cacheDir)) {
+                            return FileVisitResult.CONTINUE;
+                        }
+                        // the files of a cached resource are not visited
+                        boolean resource = Files.isRegularFile(getLockFile(dir));
+                        return resource ? FileVisitResult.SKIP_SUBTREE : FileVisitResult.CONTINUE;
+                    }
+
+                    /** {@inheritDoc} */
+                    @Override
+                    public FileVisitResult visitFile(Path file, BasicFileAttributes attrs)
+                            throws IOException {
+                        if (isLockFile(file)) {
+                            Path dir = getResourceDir(file);
+                            long size = readSize(file, dir);
+                            entries.add(new Entry(dir, attrs.lastModifiedTime(), size));
+                        }
+                        return FileVisitResult.CONTINUE;
+                    }
+                });
+        return entries;
+    }
+
+    private static long readSize(Path lockFile, Path dir) throws IOException {
+        String value = new String(Files.readAllBytes(lockFile), StandardCharsets.UTF_8).trim();
+        if (!value.isEmpty()) {
+            try {
+                return Long.parseLong(value);
+            } catch (NumberFormatException e) {
+                logger.debug("Invalid size in lock file: {}", lockFile);
+            }
+        }
+        // lock files created before the size was recorded
+        return getSize(dir);
+    }
+
+    private static Path getLockFile(Path resourceDir) {
+        Path dir = resourceDir.toAbsolutePath();
+        Path parent = dir.getParent();
+        if (parent == null) {
+            throw new AssertionError("Parent path should never be null: " + resourceDir);
+        }
+        return parent.resolve('.' + dir.toFile().getName() + SUFFIX);
+    }
+
+    private static Path getResourceDir(Path lockFile) {
+        String name = lockFile.toFile().getName();
+        return lockFile.resolveSibling(name.substring(1, name.length() - SUFFIX.length()));
+    }
+
+    private static boolean isLockFile(Path path) {
+        String name = path.toFile().getName();
+        return name.startsWith(".") && name.endsWith(SUFFIX) && Files.isRegularFile(path);
+    }
+
+    static long getSize(Path dir) throws IOException {
+        if (Files.notExists(dir)) {
+            return 0;
+        }
+        try (Stream<Path> stream = Files.walk(dir)) {
+            return stream.filter(Files::isRegularFile).mapToLong(p -> p.toFile().length()).sum();
+        }
+    }
+
+    static long getMaxSize() {
+        String value = Utils.getEnvOrSystemProperty("DJL_CACHE_MAX_SIZE");
+        if (value == null || value.isEmpty()) {
+            return -1;
+        }
+        value = value.trim().toUpperCase(Locale.ROOT);
+        long unit = 1;
+        char c = value.charAt(value.length() - 1);
+        if (c == 'K' || c == 'M' || c == 'G' || c == 'T') {
+            unit = 1L << (10 * ("KMGT".indexOf(c) + 1));
+            value = value.substring(0, value.length() - 1);
+        }
+        try {
+            return Long.parseLong(value) * unit;
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid DJL_CACHE_MAX_SIZE: {}", value);
+            return -1;
+        }
+    }
+
+    /**
+     * The state of a lock file within the JVM. File locks are held by the whole JVM, so the threads
+     * are coordinated here, and all the shared locks of the JVM share one OS shared lock.
+     */
+    private static final class LockState {
+
+        private Path lockFile;
+        private int readers;
+        private boolean busy;
+        private FileChannel channel;
+        private FileLock fileLock;
+
+        LockState(Path lockFile) {
+            this.lockFile = lockFile;
+        }
+
+        synchronized void acquireExclusive() throws IOException {
+            while (busy || readers > 0) {
+                await();
+            }
+            busy = true;
+        }
+
+        synchronized boolean tryAcquireExclusive() {
+            if (busy || readers > 0) {
+                return false;
+            }
+            busy = true;
+            return true;
+        }
+
+        synchronized void releaseExclusive() {
+            busy = false;
+            notifyAll();
+        }
+
+        void acquireShared() throws IOException {
+            synchronized (this) {
+                while (busy) {
+                    await();
+                }
+                if (readers > 0) {
+                    ++readers;
+                    return;
+                }
+                busy = true;
+            }
+            // waits for the other processes outside the monitor
+            FileChannel fc = null;
+            try {
+                fc =
+                        FileChannel.open(
+                                lockFile,
+                                StandardOpenOption.CREATE,
+                                StandardOpenOption.READ,
+                                StandardOpenOption.WRITE);
+                FileLock lock = fc.lock(LOCK_POSITION, 1, true);
+                synchronized (this) {
+                    channel = fc;
+                    fileLock = lock;
+                    readers = 1;
+                }
+            } catch (IOException | RuntimeException e) {
+                if (fc != null) {
+                    fc.close();
+                }
+                throw e;
+            } finally {
+                releaseExclusive();
+            }
+        }
+
+        synchronized void releaseShared() throws IOException {
+            if (--readers > 0) {
+                return;
+            }
+            try {
+                fileLock.release();
+            } finally {
+                channel.close();
+                channel = null;
+                fileLock = null;
+                notifyAll();
+            }
+        }
+
+        private void await() throws IOException {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for " + lockFile);
+            }
+        }
+    }
+
+    private static final class Entry {
+
+        Path dir;
+        FileTime lastAccess;
+        long size;
+
+        Entry(Path dir, FileTime lastAccess, long size) {
+            this.dir = dir;
+            this.lastAccess = lastAccess;
+            this.size = size;
+        }
+    }
+}
@@ -15,6 +15,7 @@ package ai.djl.repository;
 import ai.djl.Application;
 import ai.djl.util.Progress;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
@@ -258,6 +259,17 @@ public interface Repository {
      */
     void prepare(Artifact artifact, Progress progress) throws IOException;
 
+    /**
+     * Locks the prepared artifact so that it is not evicted from the cache while it is in use.
+     *
+     * @param artifact the prepared artifact
+     * @return the lock to close once the artifact is no longer used
+     * @throws IOException if it failed to lock the artifact
+     */
+    default Closeable lockResource(Artifact artifact) throws IOException {
+        return () -> {};
+    }
+
     /**
      * Returns the cache directory for the repository.
      *
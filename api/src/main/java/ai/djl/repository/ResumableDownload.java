@@ -0,0 +1,371 @@
+/*
+ * Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.repository;
+
+import ai.djl.util.Progress;
+import ai.djl.util.Utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * A {@code ResumableDownload} downloads an HTTP resource into partial files in a stable directory.
+ *
+ * <p>If the server supports HTTP range requests, an interrupted download resumes from the partial
+ * files, and a large file is downloaded in fixed size chunks concurrently. The chunk layout only
+ * depends on the size of the file, so the chunks can be resumed with a different number of
+ * threads.
+ *
+ * <p>The partial files are only resumed if the remote file did not change. The ETag or the
+ * Last-Modified date of the remote file is saved with the partial files and sent with the range
+ * requests as If-Range. The partial files are discarded if the server doesn't send a validator,
+ * or sends the whole file because the validator doesn't match.
+ */
+final class ResumableDownload {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResumableDownload.class);
+
+    static final long CHUNK_SIZE = 16 * 1024 * 1024;
+
+    private URL url;
+    private Path dir;
+    private String name;
+    private int threads;
+    private long chunkSize;
+    private Progress progress;
+    private int numChunks;
+    private volatile String validator;
+
+    /**
+     * Constructs a new {@code ResumableDownload} instance.
+     *
+     * @param url the url to download
+     * @param dir the directory to save the partial files
+     * @param threads the maximum number of concurrent chunk downloads
+     * @param progress the (optionally null) progress tracker
+     */
+    ResumableDownload(URL url, Path dir, int threads, Progress progress) {
+        this(url, dir, threads, CHUNK_SIZE, progress);
+    }
+
+    ResumableDownload(URL url, Path dir, int threads, long chunkSize, Progress progress) {
+        this.url = url;
+        this.dir = dir;
+        this.threads = threads;
+        this.chunkSize = chunkSize;
+        this.progress = SynchronizedProgress.of(progress);
+        name = Utils.hash(url.toString());
+    }
+
+    /**
+     * Downloads the remaining content and returns the whole content.
+     *
+     * @return the downloaded content
+     * @throws IOException if failed to download
+     */
+    InputStream download() throws IOException {
+        if (Utils.isOfflineMode()) {
+            throw new IOException("Offline model is enabled.");
+        }
+        Files.createDirectories(dir);
+        Path part = dir.resolve(name + ".part");
+        validator = readValidator();
+        if (validator == null) {
+            // partial files can only be resumed if they are validated against the remote file
+            deletePartials();
+        }
+        long existing = Files.exists(part) ? Files.size(part) : 0;
+
+        HttpURLConnection conn = open(existing, -1);
+        try {
+            int code = conn.getResponseCode();
+            if (code == 416 && existing > 0) {
+                // If-Range matched, the partial file is complete if it has the remote size
+                if (parseTotal(conn.getHeaderField("Content-Range")) == existing) {
+                    logger.debug("Download is already completed: {}", url);
+                    if (progress != null) {
+                        progress.increment(existing);
+                    }
+                    return Files.newInputStream(part);
+                }
+                logger.debug("Discard invalid partial download: {}", url);
+                conn.disconnect();
+                deletePartials();
+                return download();
+            }
+            if (code != HttpURLConnection.HTTP_OK && code != HttpURLConnection.HTTP_PARTIAL) {
+                throw new IOException("Failed to download " + url + ", status code: " + code);
+            }
+
+            long total;
+            boolean append = code == HttpURLConnection.HTTP_PARTIAL;
+            if (append) {
+                total = parseTotal(conn.getHeaderField("Content-Range"));
+            } else {
+                if (validator != null) {
+                    // The remote file changed since the partial files were written
+                    logger.debug("Remote file changed, discard partial download: {}", url);
+                    deletePartials();
+                }
+                existing = 0;
+                total = conn.getContentLengthLong();
+            }
+            if (existing == 0) {
+                writeValidator(conn);
+            }
+
+            if (append && existing == 0 && threads > 1 && total >= 2 * chunkSize) {
+                return downloadChunks(conn, total);
+            }
+
+            if (existing > 0) {
+                logger.debug("Resume download from {} bytes: {}", existing, url);
+                if (progress != null) {
+                    progress.increment(existing);
+                }
+            }
+            try (InputStream is = conn.getInputStream()) {
+                copy(is, part, append, Long.MAX_VALUE);
+            }
+            if (total >= 0 && Files.size(part) != total) {
+                throw new IOException("Incomplete download: " + url);
+            }
+            return Files.newInputStream(part);
+        } finally {
+            conn.disconnect();
+        }
+    }
+
+    /** Deletes the partial files. */
+    void delete() {
+        deletePartials();
+    }
+
+    private void deletePartials() {
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, name + ".*")) {
+            for (Path path : stream) {
+                Utils.deleteQuietly(path);
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to delete partial download: {}", url, e);
+        }
+        validator = null;
+    }
+
+    private String readValidator() throws IOException {
+        Path file = dir.resolve(name + ".validator");
+        if (Files.notExists(file)) {
+            return null;
+        }
+        String value = new String(Files.readAllBytes(file), StandardCharsets.UTF_8).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private void writeValidator(HttpURLConnection conn) throws IOException {
+        // If-Range only accepts a strong ETag or a Last-Modified date
+        String value = conn.getHeaderField("ETag");
+        if (value == null || value.startsWith("W/")) {
+            value = conn.getHeaderField("Last-Modified");
+        }
+        validator = value;
+        Path file = dir.resolve(name + ".validator");
+        if (value == null) {
+            // without a validator, the partial files will not be resumed
+            Files.deleteIfExists(file);
+        } else {
+            Files.write(file, value.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private InputStream downloadChunks(HttpURLConnection conn, long total) throws IOException {
+        numChunks = Math.toIntExact((total + chunkSize - 1) / chunkSize);
+        logger.debug("Downloading {} chunks: {}", numChunks, url);
+
+        // The first chunk is read from the probe request if it's not started yet
+        Path first = dir.resolve(name + ".part.0");
+        int from = 0;
+        long probed = 0;
+        if (Files.notExists(first) || Files.size(first) == 0) {
+            try (InputStream is = conn.getInputStream()) {
+                copy(is, first, false, chunkSize);
+            }
+            probed = Files.size(first);
+            if (probed == chunkSize) {
+                from = 1;
+            }
+        }
+        conn.disconnect();
+
+        ExecutorService executor =
+                Executors.newFixedThreadPool(
+                        Math.min(threads, numChunks),
+                        r -> {
+                            Thread thread = new Thread(r, "download-chunk");
+                            thread.setDaemon(true);
+                            return thread;
+                        });
+        try {
+            List<Future<Void>> futures = new ArrayList<>(numChunks);
+            for (int i = from; i < numChunks; ++i) {
+                int index = i;
+                // the progress of the probe request is already counted
+                long counted = index == 0 ? probed : 0;
+                futures.add(
+                        executor.submit(
+                                () -> {
+                                    downloadChunk(index, total, counted);
+                                    return null;
+                                }));
+            }
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Download interrupted: " + url, e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException("Failed to download " + url, cause);
+        } finally {
+            executor.shutdownNow();
+        }
+        return new SequenceInputStream(new ChunkEnumeration());
+    }
+
+    private void downloadChunk(int index, long total, long counted) throws IOException {
+        Path part = dir.resolve(name + ".part." + index);
+        long start = index * chunkSize;
+        long length = Math.min(total - start, chunkSize);
+        long existing = Files.exists(part) ? Files.size(part) : 0;
+        if (existing > length) {
+            Files.delete(part);
+            existing = 0;
+        }
+        if (progress != null && existing > counted) {
+            progress.increment(existing - counted);
+        }
+        if (existing == length) {
+            return;
+        }
+
+        HttpURLConnection conn = open(start + existing, start + length - 1);
+        try {
+            int code = conn.getResponseCode();
+            if (code == HttpURLConnection.HTTP_OK && validator != null) {
+                throw new IOException("Remote file changed during download: " + url);
+            }
+            if (code != HttpURLConnection.HTTP_PARTIAL) {
+                throw new IOException("Range request is not supported, status code: " + code);
+            }
+            try (InputStream is = conn.getInputStream()) {
+                copy(is, part, true, length - existing);
+            }
+        } finally {
+            conn.disconnect();
+        }
+        if (Files.size(part) != length) {
+            throw new IOException("Incomplete download of chunk " + index + ": " + url);
+        }
+    }
+
+    private HttpURLConnection open(long start, long end) throws IOException {
+        // The Range header is always set to detect if the server supports range requests
+        HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+        String range = "bytes=" + start + '-' + (end >= 0 ? String.valueOf(end) : "");
+        conn.setRequestProperty("Range", range);
+        if (validator != null) {
+            // The server ignores the range and sends the whole file if it changed
+            conn.setRequestProperty("If-Range", validator);
+        }
+        return conn;
+    }
+
+    private void copy(InputStream is, Path file, boolean append, long limit) throws IOException {
+        StandardOpenOption option =
+                append ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING;
+        try (OutputStream os = Files.newOutputStream(file, StandardOpenOption.CREATE, option)) {
+            byte[] buf = new byte[81920];
+            long remaining = limit;
+            int read;
+            while (remaining > 0
+                    && (read = is.read(buf, 0, (int) Math.min(buf.length, remaining))) != -1) {
+                os.write(buf, 0, read);
+                remaining -= read;
+                if (progress != null) {
+                    progress.increment(read);
+                }
+            }
+        }
+    }
+
+    private static long parseTotal(String contentRange) {
+        // Content-Range: bytes 0-99/1234
+        if (contentRange == null) {
+            return -1;
+        }
+        int pos = contentRange.lastIndexOf('/');
+        if (pos < 0 || "*".equals(contentRange.substring(pos + 1))) {
+            return -1;
+        }
+        return Long.parseLong(contentRange.substring(pos + 1).trim());
+    }
+
+    /** Opens the chunks one by one, to avoid keeping all the chunk files open. */
+    private final class ChunkEnumeration implements Enumeration<InputStream> {
+
+        private int index;
+
+        /** {@inheritDoc} */
+        @Override
+        public boolean hasMoreElements() {
+            return index < numChunks;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public InputStream nextElement() {
+            if (index >= numChunks) {
+                throw new NoSuchElementException();
+            }
+            try {
+                return Files.newInputStream(dir.resolve(name + ".part." + index++));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.repository;
+
+import ai.djl.util.Progress;
+
+/** A {@link Progress} that can be updated by concurrent downloads. */
+final class SynchronizedProgress implements Progress {
+
+    private final Progress progress;
+
+    private SynchronizedProgress(Progress progress) {
+        this.progress = progress;
+    }
+
+    /**
+     * Returns a thread-safe view of the {@link Progress}.
+     *
+     * @param progress the (optionally null) progress tracker
+     * @return a thread-safe view of the {@link Progress}, or null if the progress is null
+     */
+    static Progress of(Progress progress) {
+        if (progress == null || progress instanceof SynchronizedProgress) {
+            return progress;
+        }
+        return new SynchronizedProgress(progress);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public synchronized void reset(String message, long max, String trailingMessage) {
+        progress.reset(message, max, trailingMessage);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public synchronized void start(long initialProgress) {
+        progress.start(initialProgress);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public synchronized void end() {
+        progress.end();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public synchronized void increment(long increment) {
+        progress.increment(increment);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public synchronized void update(long progress, String message) {
+        this.progress.update(progress, message);
+    }
+}
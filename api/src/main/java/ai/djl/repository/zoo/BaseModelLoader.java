@@ -33,6 +33,7 @@ import ai.djl.util.Utils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.Reader;
 import java.lang.reflect.Type;
@@ -92,6 +93,7 @@ public class BaseModelLoader implements ModelLoader {
         Map<String, Object> arguments = artifact.getArguments(criteria.getArguments());
         Map<String, String> options = artifact.getOptions(criteria.getOptions());
 
+        Closeable resourceLock = null;
         try {
             TranslatorFactory factory = getTranslatorFactory(criteria, arguments);
             Class<I> input = criteria.getInputClass();
@@ -104,6 +106,8 @@ public class BaseModelLoader implements ModelLoader {
             }
 
             mrl.prepare(artifact, progress);
+            // keeps the model files from being evicted while the model is in use
+            resourceLock = mrl.getRepository().lockResource(artifact);
             if (progress != null) {
                 progress.reset("Loading", 2);
                 progress.update(1);
@@ -171,10 +175,16 @@ public class BaseModelLoader implements ModelLoader {
                             engine);
             model.load(modelPath, null, options);
             Translator<I, O> translator = factory.newInstance(input, output, model, arguments);
-            return new ZooModel<>(model, translator);
+            ZooModel<I, O> zooModel = new ZooModel<>(model, translator);
+            zooModel.setResourceLock(resourceLock);
+            resourceLock = null;
+            return zooModel;
         } catch (TranslateException e) {
             throw new ModelNotFoundException("No matching translator found", e);
         } finally {
+            if (resourceLock != null) {
+                resourceLock.close();
+            }
             if (progress != null) {
                 progress.end();
             }
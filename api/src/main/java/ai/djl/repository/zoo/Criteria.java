@@ -76,6 +76,7 @@ public class Criteria<I, O> {
     private Block block;
     private String modelName;
     private Progress progress;
+    private Translator<I, O> translator;
     private List<ModelLoader> resolvedLoaders;
 
     Criteria(Builder<I, O> builder) {
@@ -94,6 +95,7 @@ public class Criteria<I, O> {
         this.block = builder.block;
         this.modelName = builder.modelName;
         this.progress = builder.progress;
+        this.translator = builder.translator;
     }
 
     /**
@@ -290,6 +292,10 @@ public class Criteria<I, O> {
         return modelName;
     }
 
+    Translator<I, O> getTranslator() {
+        return translator;
+    }
+
     /**
      * Returns the optional {@link Progress} for the model loading.
      *
@@ -343,21 +349,24 @@ public class Criteria<I, O> {
      * @return a new {@link Builder}
      */
     public Builder<I, O> toBuilder() {
-        return Criteria.builder()
-                .setTypes(inputClass, outputClass)
-                .optApplication(application)
-                .optEngine(engine)
-                .optDevice(device)
-                .optGroupId(groupId)
-                .optArtifactId(artifactId)
-                .optModelZoo(modelZoo)
-                .optFilters(filters)
-                .optArguments(arguments)
-                .optOptions(options)
-                .optTranslatorFactory(factory)
-                .optBlock(block)
-                .optModelName(modelName)
-                .optProgress(progress);
+        Builder<I, O> builder =
+                Criteria.builder()
+                        .setTypes(inputClass, outputClass)
+                        .optApplication(application)
+                        .optEngine(engine)
+                        .optDevice(device)
+                        .optGroupId(groupId)
+                        .optArtifactId(artifactId)
+                        .optModelZoo(modelZoo)
+                        .optFilters(filters == null ? null : new HashMap<>(filters))
+                        .optArguments(arguments == null ? null : new HashMap<>(arguments))
+                        .optOptions(options == null ? null : new HashMap<>(options))
+                        .optTranslatorFactory(factory)
+                        .optBlock(block)
+                        .optModelName(modelName)
+                        .optProgress(progress);
+        builder.translator = translator;
+        return builder;
     }
 
     /**
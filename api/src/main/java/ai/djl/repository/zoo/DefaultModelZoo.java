@@ -28,6 +28,8 @@ public class DefaultModelZoo extends ModelZoo {
 
     private static final Logger logger = LoggerFactory.getLogger(DefaultModelZoo.class);
 
+    private String locations;
+
     /** Constructs a new {@code LocalModelZoo} instance. */
     @SuppressWarnings("this-escape")
     public DefaultModelZoo() {
@@ -59,7 +61,12 @@ public class DefaultModelZoo extends ModelZoo {
         return Engine.getAllEngines();
     }
 
+    String getLocations() {
+        return locations;
+    }
+
     private void parseLocation(String locations) {
+        this.locations = locations;
         String[] urls = locations.split("\\s*,\\s*");
         for (String url : urls) {
             if (!url.isEmpty()) {
@@ -0,0 +1,368 @@
+/*
+ * Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.repository.zoo;
+
+import ai.djl.MalformedModelException;
+import ai.djl.Model;
+import ai.djl.util.Utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * A {@code ModelCache} shares loaded models between the callers that ask for the same {@link
+ * Criteria}.
+ *
+ * <p>{@link #loadModel(Criteria)} loads the model only once for equivalent {@link Criteria}s and
+ * returns a new {@link ZooModel} handle for each call. All handles share the same native model,
+ * closing a handle only releases it. A model that has no open handle left is idle, it stays in the
+ * cache so that it can be reused, and is closed when one of the following limits is exceeded:
+ *
+ * <ul>
+ *   <li>the model has been idle longer than the time to live
+ *   <li>there are more idle models than the maximum number of idle models, the least recently
+ *       used are closed first
+ *   <li>the estimated memory of all cached models exceeds the memory budget, the least recently
+ *       used idle models are closed first
+ * </ul>
+ *
+ * <p>Limits are checked whenever a model is loaded or released, and by {@link #cleanUp()}. The
+ * memory of a model is estimated by the size of its model files.
+ *
+ * <p>Two {@link Criteria} are equivalent if they have the same model urls or {@link ModelZoo},
+ * application, input and output types, engine, device, group id, artifact id, model name, filters,
+ * arguments and options. A custom {@link ai.djl.translate.Translator}, {@link
+ * ai.djl.translate.TranslatorFactory} or {@link ai.djl.nn.Block} only matches the same instance.
+ *
+ * <pre>
+ * try (ZooModel&lt;Image, Classifications&gt; model = ModelCache.getInstance().loadModel(criteria);
+ *         Predictor&lt;Image, Classifications&gt; predictor = model.newPredictor()) {
+ *     Classifications result = predictor.predict(image);
+ * }
+ * </pre>
+ */
+public class ModelCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ModelCache.class);
+
+    private static final ModelCache INSTANCE = newInstance();
+
+    private int maxIdle;
+    private long ttl;
+    private long maxMemory;
+    private Map<List<Object>, Entry> entries;
+    private long accessCount;
+
+    /**
+     * Constructs a new {@code ModelCache} instance.
+     *
+     * @param maxIdle the maximum number of idle models to keep, -1 for unlimited
+     * @param ttl the time in milliseconds an idle model is kept, -1 for unlimited
+     * @param maxMemory the memory budget in bytes of all cached models, -1 for unlimited
+     */
+    public ModelCache(int maxIdle, long ttl, long maxMemory) {
+        this.maxIdle = maxIdle;
+        this.ttl = ttl;
+        this.maxMemory = maxMemory;
+        entries = new HashMap<>();
+    }
+
+    /**
+     * Returns the process wide {@code ModelCache}.
+     *
+     * <p>The limits of the process wide cache are configured with {@code
+     * DJL_MODEL_CACHE_MAX_IDLE} (unlimited by default), {@code DJL_MODEL_CACHE_TTL} in seconds (300
+     * by default) and {@code DJL_MODEL_CACHE_MAX_MEMORY} in megabytes (unlimited by default).
+     *
+     * @return the process wide {@code ModelCache}
+     */
+    public static ModelCache getInstance() {
+        return INSTANCE;
+    }
+
+    private static ModelCache newInstance() {
+        long maxIdle = getConfig("DJL_MODEL_CACHE_MAX_IDLE", -1);
+        long ttl = getConfig("DJL_MODEL_CACHE_TTL", 300);
+        if (ttl > 0) {
+            ttl = TimeUnit.SECONDS.toMillis(ttl);
+        }
+        long memory = getConfig("DJL_MODEL_CACHE_MAX_MEMORY", -1);
+        if (memory > 0) {
+            memory *= 1024 * 1024;
+        }
+        return new ModelCache((int) Math.min(maxIdle, Integer.MAX_VALUE), ttl, memory);
+    }
+
+    private static long getConfig(String name, long defaultValue) {
+        String value = Utils.getEnvOrSystemProperty(name);
+        if (value == null || value.isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid {}: {}, using default: {}", name, value, defaultValue);
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Returns a {@link ZooModel} handle of the model that matches the criteria.
+     *
+     * <p>The model is loaded if there is no equivalent {@link Criteria} in the cache. Concurrent
+     * calls with equivalent {@link Criteria} wait for the same load. The returned handle must be
+     * closed when it is no longer used.
+     *
+     * @param criteria the {@link Criteria} of the model
+     * @param <I> the input type
+     * @param <O> the output type
+     * @return a {@link ZooModel} handle that shares the cached model
+     * @throws IOException for various exceptions loading data from the repository
+     * @throws ModelNotFoundException if no model with the specified criteria is found
+     * @throws MalformedModelException if the model data is malformed
+     */
+    @SuppressWarnings("unchecked")
+    public <I, O> ZooModel<I, O> loadModel(Criteria<I, O> criteria)
+            throws IOException, ModelNotFoundException, MalformedModelException {
+        List<Object> key = getKey(criteria);
+        Entry entry;
+        synchronized (this) {
+            entry = entries.computeIfAbsent(key, Entry::new);
+            entry.refCount++;
+        }
+        ZooModel<I, O> model;
+        try {
+            model = (ZooModel<I, O>) entry.load(criteria);
+        } catch (IOException | ModelNotFoundException | MalformedModelException e) {
+            release(entry);
+            throw e;
+        } catch (RuntimeException e) {
+            release(entry);
+            throw e;
+        }
+        cleanUp();
+        return new CachedModel<>(this, entry, model);
+    }
+
+    /**
+     * Returns the number of models in the cache.
+     *
+     * @return the number of models in the cache
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the estimated memory in bytes of all models in the cache.
+     *
+     * @return the estimated memory in bytes of all models in the cache
+     */
+    public synchronized long getMemory() {
+        return entries.values().stream().mapToLong(e -> e.memory).sum();
+    }
+
+    /** Closes the idle models that exceed the limits of this cache. */
+    public void cleanUp() {
+        List<Entry> evicted = new ArrayList<>();
+        synchronized (this) {
+            List<Entry> idle = new ArrayList<>();
+            long total = 0;
+            for (Entry entry : entries.values()) {
+                total += entry.memory;
+                if (entry.refCount == 0 && entry.model != null) {
+                    idle.add(entry);
+                }
+            }
+            idle.sort(Comparator.comparingLong(e -> e.accessOrder));
+            long now = System.currentTimeMillis();
+            int remaining = idle.size();
+            for (Entry entry : idle) {
+                if ((ttl >= 0 && now - entry.lastAccess >= ttl)
+                        || (maxIdle >= 0 && remaining > maxIdle)
+                        || (maxMemory >= 0 && total > maxMemory)) {
+                    entries.remove(entry.key);
+                    evicted.add(entry);
+                    total -= entry.memory;
+                    --remaining;
+                }
+            }
+        }
+        for (Entry entry : evicted) {
+            logger.debug("Closing idle model: {}", entry.model.getName());
+            entry.model.close();
+        }
+    }
+
+    /** Closes all idle models in the cache. */
+    public void clear() {
+        List<Entry> evicted = new ArrayList<>();
+        synchronized (this) {
+            for (Entry entry : new ArrayList<>(entries.values())) {
+                if (entry.refCount == 0 && entry.model != null) {
+                    entries.remove(entry.key);
+                    evicted.add(entry);
+                }
+            }
+        }
+        for (Entry entry : evicted) {
+            entry.model.close();
+        }
+    }
+
+    void release(Entry entry) {
+        synchronized (this) {
+            if (--entry.refCount == 0) {
+                entry.lastAccess = System.currentTimeMillis();
+                // breaks the ties of releases within the same millisecond
+                entry.accessOrder = ++accessCount;
+                if (entry.model == null) {
+                    entries.remove(entry.key);
+                }
+            }
+        }
+        cleanUp();
+    }
+
+    static List<Object> getKey(Criteria<?, ?> criteria) {
+        ModelZoo zoo = criteria.getModelZoo();
+        Object location = zoo;
+        if (zoo instanceof DefaultModelZoo) {
+            location = ((DefaultModelZoo) zoo).getLocations();
+        } else if (zoo != null) {
+            location = new Identity(zoo);
+        }
+        Object translator = criteria.getTranslator();
+        if (translator == null) {
+            translator = criteria.getTranslatorFactory();
+        }
+        return Arrays.asList(
+                location,
+                criteria.getApplication(),
+                criteria.getInputClass(),
+                criteria.getOutputClass(),
+                criteria.getEngine(),
+                criteria.getDevice(),
+                criteria.getGroupId(),
+                criteria.getArtifactId(),
+                criteria.getModelName(),
+                normalize(criteria.getFilters()),
+                normalize(criteria.getArguments()),
+                normalize(criteria.getOptions()),
+                translator == null ? null : new Identity(translator),
+                criteria.getBlock() == null ? null : new Identity(criteria.getBlock()));
+    }
+
+    private static <T> Map<String, T> normalize(Map<String, T> map) {
+        if (map == null || map.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        return new TreeMap<>(map);
+    }
+
+    private static long estimateMemory(Model model) {
+        Path path = model.getModelPath();
+        if (path == null || Files.notExists(path)) {
+            return 0;
+        }
+        try (Stream<Path> stream = Files.walk(path)) {
+            return stream.filter(Files::isRegularFile).mapToLong(p -> p.toFile().length()).sum();
+        } catch (IOException | UncheckedIOException e) {
+            logger.debug("Failed to estimate the memory of model: {}", path, e);
+            return 0;
+        }
+    }
+
+    static final class Entry {
+
+        List<Object> key;
+        ZooModel<?, ?> model;
+        int refCount;
+        long lastAccess;
+        long accessOrder;
+        long memory;
+
+        Entry(List<Object> key) {
+            this.key = key;
+        }
+
+        synchronized ZooModel<?, ?> load(Criteria<?, ?> criteria)
+                throws IOException, ModelNotFoundException, MalformedModelException {
+            if (model == null) {
+                ZooModel<?, ?> loaded = criteria.loadModel();
+                memory = estimateMemory(loaded);
+                model = loaded;
+            }
+            return model;
+        }
+    }
+
+    private static final class Identity {
+
+        private Object value;
+
+        Identity(Object value) {
+            this.value = value;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Identity && ((Identity) o).value == value;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(value);
+        }
+    }
+
+    private static final class CachedModel<I, O> extends ZooModel<I, O> {
+
+        private ModelCache cache;
+        private Entry entry;
+        private AtomicBoolean closed;
+
+        CachedModel(ModelCache cache, Entry entry, ZooModel<I, O> model) {
+            super(model.getWrappedModel(), model.getTranslator());
+            this.cache = cache;
+            this.entry = entry;
+            closed = new AtomicBoolean();
+        }
+
+        /** Releases this handle, the shared model is closed by the {@link ModelCache}. */
+        @Override
+        public void close() {
+            if (closed.compareAndSet(false, true)) {
+                cache.release(entry);
+            }
+        }
+    }
+}
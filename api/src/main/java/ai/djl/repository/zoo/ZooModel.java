@@ -14,7 +14,9 @@ package ai.djl.repository.zoo;
 
 import ai.djl.Device;
 import ai.djl.Model;
+import ai.djl.inference.BatchingPredictor;
 import ai.djl.inference.Predictor;
+import ai.djl.inference.PredictorPool;
 import ai.djl.ndarray.NDManager;
 import ai.djl.ndarray.types.DataType;
 import ai.djl.ndarray.types.Shape;
@@ -24,8 +26,10 @@ import ai.djl.training.TrainingConfig;
 import ai.djl.translate.Translator;
 import ai.djl.util.PairList;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.net.URL;
 import java.nio.file.Path;
 import java.util.Map;
@@ -42,6 +46,7 @@ public class ZooModel<I, O> implements Model {
 
     private Model model;
     private Translator<I, O> translator;
+    private Closeable resourceLock;
 
     /**
      * Constructs a {@code ZooModel} given the model and translator.
@@ -54,6 +59,15 @@ public class ZooModel<I, O> implements Model {
         this.translator = translator;
     }
 
+    /**
+     * Sets the lock that keeps the model files in the cache until this model is closed.
+     *
+     * @param resourceLock the lock of the model files
+     */
+    void setResourceLock(Closeable resourceLock) {
+        this.resourceLock = resourceLock;
+    }
+
     /** {@inheritDoc} */
     @Override
     public void load(Path modelPath, String prefix, Map<String, ?> options) {
@@ -149,6 +163,41 @@ public class ZooModel<I, O> implements Model {
         return model.newPredictor(translator, device);
     }
 
+    /**
+     * Creates a new {@link BatchingPredictor} that combines concurrent requests into batches with
+     * the default translator.
+     *
+     * @param maxBatchSize the maximum number of requests in a batch
+     * @param maxDelayMillis the maximum time in milliseconds a request waits for a batch to fill
+     * @return an instance of {@code BatchingPredictor}
+     */
+    public BatchingPredictor<I, O> newBatchingPredictor(int maxBatchSize, int maxDelayMillis) {
+        return new BatchingPredictor<>(newPredictor(), maxBatchSize, maxDelayMillis);
+    }
+
+    /**
+     * Creates a new {@link PredictorPool} with the default translator that can be shared across
+     * threads.
+     *
+     * @param size the maximum number of predictors in the pool
+     * @return an instance of {@code PredictorPool}
+     */
+    public PredictorPool<I, O> newPredictorPool(int size) {
+        return new PredictorPool<>(this::newPredictor, size);
+    }
+
+    /**
+     * Creates a new {@link PredictorPool} with the default translator and a specified device that
+     * can be shared across threads.
+     *
+     * @param device the device to use for prediction
+     * @param size the maximum number of predictors in the pool
+     * @return an instance of {@code PredictorPool}
+     */
+    public PredictorPool<I, O> newPredictorPool(Device device, int size) {
+        return new PredictorPool<>(() -> newPredictor(device), size);
+    }
+
     /** {@inheritDoc} */
     @Override
     public <P, Q> Predictor<P, Q> newPredictor(Translator<P, Q> translator, Device device) {
@@ -227,6 +276,17 @@ public class ZooModel<I, O> implements Model {
     /** {@inheritDoc} */
     @Override
     public void close() {
-        model.close();
+        try {
+            model.close();
+        } finally {
+            if (resourceLock != null) {
+                try {
+                    resourceLock.close();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                resourceLock = null;
+            }
+        }
     }
 }
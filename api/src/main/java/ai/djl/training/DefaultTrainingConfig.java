@@ -39,6 +39,11 @@ public class DefaultTrainingConfig implements TrainingConfig {
     private Device[] devices;
     private Loss loss;
     private ExecutorService executorService;
+    private ParameterServer parameterServer;
+    private boolean fusedUpdate;
+    private int gradientAccumulation = 1;
+    private int microBatchSize = -1;
+    private int metricsInterval = 1;
     private List<Evaluator> evaluators;
     private List<TrainingListener> listeners;
 
@@ -138,6 +143,100 @@ public class DefaultTrainingConfig implements TrainingConfig {
         return this;
     }
 
+    /**
+     * Sets the {@link ParameterServer} to update the parameters with, for example a {@link
+     * DistributedParameterServer} to train with multiple processes.
+     *
+     * <p>The {@link ParameterServer} must use the same {@link Optimizer} as this config, and is
+     * not closed by the {@link Trainer}.
+     *
+     * @param parameterServer the parameter server
+     * @return this {@link DefaultTrainingConfig}
+     */
+    public DefaultTrainingConfig optParameterServer(ParameterServer parameterServer) {
+        this.parameterServer = parameterServer;
+        return this;
+    }
+
+    /**
+     * Sets whether the optimizer updates all parameters on a device with a single multi-tensor
+     * update.
+     *
+     * <p>With the multi-tensor update, the {@link Optimizer} receives all parameters of a device
+     * at once, and engines that support it apply the update with a few fused operations instead of
+     * one engine call per parameter. This speeds up training of models with many small
+     * parameters. It only applies to the default {@link LocalParameterServer}.
+     *
+     * @param fusedUpdate true to use the multi-tensor optimizer update
+     * @return this {@code DefaultTrainingConfig}
+     */
+    public DefaultTrainingConfig optFusedUpdate(boolean fusedUpdate) {
+        this.fusedUpdate = fusedUpdate;
+        return this;
+    }
+
+    /**
+     * Sets the number of batches whose gradients are accumulated before the parameters are
+     * updated.
+     *
+     * <p>The loss of each batch is divided by the number of accumulated batches, so that training
+     * with a batch size of {@code b} and {@code n} accumulated batches computes the same gradient
+     * as a batch size of {@code n * b}. {@link Trainer#step()} only updates the parameters once
+     * every {@code n} calls. This requires an engine that accumulates the gradients of multiple
+     * backward calls, such as PyTorch.
+     *
+     * @param gradientAccumulation the number of batches whose gradients are accumulated
+     * @return this {@code DefaultTrainingConfig}
+     */
+    public DefaultTrainingConfig optGradientAccumulation(int gradientAccumulation) {
+        if (gradientAccumulation < 1) {
+            throw new IllegalArgumentException("gradientAccumulation must be greater than 0");
+        }
+        this.gradientAccumulation = gradientAccumulation;
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of items that are computed at once on a device.
+     *
+     * <p>Larger batches are split into micro-batches that run forward and backward one after
+     * another, and their gradients are accumulated. This bounds the memory used by the
+     * activations without changing the gradient of the batch. Like {@link
+     * #optGradientAccumulation(int)}, this requires an engine that accumulates the gradients of
+     * multiple backward calls.
+     *
+     * @param microBatchSize the micro-batch size, or -1 to not split batches
+     * @return this {@code DefaultTrainingConfig}
+     * @throws IllegalArgumentException if the micro-batch size is neither -1 nor positive
+     */
+    public DefaultTrainingConfig optMicroBatchSize(int microBatchSize) {
+        if (microBatchSize != -1 && microBatchSize < 1) {
+            throw new IllegalArgumentException("microBatchSize must be -1 or greater than 0");
+        }
+        this.microBatchSize = microBatchSize;
+        return this;
+    }
+
+    /**
+     * Sets the number of batches between two reads of the training metrics from the devices.
+     *
+     * <p>Reading a metric waits for the training on the device to catch up. The default {@link
+     * TrainingListener}s, for example those of {@link TrainingListener.Defaults}, record the
+     * {@link ai.djl.training.listener.EvaluatorTrainingListener#TRAIN_ALL} metrics and check for
+     * divergence every {@code metricsInterval} batches. The default is 1, every batch.
+     *
+     * @param metricsInterval the number of batches between two reads of the training metrics
+     * @return this {@code DefaultTrainingConfig}
+     * @throws IllegalArgumentException if the interval is not positive
+     */
+    public DefaultTrainingConfig optMetricsInterval(int metricsInterval) {
+        if (metricsInterval < 1) {
+            throw new IllegalArgumentException("metricsInterval must be greater than 0");
+        }
+        this.metricsInterval = metricsInterval;
+        return this;
+    }
+
     /**
      * Adds multiple {@link Evaluator}s that needs to be computed during training.
      *
@@ -205,6 +304,36 @@ public class DefaultTrainingConfig implements TrainingConfig {
         return executorService;
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public ParameterServer getParameterServer() {
+        return parameterServer;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean isFusedUpdate() {
+        return fusedUpdate;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int getGradientAccumulation() {
+        return gradientAccumulation;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int getMicroBatchSize() {
+        return microBatchSize;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int getMetricsInterval() {
+        return metricsInterval;
+    }
+
     /** {@inheritDoc} */
     @Override
     public List<Evaluator> getEvaluators() {
@@ -0,0 +1,621 @@
+/*
+ * Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.training;
+
+import ai.djl.ndarray.NDArray;
+import ai.djl.ndarray.NDManager;
+import ai.djl.ndarray.types.DataType;
+import ai.djl.ndarray.types.Shape;
+import ai.djl.training.optimizer.Optimizer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * {@code DistributedParameterServer} is a {@link ParameterServer} that synchronizes the gradients
+ * of several worker processes with a ring all-reduce over TCP.
+ *
+ * <p>Every worker runs the same training loop on its own shard of the data and has a rank from 0
+ * to {@code worldSize - 1}. Worker {@code i} listens on the i-th address, receives from worker
+ * {@code i - 1} and sends to worker {@code i + 1}. When a parameter is initialized, its value is
+ * broadcast from worker 0 so that all workers start with the same weights. On each update, the
+ * gradients of the local devices and of all workers are summed, the same way {@link
+ * LocalParameterServer} sums the gradients of the local devices, and every worker applies the
+ * same optimizer update.
+ *
+ * <p>The parameters of the workers are matched by their order, which must be the same on every
+ * worker, see {@link ParameterStore#setParameterOrder(List)}. A checksum of the shapes is compared
+ * before each transfer, so that a mismatch fails instead of mixing up the gradients.
+ *
+ * <p>Gradients are transferred as float32. Small gradients are fused into buckets, and the
+ * all-reduce of a bucket runs on a background thread while the next buckets are copied from the
+ * devices and the optimizer is applied to the previous buckets.
+ *
+ * <pre>
+ * try (DistributedParameterServer ps =
+ *         DistributedParameterServer.builder()
+ *                 .setOptimizer(optimizer)
+ *                 .setRank(rank)
+ *                 .setWorkers("host0:29500", "host1:29500")
+ *                 .build()) {
+ *     TrainingConfig config =
+ *             new DefaultTrainingConfig(loss).optOptimizer(optimizer).optParameterServer(ps);
+ *     // train on the shard of this worker
+ * }
+ * </pre>
+ */
+public class DistributedParameterServer implements ParameterServer {
+
+    private static final Logger logger = LoggerFactory.getLogger(DistributedParameterServer.class);
+
+    private Optimizer optimizer;
+    private int rank;
+    private int worldSize;
+    private int bucketSize;
+    private ServerSocket server;
+    private Socket next;
+    private Socket prev;
+    private DataOutputStream out;
+    private DataInputStream in;
+    private ExecutorService sender;
+    private ExecutorService reducer;
+    private byte[] sendBuf;
+    private byte[] recvBuf;
+
+    DistributedParameterServer(Builder builder) throws IOException {
+        optimizer = builder.optimizer;
+        rank = builder.rank;
+        worldSize = builder.workers.length;
+        bucketSize = Math.max(1, builder.bucketSize / 4);
+        sendBuf = new byte[0];
+        recvBuf = new byte[0];
+        if (worldSize > 1) {
+            sender = Executors.newSingleThreadExecutor(r -> newThread(r, "ps-sender"));
+            reducer = Executors.newSingleThreadExecutor(r -> newThread(r, "ps-reducer"));
+            try {
+                connect(builder.workers, builder.timeout);
+            } catch (IOException e) {
+                close();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Creates a builder to build a {@code DistributedParameterServer}.
+     *
+     * @return a new builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns the rank of this worker.
+     *
+     * @return the rank of this worker
+     */
+    public int getRank() {
+        return rank;
+    }
+
+    /**
+     * Returns the number of workers.
+     *
+     * @return the number of workers
+     */
+    public int getWorldSize() {
+        return worldSize;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public synchronized void init(String parameterId, NDArray[] value) {
+        if (worldSize == 1) {
+            return;
+        }
+        NDArray array = value[0];
+        try {
+            verify(checksum(0, array.getShape()), "parameter " + parameterId);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to verify parameter: " + parameterId, e);
+        }
+        float[] data;
+        if (rank == 0) {
+            data = toFloatArray(array);
+        } else {
+            data = new float[Math.toIntExact(array.size())];
+        }
+        try {
+            broadcast(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to broadcast parameter: " + parameterId, e);
+        }
+        if (rank != 0) {
+            try (NDManager manager = array.getManager().newSubManager(array.getDevice())) {
+                NDArray received = manager.create(data, array.getShape());
+                received.toType(array.getDataType(), false).copyTo(array);
+            }
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void update(String parameterId, NDArray[] grads, NDArray[] params) {
+        update(new String[] {parameterId}, new NDArray[][] {grads}, new NDArray[][] {params});
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void batchUpdate(String[] parameterIds, NDArray[][] params) {
+        NDArray[][] grads = new NDArray[params.length][];
+        for (int i = 0; i < params.length; ++i) {
+            grads[i] = Arrays.stream(params[i]).map(NDArray::getGradient).toArray(NDArray[]::new);
+        }
+        try {
+            update(parameterIds, grads, params);
+        } finally {
+            for (NDArray[] array : grads) {
+                Arrays.stream(array).forEach(NDArray::close);
+            }
+        }
+    }
+
+    private synchronized void update(
+            String[] parameterIds, NDArray[][] grads, NDArray[][] params) {
+        List<Bucket> buckets = new ArrayList<>();
+        List<Future<?>> futures = new ArrayList<>();
+        Bucket bucket = new Bucket();
+        for (int i = 0; i < parameterIds.length; ++i) {
+            float[] grad = toFloatArray(grads[i][0]);
+            for (int j = 1; j < grads[i].length; ++j) {
+                float[] other = toFloatArray(grads[i][j]);
+                for (int k = 0; k < grad.length; ++k) {
+                    grad[k] += other[k];
+                }
+            }
+            if (bucket.size > 0 && bucket.size + grad.length > bucketSize) {
+                submit(bucket, buckets, futures);
+                bucket = new Bucket();
+            }
+            bucket.add(i, grad, params[i][0].getShape());
+        }
+        if (!bucket.indices.isEmpty()) {
+            submit(bucket, buckets, futures);
+        }
+
+        for (int b = 0; b < buckets.size(); ++b) {
+            Bucket reduced = buckets.get(b);
+            if (futures.get(b) != null) {
+                await(futures.get(b));
+            }
+            float[] data = reduced.data;
+            int offset = 0;
+            for (int index : reduced.indices) {
+                NDArray param = params[index][0];
+                int size = Math.toIntExact(param.size());
+                float[] grad = Arrays.copyOfRange(data, offset, offset + size);
+                offset += size;
+                for (NDArray p : params[index]) {
+                    try (NDManager manager = p.getManager().newSubManager(p.getDevice())) {
+                        NDArray array = manager.create(grad, p.getShape());
+                        optimizer.update(
+                                parameterIds[index], p, array.toType(p.getDataType(), false));
+                    }
+                }
+            }
+        }
+    }
+
+    private void submit(Bucket bucket, List<Bucket> buckets, List<Future<?>> futures) {
+        bucket.fuse();
+        buckets.add(bucket);
+        if (worldSize == 1) {
+            futures.add(null);
+        } else {
+            String name = "bucket " + (buckets.size() - 1);
+            futures.add(
+                    reducer.submit(
+                            () -> {
+                                verify(bucket.checksum, name);
+                                allReduce(bucket.data);
+                                return null;
+                            }));
+        }
+    }
+
+    /**
+     * Sums the values of all workers in place with a ring all-reduce.
+     *
+     * @param data the values of this worker, replaced by the sum of all workers
+     * @throws IOException if the communication with the other workers failed
+     */
+    void allReduce(float[] data) throws IOException {
+        int n = worldSize;
+        int[] bounds = new int[n + 1];
+        for (int i = 0; i <= n; ++i) {
+            bounds[i] = (int) ((long) data.length * i / n);
+        }
+        // reduce-scatter: after n - 1 steps, rank r owns the sum of segment r + 1
+        for (int step = 0; step < n - 1; ++step) {
+            int send = Math.floorMod(rank - step, n);
+            int recv = Math.floorMod(rank - step - 1, n);
+            exchange(data, bounds[send], bounds[send + 1], bounds[recv], bounds[recv + 1], true);
+        }
+        // all-gather: pass the summed segments around the ring
+        for (int step = 0; step < n - 1; ++step) {
+            int send = Math.floorMod(rank - step + 1, n);
+            int recv = Math.floorMod(rank - step, n);
+            exchange(data, bounds[send], bounds[send + 1], bounds[recv], bounds[recv + 1], false);
+        }
+    }
+
+    /**
+     * Checks that the previous worker has the same checksum as this worker.
+     *
+     * <p>The workers match the parameters and buckets only by their order, so a checksum of the
+     * shapes is compared around the ring before the values are exchanged. If all the neighbours
+     * match, all the workers match.
+     *
+     * @param checksum the checksum of this worker
+     * @param name the name of the checksummed values for the error message
+     * @throws IOException if the checksums differ, or the communication failed
+     */
+    void verify(long checksum, String name) throws IOException {
+        Future<?> future =
+                sender.submit(
+                        () -> {
+                            out.writeLong(checksum);
+                            out.flush();
+                            return null;
+                        });
+        long received = in.readLong();
+        await(future);
+        if (received != checksum) {
+            throw new IOException(
+                    "Worker "
+                            + rank
+                            + " has a different "
+                            + name
+                            + " than worker "
+                            + Math.floorMod(rank - 1, worldSize)
+                            + ", all workers must train the same model");
+        }
+    }
+
+    /**
+     * Copies the values of worker 0 to all workers.
+     *
+     * @param data the values of this worker, replaced by the values of worker 0
+     * @throws IOException if the communication with the other workers failed
+     */
+    void broadcast(float[] data) throws IOException {
+        if (rank != 0) {
+            receive(data, 0, data.length, false);
+        }
+        if (rank != worldSize - 1) {
+            send(data, 0, data.length);
+        }
+    }
+
+    private void exchange(
+            float[] data, int sendFrom, int sendTo, int recvFrom, int recvTo, boolean add)
+            throws IOException {
+        Future<?> future =
+                sender.submit(
+                        () -> {
+                            send(data, sendFrom, sendTo - sendFrom);
+                            return null;
+                        });
+        receive(data, recvFrom, recvTo - recvFrom, add);
+        await(future);
+    }
+
+    private void send(float[] data, int offset, int length) throws IOException {
+        int bytes = length * 4;
+        if (sendBuf.length < bytes) {
+            sendBuf = new byte[bytes];
+        }
+        ByteBuffer.wrap(sendBuf).asFloatBuffer().put(data, offset, length);
+        out.writeInt(length);
+        out.write(sendBuf, 0, bytes);
+        out.flush();
+    }
+
+    private void receive(float[] data, int offset, int length, boolean add) throws IOException {
+        int size = in.readInt();
+        if (size != length) {
+            throw new IOException(
+                    "Worker " + rank + " expected " + length + " values, but received " + size);
+        }
+        int bytes = length * 4;
+        if (recvBuf.length < bytes) {
+            recvBuf = new byte[bytes];
+        }
+        in.readFully(recvBuf, 0, bytes);
+        FloatBuffer fb = ByteBuffer.wrap(recvBuf, 0, bytes).asFloatBuffer();
+        if (add) {
+            for (int i = 0; i < length; ++i) {
+                data[offset + i] += fb.get(i);
+            }
+        } else {
+            fb.get(data, offset, length);
+        }
+    }
+
+    private void connect(InetSocketAddress[] workers, int timeout) throws IOException {
+        server = new ServerSocket();
+        server.setReuseAddress(true);
+        server.setSoTimeout(timeout);
+        server.bind(new InetSocketAddress(workers[rank].getPort()));
+        Future<Socket> accepted = sender.submit(server::accept);
+
+        InetSocketAddress address = workers[(rank + 1) % worldSize];
+        long deadline = System.currentTimeMillis() + timeout;
+        while (next == null) {
+            Socket socket = new Socket();
+            try {
+                socket.connect(address, timeout);
+                next = socket;
+            } catch (IOException e) {
+                socket.close();
+                if (System.currentTimeMillis() > deadline) {
+                    throw new IOException("Failed to connect to worker: " + address, e);
+                }
+                logger.debug("Waiting for worker {} to start", address);
+                sleep();
+            }
+        }
+        next.setTcpNoDelay(true);
+        out = new DataOutputStream(new BufferedOutputStream(next.getOutputStream(), 65536));
+        out.writeInt(rank);
+        out.flush();
+
+        prev = await(accepted);
+        prev.setTcpNoDelay(true);
+        in = new DataInputStream(new BufferedInputStream(prev.getInputStream(), 65536));
+        int prevRank = in.readInt();
+        int expected = Math.floorMod(rank - 1, worldSize);
+        if (prevRank != expected) {
+            throw new IOException(
+                    "Worker " + rank + " expected worker " + expected + ", got " + prevRank);
+        }
+        logger.info("Worker {} of {} connected", rank, worldSize);
+    }
+
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Parameter server interrupted", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw new UncheckedIOException((IOException) cause);
+            }
+            throw new IllegalStateException("Parameter server failed", cause);
+        }
+    }
+
+    private static void sleep() throws IOException {
+        try {
+            Thread.sleep(100);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while connecting to workers", e);
+        }
+    }
+
+    private static Thread newThread(Runnable r, String name) {
+        Thread thread = new Thread(r, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    private static long checksum(long checksum, Shape shape) {
+        checksum = checksum * 31 + shape.dimension();
+        for (long dim : shape.getShape()) {
+            checksum = checksum * 31 + dim;
+        }
+        return checksum;
+    }
+
+    private static float[] toFloatArray(NDArray array) {
+        if (array.getDataType() == DataType.FLOAT32) {
+            return array.toFloatArray();
+        }
+        try (NDArray converted = array.toType(DataType.FLOAT32, true)) {
+            return converted.toFloatArray();
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void close() {
+        if (sender != null) {
+            sender.shutdownNow();
+            reducer.shutdownNow();
+        }
+        closeQuietly(next);
+        closeQuietly(prev);
+        closeQuietly(server);
+    }
+
+    private static void closeQuietly(AutoCloseable closeable) {
+        if (closeable != null) {
+            try {
+                closeable.close();
+            } catch (Exception e) {
+                logger.debug("Failed to close socket", e);
+            }
+        }
+    }
+
+    /** A group of gradients that are all-reduced together. */
+    private static final class Bucket {
+
+        List<Integer> indices = new ArrayList<>();
+        List<float[]> grads = new ArrayList<>();
+        float[] data;
+        int size;
+        long checksum;
+
+        void add(int index, float[] grad, Shape shape) {
+            indices.add(index);
+            grads.add(grad);
+            size += grad.length;
+            checksum = checksum(checksum, shape);
+        }
+
+        void fuse() {
+            if (grads.size() == 1) {
+                data = grads.get(0);
+            } else {
+                data = new float[size];
+                int offset = 0;
+                for (float[] grad : grads) {
+                    System.arraycopy(grad, 0, data, offset, grad.length);
+                    offset += grad.length;
+                }
+            }
+            grads = null;
+        }
+    }
+
+    /** The Builder to construct a {@link DistributedParameterServer}. */
+    public static final class Builder {
+
+        Optimizer optimizer;
+        int rank;
+        InetSocketAddress[] workers;
+        int bucketSize = 4 * 1024 * 1024;
+        int timeout = 60_000;
+
+        Builder() {}
+
+        /**
+         * Sets the {@link Optimizer} to apply the updates with.
+         *
+         * @param optimizer the optimizer
+         * @return this {@code Builder}
+         */
+        public Builder setOptimizer(Optimizer optimizer) {
+            this.optimizer = optimizer;
+            return this;
+        }
+
+        /**
+         * Sets the rank of this worker.
+         *
+         * @param rank the rank of this worker, from 0 to the number of workers - 1
+         * @return this {@code Builder}
+         */
+        public Builder setRank(int rank) {
+            this.rank = rank;
+            return this;
+        }
+
+        /**
+         * Sets the addresses of all workers, ordered by rank.
+         *
+         * @param workers the addresses of all workers
+         * @return this {@code Builder}
+         */
+        public Builder setWorkers(InetSocketAddress... workers) {
+            this.workers = workers;
+            return this;
+        }
+
+        /**
+         * Sets the addresses of all workers, ordered by rank, in the form {@code host:port}.
+         *
+         * @param workers the addresses of all workers
+         * @return this {@code Builder}
+         */
+        public Builder setWorkers(String... workers) {
+            this.workers = new InetSocketAddress[workers.length];
+            for (int i = 0; i < workers.length; ++i) {
+                int pos = workers[i].lastIndexOf(':');
+                if (pos < 0) {
+                    throw new IllegalArgumentException("Invalid worker address: " + workers[i]);
+                }
+                String host = workers[i].substring(0, pos);
+                int port = Integer.parseInt(workers[i].substring(pos + 1));
+                this.workers[i] = new InetSocketAddress(host, port);
+            }
+            return this;
+        }
+
+        /**
+         * Sets the size in bytes of the buckets small gradients are fused into, default 4MB.
+         *
+         * @param bucketSize the size in bytes of the buckets
+         * @return this {@code Builder}
+         */
+        public Builder optBucketSize(int bucketSize) {
+            this.bucketSize = bucketSize;
+            return this;
+        }
+
+        /**
+         * Sets the timeout in milliseconds to wait for the other workers to connect, default 60
+         * seconds.
+         *
+         * @param timeout the timeout in milliseconds
+         * @return this {@code Builder}
+         */
+        public Builder optTimeout(int timeout) {
+            this.timeout = timeout;
+            return this;
+        }
+
+        /**
+         * Builds a {@link DistributedParameterServer} and connects to the other workers.
+         *
+         * @return the {@link DistributedParameterServer}
+         * @throws IOException if failed to connect to the other workers
+         */
+        public DistributedParameterServer build() throws IOException {
+            if (optimizer == null) {
+                throw new IllegalArgumentException("The optimizer is required.");
+            }
+            if (workers == null || workers.length == 0) {
+                throw new IllegalArgumentException("The workers are required.");
+            }
+            if (rank < 0 || rank >= workers.length) {
+                throw new IllegalArgumentException("Invalid rank: " + rank);
+            }
+            return new DistributedParameterServer(this);
+        }
+    }
+}
@@ -13,6 +13,7 @@
 package ai.djl.training;
 
 import ai.djl.ndarray.NDArray;
+import ai.djl.ndarray.NDArrays;
 import ai.djl.ndarray.NDList;
 import ai.djl.training.dataset.Batch;
 import ai.djl.training.dataset.Dataset;
@@ -67,6 +68,9 @@ public final class EasyTrain {
                 batch.close();
             }
 
+            // Apply the gradients of the last batches if they did not complete an accumulation
+            trainer.flushGradients();
+
             // After each epoch, test against the validation dataset if we have one
             evaluateDataset(trainer, validateDataset);
 
@@ -117,20 +121,60 @@ public final class EasyTrain {
 
     private static boolean trainSplit(
             Trainer trainer, GradientCollector collector, BatchData batchData, Batch split) {
-        NDList data = split.getData();
         NDList labels = split.getLabels();
-        NDList preds = trainer.forward(data, labels);
+        int microBatchSize = trainer.getMicroBatchSize();
+        NDList preds;
+        if (microBatchSize <= 0 || split.getSize() <= microBatchSize) {
+            preds = trainMicroBatch(trainer, collector, split, 1f);
+        } else {
+            // compute the micro-batches one after another to bound the memory of the activations,
+            // the gradients of the micro-batches are accumulated by the engine
+            int numOfSlices = (split.getSize() + microBatchSize - 1) / microBatchSize;
+            Batch[] microBatches = split.split(numOfSlices, false);
+            NDList[] microPreds = new NDList[microBatches.length];
+            for (int i = 0; i < microBatches.length; ++i) {
+                float scale = (float) microBatches[i].getSize() / split.getSize();
+                microPreds[i] = trainMicroBatch(trainer, collector, microBatches[i], scale);
+                // keep the predictions, and free the activations of the micro-batch
+                microPreds[i].attach(split.getManager());
+                microBatches[i].close();
+            }
+            preds = new NDList(microPreds[0].size());
+            for (int j = 0; j < microPreds[0].size(); ++j) {
+                NDList parts = new NDList(microPreds.length);
+                for (NDList microPred : microPreds) {
+                    parts.add(microPred.get(j));
+                }
+                preds.add(NDArrays.concat(parts));
+            }
+            for (NDList microPred : microPreds) {
+                microPred.close();
+            }
+        }
         long time = System.nanoTime();
-        NDArray lossValue = trainer.getLoss().evaluate(labels, preds);
-        collector.backward(lossValue);
-        trainer.addMetric("backward", time);
-        time = System.nanoTime();
         batchData.getLabels().put(labels.get(0).getDevice(), labels);
         batchData.getPredictions().put(preds.get(0).getDevice(), preds);
         trainer.addMetric("training-metrics", time);
         return true;
     }
 
+    private static NDList trainMicroBatch(
+            Trainer trainer, GradientCollector collector, Batch batch, float scale) {
+        NDList data = batch.getData();
+        NDList labels = batch.getLabels();
+        NDList preds = trainer.forward(data, labels);
+        long time = System.nanoTime();
+        NDArray lossValue = trainer.getLoss().evaluate(labels, preds);
+        // scale the loss so that the accumulated gradient is the gradient of the mean loss
+        scale /= trainer.getGradientAccumulation();
+        if (scale != 1f) {
+            lossValue = lossValue.mul(scale);
+        }
+        collector.backward(lossValue);
+        trainer.addMetric("backward", time);
+        return preds;
+    }
+
     /**
      * Validates the given batch of data.
      *
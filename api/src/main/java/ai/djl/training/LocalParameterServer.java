@@ -12,14 +12,46 @@
  */
 package ai.djl.training;
 
-import ai.djl.Device;
 import ai.djl.ndarray.NDArray;
+import ai.djl.ndarray.NDArrays;
+import ai.djl.ndarray.NDList;
+import ai.djl.ndarray.types.DataType;
+import ai.djl.ndarray.types.Shape;
 import ai.djl.training.optimizer.Optimizer;
 
-/** {@code LocalParameterServer} is an implementation of the {@code ParameterServer} interface. */
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * {@code LocalParameterServer} is an implementation of the {@code ParameterServer} interface.
+ *
+ * <p>The gradients of the devices are summed with a tree reduction, the partial sums of disjoint
+ * pairs of devices are computed at the same time, and the sum is copied back to the devices along
+ * the same tree. In {@link #batchUpdate(String[], NDArray[][])}, small parameters are fused into
+ * flat buffers so that they are reduced with a few large copies instead of many small ones. When
+ * an {@link ExecutorService} is given, the reductions of independent pairs and the optimizer
+ * updates on each device run in parallel.
+ *
+ * <p>With fused updates, the gradients of all parameters are reduced first, and then each device
+ * is updated with a single multi-tensor {@link Optimizer#update(String[], NDArray[], NDArray[])}
+ * call, so that the engine can apply the optimizer with a few fused operations.
+ */
 public class LocalParameterServer implements ParameterServer {
 
+    private static final long BUCKET_THRESHOLD = 64 * 1024;
+    private static final long BUCKET_SIZE = 1024 * 1024;
+
     private Optimizer optimizer;
+    private ExecutorService executorService;
+    private boolean fusedUpdate;
 
     /**
      * Create a new instance of {@code LocalParameterServer} for the given optimizer.
@@ -27,7 +59,34 @@ public class LocalParameterServer implements ParameterServer {
      * @param optimizer an optimizer
      */
     public LocalParameterServer(Optimizer optimizer) {
+        this(optimizer, null);
+    }
+
+    /**
+     * Create a new instance of {@code LocalParameterServer} for the given optimizer.
+     *
+     * @param optimizer an optimizer
+     * @param executorService the executor to reduce gradients and update the devices in parallel,
+     *     or {@code null} to run on the calling thread
+     */
+    public LocalParameterServer(Optimizer optimizer, ExecutorService executorService) {
+        this(optimizer, executorService, false);
+    }
+
+    /**
+     * Create a new instance of {@code LocalParameterServer} for the given optimizer.
+     *
+     * @param optimizer an optimizer
+     * @param executorService the executor to reduce gradients and update the devices in parallel,
+     *     or {@code null} to run on the calling thread
+     * @param fusedUpdate true to update all parameters on a device with a single multi-tensor
+     *     {@link Optimizer#update(String[], NDArray[], NDArray[])} call
+     */
+    public LocalParameterServer(
+            Optimizer optimizer, ExecutorService executorService, boolean fusedUpdate) {
         this.optimizer = optimizer;
+        this.executorService = executorService;
+        this.fusedUpdate = fusedUpdate;
     }
 
     /** {@inheritDoc} */
@@ -37,27 +96,290 @@ public class LocalParameterServer implements ParameterServer {
     /** {@inheritDoc} */
     @Override
     public void update(String parameterId, NDArray[] grads, NDArray[] params) {
-        Device firstDevice = params[0].getDevice();
-        // reduce gradient from all devices to first device
-        for (int i = 1; i < grads.length; i++) {
-            try (NDArray gradCopy = grads[i].toDevice(firstDevice, true)) {
-                grads[0].addi(gradCopy);
+        if (grads.length == 1) {
+            optimizer.update(parameterId, params[0], grads[0]);
+            return;
+        }
+        NDArray[] reduced = allReduce(grads);
+        try {
+            List<Runnable> tasks = new ArrayList<>(params.length);
+            for (int i = 0; i < params.length; ++i) {
+                int device = i;
+                tasks.add(() -> optimizer.update(parameterId, params[device], reduced[device]));
             }
+            run(tasks);
+        } finally {
+            close(reduced);
         }
-        // update weights on different devices with reduced gradient
-        // use duplicate because after the first optimizer.update
-        // PyTorch optimizer will zero grads[0]
-        // the second copy is to move the grads[0] to the device the weight is on
-        try (NDArray aggregatedGrad = grads[0].duplicate()) {
-            for (NDArray param : params) {
-                if (param.getDevice().equals(firstDevice)) {
-                    optimizer.update(parameterId, param, aggregatedGrad);
-                } else {
-                    try (NDArray gradSumCopy = aggregatedGrad.toDevice(param.getDevice(), true)) {
-                        optimizer.update(parameterId, param, gradSumCopy);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void batchUpdate(String[] parameterIds, NDArray[][] params) {
+        if (params.length == 0) {
+            return;
+        }
+        if (fusedUpdate) {
+            fusedUpdate(parameterIds, params);
+            return;
+        }
+        if (params[0].length == 1) {
+            ParameterServer.super.batchUpdate(parameterIds, params);
+            return;
+        }
+        for (List<Integer> bucket : buckets(params)) {
+            if (bucket.size() == 1) {
+                int index = bucket.get(0);
+                update(parameterIds[index], params[index]);
+                continue;
+            }
+            NDArray[][] grads = reduceBucket(params, bucket);
+            try {
+                List<Runnable> tasks = new ArrayList<>(grads.length);
+                for (int d = 0; d < grads.length; ++d) {
+                    int device = d;
+                    tasks.add(
+                            () -> {
+                                for (int i = 0; i < bucket.size(); ++i) {
+                                    int index = bucket.get(i);
+                                    NDArray param = params[index][device];
+                                    optimizer.update(parameterIds[index], param, grads[device][i]);
+                                }
+                            });
+                }
+                run(tasks);
+            } finally {
+                close(grads);
+            }
+        }
+    }
+
+    private void fusedUpdate(String[] parameterIds, NDArray[][] params) {
+        int numDevices = params[0].length;
+        NDArray[][] weights = new NDArray[numDevices][parameterIds.length];
+        NDArray[][] grads = new NDArray[numDevices][parameterIds.length];
+        try {
+            for (int i = 0; i < parameterIds.length; ++i) {
+                for (int d = 0; d < numDevices; ++d) {
+                    weights[d][i] = params[i][d];
+                }
+            }
+            if (numDevices == 1) {
+                for (int i = 0; i < parameterIds.length; ++i) {
+                    grads[0][i] = params[i][0].getGradient();
+                }
+            } else {
+                for (List<Integer> bucket : buckets(params)) {
+                    if (bucket.size() == 1) {
+                        int index = bucket.get(0);
+                        NDArray[] gradients = getGradients(params[index]);
+                        NDArray[] reduced = allReduce(gradients);
+                        // the first gradient holds the sum, the others are replaced by copies
+                        close(gradients);
+                        for (int d = 0; d < numDevices; ++d) {
+                            grads[d][index] = reduced[d];
+                        }
+                        continue;
+                    }
+                    NDArray[][] reduced = reduceBucket(params, bucket);
+                    for (int d = 0; d < numDevices; ++d) {
+                        for (int i = 0; i < bucket.size(); ++i) {
+                            grads[d][bucket.get(i)] = reduced[d][i];
+                        }
                     }
                 }
             }
+            List<Runnable> tasks = new ArrayList<>(numDevices);
+            for (int d = 0; d < numDevices; ++d) {
+                int device = d;
+                tasks.add(() -> optimizer.update(parameterIds, weights[device], grads[device]));
+            }
+            run(tasks);
+        } finally {
+            close(grads);
+        }
+    }
+
+    /**
+     * Groups the parameters into buckets, large parameters are in a bucket on their own.
+     *
+     * @param params the parameter NDArrays in different devices
+     * @return the indices of the parameters in each bucket
+     */
+    private static List<List<Integer>> buckets(NDArray[][] params) {
+        List<List<Integer>> ret = new ArrayList<>();
+        Map<DataType, List<Integer>> buckets = new LinkedHashMap<>(); // NOPMD
+        Map<DataType, Long> bucketSizes = new LinkedHashMap<>(); // NOPMD
+        for (int i = 0; i < params.length; ++i) {
+            NDArray param = params[i][0];
+            long size = param.size();
+            if (size >= BUCKET_THRESHOLD) {
+                ret.add(Collections.singletonList(i));
+                continue;
+            }
+            DataType dataType = param.getDataType();
+            List<Integer> bucket = buckets.computeIfAbsent(dataType, k -> new ArrayList<>());
+            bucket.add(i);
+            long total = bucketSizes.merge(dataType, size, Long::sum);
+            if (total >= BUCKET_SIZE) {
+                ret.add(bucket);
+                buckets.remove(dataType);
+                bucketSizes.remove(dataType);
+            }
+        }
+        ret.addAll(buckets.values());
+        return ret;
+    }
+
+    /**
+     * Sums the gradients of a bucket of parameters over the devices.
+     *
+     * @param params the parameter NDArrays in different devices
+     * @param bucket the indices of the parameters in the bucket
+     * @return the summed gradients on each device, in the order of the bucket
+     */
+    private NDArray[][] reduceBucket(NDArray[][] params, List<Integer> bucket) {
+        int numDevices = params[bucket.get(0)].length;
+        long[] indices = new long[bucket.size() - 1];
+        long offset = 0;
+        for (int i = 0; i < indices.length; ++i) {
+            offset += params[bucket.get(i)][0].size();
+            indices[i] = offset;
+        }
+
+        // fuse the gradients of each device into a flat buffer
+        NDArray[] flat = new NDArray[numDevices];
+        List<Runnable> tasks = new ArrayList<>(numDevices);
+        for (int d = 0; d < numDevices; ++d) {
+            int device = d;
+            tasks.add(
+                    () -> {
+                        NDList grads = new NDList(bucket.size());
+                        try {
+                            for (int index : bucket) {
+                                try (NDArray grad = params[index][device].getGradient()) {
+                                    grads.add(grad.flatten());
+                                }
+                            }
+                            flat[device] = NDArrays.concat(grads);
+                        } finally {
+                            grads.close();
+                        }
+                    });
+        }
+        NDArray[] reduced = null;
+        NDArray[][] ret = new NDArray[numDevices][bucket.size()];
+        try {
+            run(tasks);
+            reduced = allReduce(flat);
+            NDArray[] sums = reduced;
+            tasks.clear();
+            for (int d = 0; d < numDevices; ++d) {
+                int device = d;
+                tasks.add(
+                        () -> {
+                            try (NDList parts = sums[device].split(indices)) {
+                                for (int i = 0; i < bucket.size(); ++i) {
+                                    Shape shape = params[bucket.get(i)][device].getShape();
+                                    ret[device][i] = parts.get(i).reshape(shape);
+                                }
+                            }
+                        });
+            }
+            run(tasks);
+        } finally {
+            if (reduced != null) {
+                close(reduced);
+            }
+            Arrays.stream(flat).filter(Objects::nonNull).forEach(NDArray::close);
+        }
+        return ret;
+    }
+
+    /**
+     * Sums the arrays on all devices with a tree reduction.
+     *
+     * <p>The sum is accumulated into {@code arrays[0]}, and the other arrays are overwritten with
+     * partial sums.
+     *
+     * @param arrays the arrays on each device
+     * @return the sum on each device, the first element is {@code arrays[0]}
+     */
+    private NDArray[] allReduce(NDArray[] arrays) {
+        int n = arrays.length;
+        for (int stride = 1; stride < n; stride *= 2) {
+            List<Runnable> tasks = new ArrayList<>();
+            for (int i = 0; i + stride < n; i += 2 * stride) {
+                NDArray dst = arrays[i];
+                NDArray src = arrays[i + stride];
+                tasks.add(
+                        () -> {
+                            try (NDArray copy = src.toDevice(dst.getDevice(), true)) {
+                                dst.addi(copy);
+                            }
+                        });
+            }
+            run(tasks);
+        }
+
+        NDArray[] reduced = new NDArray[n];
+        reduced[0] = arrays[0];
+        int stride = Integer.highestOneBit(n - 1);
+        for (; stride >= 1; stride /= 2) {
+            List<Runnable> tasks = new ArrayList<>();
+            for (int i = 0; i + stride < n; i += 2 * stride) {
+                int src = i;
+                int dst = i + stride;
+                tasks.add(
+                        () -> reduced[dst] = reduced[src].toDevice(arrays[dst].getDevice(), true));
+            }
+            run(tasks);
+        }
+        return reduced;
+    }
+
+    private void run(List<Runnable> tasks) {
+        if (executorService == null || tasks.size() == 1) {
+            tasks.forEach(Runnable::run);
+            return;
+        }
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[tasks.size()];
+        for (int i = 0; i < futures.length; ++i) {
+            futures[i] = CompletableFuture.runAsync(tasks.get(i), executorService);
+        }
+        try {
+            CompletableFuture.allOf(futures).join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    private static NDArray[] getGradients(NDArray[] params) {
+        return Arrays.stream(params).map(NDArray::getGradient).toArray(NDArray[]::new);
+    }
+
+    private static void close(NDArray[][] arrays) {
+        for (NDArray[] array : arrays) {
+            for (NDArray a : array) {
+                if (a != null) {
+                    a.close();
+                }
+            }
+        }
+    }
+
+    private static void close(NDArray[] reduced) {
+        // the first element is owned by the caller
+        for (int i = 1; i < reduced.length; ++i) {
+            if (reduced[i] != null) {
+                reduced[i].close();
+            }
         }
     }
 
@@ -49,6 +49,22 @@ public interface ParameterServer extends AutoCloseable {
      */
     void update(String parameterId, NDArray[] grads, NDArray[] params);
 
+    /**
+     * Updates the parameters of several keys from Parameter Server.
+     *
+     * <p>The {@link ParameterStore} passes all parameters that require gradient in one call, so
+     * that implementations can fuse the transfer of small gradients. The parameters are passed in
+     * the same order on every call.
+     *
+     * @param parameterIds the keys to identify the parameters
+     * @param params the parameter NDArrays in different devices to be updated, one array per key
+     */
+    default void batchUpdate(String[] parameterIds, NDArray[][] params) {
+        for (int i = 0; i < parameterIds.length; ++i) {
+            update(parameterIds[i], params[i]);
+        }
+    }
+
     /** {@inheritDoc} */
     @Override
     void close();
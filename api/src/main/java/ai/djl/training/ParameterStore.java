@@ -20,7 +20,9 @@ import ai.djl.ndarray.NDManager;
 import ai.djl.nn.Parameter;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -32,6 +34,8 @@ public class ParameterStore {
 
     private NDManager manager;
     private Map<String, ParameterData> parameterMap;
+    private List<ParameterData> parameterList;
+    private Map<String, Integer> parameterOrder;
     private Map<Device, Integer> deviceMap;
     private boolean copy;
     private ParameterServer parameterServer;
@@ -51,6 +55,7 @@ public class ParameterStore {
         this.manager = manager;
         this.copy = copy;
         parameterMap = new ConcurrentHashMap<>();
+        parameterList = Collections.synchronizedList(new ArrayList<>());
         deviceMap = new ConcurrentHashMap<>();
         deviceMap.put(manager.getDevice(), 0);
     }
@@ -75,16 +80,53 @@ public class ParameterStore {
         }
     }
 
-    /** Updates all the mirrored parameters. */
+    /**
+     * Sets the order the parameters are passed to the {@link ParameterServer} in.
+     *
+     * <p>A distributed {@link ParameterServer} matches the parameters of the workers by their
+     * order, so it must be the same on every worker, for example the order of {@link
+     * ai.djl.nn.Block#getParameters()}.
+     *
+     * @param parameters the parameters in order
+     */
+    public void setParameterOrder(List<Parameter> parameters) {
+        Map<String, Integer> order = new ConcurrentHashMap<>();
+        for (int i = 0; i < parameters.size(); ++i) {
+            order.put(parameters.get(i).getId(), i);
+        }
+        parameterOrder = order;
+    }
+
+    /**
+     * Updates all the mirrored parameters.
+     *
+     * <p>The parameters are passed to the {@link ParameterServer} in the order set by {@link
+     * #setParameterOrder(List)}, the other parameters follow in the order they were first added to
+     * this {@code ParameterStore}.
+     */
     public void updateAllParameters() {
-        for (Map.Entry<String, ParameterData> entry : parameterMap.entrySet()) {
-            String parameterId = entry.getKey();
-            ParameterData data = entry.getValue();
+        ParameterData[] all = parameterList.toArray(new ParameterData[0]);
+        Map<String, Integer> order = parameterOrder;
+        if (order != null) {
+            // the sort is stable, the other parameters keep their order
+            Arrays.sort(
+                    all,
+                    Comparator.comparingInt(
+                            d -> order.getOrDefault(d.parameter.getId(), Integer.MAX_VALUE)));
+        }
+        List<String> parameterIds = new ArrayList<>(all.length);
+        List<NDArray[]> params = new ArrayList<>(all.length);
+        for (ParameterData data : all) {
             if (data.requireGradient()) {
-                NDArray[] params = data.toArray();
-                parameterServer.update(parameterId, params);
+                parameterIds.add(data.parameter.getId());
+                params.add(data.toArray());
             }
         }
+        if (parameterIds.isEmpty()) {
+            return;
+        }
+        parameterServer.batchUpdate(
+                parameterIds.toArray(new String[0]), params.toArray(new NDArray[0][]));
     }
 
     /**
@@ -100,49 +142,66 @@ public class ParameterStore {
         if (parameter == null) {
             return null;
         }
-        String parameterId = parameter.getId();
         int index = deviceMap.get(device);
         ParameterData data =
-                parameterMap.computeIfAbsent(parameterId, k -> new ParameterData(parameter));
+                parameterMap.computeIfAbsent(
+                        parameter.getId(),
+                        k -> {
+                            ParameterData d = new ParameterData(parameter);
+                            parameterList.add(d);
+                            return d;
+                        });
 
         if (data.isEmpty()) {
-            NDArray array = parameter.getArray();
-
-            if (parameterServer != null) {
-                // initialize on parameter store for first time
-                parameterServer.init(parameterId, new NDArray[] {array});
-                NDArray[] arrays = new NDArray[deviceMap.size()];
-                for (Map.Entry<Device, Integer> entry : deviceMap.entrySet()) {
-                    Device dev = entry.getKey();
-                    int i = entry.getValue();
-                    if (i == index && array.getDevice().equals(dev)) {
-                        arrays[i] = array;
-                    } else {
-                        arrays[i] = array.toDevice(dev, true);
-                        arrays[i].attach(manager);
-                        // some parameter doesn't require grad
-                        // for example running_mean in BatchNorm
-                        if (parameter.requiresGradient()) {
-                            arrays[i].setRequiresGradient(true);
-                        }
-                    }
-                    data.add(arrays[i]);
+            // concurrent forward passes on several devices read the same parameter
+            synchronized (data) {
+                if (data.isEmpty()) {
+                    initialize(data, index, device, training);
                 }
-            } else {
-                if (copy || !array.getDevice().equals(device)) {
-                    array = array.toDevice(device, true);
-                    array.attach(manager);
+            }
+        }
+
+        return data.get(index);
+    }
+
+    private void initialize(ParameterData data, int index, Device device, boolean training) {
+        Parameter parameter = data.parameter;
+        String parameterId = parameter.getId();
+        NDArray array = parameter.getArray();
+
+        if (parameterServer != null) {
+            // initialize on parameter store for first time
+            parameterServer.init(parameterId, new NDArray[] {array});
+            NDArray[] arrays = new NDArray[deviceMap.size()];
+            for (Map.Entry<Device, Integer> entry : deviceMap.entrySet()) {
+                Device dev = entry.getKey();
+                int i = entry.getValue();
+                if (i == index && array.getDevice().equals(dev)) {
+                    arrays[i] = array;
+                } else {
+                    arrays[i] = array.toDevice(dev, true);
+                    arrays[i].attach(manager);
                     // some parameter doesn't require grad
                     // for example running_mean in BatchNorm
-                    if (parameter.requiresGradient() && training) {
-                        array.setRequiresGradient(true);
+                    if (parameter.requiresGradient()) {
+                        arrays[i].setRequiresGradient(true);
                     }
                 }
-                data.add(array);
             }
+            // publishes all the mirrors at once, ordered by device index
+            data.addAll(arrays);
+        } else {
+            if (copy || !array.getDevice().equals(device)) {
+                array = array.toDevice(device, true);
+                array.attach(manager);
+                // some parameter doesn't require grad
+                // for example running_mean in BatchNorm
+                if (parameter.requiresGradient() && training) {
+                    array.setRequiresGradient(true);
+                }
+            }
+            data.add(array);
         }
-
-        return data.get(index);
     }
 
     /**
@@ -180,6 +239,10 @@ public class ParameterStore {
             list.add(array);
         }
 
+        private void addAll(NDArray[] arrays) {
+            list.addAll(Arrays.asList(arrays));
+        }
+
         private NDArray get(int index) {
             return list.get(index);
         }
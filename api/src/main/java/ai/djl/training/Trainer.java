@@ -20,6 +20,7 @@ import ai.djl.ndarray.NDArrays;
 import ai.djl.ndarray.NDList;
 import ai.djl.ndarray.NDManager;
 import ai.djl.ndarray.types.Shape;
+import ai.djl.nn.Block;
 import ai.djl.nn.Parameter;
 import ai.djl.nn.UninitializedParameterException;
 import ai.djl.training.dataset.Batch;
@@ -29,7 +30,9 @@ import ai.djl.training.listener.EpochTrainingListener;
 import ai.djl.training.listener.EvaluatorTrainingListener;
 import ai.djl.training.listener.TrainingListener;
 import ai.djl.training.loss.Loss;
+import ai.djl.training.optimizer.Optimizer;
 import ai.djl.translate.TranslateException;
+import ai.djl.util.Pair;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -77,6 +80,11 @@ public class Trainer implements AutoCloseable {
     private List<Evaluator> evaluators;
     private Loss loss;
     private ExecutorService executorService;
+    private int gradientAccumulation;
+    private int microBatchSize;
+    private int metricsInterval;
+    private volatile boolean parametersInitialized;
+    private int accumulatedBatches;
 
     private boolean gradientsChecked;
 
@@ -98,12 +106,27 @@ public class Trainer implements AutoCloseable {
         evaluators = new ArrayList<>(trainingConfig.getEvaluators());
         evaluators.add(loss); // track loss as an evaluator by default
         executorService = trainingConfig.getExecutorService();
-
-        ParameterServer parameterServer =
-                manager.getEngine().newParameterServer(trainingConfig.getOptimizer());
+        gradientAccumulation = trainingConfig.getGradientAccumulation();
+        microBatchSize = trainingConfig.getMicroBatchSize();
+        metricsInterval = trainingConfig.getMetricsInterval();
+
+        ParameterServer parameterServer = trainingConfig.getParameterServer();
+        if (parameterServer == null) {
+            Optimizer optimizer = trainingConfig.getOptimizer();
+            parameterServer = manager.getEngine().newParameterServer(optimizer);
+            boolean fused = trainingConfig.isFusedUpdate();
+            if ((executorService != null || fused)
+                    && parameterServer.getClass() == LocalParameterServer.class) {
+                parameterServer = new LocalParameterServer(optimizer, executorService, fused);
+            }
+        }
 
         parameterStore = new ParameterStore(manager, false);
         parameterStore.setParameterServer(parameterServer, devices);
+        if (model.getBlock() != null) {
+            // the same order on every worker, unlike the order of the concurrent forward passes
+            parameterStore.setParameterOrder(model.getBlock().getParameters().values());
+        }
 
         listeners = trainingConfig.getTrainingListeners();
         notifyListeners(listener -> listener.onTrainingBegin(this));
@@ -116,28 +139,39 @@ public class Trainer implements AutoCloseable {
      */
     public void initialize(Shape... shapes) {
         model.getBlock().initialize(model.getNDManager(), model.getDataType(), shapes);
-        // call getValue on all params to initialize on all devices
-        model.getBlock()
-                .getParameters()
-                .forEach(
-                        pair -> {
-                            for (Device device : devices) {
-                                try {
-                                    parameterStore.getValue(pair.getValue(), device, true);
-                                } catch (UninitializedParameterException e) {
-                                    throw new IllegalStateException(
-                                            "Failed to initialize parameter: "
-                                                    + pair.getKey()
-                                                    + ".\n"
-                                                    + "If you are defining a Block extending"
-                                                    + " AbstractBlock, check that you are"
-                                                    + " initializing all child blocks as part of"
-                                                    + " the overload for"
-                                                    + " AbstractBlock.initializeChildBlocks().",
-                                            e);
-                                }
-                            }
-                        });
+        initializeParameters();
+    }
+
+    /**
+     * Mirrors all the parameters on all devices, in the order of {@link Block#getParameters()}.
+     *
+     * <p>A distributed {@link ParameterServer} broadcasts each parameter when it is first
+     * mirrored. This order is the same on every worker, unlike the order of the concurrent forward
+     * passes on several devices.
+     */
+    private synchronized void initializeParameters() {
+        if (parametersInitialized) {
+            return;
+        }
+        for (Pair<String, Parameter> pair : model.getBlock().getParameters()) {
+            for (Device device : devices) {
+                try {
+                    parameterStore.getValue(pair.getValue(), device, true);
+                } catch (UninitializedParameterException e) {
+                    throw new IllegalStateException(
+                            "Failed to initialize parameter: "
+                                    + pair.getKey()
+                                    + ".\n"
+                                    + "If you are defining a Block extending"
+                                    + " AbstractBlock, check that you are"
+                                    + " initializing all child blocks as part of"
+                                    + " the overload for"
+                                    + " AbstractBlock.initializeChildBlocks().",
+                            e);
+                }
+            }
+        }
+        parametersInitialized = true;
     }
 
     /**
@@ -168,6 +202,9 @@ public class Trainer implements AutoCloseable {
      * @return the output of the forward function
      */
     public NDList forward(NDList input) {
+        if (!parametersInitialized && model.getBlock().isInitialized()) {
+            initializeParameters();
+        }
         long begin = System.nanoTime();
         try {
             return model.getBlock().forward(parameterStore, input, true);
@@ -184,6 +221,9 @@ public class Trainer implements AutoCloseable {
      * @return the output of the forward function
      */
     public NDList forward(NDList data, NDList labels) {
+        if (!parametersInitialized && model.getBlock().isInitialized()) {
+            initializeParameters();
+        }
         long begin = System.nanoTime();
         try {
             return model.getBlock().forward(parameterStore, data, labels, null);
@@ -202,8 +242,30 @@ public class Trainer implements AutoCloseable {
         return model.getBlock().forward(parameterStore, input, false, null);
     }
 
-    /** Updates all of the parameters of the model once. */
+    /**
+     * Updates all of the parameters of the model once.
+     *
+     * <p>With gradient accumulation, the gradients of {@link #getGradientAccumulation()} batches
+     * are accumulated before the parameters are updated, and the other calls only count the batch.
+     */
     public void step() {
+        if (++accumulatedBatches < gradientAccumulation) {
+            return;
+        }
+        flushGradients();
+    }
+
+    /**
+     * Updates the parameters with the gradients accumulated since the last update.
+     *
+     * <p>This applies the gradients of the batches that did not complete a full accumulation, for
+     * example at the end of an epoch. It does nothing if there is no accumulated batch.
+     */
+    public void flushGradients() {
+        if (accumulatedBatches == 0) {
+            return;
+        }
+        accumulatedBatches = 0;
         if (!gradientsChecked) {
             checkGradients();
         }
@@ -213,6 +275,57 @@ public class Trainer implements AutoCloseable {
         addMetric("step", begin);
     }
 
+    /**
+     * Returns the number of batches whose gradients are accumulated before the parameters are
+     * updated.
+     *
+     * @return the number of batches whose gradients are accumulated
+     */
+    public int getGradientAccumulation() {
+        return gradientAccumulation;
+    }
+
+    /**
+     * Returns the number of batches whose gradients have been accumulated since the last update
+     * of the parameters.
+     *
+     * @return the number of batches accumulated since the last update
+     */
+    public int getAccumulatedBatches() {
+        return accumulatedBatches;
+    }
+
+    /**
+     * Returns whether the next call to {@link #step()} updates the parameters.
+     *
+     * <p>{@link TrainingListener}s can use it during {@link
+     * TrainingListener#onTrainingBatch(Trainer, TrainingListener.BatchData)} to report metrics per
+     * effective batch.
+     *
+     * @return true if the next call to {@link #step()} updates the parameters
+     */
+    public boolean isAccumulationBoundary() {
+        return accumulatedBatches + 1 >= gradientAccumulation;
+    }
+
+    /**
+     * Returns the maximum number of items that are computed at once on a device.
+     *
+     * @return the micro-batch size, or -1 if batches are not split into micro-batches
+     */
+    public int getMicroBatchSize() {
+        return microBatchSize;
+    }
+
+    /**
+     * Returns the number of batches between two reads of the training metrics from the devices.
+     *
+     * @return the number of batches between two reads of the training metrics
+     */
+    public int getMetricsInterval() {
+        return metricsInterval;
+    }
+
     /**
      * Returns the Metrics param used for benchmarking.
      *
@@ -99,6 +99,57 @@ public interface TrainingConfig {
      */
     ExecutorService getExecutorService();
 
+    /**
+     * Returns the {@link ParameterServer} to update the parameters with.
+     *
+     * @return the {@link ParameterServer}, or {@code null} to use the default {@link
+     *     ParameterServer} of the engine
+     */
+    default ParameterServer getParameterServer() {
+        return null;
+    }
+
+    /**
+     * Returns whether the optimizer updates all parameters on a device with a single multi-tensor
+     * update instead of one update per parameter.
+     *
+     * @return true to use the multi-tensor optimizer update
+     */
+    default boolean isFusedUpdate() {
+        return false;
+    }
+
+    /**
+     * Returns the number of batches whose gradients are accumulated before the parameters are
+     * updated.
+     *
+     * @return the number of batches whose gradients are accumulated
+     */
+    default int getGradientAccumulation() {
+        return 1;
+    }
+
+    /**
+     * Returns the maximum number of items that are computed at once on a device.
+     *
+     * @return the micro-batch size, or -1 to not split batches into micro-batches
+     */
+    default int getMicroBatchSize() {
+        return -1;
+    }
+
+    /**
+     * Returns the number of batches between two reads of the training metrics from the devices.
+     *
+     * <p>This is used by the default {@link TrainingListener}s that read the evaluators during
+     * training.
+     *
+     * @return the number of batches between two reads of the training metrics
+     */
+    default int getMetricsInterval() {
+        return 1;
+    }
+
     /**
      * Returns the list of {@link Evaluator}s that should be computed during training.
      *
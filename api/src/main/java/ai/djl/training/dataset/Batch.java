@@ -261,6 +261,40 @@ public class Batch implements AutoCloseable {
         return splitted;
     }
 
+    /**
+     * Splits the data and labels in the {@code Batch} into the given number of slices on the same
+     * device.
+     *
+     * <p>This is used to split a batch into micro-batches that are computed one after another. If
+     * {@code evenSplit} is {@code false}, that last slice may be smaller than the rest.
+     *
+     * @param numOfSlices the number of slices
+     * @param evenSplit whether each slice must have the same shape
+     * @return an array of {@code Batch}
+     */
+    public Batch[] split(int numOfSlices, boolean evenSplit) {
+        NDList[] splittedData = split(data, dataBatchifier, numOfSlices, evenSplit);
+        NDList[] splittedLabels = split(labels, labelBatchifier, numOfSlices, evenSplit);
+
+        Batch[] splitted = new Batch[splittedData.length];
+        int step = (size + splitted.length - 1) / splitted.length;
+        for (int i = 0; i < splitted.length; ++i) {
+            int subSize = Math.min(step, size - i * step);
+            splitted[i] =
+                    new Batch(
+                            manager.newSubManager(),
+                            splittedData[i],
+                            splittedLabels[i],
+                            subSize,
+                            dataBatchifier,
+                            labelBatchifier,
+                            progress,
+                            progressTotal,
+                            indices);
+        }
+        return splitted;
+    }
+
     private NDList[] split(NDList list, Batchifier batchifier, int numOfSlices, boolean evenSplit) {
         if (batchifier == null) {
             throw new IllegalStateException(
@@ -70,6 +70,7 @@ public abstract class AbstractAccuracy extends Evaluator {
     /** {@inheritDoc} */
     @Override
     public void addAccumulator(String key) {
+        clearDeviceSum(key);
         totalInstances.put(key, 0L);
         correctInstances.put(key, 0L);
     }
@@ -86,10 +87,9 @@ public abstract class AbstractAccuracy extends Evaluator {
         Pair<Long, NDArray> update = accuracyHelper(labels, predictions);
         NDArray value = update.getValue();
         NDArray sum = value.sum();
-        long correct = sum.getLong();
+        accumulateOnDevice(keys, sum);
         for (String key : keys) {
             totalInstances.compute(key, (k, v) -> v + update.getKey());
-            correctInstances.compute(key, (k, v) -> v + correct);
         }
         value.close();
         sum.close();
@@ -98,6 +98,7 @@ public abstract class AbstractAccuracy extends Evaluator {
     /** {@inheritDoc} */
     @Override
     public void resetAccumulator(String key) {
+        clearDeviceSum(key);
         totalInstances.compute(key, (k, v) -> 0L);
         correctInstances.compute(key, (k, v) -> 0L);
     }
@@ -110,6 +111,7 @@ public abstract class AbstractAccuracy extends Evaluator {
             return Float.NaN;
         }
 
-        return (float) correctInstances.get(key) / totalInstances.get(key);
+        long correct = (long) drainDeviceSum(key);
+        return (float) correctInstances.compute(key, (k, v) -> v + correct) / total;
     }
 }
@@ -56,6 +56,7 @@ public class BoundingBoxError extends Evaluator {
     /** {@inheritDoc} */
     @Override
     public void addAccumulator(String key) {
+        clearDeviceSum(key);
         totalInstances.put(key, 0L);
         ssdBoxPredictionError.put(key, 0f);
     }
@@ -70,16 +71,16 @@ public class BoundingBoxError extends Evaluator {
     @Override
     public void updateAccumulators(String[] keys, NDList labels, NDList predictions) {
         NDArray boundingBoxError = evaluate(labels, predictions);
-        float update = boundingBoxError.sum().getFloat();
+        accumulateOnDevice(keys, boundingBoxError.sum());
         for (String key : keys) {
             totalInstances.compute(key, (k, v) -> v + boundingBoxError.size());
-            ssdBoxPredictionError.compute(key, (k, v) -> v + update);
         }
     }
 
     /** {@inheritDoc} */
     @Override
     public void resetAccumulator(String key) {
+        clearDeviceSum(key);
         totalInstances.compute(key, (k, v) -> 0L);
         ssdBoxPredictionError.compute(key, (k, v) -> 0f);
     }
@@ -94,6 +95,7 @@ public class BoundingBoxError extends Evaluator {
             return Float.NaN;
         }
 
-        return ssdBoxPredictionError.get(key) / totalInstances.get(key);
+        float error = (float) drainDeviceSum(key);
+        return ssdBoxPredictionError.compute(key, (k, v) -> v + error) / total;
     }
 }
@@ -12,6 +12,7 @@
  */
 package ai.djl.training.evaluator;
 
+import ai.djl.Device;
 import ai.djl.ndarray.NDArray;
 import ai.djl.ndarray.NDList;
 
@@ -38,6 +39,7 @@ public abstract class Evaluator {
 
     private String name;
     protected Map<String, Long> totalInstances;
+    private Map<String, Map<Device, NDArray>> deviceSums;
 
     /**
      * Creates an evaluator with abstract update methods.
@@ -47,6 +49,7 @@ public abstract class Evaluator {
     public Evaluator(String name) {
         this.name = name;
         totalInstances = new ConcurrentHashMap<>();
+        deviceSums = new ConcurrentHashMap<>();
     }
 
     /**
@@ -78,7 +81,9 @@ public abstract class Evaluator {
      * Updates the evaluator with the given keys based on a {@link NDList} of labels and
      * predictions.
      *
-     * <p>This is a synchronized operation. You should only call it at the end of a batch or epoch.
+     * <p>The built-in evaluators accumulate on the device with {@link
+     * #accumulateOnDevice(String[], NDArray)} and do not wait for the device, the values are only
+     * read back by {@link #getAccumulator(String)}.
      *
      * <p>This is an alternative to @{link {@link #updateAccumulator(String, NDList, NDList)}} that
      * may be more efficient when updating multiple accumulators at once.
@@ -96,7 +101,9 @@ public abstract class Evaluator {
     /**
      * Updates the evaluator with the given key based on a {@link NDList} of labels and predictions.
      *
-     * <p>This is a synchronized operation. You should only call it at the end of a batch or epoch.
+     * <p>The built-in evaluators accumulate on the device with {@link
+     * #accumulateOnDevice(String[], NDArray)} and do not wait for the device, the values are only
+     * read back by {@link #getAccumulator(String)}.
      *
      * @param key the key of the accumulator to update
      * @param labels a {@code NDList} of labels
@@ -114,12 +121,92 @@ public abstract class Evaluator {
     /**
      * Returns the accumulated evaluator value.
      *
+     * <p>This is a synchronized operation that waits for the values accumulated on the devices.
+     * You should only call it at the end of an epoch or at a configured interval.
+     *
      * @param key the key of the accumulator to get
      * @return the accumulated value
      * @throws IllegalArgumentException if no accumulator was added with the given key
      */
     public abstract float getAccumulator(String key);
 
+    /**
+     * Adds a scalar value to the sums of the accumulators with the given keys on the device of the
+     * value.
+     *
+     * <p>The sums stay on the device, so that updating an accumulator does not wait for the
+     * computation of the batch to finish. They are only read back by {@link
+     * #drainDeviceSum(String)}, usually from {@link #getAccumulator(String)}.
+     *
+     * @param keys the keys of the accumulators to update
+     * @param value the scalar value to add
+     */
+    protected void accumulateOnDevice(String[] keys, NDArray value) {
+        Device device = value.getDevice();
+        for (String key : keys) {
+            Map<Device, NDArray> sums =
+                    deviceSums.computeIfAbsent(key, k -> new ConcurrentHashMap<>());
+            sums.compute(
+                    device,
+                    (d, sum) -> {
+                        if (sum == null) {
+                            NDArray copy = value.duplicate();
+                            // the value is usually attached to the NDManager of the batch
+                            copy.detach();
+                            return copy;
+                        }
+                        return sum.addi(value);
+                    });
+        }
+    }
+
+    /**
+     * Reads back and clears the sums on the devices of the accumulator with the given key.
+     *
+     * <p>This is a synchronized operation that waits for the devices.
+     *
+     * @param key the key of the accumulator
+     * @return the sum over all devices, 0 if nothing was accumulated since the last call
+     */
+    protected double drainDeviceSum(String key) {
+        Map<Device, NDArray> sums = deviceSums.remove(key);
+        if (sums == null) {
+            return 0;
+        }
+        double total = 0;
+        for (NDArray sum : sums.values()) {
+            total += sum.toArray()[0].doubleValue();
+            sum.close();
+        }
+        return total;
+    }
+
+    /**
+     * Clears the sums on the devices of the accumulator with the given key without reading them.
+     *
+     * @param key the key of the accumulator
+     */
+    protected void clearDeviceSum(String key) {
+        Map<Device, NDArray> sums = deviceSums.remove(key);
+        if (sums != null) {
+            sums.values().forEach(NDArray::close);
+        }
+    }
+
+    /**
+     * Frees the sums on the devices of the accumulator with the given key.
+     *
+     * <p>Unlike {@link #resetAccumulator(String)}, the totals already read back by {@link
+     * #getAccumulator(String)} are kept, so the accumulator stays readable, for example after the
+     * training ended. Values accumulated since the last {@link #getAccumulator(String)} call are
+     * dropped.
+     *
+     * @param key the key of the accumulator
+     */
+    public void releaseDeviceSum(String key) {
+        clearDeviceSum(key);
+    }
+
     /**
      * Checks if the two input {@code NDArray} have the same length or shape.
      *
@@ -19,11 +19,57 @@ import ai.djl.training.loss.Loss;
 /** {@link TrainingListener} that gives early warning if your training has failed by divergence. */
 public class DivergenceCheckTrainingListener extends TrainingListenerAdapter {
 
+    private int frequency;
+    private int interval;
+    private int counter;
+
+    /**
+     * Constructs a {@code DivergenceCheckTrainingListener} that checks every {@link
+     * Trainer#getMetricsInterval()} batches, every batch by default.
+     */
+    public DivergenceCheckTrainingListener() {
+        this(0);
+    }
+
+    /**
+     * Constructs a {@code DivergenceCheckTrainingListener} that checks every {@code frequency}
+     * batches.
+     *
+     * <p>Checking the loss reads it back from the device, checking less often avoids waiting for
+     * the training on every batch. A NaN loss stays in the epoch loss, so it is still detected.
+     *
+     * @param frequency the number of batches between two checks, or 0 to use {@link
+     *     Trainer#getMetricsInterval()}
+     */
+    public DivergenceCheckTrainingListener(int frequency) {
+        this.frequency = frequency;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void onTrainingBegin(Trainer trainer) {
+        interval = frequency > 0 ? frequency : trainer.getMetricsInterval();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void onEpoch(Trainer trainer) {
+        counter = 0;
+    }
+
     /** {@inheritDoc} */
     @Override
     public void onTrainingBatch(Trainer trainer, BatchData batchData) {
+        if (++counter < interval) {
+            return;
+        }
+        counter = 0;
+        String accumulator =
+                interval == 1
+                        ? EvaluatorTrainingListener.TRAIN_ALL
+                        : EvaluatorTrainingListener.TRAIN_EPOCH;
         Loss trainingLoss = trainer.getLoss();
-        if (Float.isNaN(trainingLoss.getAccumulator(EvaluatorTrainingListener.TRAIN_ALL))) {
+        if (Float.isNaN(trainingLoss.getAccumulator(accumulator))) {
             throw new TrainingDivergedException(
                     "The Loss became NaN, try reduce learning rate,add clipGradient option to your"
                             + " optimizer, check input data and loss calculation.");
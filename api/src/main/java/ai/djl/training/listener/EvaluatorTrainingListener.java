@@ -32,6 +32,8 @@ import java.util.concurrent.ConcurrentHashMap;
  *   <li>{@link #TRAIN_PROGRESS} - This accumulates for {@link #progressUpdateFrequency} batches and
  *       is recorded to a metric at the end
  *   <li>{@link #TRAIN_ALL} - This does not accumulates and records every training batch to a metric
+ *       (with gradient accumulation, every group of batches that are used for one parameter update)
+ *       or every {@link #allUpdateFrequency} batches
  *   <li>{@link #VALIDATE_EPOCH} - This accumulates for the whole validation epoch and is recorded
  *       to a metric at the end of the epoch
  * </ul>
@@ -39,6 +41,10 @@ import java.util.concurrent.ConcurrentHashMap;
  * <p>The training and validation evaluators are saved as metrics with names that can be found using
  * {@link EvaluatorTrainingListener#metricName(Evaluator, String)}. The validation evaluators are
  * also saved as model properties with the evaluator name.
+ *
+ * <p>The evaluators accumulate on the device, reading a value back to the host waits for the
+ * training to catch up. The {@link #TRAIN_ALL} values can be recorded less often than every batch
+ * to avoid such a synchronization per batch.
  */
 public class EvaluatorTrainingListener extends TrainingListenerAdapter {
 
@@ -49,13 +55,18 @@ public class EvaluatorTrainingListener extends TrainingListenerAdapter {
 
     private int progressUpdateFrequency;
     private int progressCounter;
+    private int allUpdateFrequency;
+    private int allInterval;
+    private int allCounter;
+    private boolean accumulating;
     private Map<String, Float> latestEvaluations;
 
     /**
      * Constructs an {@link EvaluatorTrainingListener} that updates the training progress the
      * default frequency.
      *
-     * <p>Current default frequency is every 5 batches.
+     * <p>Current default frequency is every 5 batches. The {@link #TRAIN_ALL} metrics are recorded
+     * every {@link Trainer#getMetricsInterval()} batches.
      */
     public EvaluatorTrainingListener() {
         this(5);
@@ -65,12 +76,30 @@ public class EvaluatorTrainingListener extends TrainingListenerAdapter {
      * Constructs an {@link EvaluatorTrainingListener} that updates the training progress the given
      * frequency.
      *
+     * <p>The {@link #TRAIN_ALL} metrics are recorded every {@link Trainer#getMetricsInterval()}
+     * batches.
+     *
      * @param progressUpdateFrequency the number of batches to accumulate an evaluator before it is
      *     stable enough to output
      */
     public EvaluatorTrainingListener(int progressUpdateFrequency) {
+        this(progressUpdateFrequency, 0);
+    }
+
+    /**
+     * Constructs an {@link EvaluatorTrainingListener} that updates the training progress and the
+     * per batch metrics the given frequencies.
+     *
+     * @param progressUpdateFrequency the number of batches to accumulate an evaluator before it is
+     *     stable enough to output
+     * @param allUpdateFrequency the number of batches between two {@link #TRAIN_ALL} metrics, or 0
+     *     to use {@link Trainer#getMetricsInterval()}
+     */
+    public EvaluatorTrainingListener(int progressUpdateFrequency, int allUpdateFrequency) {
         this.progressUpdateFrequency = progressUpdateFrequency;
+        this.allUpdateFrequency = allUpdateFrequency;
         progressCounter = 0;
+        allCounter = 0;
         latestEvaluations = new ConcurrentHashMap<>();
     }
 
@@ -78,6 +107,13 @@ public class EvaluatorTrainingListener extends TrainingListenerAdapter {
     @Override
     public void onEpoch(Trainer trainer) {
         Metrics metrics = trainer.getMetrics();
+        if (accumulating) {
+            // the last batches were applied by Trainer.flushGradients() without a full accumulation
+            accumulating = false;
+            if (metrics != null) {
+                updateAll(trainer, metrics);
+            }
+        }
         for (Evaluator evaluator : trainer.getEvaluators()) {
             float trainValue = evaluator.getAccumulator(TRAIN_EPOCH);
             float validateValue = evaluator.getAccumulator(VALIDATE_EPOCH);
@@ -103,23 +139,24 @@ public class EvaluatorTrainingListener extends TrainingListenerAdapter {
             evaluator.resetAccumulator(VALIDATE_EPOCH);
         }
         progressCounter = 0;
+        allCounter = 0;
     }
 
     /** {@inheritDoc} */
     @Override
     public void onTrainingBatch(Trainer trainer, BatchData batchData) {
-        for (Evaluator evaluator : trainer.getEvaluators()) {
-            evaluator.resetAccumulator(TRAIN_ALL);
+        // with gradient accumulation, TRAIN_ALL covers all batches of one parameter update
+        if (trainer.getAccumulatedBatches() == 0) {
+            for (Evaluator evaluator : trainer.getEvaluators()) {
+                evaluator.resetAccumulator(TRAIN_ALL);
+            }
         }
 
         updateEvaluators(trainer, batchData, new String[] {TRAIN_EPOCH, TRAIN_PROGRESS, TRAIN_ALL});
+        accumulating = !trainer.isAccumulationBoundary();
         Metrics metrics = trainer.getMetrics();
-        if (metrics != null) {
-            for (Evaluator evaluator : trainer.getEvaluators()) {
-                String key = metricName(evaluator, TRAIN_ALL);
-                float value = evaluator.getAccumulator(TRAIN_ALL);
-                metrics.addMetric(key, value);
-            }
+        if (metrics != null && !accumulating) {
+            updateAll(trainer, metrics);
 
             progressCounter++;
             if (progressCounter == progressUpdateFrequency) {
@@ -133,6 +170,18 @@ public class EvaluatorTrainingListener extends TrainingListenerAdapter {
         }
     }
 
+    private void updateAll(Trainer trainer, Metrics metrics) {
+        allCounter++;
+        if (allCounter >= allInterval) {
+            for (Evaluator evaluator : trainer.getEvaluators()) {
+                String key = metricName(evaluator, TRAIN_ALL);
+                float value = evaluator.getAccumulator(TRAIN_ALL);
+                metrics.addMetric(key, value);
+            }
+            allCounter = 0;
+        }
+    }
+
     /** {@inheritDoc} */
     @Override
     public void onValidationBatch(Trainer trainer, BatchData batchData) {
@@ -152,6 +201,7 @@ public class EvaluatorTrainingListener extends TrainingListenerAdapter {
     /** {@inheritDoc} */
     @Override
     public void onTrainingBegin(Trainer trainer) {
+        allInterval = allUpdateFrequency > 0 ? allUpdateFrequency : trainer.getMetricsInterval();
         for (Evaluator evaluator : trainer.getEvaluators()) {
             evaluator.addAccumulator(TRAIN_EPOCH);
             evaluator.addAccumulator(TRAIN_PROGRESS);
@@ -160,6 +210,21 @@ public class EvaluatorTrainingListener extends TrainingListenerAdapter {
         }
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public void onTrainingEnd(Trainer trainer) {
+        // frees the sums left on the devices, for example of a TRAIN_ALL interval not reached,
+        // but keeps the totals readable after the trainer is closed
+        for (Evaluator evaluator : trainer.getEvaluators()) {
+            // folds the last parameter update into the TRAIN_ALL total before releasing it
+            evaluator.getAccumulator(TRAIN_ALL);
+            evaluator.releaseDeviceSum(TRAIN_EPOCH);
+            evaluator.releaseDeviceSum(TRAIN_PROGRESS);
+            evaluator.releaseDeviceSum(TRAIN_ALL);
+            evaluator.releaseDeviceSum(VALIDATE_EPOCH);
+        }
+    }
+
     /**
      * Returns the metric created with the evaluator for the given stage.
      *
@@ -72,7 +72,12 @@ public interface TrainingListener {
      */
     void onTrainingEnd(Trainer trainer);
 
-    /** Contains default {@link TrainingListener} sets. */
+    /**
+     * Contains default {@link TrainingListener} sets.
+     *
+     * <p>The listeners of these sets read the training metrics from the devices every {@link
+     * ai.djl.training.TrainingConfig#getMetricsInterval()} batches.
+     */
     interface Defaults {
 
         /**
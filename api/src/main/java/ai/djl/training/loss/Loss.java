@@ -378,6 +378,7 @@ public abstract class Loss extends Evaluator {
     /** {@inheritDoc} */
     @Override
     public void addAccumulator(String key) {
+        clearDeviceSum(key);
         totalInstances.put(key, 0L);
         totalLoss.put(key, 0f);
     }
@@ -391,17 +392,17 @@ public abstract class Loss extends Evaluator {
     /** {@inheritDoc} */
     @Override
     public void updateAccumulators(String[] keys, NDList labels, NDList predictions) {
-        // this is a synchronized operation, only call it at end of batch or epoch
-        float update = evaluate(labels, predictions).sum().getFloat();
+        // the loss is summed on the device, it's only read back by getAccumulator()
+        accumulateOnDevice(keys, evaluate(labels, predictions).sum());
         for (String key : keys) {
             totalInstances.compute(key, (k, v) -> v + 1);
-            totalLoss.compute(key, (k, v) -> v + update);
         }
     }
 
     /** {@inheritDoc} */
     @Override
     public void resetAccumulator(String key) {
+        clearDeviceSum(key);
         totalInstances.compute(key, (k, v) -> 0L);
         totalLoss.compute(key, (k, v) -> 0f);
     }
@@ -418,6 +419,7 @@ public abstract class Loss extends Evaluator {
             return Float.NaN;
         }
 
-        return totalLoss.get(key) / totalInstances.get(key);
+        float loss = (float) drainDeviceSum(key);
+        return totalLoss.compute(key, (k, v) -> v + loss) / total;
     }
 }
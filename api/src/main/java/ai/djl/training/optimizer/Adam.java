@@ -107,6 +107,54 @@ public class Adam extends Optimizer {
                 false);
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public void update(String[] parameterIds, NDArray[] weights, NDArray[] grads) {
+        if (parameterIds.length == 0) {
+            return;
+        }
+        float weightDecay = getWeightDecay();
+        float[] learningRates = new float[parameterIds.length];
+        float[] learningRateBiasCorrections = new float[parameterIds.length];
+        NDList meanList = new NDList(parameterIds.length);
+        NDList varianceList = new NDList(parameterIds.length);
+        for (int i = 0; i < parameterIds.length; ++i) {
+            String parameterId = parameterIds[i];
+            NDArray weight = weights[i];
+            int t = updateCount(parameterId);
+            double coef1 = 1.0 - Math.pow(beta1, t);
+            double coef2 = 1.0 - Math.pow(beta2, t);
+            learningRates[i] = learningRateTracker.getNewValue(parameterId, t);
+            learningRateBiasCorrections[i] = (float) (learningRates[i] * Math.sqrt(coef2) / coef1);
+            Preconditions.checkArgument(
+                    !Float.isNaN(learningRateBiasCorrections[i])
+                            && !Float.isNaN(weightDecay)
+                            && !Float.isInfinite(learningRateBiasCorrections[i])
+                            && !Float.isInfinite(weightDecay),
+                    "learning rate or weight decay is nan or infinite");
+            Device device = weight.getDevice();
+            meanList.add(withDefaultState(means, parameterId, device, k -> weight.zerosLike()));
+            varianceList.add(
+                    withDefaultState(variances, parameterId, device, k -> weight.zerosLike()));
+        }
+
+        NDArrayEx ex = weights[0].getNDArrayInternal();
+        ex.multiAdamUpdate(
+                new NDList(weights),
+                new NDList(grads),
+                meanList,
+                varianceList,
+                learningRates,
+                learningRateBiasCorrections,
+                weightDecay,
+                rescaleGrad,
+                clipGrad,
+                beta1,
+                beta2,
+                epsilon,
+                false);
+    }
+
     /**
      * Creates a builder to build a {@code Adam}.
      *
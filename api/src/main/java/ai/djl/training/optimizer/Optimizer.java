@@ -17,6 +17,7 @@ import ai.djl.ndarray.NDArray;
 
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 
 /**
@@ -32,7 +33,7 @@ public abstract class Optimizer {
     protected float clipGrad;
     private float weightDecays;
     private int beginNumUpdate;
-    private int numUpdate;
+    private AtomicInteger numUpdate = new AtomicInteger();
     private Map<String, Integer> updateCounts = new ConcurrentHashMap<>();
 
     /**
@@ -131,8 +132,8 @@ public abstract class Optimizer {
         int count =
                 updateCounts.compute(
                         parameterId, (key, val) -> (val == null) ? beginNumUpdate + 1 : val + 1);
-        numUpdate = Math.max(numUpdate, count);
-        return numUpdate;
+        // parameters on different devices may be updated concurrently
+        return numUpdate.accumulateAndGet(count, Math::max);
     }
 
     /**
@@ -144,6 +145,23 @@ public abstract class Optimizer {
      */
     public abstract void update(String parameterId, NDArray weight, NDArray grad);
 
+    /**
+     * Updates several parameters on the same device according to the gradients.
+     *
+     * <p>Optimizers that support multi-tensor updates override this method to update all the
+     * parameters with a few fused engine operations. The default implementation calls {@link
+     * #update(String, NDArray, NDArray)} for each parameter.
+     *
+     * @param parameterIds the parameters to be updated
+     * @param weights the weights of the parameters
+     * @param grads the gradients of the parameters
+     */
+    public void update(String[] parameterIds, NDArray[] weights, NDArray[] grads) {
+        for (int i = 0; i < parameterIds.length; ++i) {
+            update(parameterIds[i], weights[i], grads[i]);
+        }
+    }
+
     protected NDArray withDefaultState(
             Map<String, Map<Device, NDArray>> state,
             String key,
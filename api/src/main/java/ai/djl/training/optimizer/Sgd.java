@@ -78,6 +78,42 @@ public class Sgd extends Optimizer {
                 inputs, weights, learningRate, weightDecay, rescaleGrad, clipGrad, momentum, true);
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public void update(String[] parameterIds, NDArray[] weights, NDArray[] grads) {
+        if (parameterIds.length == 0) {
+            return;
+        }
+        float weightDecay = getWeightDecay();
+        float[] learningRates = new float[parameterIds.length];
+        NDList states = new NDList(parameterIds.length);
+        for (int i = 0; i < parameterIds.length; ++i) {
+            String parameterId = parameterIds[i];
+            NDArray weight = weights[i];
+            learningRates[i] =
+                    learningRateTracker.getNewValue(parameterId, updateCount(parameterId));
+            if (momentum != 0f) {
+                states.add(
+                        withDefaultState(
+                                momentumStates,
+                                parameterId,
+                                weight.getDevice(),
+                                k -> weight.zerosLike()));
+            }
+        }
+
+        NDArrayEx ex = weights[0].getNDArrayInternal();
+        ex.multiSgdUpdate(
+                new NDList(weights),
+                new NDList(grads),
+                states,
+                learningRates,
+                weightDecay,
+                rescaleGrad,
+                clipGrad,
+                momentum);
+    }
+
     /** The Builder to construct an {@link Sgd} object. */
     public static final class Builder extends OptimizerBuilder<Builder> {
 
@@ -17,8 +17,11 @@ import ai.djl.ndarray.NDList;
 import ai.djl.util.Pair;
 import ai.djl.util.PairList;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
 /** {@code Pipeline} allows applying multiple transforms on an input {@link NDList}. */
 public class Pipeline {
@@ -137,6 +140,66 @@ public class Pipeline {
         return this;
     }
 
+    /**
+     * Returns the transforms that are applied to the {@link NDArray} at the given index of the
+     * input {@link NDList}, the transforms added with a name are not included.
+     *
+     * @param index the index of the {@link NDArray} in the input {@link NDList}
+     * @return the transforms, in the order they are applied
+     */
+    public List<Transform> getTransforms(int index) {
+        List<Transform> ret = new ArrayList<>();
+        for (Pair<IndexKey, Transform> transform : transforms) {
+            IndexKey key = transform.getKey();
+            if (key.key == null && key.index == index) {
+                ret.add(transform.getValue());
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * Returns a new {@code Pipeline} with consecutive transforms replaced by fused transforms.
+     *
+     * <p>The fuser is called with runs of consecutive transforms that are applied to the same
+     * {@link NDArray}, longest first. It returns a single {@link Transform} that is equivalent to
+     * the whole run, or {@code null} if the run can not be fused. This {@code Pipeline} is not
+     * modified.
+     *
+     * @param fuser the function that fuses a list of transforms
+     * @return a new {@code Pipeline} with the fused transforms
+     * @see ai.djl.modality.cv.transform.FusedImageTransform#of(List)
+     */
+    public Pipeline fuse(Function<List<Transform>, Transform> fuser) {
+        Pipeline fused = new Pipeline();
+        List<Transform> values = transforms.values();
+        int size = transforms.size();
+        int start = 0;
+        while (start < size) {
+            IndexKey key = transforms.keyAt(start);
+            int end = start + 1;
+            while (end < size && key.equals(transforms.keyAt(end))) {
+                ++end;
+            }
+            Transform transform = null;
+            int to = end;
+            for (; to > start + 1; --to) {
+                transform = fuser.apply(values.subList(start, to));
+                if (transform != null) {
+                    break;
+                }
+            }
+            if (transform == null) {
+                fused.transforms.add(key, transforms.valueAt(start));
+                ++start;
+            } else {
+                fused.transforms.add(key, transform);
+                start = to;
+            }
+        }
+        return fused;
+    }
+
     /**
      * Applies the transforms configured in this object on the input {@link NDList}.
      *
@@ -43,4 +43,23 @@ public class ChunkedBytesSupplierTest {
 
         Assert.assertFalse(data.hasNext());
     }
+
+    @Test
+    public void testCapacity() throws InterruptedException {
+        ChunkedBytesSupplier data = new ChunkedBytesSupplier(1);
+        data.appendContent(new byte[] {1}, false);
+
+        Thread producer = new Thread(() -> data.appendContent(new byte[] {2}, true));
+        producer.start();
+        producer.join(100);
+        // blocked until the first chunk is consumed
+        Assert.assertTrue(producer.isAlive());
+
+        Assert.assertEquals(data.nextChunk(1, TimeUnit.SECONDS), new byte[] {1});
+        // the last chunk may still be waiting to be added
+        Assert.assertTrue(data.hasNext());
+        producer.join();
+        Assert.assertEquals(data.nextChunk(1, TimeUnit.SECONDS), new byte[] {2});
+        Assert.assertFalse(data.hasNext());
+    }
 }
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.metric;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+public class PrometheusFormatTest {
+
+    @Test
+    public void testFormat() {
+        Dimension[] dims = {new Dimension("Model", "resnet"), new Dimension("Device", "cpu()")};
+        StreamingMetrics metrics = new StreamingMetrics();
+        for (int i = 0; i < 100; ++i) {
+            metrics.addMetric("Inference", i * 10, Unit.MICROSECONDS, dims);
+        }
+        metrics.addMetric(new Metric("PoolActive", MetricType.GAUGE, 3, Unit.COUNT, dims));
+
+        PrometheusFormat format = new PrometheusFormat(false);
+        String text = format.format(metrics);
+        Assert.assertTrue(text.contains("# TYPE djl_inference_seconds summary\n"));
+        String labels = "{model=\"resnet\",device=\"cpu()\"";
+        Assert.assertTrue(text.contains("djl_inference_seconds_count" + labels + "} 100\n"));
+        Assert.assertTrue(text.contains("djl_inference_seconds" + labels + ",quantile=\"0.5\"}"));
+        Assert.assertTrue(text.contains("djl_pool_active" + labels + "} 3.0\n"));
+        Assert.assertFalse(text.contains("# EOF"));
+
+        format = new PrometheusFormat(true, Collections.singletonMap("job", "test"));
+        Assert.assertTrue(format.getContentType().startsWith("application/openmetrics-text"));
+        text = format.format(metrics);
+        Assert.assertTrue(text.endsWith("# EOF\n"));
+        Assert.assertTrue(text.contains("djl_pool_active{job=\"test\",model=\"resnet\""));
+    }
+
+    @Test
+    public void testFormatMetrics() {
+        Metrics metrics = new Metrics();
+        metrics.addMetric("training-metrics", 2L);
+        metrics.addMetric("training-metrics", 4L);
+        String text = new PrometheusFormat(false).format(metrics);
+        Assert.assertTrue(text.contains("# TYPE djl_training_metrics summary\n"));
+        Assert.assertTrue(text.contains("djl_training_metrics_sum{host="));
+    }
+
+    @Test
+    public void testExporter() {
+        StreamingMetrics metrics = new StreamingMetrics();
+        metrics.addMetric("Prediction", 100, Unit.MILLISECONDS);
+        PrometheusExporter exporter = new PrometheusExporter(new PrometheusFormat(false));
+        try (MetricsReporter reporter =
+                new MetricsReporter(metrics, 1, TimeUnit.HOURS, exporter)) {
+            reporter.report();
+            Assert.assertTrue(exporter.getText().contains("djl_prediction_seconds_sum 0.1\n"));
+        }
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.metric;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Map;
+
+public class StreamingMetricsTest {
+
+    @Test
+    public void testStreamingMetrics() {
+        StreamingMetrics metrics = new StreamingMetrics();
+        metrics.addMetric(new Metric("m1", 1L));
+        metrics.addMetric("m1", 3L, Unit.COUNT);
+        metrics.addMetric("m1", 2L);
+        Metric p50 = metrics.percentile("m1", 50);
+        Assert.assertEquals(p50.getValue().longValue(), 2L);
+        Assert.assertEquals(p50.getMetricName(), "m1_p50");
+        Assert.assertEquals(metrics.mean("m1"), 2d);
+        Assert.assertEquals(metrics.latestMetric("m1").getValue().longValue(), 2L);
+        Assert.assertTrue(metrics.hasMetric("m1"));
+        Assert.assertThrows(() -> metrics.latestMetric("none"));
+        Assert.assertThrows(IllegalArgumentException.class, () -> metrics.mean("none"));
+        Assert.assertThrows(IllegalArgumentException.class, () -> metrics.percentile("none", 1));
+
+        Assert.assertThrows(UnsupportedOperationException.class, () -> metrics.getMetric("m1"));
+        Assert.assertThrows(UnsupportedOperationException.class, () -> metrics.setLimit(10));
+        Assert.assertEquals(metrics.getHistogram("m1").getCount(), 3);
+
+        metrics.addMetric("m2", 2.4d);
+        metrics.addMetric("m2", 3.4d);
+        metrics.addMetric("m2", -1.3d);
+        Assert.assertEquals(metrics.mean("m2"), 1.5d, 1e-6);
+        Assert.assertEquals(metrics.percentile("m2", 0).getValue(), -1.3d, 0.02);
+        Assert.assertEquals(metrics.percentile("m2", 99).getValue(), 3.4d, 0.04);
+    }
+
+    @Test
+    public void testDimensions() {
+        StreamingMetrics metrics = new StreamingMetrics();
+        Dimension mlp = new Dimension("Model", "mlp");
+        Dimension resnet = new Dimension("Model", "resnet");
+        for (int i = 0; i < 1000; ++i) {
+            metrics.addMetric("Inference", i, Unit.MICROSECONDS, mlp);
+            metrics.addMetric("Inference", i * 2, Unit.MICROSECONDS, resnet);
+        }
+        metrics.addMetric("Inference", 1, Unit.MICROSECONDS, new Dimension("Model", "mlp"));
+
+        Map<List<Dimension>, Histogram> histograms = metrics.getHistograms("Inference");
+        Assert.assertEquals(histograms.size(), 2);
+        Assert.assertEquals(metrics.getHistogram("Inference").getCount(), 2001);
+        Assert.assertEquals(metrics.getUnit("Inference"), Unit.MICROSECONDS);
+
+        double p90 = metrics.percentile("Inference", 90).getValue();
+        Assert.assertEquals(p90, 1600, 16);
+    }
+
+    @Test
+    public void testHistogram() {
+        Histogram histogram = new Histogram();
+        Assert.assertTrue(Double.isNaN(histogram.percentile(50)));
+        for (int i = 1; i <= 100_000; ++i) {
+            histogram.record(i);
+        }
+        histogram.record(0);
+        histogram.record(Double.NaN);
+        Assert.assertEquals(histogram.getCount(), 100_001);
+        Assert.assertEquals(histogram.getMin(), 0d);
+        Assert.assertEquals(histogram.getMax(), 100_000d);
+        Assert.assertEquals(histogram.percentile(0), 0d);
+        Assert.assertEquals(histogram.percentile(50), 50_000, 500);
+        Assert.assertEquals(histogram.percentile(99), 99_000, 990);
+        Assert.assertEquals(histogram.percentile(100), 100_000d);
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.modality.cv.util;
+
+import ai.djl.modality.cv.output.Rectangle;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public class NonMaxSuppressionTest {
+
+    @Test
+    public void testNms() {
+        float[] boxes = {
+            0, 0, 10, 10, // 0
+            1, 1, 10, 10, // 1: overlaps with 0
+            20, 20, 5, 5, // 2
+            0, 0, 10, 10, // 3: same box as 0, other class
+        };
+        float[] scores = {0.8f, 0.9f, 0.5f, 0.7f};
+
+        int[] keep = NonMaxSuppression.nms(boxes, scores, null, 4, 0.5f, 10);
+        Assert.assertEquals(keep, new int[] {1, 2});
+
+        int[] classIds = {1, 1, 1, 0};
+        keep = NonMaxSuppression.nms(boxes, scores, classIds, 4, 0.5f, 10);
+        Assert.assertEquals(keep, new int[] {1, 3, 2});
+
+        // the best boxes of all classes are kept, not the boxes of the lowest class ids
+        keep = NonMaxSuppression.nms(boxes, scores, classIds, 4, 0.5f, 2);
+        Assert.assertEquals(keep, new int[] {1, 3});
+        keep = NonMaxSuppression.nms(boxes, scores, classIds, 4, 0.5f, 1);
+        Assert.assertEquals(keep, new int[] {1});
+
+        int[] negative = {1, 1, -1, 0};
+        Assert.assertThrows(
+                IllegalArgumentException.class,
+                () -> NonMaxSuppression.nms(boxes, scores, negative, 4, 0.5f, 10));
+
+        keep = NonMaxSuppression.nms(boxes, scores, null, 0, 0.5f, 10);
+        Assert.assertEquals(keep.length, 0);
+    }
+
+    @Test
+    public void testSoftNms() {
+        float[] boxes = {0, 0, 10, 10, 1, 1, 10, 10, 20, 20, 5, 5};
+        float[] scores = {0.8f, 0.9f, 0.5f};
+
+        int[] keep = NonMaxSuppression.softNms(boxes, scores, null, 3, 0.5f, 0.4f, 10);
+        Assert.assertEquals(keep, new int[] {1, 2});
+        Assert.assertEquals(scores[1], 0.9f);
+        Assert.assertEquals(scores[2], 0.5f);
+        Assert.assertTrue(scores[0] < 0.4f);
+
+        scores = new float[] {0.8f, 0.9f, 0.5f};
+        keep = NonMaxSuppression.softNms(boxes, scores, null, 3, 0.5f, 0.001f, 10);
+        Assert.assertEquals(keep, new int[] {1, 2, 0});
+
+        // box 0 is not decayed by box 1 of another class
+        scores = new float[] {0.8f, 0.9f, 0.5f};
+        int[] classIds = {0, 1, 1};
+        keep = NonMaxSuppression.softNms(boxes, scores, classIds, 3, 0.5f, 0.4f, 10);
+        Assert.assertEquals(keep, new int[] {1, 0, 2});
+        Assert.assertEquals(scores[0], 0.8f);
+
+        scores = new float[] {0.8f, 0.9f, 0.5f};
+        keep = NonMaxSuppression.softNms(boxes, scores, classIds, 3, 0.5f, 0.4f, 1);
+        Assert.assertEquals(keep, new int[] {1});
+    }
+
+    @Test
+    public void testMatchesRectangleNms() {
+        Random random = new Random(42);
+        int count = 1000;
+        float[] boxes = new float[count * 4];
+        float[] scores = new float[count];
+        List<Rectangle> rects = new ArrayList<>(count);
+        List<Double> list = new ArrayList<>(count);
+        for (int i = 0; i < count; ++i) {
+            boxes[i * 4] = random.nextFloat() * 600;
+            boxes[i * 4 + 1] = random.nextFloat() * 600;
+            boxes[i * 4 + 2] = 10 + random.nextFloat() * 60;
+            boxes[i * 4 + 3] = 10 + random.nextFloat() * 60;
+            scores[i] = random.nextFloat();
+            rects.add(
+                    new Rectangle(
+                            boxes[i * 4], boxes[i * 4 + 1], boxes[i * 4 + 2], boxes[i * 4 + 3]));
+            list.add((double) scores[i]);
+        }
+
+        int[] keep = NonMaxSuppression.nms(boxes, scores, null, count, 0.45f, count);
+        int[] expected = bruteForce(boxes, scores, count, 0.45f);
+        Assert.assertEquals(keep, expected);
+
+        int[] fromRect = Rectangle.nms(rects, list, 0.45f).stream().mapToInt(i -> i).toArray();
+        Assert.assertEquals(fromRect, expected);
+    }
+
+    private static int[] bruteForce(float[] boxes, float[] scores, int count, float threshold) {
+        Integer[] order = new Integer[count];
+        for (int i = 0; i < count; ++i) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Float.compare(scores[b], scores[a]));
+        boolean[] removed = new boolean[count];
+        List<Integer> keep = new ArrayList<>();
+        for (int i = 0; i < count; ++i) {
+            if (removed[i]) {
+                continue;
+            }
+            int a = order[i];
+            keep.add(a);
+            for (int j = i + 1; j < count; ++j) {
+                int b = order[j];
+                float w =
+                        Math.min(boxes[a * 4] + boxes[a * 4 + 2], boxes[b * 4] + boxes[b * 4 + 2])
+                                - Math.max(boxes[a * 4], boxes[b * 4]);
+                float h =
+                        Math.min(
+                                        boxes[a * 4 + 1] + boxes[a * 4 + 3],
+                                        boxes[b * 4 + 1] + boxes[b * 4 + 3])
+                                - Math.max(boxes[a * 4 + 1], boxes[b * 4 + 1]);
+                float inter = w > 0 && h > 0 ? w * h : 0;
+                float union =
+                        boxes[a * 4 + 2] * boxes[a * 4 + 3]
+                                + boxes[b * 4 + 2] * boxes[b * 4 + 3]
+                                - inter;
+                if (inter / union >= threshold) {
+                    removed[j] = true;
+                }
+            }
+        }
+        return keep.stream().mapToInt(i -> i).toArray();
+    }
+}
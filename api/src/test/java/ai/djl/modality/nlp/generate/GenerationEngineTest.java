@@ -0,0 +1,148 @@
+/*
+ * Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.modality.nlp.generate;
+
+import ai.djl.Model;
+import ai.djl.inference.Predictor;
+import ai.djl.ndarray.NDArray;
+import ai.djl.ndarray.NDList;
+import ai.djl.ndarray.NDManager;
+import ai.djl.ndarray.types.DataType;
+import ai.djl.ndarray.types.Shape;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+public class GenerationEngineTest {
+
+    private static final int VOCAB_SIZE = 32;
+    private static final int NUM_LAYERS = 24;
+
+    @Test
+    public void testJoinAndFinish()
+            throws InterruptedException, ExecutionException, TimeoutException {
+        try (Model model = Model.newInstance("stub");
+                StubLanguageModel predictor = new StubLanguageModel(model);
+                NDManager manager = NDManager.newBaseManager()) {
+            SeqBatchScheduler scheduler = new ContrastiveSeqBatchScheduler(predictor, config());
+            List<String> events = Collections.synchronizedList(new ArrayList<>());
+            List<Long> first = Collections.synchronizedList(new ArrayList<>());
+            List<Long> second = Collections.synchronizedList(new ArrayList<>());
+            CompletableFuture<long[]> joined = new CompletableFuture<>();
+            try (GenerationEngine engine = new GenerationEngine(scheduler, manager, 4, 1024)) {
+                CompletableFuture<long[]> running =
+                        engine.submit(
+                                new long[] {1},
+                                token -> {
+                                    if (first.isEmpty()) {
+                                        // joins the running batch before the next step
+                                        engine.submit(new long[] {20, 21, 22, 23}, second::add)
+                                                .whenComplete(
+                                                        (r, t) -> {
+                                                            events.add("second");
+                                                            complete(joined, r, t);
+                                                        });
+                                    }
+                                    first.add(token);
+                                });
+                running.whenComplete((r, t) -> events.add("first"));
+
+                Assert.assertEquals(
+                        joined.get(10, TimeUnit.SECONDS), new long[] {20, 21, 22, 23, 24, 25});
+                Assert.assertEquals(
+                        running.get(10, TimeUnit.SECONDS), new long[] {1, 2, 3, 4, 5, 6});
+            }
+            Assert.assertEquals(first, List.of(2L, 3L, 4L, 5L, 6L));
+            Assert.assertEquals(second, List.of(24L, 25L));
+            Assert.assertEquals(events, List.of("second", "first"));
+            Assert.assertTrue(scheduler.isEmpty());
+        }
+    }
+
+    @Test
+    public void testClose() throws InterruptedException, ExecutionException {
+        try (Model model = Model.newInstance("stub");
+                StubLanguageModel predictor = new StubLanguageModel(model);
+                NDManager manager = NDManager.newBaseManager()) {
+            SeqBatchScheduler scheduler = new ContrastiveSeqBatchScheduler(predictor, config());
+            GenerationEngine engine = new GenerationEngine(scheduler, manager, 1, 1024);
+            CompletableFuture<long[]> running = engine.submit(new long[] {1, 2});
+            CompletableFuture<long[]> queued = engine.submit(new long[] {10});
+            engine.close();
+
+            // close() finishes the running and queued requests
+            Assert.assertTrue(running.isDone());
+            Assert.assertTrue(queued.isDone());
+            Assert.assertEquals(running.get(), new long[] {1, 2, 3, 4, 5, 6});
+            Assert.assertEquals(queued.get(), new long[] {10, 11, 12, 13, 14, 15});
+            Assert.assertEquals(engine.getRunningSize(), 0);
+            Assert.assertTrue(scheduler.isEmpty());
+
+            CompletableFuture<long[]> rejected = engine.submit(new long[] {1});
+            Assert.assertTrue(rejected.isCompletedExceptionally());
+        }
+    }
+
+    private static SearchConfig config() {
+        SearchConfig config = new SearchConfig();
+        config.setK(1);
+        config.setMaxSeqLength(6);
+        config.setPadTokenId(0);
+        return config;
+    }
+
+    private static <T> void complete(CompletableFuture<T> future, T result, Throwable t) {
+        if (t != null) {
+            future.completeExceptionally(t);
+        } else {
+            future.complete(result);
+        }
+    }
+
+    /** A language model that always predicts the next token as the input token plus one. */
+    private static final class StubLanguageModel extends Predictor<NDList, CausalLMOutput> {
+
+        StubLanguageModel(Model model) {
+            super(model, null, model.getNDManager().getDevice(), false);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public CausalLMOutput predict(NDList input) {
+            NDArray inputIds = input.get(0);
+            NDManager manager = inputIds.getManager();
+            long batch = inputIds.getShape().get(0);
+            long seqLength = inputIds.getShape().get(1);
+
+            NDArray logits = inputIds.add(1).oneHot(VOCAB_SIZE).toType(DataType.FLOAT32, false);
+            NDArray hiddenState = manager.ones(new Shape(batch, seqLength, 2));
+            NDList pastKeyValues = new NDList(NUM_LAYERS);
+            for (int i = 0; i < NUM_LAYERS; ++i) {
+                NDArray kv = manager.ones(new Shape(batch, 1, seqLength, 1));
+                if (input.size() > 3) {
+                    kv = input.get(3 + i).concat(kv, 2);
+                }
+                pastKeyValues.add(kv);
+            }
+            return new CausalLMOutput(logits, hiddenState, pastKeyValues);
+        }
+    }
+}
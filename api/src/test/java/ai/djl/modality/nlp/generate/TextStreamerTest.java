@@ -0,0 +1,95 @@
+/*
+ * Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.modality.nlp.generate;
+
+import ai.djl.inference.streaming.ChunkedBytesSupplier;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+public class TextStreamerTest {
+
+    @Test
+    public void testTextStreamer() throws InterruptedException {
+        // token 2 is the first half of a multi-byte character
+        String[] vocab = {"Hello", " world", "", "\u00e9"};
+        TextStreamer streamer =
+                new TextStreamer(
+                        2,
+                        ids -> {
+                            StringBuilder sb = new StringBuilder();
+                            for (int i = 0; i < ids.length; ++i) {
+                                if (ids[i] == 2) {
+                                    sb.append(i == ids.length - 1 ? "\uFFFD" : "");
+                                } else {
+                                    sb.append(vocab[(int) ids[i]]);
+                                }
+                            }
+                            return sb.toString();
+                        },
+                        8);
+
+        streamer.onToken(0, 0, false);
+        streamer.onToken(1, 1, false);
+        streamer.onToken(0, 2, false);
+        streamer.onToken(0, 3, false);
+        streamer.onToken(1, 0, true);
+        streamer.onToken(0, 1, true);
+
+        ChunkedBytesSupplier text = streamer.getSupplier(0);
+        Assert.assertEquals(nextText(text), "Hello");
+        Assert.assertEquals(nextText(text), "\u00e9");
+        Assert.assertEquals(nextText(text), " world");
+        Assert.assertFalse(text.hasNext());
+
+        text = streamer.getSupplier(1);
+        Assert.assertEquals(nextText(text), " world");
+        Assert.assertEquals(nextText(text), "Hello");
+        Assert.assertFalse(text.hasNext());
+    }
+
+    @Test
+    public void testSlidingWindow() throws InterruptedException {
+        int[] maxWindow = new int[1];
+        TextStreamer streamer =
+                new TextStreamer(
+                        1,
+                        ids -> {
+                            maxWindow[0] = Math.max(maxWindow[0], ids.length);
+                            StringBuilder sb = new StringBuilder();
+                            for (long id : ids) {
+                                sb.append((char) ('a' + id));
+                            }
+                            return sb.toString();
+                        },
+                        128);
+
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 100; ++i) {
+            streamer.onToken(0, i % 26, i == 99);
+            expected.append((char) ('a' + i % 26));
+        }
+        ChunkedBytesSupplier text = streamer.getSupplier(0);
+        String result = new String(text.getAsBytes(), StandardCharsets.UTF_8);
+        Assert.assertEquals(result, expected.toString());
+        // only the previous and the new token are decoded
+        Assert.assertEquals(maxWindow[0], 2);
+    }
+
+    private static String nextText(ChunkedBytesSupplier supplier) throws InterruptedException {
+        return new String(supplier.nextChunk(1, TimeUnit.SECONDS), StandardCharsets.UTF_8);
+    }
+}
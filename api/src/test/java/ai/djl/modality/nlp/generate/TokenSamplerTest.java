@@ -0,0 +1,104 @@
+/*
+ * Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.modality.nlp.generate;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class TokenSamplerTest {
+
+    private static final float[] LOGITS = {1f, 4f, 0f, 3f, 2f, 3.5f};
+
+    @Test
+    public void testSeed() {
+        SearchConfig config = new SearchConfig();
+        config.setSeed(42);
+        int[] first = sample(new TokenSampler(config), 100);
+        int[] second = sample(new TokenSampler(config), 100);
+        Assert.assertEquals(first, second);
+    }
+
+    @Test
+    public void testTopK() {
+        SearchConfig config = new SearchConfig();
+        config.setSeed(1);
+        config.setTopK(2);
+        for (int token : sample(new TokenSampler(config), 200)) {
+            Assert.assertTrue(token == 1 || token == 5, "Unexpected token: " + token);
+        }
+
+        config.setTemperature(0f);
+        config.setTopK(0);
+        for (int token : sample(new TokenSampler(config), 10)) {
+            Assert.assertEquals(token, 1);
+        }
+    }
+
+    @Test
+    public void testTopP() {
+        // probabilities: 0.46, 0.28, 0.17, 0.06, ...
+        SearchConfig config = new SearchConfig();
+        config.setSeed(2);
+        config.setTopP(0.6f);
+        boolean[] sampled = new boolean[LOGITS.length];
+        for (int token : sample(new TokenSampler(config), 500)) {
+            sampled[token] = true;
+        }
+        Assert.assertEquals(sampled, new boolean[] {false, true, false, false, false, true});
+
+        config.setTopP(0.8f);
+        sampled = new boolean[LOGITS.length];
+        for (int token : sample(new TokenSampler(config), 500)) {
+            sampled[token] = true;
+        }
+        Assert.assertEquals(sampled, new boolean[] {false, true, false, true, false, true});
+    }
+
+    @Test
+    public void testMinP() {
+        SearchConfig config = new SearchConfig();
+        config.setSeed(3);
+        config.setMinP(0.5f);
+        for (int token : sample(new TokenSampler(config), 200)) {
+            Assert.assertTrue(token == 1 || token == 5, "Unexpected token: " + token);
+        }
+    }
+
+    @Test
+    public void testPenalty() {
+        SearchConfig config = new SearchConfig();
+        config.setTemperature(0f);
+        config.setRepetitionPenalty(2f);
+        TokenSampler sampler = new TokenSampler(config);
+        long[] history = {1, 1, 7};
+        float[] logits = LOGITS.clone();
+        Assert.assertEquals(sampler.sample(logits, 0, logits.length, history, 0, 3), 5);
+        Assert.assertEquals(logits[1], 2f);
+
+        config.setRepetitionPenalty(1f);
+        config.setPresencePenalty(3f);
+        logits = new float[] {0f, 0f, -1f, 2f, 1f, 0f};
+        history = new long[] {3, 3, 3};
+        Assert.assertEquals(sampler.sample(logits, 0, logits.length, history, 0, 3), 4);
+        Assert.assertEquals(logits[3], -1f);
+    }
+
+    private static int[] sample(TokenSampler sampler, int count) {
+        int[] tokens = new int[count];
+        for (int i = 0; i < count; ++i) {
+            float[] logits = LOGITS.clone();
+            tokens[i] = sampler.sample(logits, 0, logits.length, null, 0, 0);
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,223 @@
+/*
+ * Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.repository;
+
+import ai.djl.util.Progress;
+import ai.djl.util.Utils;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class CacheLockTest {
+
+    @Test
+    public void testSingleFlight() throws Exception {
+        Path cacheDir = Paths.get("build/tmp/cacheLock/singleFlight");
+        Utils.deleteQuietly(cacheDir);
+        TestRepository repo = new TestRepository(cacheDir);
+        Artifact artifact = newArtifact("model");
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Path>> futures = new ArrayList<>();
+            for (int i = 0; i < 4; ++i) {
+                futures.add(
+                        executor.submit(
+                                () -> {
+                                    repo.prepare(artifact);
+                                    return repo.getResourceDirectory(artifact);
+                                }));
+            }
+            for (Future<Path> future : futures) {
+                Assert.assertTrue(Files.exists(future.get().resolve("model.bin")));
+            }
+        } finally {
+            executor.shutdown();
+        }
+        Assert.assertEquals(repo.downloads.get(), 1);
+    }
+
+    @Test
+    public void testEvict() throws IOException {
+        Path cacheDir = Paths.get("build/tmp/cacheLock/evict");
+        Utils.deleteQuietly(cacheDir);
+        TestRepository repo = new TestRepository(cacheDir);
+        Artifact first = newArtifact("first");
+        Artifact second = newArtifact("second");
+        Artifact third = newArtifact("third");
+
+        System.setProperty("DJL_CACHE_MAX_SIZE", "2500");
+        try {
+            repo.prepare(first);
+            repo.prepare(second);
+            // Mark first as the least recently used
+            Path lockFile = repo.getResourceDirectory(first).resolveSibling(".first.lock");
+            Files.setLastModifiedTime(lockFile, FileTime.fromMillis(0));
+            repo.prepare(third);
+        } finally {
+            System.clearProperty("DJL_CACHE_MAX_SIZE");
+        }
+        Assert.assertFalse(Files.exists(repo.getResourceDirectory(first)));
+        Assert.assertTrue(Files.exists(repo.getResourceDirectory(second)));
+        Assert.assertTrue(Files.exists(repo.getResourceDirectory(third)));
+    }
+
+    @Test
+    public void testEvictInUse() throws IOException {
+        Path cacheDir = Paths.get("build/tmp/cacheLock/evictInUse");
+        Utils.deleteQuietly(cacheDir);
+        TestRepository repo = new TestRepository(cacheDir);
+        Artifact first = newArtifact("first");
+        Artifact second = newArtifact("second");
+        Artifact third = newArtifact("third");
+
+        System.setProperty("DJL_CACHE_MAX_SIZE", "2500");
+        try {
+            repo.prepare(first);
+            repo.prepare(second);
+            Path lockFile = repo.getResourceDirectory(first).resolveSibling(".first.lock");
+            Files.setLastModifiedTime(lockFile, FileTime.fromMillis(0));
+            try (Closeable ignore = repo.lockResource(first)) {
+                repo.prepare(third);
+            }
+        } finally {
+            System.clearProperty("DJL_CACHE_MAX_SIZE");
+        }
+        Assert.assertTrue(Files.exists(repo.getResourceDirectory(first)));
+        Assert.assertFalse(Files.exists(repo.getResourceDirectory(second)));
+        Assert.assertTrue(Files.exists(repo.getResourceDirectory(third)));
+
+        // an evicted resource is downloaded again when it is locked
+        try (Closeable ignore = repo.lockResource(second)) {
+            Assert.assertTrue(Files.exists(repo.getResourceDirectory(second)));
+        }
+        Assert.assertEquals(repo.downloads.get(), 4);
+    }
+
+    @Test
+    public void testEvictPartials() throws IOException {
+        Path cacheDir = Paths.get("build/tmp/cacheLock/evictPartials");
+        Utils.deleteQuietly(cacheDir);
+        TestRepository repo = new TestRepository(cacheDir);
+        Artifact first = newArtifact("first");
+        Artifact second = newArtifact("second");
+
+        Path downloads = cacheDir.resolve("downloads");
+        Files.createDirectories(downloads);
+        Files.write(downloads.resolve("model.bin.part0"), new byte[1000]);
+        System.setProperty("DJL_CACHE_MAX_SIZE", "2500");
+        try {
+            repo.prepare(first);
+            repo.prepare(second);
+        } finally {
+            System.clearProperty("DJL_CACHE_MAX_SIZE");
+        }
+        Assert.assertFalse(Files.exists(repo.getResourceDirectory(first)));
+        Assert.assertTrue(Files.exists(repo.getResourceDirectory(second)));
+        Assert.assertTrue(Files.exists(downloads.resolve("model.bin.part0")));
+    }
+
+    @Test
+    public void testMaxSize() {
+        System.setProperty("DJL_CACHE_MAX_SIZE", "2g");
+        try {
+            Assert.assertEquals(CacheLock.getMaxSize(), 2L << 30);
+        } finally {
+            System.clearProperty("DJL_CACHE_MAX_SIZE");
+        }
+        Assert.assertEquals(CacheLock.getMaxSize(), -1);
+    }
+
+    private static Artifact newArtifact(String name) {
+        Metadata metadata = new Metadata();
+        metadata.setRepositoryUri(URI.create("test/"));
+        Artifact artifact = new Artifact();
+        artifact.setName(name);
+        artifact.setMetadata(metadata);
+        Artifact.Item item = new Artifact.Item();
+        item.setName("model.bin");
+        item.setArtifact(artifact);
+        artifact.setFiles(Collections.singletonMap("model", item));
+        return artifact;
+    }
+
+    private static final class TestRepository extends AbstractRepository {
+
+        AtomicInteger downloads = new AtomicInteger();
+        private Path cacheDir;
+
+        TestRepository(Path cacheDir) {
+            super("test", URI.create("test/"));
+            this.cacheDir = cacheDir;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public boolean isRemote() {
+            return true;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public Path getCacheDirectory() {
+            return cacheDir;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        protected void download(Path tmp, URI baseUri, Artifact.Item item, Progress progress)
+                throws IOException {
+            downloads.incrementAndGet();
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            Files.write(tmp.resolve(item.getName()), new byte[1000]);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public Metadata locate(MRL mrl) {
+            return null;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public Artifact resolve(MRL mrl, Map<String, String> filter) {
+            return null;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public List<MRL> getResources() {
+            return Collections.emptyList();
+        }
+    }
+}
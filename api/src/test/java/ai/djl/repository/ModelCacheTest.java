@@ -0,0 +1,217 @@
+/*
+ * Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.repository;
+
+import ai.djl.Application;
+import ai.djl.Model;
+import ai.djl.ndarray.NDList;
+import ai.djl.repository.zoo.Criteria;
+import ai.djl.repository.zoo.ModelCache;
+import ai.djl.repository.zoo.ModelLoader;
+import ai.djl.repository.zoo.ModelZoo;
+import ai.djl.repository.zoo.ZooModel;
+import ai.djl.translate.NoopTranslator;
+import ai.djl.translate.Translator;
+import ai.djl.util.Progress;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ModelCacheTest {
+
+    @Test
+    public void testSharedModel() throws Exception {
+        TestZoo zoo = new TestZoo();
+        ModelCache cache = new ModelCache(-1, -1, -1);
+        Criteria<NDList, NDList> criteria =
+                Criteria.builder()
+                        .setTypes(NDList.class, NDList.class)
+                        .optModelZoo(zoo)
+                        .optOption("mapLocation", "true")
+                        .build();
+        Criteria<NDList, NDList> same =
+                Criteria.builder()
+                        .setTypes(NDList.class, NDList.class)
+                        .optModelZoo(zoo)
+                        .optOption("mapLocation", "true")
+                        .build();
+        Criteria<NDList, NDList> other =
+                criteria.toBuilder().optOption("mapLocation", "false").build();
+
+        ZooModel<NDList, NDList> model1 = cache.loadModel(criteria);
+        ZooModel<NDList, NDList> model2 = cache.loadModel(same);
+        Assert.assertEquals(zoo.loaded.get(), 1);
+        Assert.assertSame(model1.getWrappedModel(), model2.getWrappedModel());
+        Assert.assertNotSame(model1, model2);
+
+        ZooModel<NDList, NDList> model3 = cache.loadModel(other);
+        Assert.assertEquals(zoo.loaded.get(), 2);
+        Assert.assertNotSame(model1.getWrappedModel(), model3.getWrappedModel());
+        Assert.assertEquals(cache.size(), 2);
+
+        model1.close();
+        model1.close();
+        Assert.assertEquals(zoo.closed.get(), 0);
+        model2.close();
+        model3.close();
+        Assert.assertEquals(zoo.closed.get(), 0);
+        Assert.assertEquals(cache.size(), 2);
+
+        try (ZooModel<NDList, NDList> model = cache.loadModel(criteria.toBuilder().build())) {
+            Assert.assertNotNull(model.getTranslator());
+            Assert.assertEquals(zoo.loaded.get(), 2);
+        }
+
+        cache.clear();
+        Assert.assertEquals(zoo.closed.get(), 2);
+        Assert.assertEquals(cache.size(), 0);
+    }
+
+    @Test
+    public void testEviction() throws Exception {
+        TestZoo zoo = new TestZoo();
+        ModelCache cache = new ModelCache(1, -1, -1);
+        Criteria<NDList, NDList> criteria1 =
+                Criteria.builder()
+                        .setTypes(NDList.class, NDList.class)
+                        .optModelZoo(zoo)
+                        .optModelName("model1")
+                        .build();
+        Criteria<NDList, NDList> criteria2 = criteria1.toBuilder().optModelName("model2").build();
+
+        ZooModel<NDList, NDList> model1 = cache.loadModel(criteria1);
+        ZooModel<NDList, NDList> model2 = cache.loadModel(criteria2);
+        model1.close();
+        Assert.assertEquals(zoo.closed.get(), 0);
+        model2.close();
+        // only the most recently used idle model is kept
+        Assert.assertEquals(zoo.closed.get(), 1);
+        Assert.assertEquals(cache.size(), 1);
+
+        cache.loadModel(criteria2).close();
+        Assert.assertEquals(zoo.loaded.get(), 2);
+
+        ModelCache expiring = new ModelCache(-1, 0, -1);
+        expiring.loadModel(criteria1).close();
+        Assert.assertEquals(expiring.size(), 0);
+        Assert.assertEquals(zoo.closed.get(), 2);
+    }
+
+    @Test
+    public void testLoadFailure() {
+        TestZoo zoo = new TestZoo();
+        zoo.fail = true;
+        ModelCache cache = new ModelCache(-1, -1, -1);
+        Criteria<NDList, NDList> criteria =
+                Criteria.builder().setTypes(NDList.class, NDList.class).optModelZoo(zoo).build();
+        Assert.assertThrows(IllegalStateException.class, () -> cache.loadModel(criteria));
+        Assert.assertEquals(cache.size(), 0);
+    }
+
+    private static final class TestZoo extends ModelZoo {
+
+        AtomicInteger loaded = new AtomicInteger();
+        AtomicInteger closed = new AtomicInteger();
+        boolean fail;
+
+        /** {@inheritDoc} */
+        @Override
+        public String getGroupId() {
+            return "ai.djl.test";
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public Set<String> getSupportedEngines() {
+            return Collections.emptySet();
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public Collection<ModelLoader> getModelLoaders() {
+            return Collections.singletonList(new TestLoader(this));
+        }
+    }
+
+    private static final class TestLoader implements ModelLoader {
+
+        private TestZoo zoo;
+
+        TestLoader(TestZoo zoo) {
+            this.zoo = zoo;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public String getGroupId() {
+            return zoo.getGroupId();
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public String getArtifactId() {
+            return "test";
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public Application getApplication() {
+            return Application.UNDEFINED;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        @SuppressWarnings("unchecked")
+        public <I, O> ZooModel<I, O> loadModel(Criteria<I, O> criteria) {
+            if (zoo.fail) {
+                throw new IllegalStateException("failed to load");
+            }
+            zoo.loaded.incrementAndGet();
+            Model model =
+                    (Model)
+                            Proxy.newProxyInstance(
+                                    Model.class.getClassLoader(),
+                                    new Class<?>[] {Model.class},
+                                    (proxy, method, args) -> {
+                                        if ("close".equals(method.getName())) {
+                                            zoo.closed.incrementAndGet();
+                                        }
+                                        return null;
+                                    });
+            return new ZooModel<>(model, (Translator<I, O>) new NoopTranslator());
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public <I, O> boolean isDownloaded(Criteria<I, O> criteria) {
+            return true;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public <I, O> void downloadModel(Criteria<I, O> criteria, Progress progress) {}
+
+        /** {@inheritDoc} */
+        @Override
+        public List<Artifact> listModels() {
+            return Collections.emptyList();
+        }
+    }
+}
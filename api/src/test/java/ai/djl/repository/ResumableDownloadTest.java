@@ -0,0 +1,195 @@
+/*
+ * Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.repository;
+
+import ai.djl.util.Utils;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class ResumableDownloadTest {
+
+    private static final String ETAG = "\"v1\"";
+
+    private HttpServer server;
+    private byte[] content;
+    private List<String> ranges;
+    private Path dir;
+
+    @BeforeClass
+    public void setUp() throws IOException {
+        content = new byte[100_000];
+        new Random(0).nextBytes(content);
+        ranges = new CopyOnWriteArrayList<>();
+        dir = Paths.get("build/tmp/downloads");
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/range", e -> handle(e, true));
+        server.createContext("/full", e -> handle(e, false));
+        server.start();
+    }
+
+    @AfterClass
+    public void tearDown() {
+        server.stop(0);
+        Utils.deleteQuietly(dir);
+    }
+
+    @Test
+    public void testDownload() throws IOException {
+        ResumableDownload download = new ResumableDownload(url("/full"), dir, 4, 10_000, null);
+        try (InputStream is = download.download()) {
+            Assert.assertEquals(Utils.toByteArray(is), content);
+        } finally {
+            download.delete();
+        }
+    }
+
+    @Test
+    public void testChunks() throws IOException {
+        ResumableDownload download = new ResumableDownload(url("/range"), dir, 4, 10_000, null);
+        // One of the chunks was downloaded partially
+        Path chunk = dir.resolve(Utils.hash(url("/range").toString()) + ".part.3");
+        Files.createDirectories(dir);
+        Files.write(chunk, Arrays.copyOfRange(content, 30_000, 35_000));
+        writeValidator(url("/range"), ETAG);
+
+        ranges.clear();
+        try (InputStream is = download.download()) {
+            Assert.assertEquals(Utils.toByteArray(is), content);
+        } finally {
+            download.delete();
+        }
+        // The first chunk is read from the probe request
+        Assert.assertEquals(ranges.size(), 10);
+        Assert.assertTrue(ranges.contains("bytes=35000-39999"));
+        Assert.assertFalse(ranges.contains("bytes=0-9999"));
+        Assert.assertFalse(Files.exists(chunk));
+    }
+
+    @Test
+    public void testResume() throws IOException {
+        URL url = url("/range?resume");
+        ResumableDownload download = new ResumableDownload(url, dir, 1, 10_000, null);
+        Path part = dir.resolve(Utils.hash(url.toString()) + ".part");
+        Files.createDirectories(dir);
+        Files.write(part, Arrays.copyOf(content, 40_000));
+        writeValidator(url, ETAG);
+
+        ranges.clear();
+        try (InputStream is = download.download()) {
+            Assert.assertEquals(Utils.toByteArray(is), content);
+        } finally {
+            download.delete();
+        }
+        Assert.assertEquals(ranges, Arrays.asList("bytes=40000-"));
+        Assert.assertFalse(Files.exists(part));
+    }
+
+    @Test
+    public void testRemoteChanged() throws IOException {
+        URL url = url("/range?changed");
+        ResumableDownload download = new ResumableDownload(url, dir, 1, 10_000, null);
+        Path part = dir.resolve(Utils.hash(url.toString()) + ".part");
+        Files.createDirectories(dir);
+        byte[] old = new byte[40_000];
+        Files.write(part, old);
+        writeValidator(url, "\"v0\"");
+
+        ranges.clear();
+        try (InputStream is = download.download()) {
+            // The partial file of the old version is discarded
+            Assert.assertEquals(Utils.toByteArray(is), content);
+        } finally {
+            download.delete();
+        }
+        Assert.assertEquals(ranges, Arrays.asList("bytes=40000-"));
+
+        // A partial file that covers the whole range is only used if it has the remote size
+        Files.write(part, new byte[120_000]);
+        writeValidator(url, ETAG);
+        try (InputStream is = download.download()) {
+            Assert.assertEquals(Utils.toByteArray(is), content);
+        } finally {
+            download.delete();
+        }
+
+        // Partial files without a validator are not resumed
+        Files.write(part, Arrays.copyOf(content, 40_000));
+        ranges.clear();
+        try (InputStream is = download.download()) {
+            Assert.assertEquals(Utils.toByteArray(is), content);
+        } finally {
+            download.delete();
+        }
+        Assert.assertEquals(ranges, Arrays.asList("bytes=0-"));
+    }
+
+    private void writeValidator(URL url, String validator) throws IOException {
+        Path file = dir.resolve(Utils.hash(url.toString()) + ".validator");
+        Files.write(file, validator.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private URL url(String path) throws IOException {
+        return new URL("http://127.0.0.1:" + server.getAddress().getPort() + path);
+    }
+
+    private void handle(HttpExchange exchange, boolean supportRange) throws IOException {
+        String range = exchange.getRequestHeaders().getFirst("Range");
+        String ifRange = exchange.getRequestHeaders().getFirst("If-Range");
+        ranges.add(range);
+        int start = 0;
+        int end = content.length - 1;
+        int code = 200;
+        exchange.getResponseHeaders().add("ETag", ETAG);
+        if (supportRange && range != null && (ifRange == null || ETAG.equals(ifRange))) {
+            String[] tokens = range.substring("bytes=".length()).split("-", -1);
+            start = Integer.parseInt(tokens[0]);
+            if (!tokens[1].isEmpty()) {
+                end = Integer.parseInt(tokens[1]);
+            }
+            if (start >= content.length) {
+                exchange.getResponseHeaders().add("Content-Range", "bytes */" + content.length);
+                exchange.sendResponseHeaders(416, -1);
+                exchange.close();
+                return;
+            }
+            code = 206;
+            String contentRange = "bytes " + start + '-' + end + '/' + content.length;
+            exchange.getResponseHeaders().add("Content-Range", contentRange);
+        }
+        int length = end - start + 1;
+        exchange.sendResponseHeaders(code, length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(content, start, length);
+        }
+    }
+}
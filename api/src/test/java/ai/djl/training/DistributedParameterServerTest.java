@@ -0,0 +1,236 @@
+/*
+ * Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.training;
+
+import ai.djl.training.optimizer.Optimizer;
+import ai.djl.training.tracker.Tracker;
+
+import ai.djl.util.Utils;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class DistributedParameterServerTest {
+
+    @Test
+    public void testAllReduce() throws Exception {
+        int worldSize = 3;
+        InetSocketAddress[] workers = newWorkers(worldSize);
+        Optimizer optimizer = Optimizer.sgd().setLearningRateTracker(Tracker.fixed(0.1f)).build();
+
+        ExecutorService executor = Executors.newFixedThreadPool(worldSize);
+        try {
+            List<Future<float[][]>> futures = new ArrayList<>();
+            for (int i = 0; i < worldSize; ++i) {
+                int rank = i;
+                futures.add(
+                        executor.submit(
+                                () -> {
+                                    try (DistributedParameterServer ps =
+                                            DistributedParameterServer.builder()
+                                                    .setOptimizer(optimizer)
+                                                    .setRank(rank)
+                                                    .setWorkers(workers)
+                                                    .optTimeout(10_000)
+                                                    .build()) {
+                                        return run(ps);
+                                    }
+                                }));
+            }
+            float[] expected = new float[10];
+            for (int i = 0; i < expected.length; ++i) {
+                expected[i] = worldSize * i + 3;
+            }
+            for (int rank = 0; rank < worldSize; ++rank) {
+                float[][] result = futures.get(rank).get();
+                Assert.assertEquals(result[0], expected);
+                Assert.assertEquals(result[1], new float[] {3, 3});
+                Assert.assertEquals(result[2], new float[] {0, 1, 2});
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testChecksumMismatch() throws Exception {
+        int worldSize = 3;
+        InetSocketAddress[] workers = newWorkers(worldSize);
+        Optimizer optimizer = Optimizer.sgd().setLearningRateTracker(Tracker.fixed(0.1f)).build();
+
+        ExecutorService executor = Executors.newFixedThreadPool(worldSize);
+        try {
+            List<Future<Boolean>> futures = new ArrayList<>();
+            for (int i = 0; i < worldSize; ++i) {
+                int rank = i;
+                futures.add(
+                        executor.submit(
+                                () -> {
+                                    try (DistributedParameterServer ps =
+                                            DistributedParameterServer.builder()
+                                                    .setOptimizer(optimizer)
+                                                    .setRank(rank)
+                                                    .setWorkers(workers)
+                                                    .optTimeout(10_000)
+                                                    .build()) {
+                                        ps.verify(rank == 2 ? 2 : 1, "bucket 0");
+                                        return true;
+                                    } catch (IOException e) {
+                                        return false;
+                                    }
+                                }));
+            }
+            // worker 2 differs from worker 1, and worker 0 from worker 2
+            Assert.assertFalse(futures.get(0).get());
+            Assert.assertTrue(futures.get(1).get());
+            Assert.assertFalse(futures.get(2).get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testMultiProcess() throws Exception {
+        InetSocketAddress[] workers = newWorkers(2);
+        String address = workers[1].getHostString() + ':' + workers[1].getPort();
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        ProcessBuilder pb =
+                new ProcessBuilder(
+                        java,
+                        "-cp",
+                        System.getProperty("java.class.path"),
+                        Worker.class.getName(),
+                        workers[0].getHostString() + ':' + workers[0].getPort(),
+                        address);
+        pb.redirectError(ProcessBuilder.Redirect.INHERIT);
+        Process process = pb.start();
+        try {
+            Optimizer optimizer =
+                    Optimizer.sgd().setLearningRateTracker(Tracker.fixed(0.1f)).build();
+            float[][] result;
+            try (DistributedParameterServer ps =
+                    DistributedParameterServer.builder()
+                            .setOptimizer(optimizer)
+                            .setRank(0)
+                            .setWorkers(workers)
+                            .optTimeout(30_000)
+                            .build()) {
+                result = run(ps);
+            }
+            List<String> lines = Utils.readLines(process.getInputStream());
+            Assert.assertTrue(process.waitFor(30, TimeUnit.SECONDS));
+            Assert.assertEquals(process.exitValue(), 0);
+
+            String expected =
+                    "result: " + Arrays.toString(result[0]) + Arrays.toString(result[2]);
+            Assert.assertTrue(lines.contains(expected), lines.toString());
+            Assert.assertEquals(result[1], new float[] {2, 2});
+        } finally {
+            process.destroyForcibly();
+        }
+    }
+
+    @Test
+    public void testSingleWorker() throws IOException {
+        Optimizer optimizer = Optimizer.sgd().setLearningRateTracker(Tracker.fixed(0.1f)).build();
+        try (DistributedParameterServer ps =
+                DistributedParameterServer.builder()
+                        .setOptimizer(optimizer)
+                        .setWorkers("localhost:0")
+                        .build()) {
+            Assert.assertEquals(ps.getWorldSize(), 1);
+            Assert.assertEquals(ps.getRank(), 0);
+        }
+        Assert.assertThrows(
+                IllegalArgumentException.class,
+                () ->
+                        DistributedParameterServer.builder()
+                                .setOptimizer(optimizer)
+                                .setRank(1)
+                                .setWorkers("localhost:0")
+                                .build());
+    }
+
+    private static InetSocketAddress[] newWorkers(int worldSize) throws IOException {
+        InetAddress loopback = InetAddress.getLoopbackAddress();
+        InetSocketAddress[] workers = new InetSocketAddress[worldSize];
+        for (int i = 0; i < worldSize; ++i) {
+            try (ServerSocket socket = new ServerSocket(0)) {
+                workers[i] = new InetSocketAddress(loopback, socket.getLocalPort());
+            }
+        }
+        return workers;
+    }
+
+    private static float[][] run(DistributedParameterServer ps) throws IOException {
+        int rank = ps.getRank();
+        // segments of different sizes
+        float[] data = new float[10];
+        for (int i = 0; i < data.length; ++i) {
+            data[i] = i + rank;
+        }
+        ps.allReduce(data);
+
+        // fewer values than workers
+        float[] small = {1, 1};
+        ps.allReduce(small);
+
+        float[] values = new float[3];
+        if (rank == 0) {
+            values = new float[] {0, 1, 2};
+        }
+        ps.broadcast(values);
+        return new float[][] {data, small, values};
+    }
+
+    /** The second worker of {@link #testMultiProcess()}, running in its own JVM. */
+    public static final class Worker {
+
+        private Worker() {}
+
+        /**
+         * Runs the worker with rank 1.
+         *
+         * @param args the addresses of the workers
+         * @throws IOException if the communication with the other worker failed
+         */
+        public static void main(String[] args) throws IOException {
+            Optimizer optimizer =
+                    Optimizer.sgd().setLearningRateTracker(Tracker.fixed(0.1f)).build();
+            try (DistributedParameterServer ps =
+                    DistributedParameterServer.builder()
+                            .setOptimizer(optimizer)
+                            .setRank(1)
+                            .setWorkers(args)
+                            .optTimeout(30_000)
+                            .build()) {
+                float[][] result = run(ps);
+                String output = Arrays.toString(result[0]) + Arrays.toString(result[2]);
+                System.out.println("result: " + output);
+            }
+        }
+    }
+}
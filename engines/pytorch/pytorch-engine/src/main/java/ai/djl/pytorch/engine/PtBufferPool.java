@@ -0,0 +1,181 @@
+/*
+ * Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.pytorch.engine;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A size-classed pool of direct {@link ByteBuffer}s used to create {@link PtNDArray}s.
+ *
+ * <p>Direct buffers are expensive to allocate and are only freed by the garbage collector. Buffers
+ * are grouped in power of two size classes. A released buffer goes to a small thread-local cache
+ * first, then to a bounded shared queue, so that buffers released on another thread (for example
+ * by the postprocessing thread of a pipeline) can still be reused. Buffers that don't fit in the
+ * pool, and buffers smaller than 4 KB, are left to the garbage collector.
+ *
+ * <p>The pool only holds the buffers that heap data is copied into, buffers returned by {@link
+ * PtNDManager#allocateDirect(int)} are owned by the caller and are never recycled. A buffer is only
+ * returned to the pool when no other tensor (a view, or a tensor saved by autograd) shares the
+ * storage of the closed {@link PtNDArray}.
+ *
+ * <p>The pool can be disabled with the system property {@code ai.djl.pytorch.buffer_pool=false}.
+ * The memory kept by the pool can be configured with {@code ai.djl.pytorch.buffer_pool_local_mb}
+ * (per thread) and {@code ai.djl.pytorch.buffer_pool_shared_mb}.
+ */
+final class PtBufferPool {
+
+    private static final int MIN_SIZE_CLASS = 12; // 4 KB
+    private static final int MAX_SIZE_CLASS = 27; // 128 MB
+    private static final int NUM_CLASSES = MAX_SIZE_CLASS - MIN_SIZE_CLASS + 1;
+    private static final int LOCAL_BUFFERS_PER_CLASS = 4;
+
+    private static final boolean ENABLED =
+            Boolean.parseBoolean(System.getProperty("ai.djl.pytorch.buffer_pool", "true"));
+    private static final long LOCAL_MAX_BYTES =
+            Long.getLong("ai.djl.pytorch.buffer_pool_local_mb", 64L) << 20;
+    private static final long SHARED_MAX_BYTES =
+            Long.getLong("ai.djl.pytorch.buffer_pool_shared_mb", 256L) << 20;
+
+    private static final ThreadLocal<LocalCache> LOCAL = ThreadLocal.withInitial(LocalCache::new);
+    private static final SharedQueue[] SHARED = new SharedQueue[NUM_CLASSES];
+    private static final AtomicLong SHARED_BYTES = new AtomicLong();
+
+    static {
+        for (int i = 0; i < NUM_CLASSES; ++i) {
+            SHARED[i] = new SharedQueue();
+        }
+    }
+
+    private PtBufferPool() {}
+
+    /**
+     * Returns a direct buffer in native order with the position set to 0 and the limit set to the
+     * requested capacity.
+     *
+     * <p>The content of a recycled buffer is not cleared, the caller must overwrite it.
+     *
+     * @param capacity the number of bytes required
+     * @return a direct buffer
+     */
+    static ByteBuffer acquire(int capacity) {
+        int sizeClass = sizeClass(capacity);
+        if (sizeClass < 0) {
+            return ByteBuffer.allocateDirect(capacity).order(ByteOrder.nativeOrder());
+        }
+        int index = sizeClass - MIN_SIZE_CLASS;
+        ByteBuffer buf = LOCAL.get().poll(index);
+        if (buf == null) {
+            buf = SHARED[index].queue.poll();
+            if (buf != null) {
+                SHARED_BYTES.addAndGet(-buf.capacity());
+            }
+        }
+        if (buf == null) {
+            buf = ByteBuffer.allocateDirect(1 << sizeClass).order(ByteOrder.nativeOrder());
+        }
+        buf.clear();
+        buf.limit(capacity);
+        return buf;
+    }
+
+    /**
+     * Returns whether the buffer can be recycled by the pool.
+     *
+     * @param buf the buffer
+     * @return true if the buffer can be recycled by the pool
+     */
+    static boolean isPoolable(ByteBuffer buf) {
+        int capacity = buf.capacity();
+        return ENABLED
+                && buf.isDirect()
+                && Integer.bitCount(capacity) == 1
+                && capacity >= 1 << MIN_SIZE_CLASS
+                && capacity <= 1 << MAX_SIZE_CLASS;
+    }
+
+    /**
+     * Returns a buffer obtained from {@link #acquire(int)} to the pool.
+     *
+     * <p>The caller must not access the buffer anymore, including from native code.
+     *
+     * @param buf the buffer to recycle
+     */
+    static void release(ByteBuffer buf) {
+        if (!isPoolable(buf)) {
+            return;
+        }
+        int capacity = buf.capacity();
+        int index = Integer.numberOfTrailingZeros(capacity) - MIN_SIZE_CLASS;
+        if (LOCAL.get().offer(index, buf)) {
+            return;
+        }
+        if (SHARED_BYTES.addAndGet(capacity) <= SHARED_MAX_BYTES) {
+            SHARED[index].queue.offer(buf);
+        } else {
+            SHARED_BYTES.addAndGet(-capacity);
+        }
+    }
+
+    private static int sizeClass(int capacity) {
+        // small buffers are cheap to allocate and would waste most of the pooled memory
+        if (!ENABLED || capacity < 1 << MIN_SIZE_CLASS || capacity > 1 << MAX_SIZE_CLASS) {
+            return -1;
+        }
+        return 32 - Integer.numberOfLeadingZeros(capacity - 1);
+    }
+
+    private static final class LocalCache {
+
+        private ArrayDeque<ByteBuffer>[] buffers;
+        private long bytes;
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        LocalCache() {
+            buffers = new ArrayDeque[NUM_CLASSES];
+        }
+
+        ByteBuffer poll(int index) {
+            ArrayDeque<ByteBuffer> deque = buffers[index];
+            ByteBuffer buf = deque == null ? null : deque.pollFirst();
+            if (buf != null) {
+                bytes -= buf.capacity();
+            }
+            return buf;
+        }
+
+        boolean offer(int index, ByteBuffer buf) {
+            if (bytes + buf.capacity() > LOCAL_MAX_BYTES) {
+                return false;
+            }
+            ArrayDeque<ByteBuffer> deque = buffers[index];
+            if (deque == null) {
+                deque = new ArrayDeque<>(LOCAL_BUFFERS_PER_CLASS);
+                buffers[index] = deque;
+            } else if (deque.size() >= LOCAL_BUFFERS_PER_CLASS) {
+                return false;
+            }
+            deque.offerFirst(buf);
+            bytes += buf.capacity();
+            return true;
+        }
+    }
+
+    private static final class SharedQueue {
+
+        ConcurrentLinkedQueue<ByteBuffer> queue = new ConcurrentLinkedQueue<>();
+    }
+}
@@ -52,6 +52,8 @@ public class PtNDArray extends NativeResource<Long> implements NDArray {
     // keep a reference to direct buffer to avoid GC release the memory
     @SuppressWarnings("PMD.UnusedPrivateField")
     private ByteBuffer dataRef;
+    // true if dataRef is owned by this array and can be returned to the buffer pool
+    private boolean pooled;
 
     /**
      * Constructs a PyTorch {@code NDArray} from a native handle (internal. Use {@link NDManager}
@@ -247,6 +249,7 @@ public class PtNDArray extends NativeResource<Long> implements NDArray {
         BaseNDManager.validateBuffer(buffer, type, size);
         // TODO how do we handle the exception happened in the middle
         dataRef = null;
+        pooled = false;
         if (buffer.isDirect() && buffer instanceof ByteBuffer) {
             // If NDArray is on the GPU, it is native code responsibility to control the data life
             // cycle
@@ -257,7 +260,7 @@ public class PtNDArray extends NativeResource<Long> implements NDArray {
             return;
         }
         // int8, uint8, boolean use ByteBuffer, so need to explicitly input DataType
-        ByteBuffer buf = manager.allocateDirect(size * type.getNumOfBytes());
+        ByteBuffer buf = PtBufferPool.acquire(size * type.getNumOfBytes());
         BaseNDManager.copyBuffer(buffer, buf);
 
         // If NDArray is on the GPU, it is native code responsibility to control the data life cycle
@@ -265,6 +268,23 @@ public class PtNDArray extends NativeResource<Long> implements NDArray {
             dataRef = buf;
         }
         JniUtils.set(this, buf);
+        adoptPooledBuffer(buf);
+    }
+
+    /**
+     * Takes the ownership of a buffer obtained from the {@link PtBufferPool}.
+     *
+     * <p>If the tensor was created from the buffer without a copy, the buffer is returned to the
+     * pool when this array is closed, otherwise it is returned right away.
+     *
+     * @param buf the pooled buffer used to create this array
+     */
+    void adoptPooledBuffer(ByteBuffer buf) {
+        if (dataRef == buf) {
+            pooled = true;
+        } else {
+            PtBufferPool.release(buf);
+        }
     }
 
     /** {@inheritDoc} */
@@ -1707,10 +1727,18 @@ public class PtNDArray extends NativeResource<Long> implements NDArray {
     public void close() {
         onClose();
         Long pointer = handle.getAndSet(null);
+        boolean recycle = false;
         if (pointer != null && pointer != -1) {
+            // views and autograd keep using the buffer after this array is closed, the buffer
+            // can only be recycled if no other tensor shares its storage
+            recycle = pooled && dataRef != null && !JniUtils.isStorageShared(pointer);
             JniUtils.deleteNDArray(pointer);
         }
         manager.detachInternal(getUid());
+        if (recycle) {
+            PtBufferPool.release(dataRef);
+        }
+        pooled = false;
         dataRef = null;
     }
 }
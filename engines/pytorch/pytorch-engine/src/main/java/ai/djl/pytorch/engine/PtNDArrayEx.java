@@ -353,6 +353,62 @@ public class PtNDArrayEx implements NDArrayEx {
         JniUtils.zeroGrad(manager.from(weights.singletonOrThrow()));
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public void multiAdamUpdate(
+            NDList weights,
+            NDList grads,
+            NDList means,
+            NDList variances,
+            float[] learningRates,
+            float[] learningRateBiasCorrections,
+            float weightDecay,
+            float rescaleGrad,
+            float clipGrad,
+            float beta1,
+            float beta2,
+            float epsilon,
+            boolean adamw) {
+        // updates all the weights and zeros their gradients in a single native call
+        JniUtils.multiAdamUpdate(
+                toPtArrays(weights),
+                toPtArrays(grads),
+                toPtArrays(means),
+                toPtArrays(variances),
+                learningRates,
+                learningRateBiasCorrections,
+                weightDecay,
+                rescaleGrad,
+                clipGrad,
+                beta1,
+                beta2,
+                epsilon,
+                adamw);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void multiSgdUpdate(
+            NDList weights,
+            NDList grads,
+            NDList states,
+            float[] learningRates,
+            float weightDecay,
+            float rescaleGrad,
+            float clipGrad,
+            float momentum) {
+        // updates all the weights and zeros their gradients in a single native call
+        JniUtils.multiSgdUpdate(
+                toPtArrays(weights),
+                toPtArrays(grads),
+                (momentum == 0f) ? new PtNDArray[0] : toPtArrays(states),
+                learningRates,
+                weightDecay,
+                rescaleGrad,
+                clipGrad,
+                momentum);
+    }
+
     /** {@inheritDoc} */
     @Override
     public NDList convolution(
@@ -955,4 +1011,13 @@ public class PtNDArrayEx implements NDArrayEx {
                         "The kind of interpolation is not supported.");
         }
     }
+
+    private PtNDArray[] toPtArrays(NDList list) {
+        PtNDManager manager = array.getManager();
+        PtNDArray[] arrays = new PtNDArray[list.size()];
+        for (int i = 0; i < arrays.length; ++i) {
+            arrays[i] = manager.from(list.get(i));
+        }
+        return arrays;
+    }
 }
@@ -72,10 +72,14 @@ public class PtNDManager extends BaseNDManager {
             return JniUtils.createNdFromByteBuffer(
                     this, (ByteBuffer) data, shape, dataType, SparseFormat.DENSE, device);
         }
-        ByteBuffer buf = allocateDirect(size * dataType.getNumOfBytes());
+        // heap data can not be handed to libtorch directly, copy it once into a pooled buffer
+        ByteBuffer buf = PtBufferPool.acquire(size * dataType.getNumOfBytes());
         copyBuffer(data, buf);
-        return JniUtils.createNdFromByteBuffer(
-                this, buf, shape, dataType, SparseFormat.DENSE, device);
+        PtNDArray array =
+                JniUtils.createNdFromByteBuffer(
+                        this, buf, shape, dataType, SparseFormat.DENSE, device);
+        array.adoptPooledBuffer(buf);
+        return array;
     }
 
     /** {@inheritDoc} */
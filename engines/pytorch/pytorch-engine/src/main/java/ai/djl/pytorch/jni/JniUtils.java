@@ -1731,6 +1731,10 @@ public final class JniUtils {
         PyTorchLibrary.LIB.torchDeleteTensor(handle);
     }
 
+    public static boolean isStorageShared(long handle) {
+        return PyTorchLibrary.LIB.torchIsStorageShared(handle);
+    }
+
     public static boolean requiresGrad(PtNDArray ndArray) {
         return PyTorchLibrary.LIB.torchRequiresGrad(ndArray.getHandle());
     }
@@ -1907,6 +1911,56 @@ public final class JniUtils {
                 momentum);
     }
 
+    public static void multiAdamUpdate(
+            PtNDArray[] weights,
+            PtNDArray[] grads,
+            PtNDArray[] means,
+            PtNDArray[] variances,
+            float[] lrs,
+            float[] learningRateBiasCorrections,
+            float wd,
+            float rescaleGrad,
+            float clipGrad,
+            float beta1,
+            float beta2,
+            float eps,
+            boolean adamw) {
+        PyTorchLibrary.LIB.multiAdamUpdate(
+                Arrays.stream(weights).mapToLong(PtNDArray::getHandle).toArray(),
+                Arrays.stream(grads).mapToLong(PtNDArray::getHandle).toArray(),
+                Arrays.stream(means).mapToLong(PtNDArray::getHandle).toArray(),
+                Arrays.stream(variances).mapToLong(PtNDArray::getHandle).toArray(),
+                lrs,
+                learningRateBiasCorrections,
+                wd,
+                rescaleGrad,
+                clipGrad,
+                beta1,
+                beta2,
+                eps,
+                adamw);
+    }
+
+    public static void multiSgdUpdate(
+            PtNDArray[] weights,
+            PtNDArray[] grads,
+            PtNDArray[] states,
+            float[] lrs,
+            float wd,
+            float rescaleGrad,
+            float clipGrad,
+            float momentum) {
+        PyTorchLibrary.LIB.multiSgdUpdate(
+                Arrays.stream(weights).mapToLong(PtNDArray::getHandle).toArray(),
+                Arrays.stream(grads).mapToLong(PtNDArray::getHandle).toArray(),
+                Arrays.stream(states).mapToLong(PtNDArray::getHandle).toArray(),
+                lrs,
+                wd,
+                rescaleGrad,
+                clipGrad,
+                momentum);
+    }
+
     // Internal use only
     public static int getLayout(PtNDArray array) {
         return PyTorchLibrary.LIB.torchLayout(array.getHandle());
@@ -54,6 +54,8 @@ final class PyTorchLibrary {
 
     native boolean torchIsContiguous(long handle);
 
+    native boolean torchIsStorageShared(long handle);
+
     native long torchToContiguous(long handle);
 
     native int torchDType(long handle);
@@ -685,6 +687,31 @@ final class PyTorchLibrary {
             float clipGrad,
             float momentum);
 
+    native void multiAdamUpdate(
+            long[] weights,
+            long[] grads,
+            long[] means,
+            long[] variances,
+            float[] lrs,
+            float[] learningRateBiasCorrections,
+            float wd,
+            float rescaleGrad,
+            float clipGrad,
+            float beta1,
+            float beta2,
+            float eps,
+            boolean adamw);
+
+    native void multiSgdUpdate(
+            long[] weights,
+            long[] grads,
+            long[] states,
+            float[] lrs,
+            float wd,
+            float rescaleGrad,
+            float clipGrad,
+            float momentum);
+
     native long torchNorm(long handle, int ord, long[] axis, boolean keepDims);
 
     native long torchNonZeros(long handle);
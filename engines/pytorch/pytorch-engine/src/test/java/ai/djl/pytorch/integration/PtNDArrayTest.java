@@ -22,6 +22,7 @@ import ai.djl.testing.TestRequirements;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 
 public class PtNDArrayTest {
@@ -41,6 +42,57 @@ public class PtNDArrayTest {
         }
     }
 
+    @Test
+    public void testPooledBuffer() {
+        TestRequirements.notMacX86();
+
+        try (NDManager manager = NDManager.newBaseManager()) {
+            float[] data = new float[4096];
+            for (int i = 0; i < 3; ++i) {
+                Arrays.fill(data, i);
+                try (NDArray array = manager.create(data)) {
+                    Assert.assertEquals(array.toFloatArray(), data);
+                }
+            }
+
+            // buffers allocated by the caller are zeroed and not recycled when the array is closed
+            ByteBuffer bb = manager.allocateDirect(4096 * 4);
+            Assert.assertEquals(bb.remaining(), 4096 * 4);
+            Assert.assertEquals(bb.getFloat(4095 * 4), 0f);
+            bb.asFloatBuffer().put(data);
+            try (NDArray array = manager.create(bb, new Shape(4096), DataType.FLOAT32)) {
+                Assert.assertEquals(array.getFloat(4095), 2f);
+            }
+            try (NDArray array = manager.create(new float[4096])) {
+                Assert.assertEquals(array.getFloat(4095), 0f);
+            }
+            Assert.assertEquals(bb.getFloat(4095 * 4), 2f);
+        }
+    }
+
+    @Test
+    public void testPooledBufferView() {
+        TestRequirements.notMacX86();
+
+        try (NDManager manager = NDManager.newBaseManager()) {
+            float[] data = new float[4096];
+            Arrays.fill(data, 1f);
+            NDArray array = manager.create(data);
+            NDArray view = array.reshape(64, 64);
+            array.close();
+
+            // the view still uses the buffer of the closed array, it must not be recycled
+            float[] other = new float[4096];
+            Arrays.fill(other, 2f);
+            for (int i = 0; i < 8; ++i) {
+                try (NDArray array2 = manager.create(other)) {
+                    Assert.assertEquals(array2.toFloatArray(), other);
+                }
+            }
+            Assert.assertEquals(view.toFloatArray(), data);
+        }
+    }
+
     @Test
     public void testLargeTensor() {
         TestRequirements.notMacX86();
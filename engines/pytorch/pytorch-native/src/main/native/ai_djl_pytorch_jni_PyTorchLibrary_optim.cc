@@ -77,6 +77,100 @@ JNIEXPORT void JNICALL Java_ai_djl_pytorch_jni_PyTorchLibrary_sgdUpdate(JNIEnv*
   API_END()
 }
 
+namespace {
+
+std::vector<c10::Scalar> ToScalars(const std::vector<float>& values, float scale) {
+  std::vector<c10::Scalar> scalars;
+  scalars.reserve(values.size());
+  for (float value : values) {
+    scalars.emplace_back(value * scale);
+  }
+  return scalars;
+}
+
+void ZeroGrads(const std::vector<torch::Tensor>& weights) {
+  std::vector<torch::Tensor> grads;
+  grads.reserve(weights.size());
+  for (const auto& weight : weights) {
+    if (weight.grad().defined()) {
+      grads.emplace_back(weight.grad());
+    }
+  }
+  if (!grads.empty()) {
+    torch::_foreach_zero_(grads);
+  }
+}
+
+}  // namespace
+
+// The multi-tensor updates follow the same formula as the per parameter updates above, but update all
+// the weights with the horizontally fused _foreach kernels
+JNIEXPORT void JNICALL Java_ai_djl_pytorch_jni_PyTorchLibrary_multiAdamUpdate(JNIEnv* env, jobject jthis,
+    jlongArray jweights, jlongArray jgrads, jlongArray jmeans, jlongArray jvariances, jfloatArray jlearning_rates,
+    jfloatArray jlearning_rate_bias_corrections, jfloat weight_decay, jfloat rescale_grad, jfloat clip_grad,
+    jfloat beta1, jfloat beta2, jfloat eps, jboolean adamw) {
+  API_BEGIN()
+  torch::autograd::AutoGradMode no_autograd_guard{false};
+  const auto weights = djl::utils::jni::GetObjectVecFromJHandles<torch::Tensor>(env, jweights);
+  const auto means = djl::utils::jni::GetObjectVecFromJHandles<torch::Tensor>(env, jmeans);
+  const auto variances = djl::utils::jni::GetObjectVecFromJHandles<torch::Tensor>(env, jvariances);
+  const auto learning_rates = djl::utils::jni::GetVecFromJFloatArray(env, jlearning_rates);
+  const auto bias_corrections = djl::utils::jni::GetVecFromJFloatArray(env, jlearning_rate_bias_corrections);
+  // out of place multiply to avoid input grad change
+  auto grads =
+      torch::_foreach_mul(djl::utils::jni::GetObjectVecFromJHandles<torch::Tensor>(env, jgrads), rescale_grad);
+  if (clip_grad >= 0.0) {
+    torch::_foreach_clamp_max_(grads, clip_grad);
+  }
+  if (!adamw) {
+    torch::_foreach_add_(grads, weights, weight_decay);
+  } else {
+    // w = w - lr * wd * w
+    std::vector<c10::Scalar> decays;
+    decays.reserve(learning_rates.size());
+    for (float learning_rate : learning_rates) {
+      decays.emplace_back(1 - learning_rate * weight_decay);
+    }
+    torch::_foreach_mul_(weights, decays);
+  }
+  torch::_foreach_mul_(means, beta1);
+  torch::_foreach_add_(means, grads, 1 - beta1);
+  torch::_foreach_mul_(variances, beta2);
+  torch::_foreach_addcmul_(variances, grads, grads, 1 - beta2);
+  auto denominators = torch::_foreach_sqrt(variances);
+  torch::_foreach_add_(denominators, eps);
+  torch::_foreach_addcdiv_(weights, means, denominators, ToScalars(bias_corrections, -1));
+  ZeroGrads(weights);
+  API_END()
+}
+
+JNIEXPORT void JNICALL Java_ai_djl_pytorch_jni_PyTorchLibrary_multiSgdUpdate(JNIEnv* env, jobject jthis,
+    jlongArray jweights, jlongArray jgrads, jlongArray jstates, jfloatArray jlearning_rates, jfloat weight_decay,
+    jfloat rescale_grad, jfloat clip_grad, jfloat momentum) {
+  API_BEGIN()
+  torch::autograd::AutoGradMode no_autograd_guard{false};
+  const auto weights = djl::utils::jni::GetObjectVecFromJHandles<torch::Tensor>(env, jweights);
+  const auto learning_rates = djl::utils::jni::GetVecFromJFloatArray(env, jlearning_rates);
+  // out of place multiply to avoid input grad change
+  auto grads =
+      torch::_foreach_mul(djl::utils::jni::GetObjectVecFromJHandles<torch::Tensor>(env, jgrads), rescale_grad);
+  if (clip_grad >= 0.0) {
+    torch::_foreach_clamp_max_(grads, clip_grad);
+  }
+  torch::_foreach_add_(grads, weights, weight_decay);
+  torch::_foreach_mul_(grads, ToScalars(learning_rates, 1));
+  if (momentum == 0.0) {
+    torch::_foreach_sub_(weights, grads);
+  } else {
+    const auto states = djl::utils::jni::GetObjectVecFromJHandles<torch::Tensor>(env, jstates);
+    torch::_foreach_mul_(states, momentum);
+    torch::_foreach_add_(states, grads);
+    torch::_foreach_sub_(weights, states);
+  }
+  ZeroGrads(weights);
+  API_END()
+}
+
 JNIEXPORT void JNICALL Java_ai_djl_pytorch_jni_PyTorchLibrary_zeroGrad(JNIEnv* env, jobject jthis, jlong jhandle) {
   API_BEGIN()
   torch::NoGradGuard NoGradGuard;
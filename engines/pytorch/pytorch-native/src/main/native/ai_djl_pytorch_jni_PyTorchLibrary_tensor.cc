@@ -354,6 +354,16 @@ JNIEXPORT jboolean JNICALL Java_ai_djl_pytorch_jni_PyTorchLibrary_torchIsContigu
   API_END_RETURN()
 }
 
+JNIEXPORT jboolean JNICALL Java_ai_djl_pytorch_jni_PyTorchLibrary_torchIsStorageShared(
+    JNIEnv* env, jobject jthis, jlong jhandle) {
+  API_BEGIN()
+  const auto* tensor_ptr = reinterpret_cast<torch::Tensor*>(jhandle);
+  // other handles of the same tensor, views and tensors saved by autograd hold a reference
+  bool is_shared = tensor_ptr->use_count() > 1 || tensor_ptr->storage().use_count() > 1;
+  return static_cast<jboolean>(is_shared);
+  API_END_RETURN()
+}
+
 JNIEXPORT jlong JNICALL Java_ai_djl_pytorch_jni_PyTorchLibrary_torchToContiguous(
     JNIEnv* env, jobject jthis, jlong jhandle) {
   API_BEGIN()
@@ -17,6 +17,7 @@ import ai.djl.huggingface.tokenizers.HuggingFaceTokenizer;
 import ai.djl.inference.Predictor;
 import ai.djl.modality.nlp.generate.CausalLMOutput;
 import ai.djl.modality.nlp.generate.ContrastiveSeqBatchScheduler;
+import ai.djl.modality.nlp.generate.GenerationEngine;
 import ai.djl.modality.nlp.generate.SearchConfig;
 import ai.djl.ndarray.NDArray;
 import ai.djl.ndarray.NDList;
@@ -30,7 +31,11 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 
 public final class RollingBatch {
 
@@ -114,4 +119,59 @@ public final class RollingBatch {
         }
         return testResult;
     }
+
+    public static String[] generationEngineWithPyTorchContrastive()
+            throws ModelException, IOException, TranslateException {
+        String url = "https://djl-misc.s3.amazonaws.com/test/models/gpt2/gpt2_pt.zip";
+
+        Criteria<NDList, CausalLMOutput> criteria =
+                Criteria.builder()
+                        .setTypes(NDList.class, CausalLMOutput.class)
+                        .optModelUrls(url)
+                        .optEngine("PyTorch")
+                        .optTranslatorFactory(new DeferredTranslatorFactory())
+                        .build();
+
+        String[] inputs = {
+            "DeepMind Company is",
+            "Memories follow me left and right. I can",
+            "When your legs don't work like they used to before And I can't sweep you off",
+            "There's a time that I remember, when I did not know",
+            "A person gets sent back"
+        };
+
+        try (ZooModel<NDList, CausalLMOutput> model = criteria.loadModel();
+                Predictor<NDList, CausalLMOutput> predictor = model.newPredictor();
+                NDManager manager = model.getNDManager().newSubManager();
+                HuggingFaceTokenizer tokenizer = HuggingFaceTokenizer.newInstance("gpt2")) {
+
+            SearchConfig config = new SearchConfig();
+            config.setMaxSeqLength(30);
+            config.setAlpha(0.6f);
+            config.setK(5);
+            config.setPadTokenId(220);
+
+            ContrastiveSeqBatchScheduler scheduler =
+                    new ContrastiveSeqBatchScheduler(predictor, config);
+
+            String[] testResult = new String[inputs.length];
+            try (GenerationEngine engine = new GenerationEngine(scheduler, manager, 4, 4096)) {
+                // requests join the running batch as soon as there is room
+                List<CompletableFuture<long[]>> futures = new ArrayList<>();
+                for (String input : inputs) {
+                    long[] inputIds = tokenizer.encode(input).getIds();
+                    futures.add(engine.submit(inputIds, token -> logger.debug("{}", token)));
+                }
+                for (int i = 0; i < inputs.length; ++i) {
+                    testResult[i] = tokenizer.decode(futures.get(i).get());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new TranslateException(e);
+            } catch (ExecutionException e) {
+                throw new TranslateException(e.getCause());
+            }
+            return testResult;
+        }
+    }
 }
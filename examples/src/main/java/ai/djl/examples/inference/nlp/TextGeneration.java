@@ -92,6 +92,48 @@ public final class TextGeneration {
         }
     }
 
+    public static String generateTextWithPyTorchSpeculative()
+            throws ModelNotFoundException,
+                    MalformedModelException,
+                    IOException,
+                    TranslateException {
+        SearchConfig config = new SearchConfig();
+        config.setMaxSeqLength(60);
+        config.setNumDraftTokens(4);
+
+        // A distilled model should be used as the draft model, gpt2 is used for both to keep the
+        // example small
+        String url = "https://djl-misc.s3.amazonaws.com/test/models/gpt2/gpt2_pt.zip";
+
+        Criteria<NDList, CausalLMOutput> criteria =
+                Criteria.builder()
+                        .setTypes(NDList.class, CausalLMOutput.class)
+                        .optModelUrls(url)
+                        .optEngine("PyTorch")
+                        .optTranslatorFactory(new DeferredTranslatorFactory())
+                        .build();
+        String input = "DeepMind Company is";
+
+        try (ZooModel<NDList, CausalLMOutput> model = criteria.loadModel();
+                ZooModel<NDList, CausalLMOutput> draftModel = criteria.loadModel();
+                Predictor<NDList, CausalLMOutput> predictor = model.newPredictor();
+                Predictor<NDList, CausalLMOutput> draftPredictor = draftModel.newPredictor();
+                NDManager manager = model.getNDManager().newSubManager();
+                HuggingFaceTokenizer tokenizer = HuggingFaceTokenizer.newInstance("gpt2")) {
+
+            TextGenerator generator =
+                    new TextGenerator(predictor, "speculative", config, draftPredictor);
+
+            Encoding encoding = tokenizer.encode(input);
+            long[] inputIds = encoding.getIds();
+            NDArray inputIdArray = manager.create(inputIds).expandDims(0);
+
+            NDArray output = generator.generate(inputIdArray);
+            long[] outputIds = output.toLongArray();
+            return tokenizer.decode(outputIds);
+        }
+    }
+
     public static String[] generateTextWithPyTorchContrastive()
             throws ModelNotFoundException,
                     MalformedModelException,
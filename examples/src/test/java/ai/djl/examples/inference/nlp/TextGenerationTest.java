@@ -38,15 +38,18 @@ public class TextGenerationTest {
                         + " industry, including the";
         Assert.assertEquals(TextGeneration.generateTextWithPyTorchGreedy(), expected);
 
+        // Speculative decoding keeps the output of greedy search
+        Assert.assertEquals(TextGeneration.generateTextWithPyTorchSpeculative(), expected);
+
         // Contrastive
         String[] output1 = TextGeneration.generateTextWithPyTorchContrastive();
+        // The finished sequence is padded with the pad token
         Assert.assertEquals(
-                output1[0],
+                output1[0].trim(),
                 "DeepMind Company is a leading provider of advanced AI solutions for businesses,"
                         + " government agencies and individuals. We offer a wide range of services"
                         + " including research, development, training, consulting, and"
-                        + " support.<|endoftext|>This article is about the character. You may be"
-                        + " looking for the original version");
+                        + " support.<|endoftext|>");
         Assert.assertEquals(
                 output1[1],
                 "Memories follow me left and right. I can't remember the last time I saw her.\n"
@@ -106,6 +109,16 @@ public class TextGenerationTest {
                         + " after.\n");
     }
 
+    @Test
+    public void testGenerationEngine() throws TranslateException, ModelException, IOException {
+        TestRequirements.linux();
+        TestRequirements.weekly();
+        String[] output = RollingBatch.generationEngineWithPyTorchContrastive();
+        Assert.assertEquals(output.length, 5);
+        Assert.assertTrue(output[0].startsWith("DeepMind Company is "));
+        Assert.assertTrue(output[4].startsWith("A person gets sent back "));
+    }
+
     @Test
     public void testTextGenerationWithOnnx()
             throws TranslateException, ModelException, IOException {
@@ -284,6 +284,81 @@ pub extern "system" fn Java_ai_djl_huggingface_tokenizers_jni_TokenizersLibrary_
     ret
 }
 
+#[no_mangle]
+pub extern "system" fn Java_ai_djl_huggingface_tokenizers_jni_TokenizersLibrary_batchEncodePacked<
+    'local,
+>(
+    mut env: JNIEnv<'local>,
+    _: JObject,
+    handle: jlong,
+    inputs: JObjectArray<'local>,
+    add_special_tokens: jboolean,
+    with_type_ids: jboolean,
+) -> JLongArray<'local> {
+    let tokenizer = cast_handle::<Tokenizer>(handle);
+    let len = env.get_array_length(&inputs).unwrap();
+    let mut array: Vec<String> = Vec::new();
+    for i in 0..len {
+        let item = env.get_object_array_element(&inputs, i).unwrap().into();
+        let value: String = env
+            .get_string(&item)
+            .expect("Couldn't get java string!")
+            .into();
+        array.push(value);
+    }
+
+    let encodings = tokenizer
+        .encode_batch(array, add_special_tokens == JNI_TRUE)
+        .unwrap();
+    let (pad_id, pad_type_id) = match tokenizer.get_padding() {
+        Some(params) => (params.pad_id as jlong, params.pad_type_id as jlong),
+        None => {
+            // padding is disabled, fall back to the pad token of the vocabulary, or 0
+            let pad_id = ["[PAD]", "<pad>", "<|pad|>"]
+                .iter()
+                .find_map(|token| tokenizer.token_to_id(token))
+                .unwrap_or(0);
+            (pad_id as jlong, 0)
+        }
+    };
+
+    // layout: [batch_size, seq_length, ids..., attention_mask..., type_ids...]
+    let batch_size = encodings.len();
+    let seq_length = encodings.iter().map(|e| e.len()).max().unwrap_or(0);
+    let size = batch_size * seq_length;
+    let fields = if with_type_ids == JNI_TRUE { 3 } else { 2 };
+    let mut buf: Vec<jlong> = vec![0; 2 + size * fields];
+    buf[0] = batch_size as jlong;
+    buf[1] = seq_length as jlong;
+    for (i, encoding) in encodings.iter().enumerate() {
+        let offset = 2 + i * seq_length;
+        let ids = encoding.get_ids();
+        let attention_mask = encoding.get_attention_mask();
+        for j in 0..seq_length {
+            if j < ids.len() {
+                buf[offset + j] = ids[j] as jlong;
+                buf[offset + size + j] = attention_mask[j] as jlong;
+            } else {
+                buf[offset + j] = pad_id;
+            }
+        }
+        if fields == 3 {
+            let type_ids = encoding.get_type_ids();
+            for j in 0..seq_length {
+                buf[offset + 2 * size + j] = if j < type_ids.len() {
+                    type_ids[j] as jlong
+                } else {
+                    pad_type_id
+                };
+            }
+        }
+    }
+
+    let ret = env.new_long_array(buf.len() as jsize).unwrap();
+    env.set_long_array_region(&ret, 0, &buf).unwrap();
+    ret
+}
+
 #[no_mangle]
 pub extern "system" fn Java_ai_djl_huggingface_tokenizers_jni_TokenizersLibrary_batchEncodePair<
     'local,
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.huggingface.tokenizers;
+
+import ai.djl.ndarray.NDList;
+import ai.djl.ndarray.NDManager;
+import ai.djl.ndarray.types.Shape;
+
+import java.nio.LongBuffer;
+
+/**
+ * A class holds the token ids, attention masks and optionally the token type ids of a batch of
+ * sequences, padded to the same length and packed row by row into flat arrays.
+ *
+ * <p>The encoding keeps the single buffer returned by the native tokenizer, the getters return
+ * views into it without copying.
+ */
+public class BatchEncoding {
+
+    private static final int HEADER = 2;
+
+    private int batchSize;
+    private int seqLength;
+    private int size;
+    private long[] buf;
+
+    BatchEncoding(long[] buf) {
+        this.buf = buf;
+        batchSize = (int) buf[0];
+        seqLength = (int) buf[1];
+        size = batchSize * seqLength;
+    }
+
+    /**
+     * Returns the {@link NDList} representation of the batch encoding.
+     *
+     * <p>Each {@code NDArray} has the shape (batchSize, seqLength).
+     *
+     * @param manager the {@link NDManager} to create the NDList
+     * @param withTokenType true to include the token type id
+     * @return the {@link NDList}
+     */
+    public NDList toNDList(NDManager manager, boolean withTokenType) {
+        Shape shape = new Shape(batchSize, seqLength);
+        NDList list = new NDList(withTokenType ? 3 : 2);
+        list.add(manager.create(getIds(), shape));
+        list.add(manager.create(getAttentionMask(), shape));
+        if (withTokenType) {
+            LongBuffer typeIds = getTypeIds();
+            if (typeIds == null) {
+                throw new IllegalStateException("The token type ids are not encoded.");
+            }
+            list.add(manager.create(typeIds, shape));
+        }
+        return list;
+    }
+
+    /**
+     * Returns the number of sequences in the batch.
+     *
+     * @return the number of sequences in the batch
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Returns the padded length of the sequences.
+     *
+     * @return the padded length of the sequences
+     */
+    public int getSeqLength() {
+        return seqLength;
+    }
+
+    /**
+     * Returns a view of the token ids of all sequences, row by row.
+     *
+     * @return a view of the token ids of all sequences
+     */
+    public LongBuffer getIds() {
+        return view(0);
+    }
+
+    /**
+     * Returns a view of the attention masks of all sequences, row by row.
+     *
+     * @return a view of the attention masks of all sequences
+     */
+    public LongBuffer getAttentionMask() {
+        return view(1);
+    }
+
+    /**
+     * Returns a view of the token type ids of all sequences, row by row.
+     *
+     * @return a view of the token type ids of all sequences, or {@code null} if not encoded
+     */
+    public LongBuffer getTypeIds() {
+        if (buf.length < HEADER + size * 3) {
+            return null;
+        }
+        return view(2);
+    }
+
+    private LongBuffer view(int index) {
+        return LongBuffer.wrap(buf, HEADER + size * index, size).slice();
+    }
+}
@@ -58,16 +58,18 @@ public class Encoding {
      * @param manager the {@link NDManager} to create the NDList
      * @param withTokenType true to include the token type id
      * @return the {@link NDList}
+     * @throws IllegalStateException if the required fields were not selected by the tokenizer
      */
     public NDList toNDList(NDManager manager, boolean withTokenType) {
         // Converting encoding to int32 NDList because candle can't convert int64 to fp16 in cuda
         NDList list = new NDList(withTokenType ? 3 : 2);
         int[] intIds = Arrays.stream(ids).mapToInt(i -> (int) i).toArray();
-        int[] intAttentionMask = Arrays.stream(attentionMask).mapToInt(i -> (int) i).toArray();
+        int[] intAttentionMask =
+                Arrays.stream(getAttentionMask()).mapToInt(i -> (int) i).toArray();
         list.add(manager.create(intIds));
         list.add(manager.create(intAttentionMask));
         if (withTokenType) {
-            int[] intTypeIds = Arrays.stream(typeIds).mapToInt(i -> (int) i).toArray();
+            int[] intTypeIds = Arrays.stream(getTypeIds()).mapToInt(i -> (int) i).toArray();
             list.add(manager.create(intTypeIds));
         }
         return list;
@@ -86,54 +88,60 @@ public class Encoding {
      * Returns the token type ids.
      *
      * @return the token type ids
+     * @throws IllegalStateException if the field was not selected by the tokenizer
      */
     public long[] getTypeIds() {
-        return typeIds;
+        return checkField(typeIds, "typeIds");
     }
 
     /**
      * Returns the tokens.
      *
      * @return the tokens
+     * @throws IllegalStateException if the field was not selected by the tokenizer
      */
     public String[] getTokens() {
-        return tokens;
+        return checkField(tokens, "tokens");
     }
 
     /**
      * Returns the word ids.
      *
      * @return the word ids
+     * @throws IllegalStateException if the field was not selected by the tokenizer
      */
     public long[] getWordIds() {
-        return wordIds;
+        return checkField(wordIds, "wordIds");
     }
 
     /**
      * Returns the attention masks.
      *
      * @return the attention masks
+     * @throws IllegalStateException if the field was not selected by the tokenizer
      */
     public long[] getAttentionMask() {
-        return attentionMask;
+        return checkField(attentionMask, "attentionMask");
     }
 
     /**
      * Returns the special token masks.
      *
      * @return the special token masks
+     * @throws IllegalStateException if the field was not selected by the tokenizer
      */
     public long[] getSpecialTokenMask() {
-        return specialTokenMask;
+        return checkField(specialTokenMask, "specialTokenMask");
     }
 
     /**
      * Returns char token spans.
      *
      * @return char token spans
+     * @throws IllegalStateException if the field was not selected by the tokenizer
      */
     public CharSpan[] getCharTokenSpans() {
-        return charTokenSpans;
+        return checkField(charTokenSpans, "charSpans");
     }
 
     /**
@@ -153,4 +161,15 @@ public class Encoding {
     public Encoding[] getOverflowing() {
         return overflowing;
     }
+
+    private static <T> T checkField(T value, String name) {
+        if (value == null) {
+            throw new IllegalStateException(
+                    "The "
+                            + name
+                            + " field is not selected by the tokenizer, add it with"
+                            + " HuggingFaceTokenizer.Builder.optEncodingFields()");
+        }
+        return value;
+    }
 }
@@ -33,10 +33,12 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
@@ -47,6 +49,9 @@ public final class HuggingFaceTokenizer extends NativeResource<Long> implements
 
     private static final Logger logger = LoggerFactory.getLogger(HuggingFaceTokenizer.class);
 
+    private static final Set<EncodingField> TOKENS_ONLY =
+            EnumSet.of(EncodingField.IDS, EncodingField.TOKENS);
+
     private boolean addSpecialTokens;
     private boolean withOverflowingTokens;
     private Locale doLowerCase;
@@ -56,6 +61,7 @@ public final class HuggingFaceTokenizer extends NativeResource<Long> implements
     private int stride;
     private int padToMultipleOf;
     private int modelMaxLength;
+    private Set<EncodingField> encodingFields;
 
     private HuggingFaceTokenizer(long handle, Map<String, String> options) {
         super(handle);
@@ -64,6 +70,7 @@ public final class HuggingFaceTokenizer extends NativeResource<Long> implements
         maxLength = TokenizersLibrary.LIB.getMaxLength(handle);
         stride = TokenizersLibrary.LIB.getStride(handle);
         padToMultipleOf = TokenizersLibrary.LIB.getPadToMultipleOf(handle);
+        encodingFields = EnumSet.allOf(EncodingField.class);
 
         if (options != null) {
             String val = options.getOrDefault("addSpecialTokens", "true");
@@ -86,6 +93,10 @@ public final class HuggingFaceTokenizer extends NativeResource<Long> implements
             } else if (!"false".equals(lowerCase)) {
                 this.doLowerCase = Locale.forLanguageTag(lowerCase);
             }
+            String fields = options.get("encodingFields");
+            if (fields != null && !fields.isEmpty()) {
+                encodingFields = EncodingField.fromValues(fields);
+            }
         } else {
             addSpecialTokens = true;
             modelMaxLength = 512;
@@ -203,8 +214,9 @@ public final class HuggingFaceTokenizer extends NativeResource<Long> implements
     /** {@inheritDoc} */
     @Override
     public List<String> tokenize(String sentence) {
-        Encoding encoding = encode(sentence);
-        return Arrays.asList(encoding.getTokens());
+        // the tokens are fetched even if they are not in the selected encoding fields
+        long encoding = encodeNative(sentence, addSpecialTokens);
+        return Arrays.asList(toEncoding(encoding, false, TOKENS_ONLY).getTokens());
     }
 
     /** {@inheritDoc} */
@@ -233,13 +245,7 @@ public final class HuggingFaceTokenizer extends NativeResource<Long> implements
      * @return the {@code Encoding} of the input sentence
      */
     public Encoding encode(String text, boolean addSpecialTokens, boolean withOverflowingTokens) {
-        if (text == null) {
-            throw new NullPointerException("text cannot be null");
-        }
-        if (doLowerCase != null) {
-            text = text.toLowerCase(doLowerCase);
-        }
-        long encoding = TokenizersLibrary.LIB.encode(getHandle(), text, addSpecialTokens);
+        long encoding = encodeNative(text, addSpecialTokens);
         return toEncoding(encoding, withOverflowingTokens);
     }
 
@@ -383,13 +389,7 @@ public final class HuggingFaceTokenizer extends NativeResource<Long> implements
      */
     public Encoding[] batchEncode(
             String[] inputs, boolean addSpecialTokens, boolean withOverflowingTokens) {
-        if (doLowerCase != null) {
-            for (int i = 0; i < inputs.length; ++i) {
-                inputs[i] = inputs[i].toLowerCase(doLowerCase);
-            }
-        } else if (Arrays.stream(inputs).anyMatch(Objects::isNull)) {
-            throw new NullPointerException("input text cannot be null");
-        }
+        prepareBatch(inputs);
         long[] encodings = TokenizersLibrary.LIB.batchEncode(getHandle(), inputs, addSpecialTokens);
         Encoding[] ret = new Encoding[encodings.length];
         for (int i = 0; i < encodings.length; ++i) {
@@ -408,6 +408,47 @@ public final class HuggingFaceTokenizer extends NativeResource<Long> implements
         return batchEncode(inputs, addSpecialTokens, withOverflowingTokens);
     }
 
+    /**
+     * Returns the token ids and attention masks of the input sentences packed into a {@link
+     * BatchEncoding}.
+     *
+     * <p>Unlike {@link #batchEncode(String[])}, this method encodes the whole batch with a single
+     * native call, and does not create the tokens, word ids, special token masks, char spans and
+     * overflowing encodings. Sequences are padded to the longest sequence in the batch.
+     *
+     * <p>The padding uses the pad id of the padding configuration. If padding is disabled, the id
+     * of the {@code [PAD]}, {@code <pad>} or {@code <|pad|>} token of the vocabulary is used, or 0
+     * if the vocabulary has none of them. The padded positions are always masked out by the
+     * attention mask.
+     *
+     * @param inputs the batch of input sentence
+     * @param addSpecialTokens whether to encode the sequence with special tokens relative to their
+     *     model
+     * @param withTypeIds whether to return the token type ids
+     * @return the {@link BatchEncoding} of the input sentence in batch
+     */
+    public BatchEncoding batchEncodePacked(
+            String[] inputs, boolean addSpecialTokens, boolean withTypeIds) {
+        prepareBatch(inputs);
+        long[] buf =
+                TokenizersLibrary.LIB.batchEncodePacked(
+                        getHandle(), inputs, addSpecialTokens, withTypeIds);
+        return new BatchEncoding(buf);
+    }
+
+    /**
+     * Returns the token ids and attention masks of the input sentences packed into a {@link
+     * BatchEncoding}.
+     *
+     * @param inputs the batch of input sentence
+     * @param withTypeIds whether to return the token type ids
+     * @return the {@link BatchEncoding} of the input sentence in batch
+     */
+    public BatchEncoding batchEncodePacked(List<String> inputs, boolean withTypeIds) {
+        String[] array = inputs.toArray(Utils.EMPTY_ARRAY);
+        return batchEncodePacked(array, addSpecialTokens, withTypeIds);
+    }
+
     /**
      * Returns the {@code Encoding} of the input text pair in batch.
      *
@@ -618,14 +659,58 @@ public final class HuggingFaceTokenizer extends NativeResource<Long> implements
         }
     }
 
+    private void prepareBatch(String[] inputs) {
+        if (doLowerCase != null) {
+            for (int i = 0; i < inputs.length; ++i) {
+                inputs[i] = inputs[i].toLowerCase(doLowerCase);
+            }
+        } else if (Arrays.stream(inputs).anyMatch(Objects::isNull)) {
+            throw new NullPointerException("input text cannot be null");
+        }
+    }
+
+    private long encodeNative(String text, boolean addSpecialTokens) {
+        if (text == null) {
+            throw new NullPointerException("text cannot be null");
+        }
+        if (doLowerCase != null) {
+            text = text.toLowerCase(doLowerCase);
+        }
+        return TokenizersLibrary.LIB.encode(getHandle(), text, addSpecialTokens);
+    }
+
     private Encoding toEncoding(long encoding, boolean withOverflowingTokens) {
-        long[] ids = TokenizersLibrary.LIB.getTokenIds(encoding);
-        long[] typeIds = TokenizersLibrary.LIB.getTypeIds(encoding);
-        String[] tokens = TokenizersLibrary.LIB.getTokens(encoding);
-        long[] wordIds = TokenizersLibrary.LIB.getWordIds(encoding);
-        long[] attentionMask = TokenizersLibrary.LIB.getAttentionMask(encoding);
-        long[] specialTokenMask = TokenizersLibrary.LIB.getSpecialTokenMask(encoding);
-        CharSpan[] charSpans = TokenizersLibrary.LIB.getTokenCharSpans(encoding);
+        return toEncoding(encoding, withOverflowingTokens, encodingFields);
+    }
+
+    private Encoding toEncoding(
+            long encoding, boolean withOverflowingTokens, Set<EncodingField> fields) {
+        TokenizersLibrary lib = TokenizersLibrary.LIB;
+        long[] ids = lib.getTokenIds(encoding);
+        long[] typeIds = null;
+        String[] tokens = null;
+        long[] wordIds = null;
+        long[] attentionMask = null;
+        long[] specialTokenMask = null;
+        CharSpan[] charSpans = null;
+        if (fields.contains(EncodingField.TYPE_IDS)) {
+            typeIds = lib.getTypeIds(encoding);
+        }
+        if (fields.contains(EncodingField.TOKENS)) {
+            tokens = lib.getTokens(encoding);
+        }
+        if (fields.contains(EncodingField.WORD_IDS)) {
+            wordIds = lib.getWordIds(encoding);
+        }
+        if (fields.contains(EncodingField.ATTENTION_MASK)) {
+            attentionMask = lib.getAttentionMask(encoding);
+        }
+        if (fields.contains(EncodingField.SPECIAL_TOKEN_MASK)) {
+            specialTokenMask = lib.getSpecialTokenMask(encoding);
+        }
+        if (fields.contains(EncodingField.CHAR_SPANS)) {
+            charSpans = lib.getTokenCharSpans(encoding);
+        }
 
         int overFlowCount = TokenizersLibrary.LIB.getOverflowCount(encoding);
         boolean exceedMaxLength = overFlowCount > 0;
@@ -634,7 +719,7 @@ public final class HuggingFaceTokenizer extends NativeResource<Long> implements
             long[] overflowingHandles = TokenizersLibrary.LIB.getOverflowing(encoding);
             overflowing = new Encoding[overflowingHandles.length];
             for (int i = 0; i < overflowingHandles.length; ++i) {
-                overflowing[i] = toEncoding(overflowingHandles[i], true);
+                overflowing[i] = toEncoding(overflowingHandles[i], true, fields);
             }
         } else {
             overflowing = new Encoding[0];
@@ -718,6 +803,43 @@ public final class HuggingFaceTokenizer extends NativeResource<Long> implements
         }
     }
 
+    /** An enum to represent the fields of an {@link Encoding}. */
+    private enum EncodingField {
+        IDS,
+        TYPE_IDS,
+        TOKENS,
+        WORD_IDS,
+        ATTENTION_MASK,
+        SPECIAL_TOKEN_MASK,
+        CHAR_SPANS;
+
+        /**
+         * Converts the comma separated String to the matching EncodingField types.
+         *
+         * @param value the comma separated field names, for example "ids,attentionMask"
+         * @return the matching EncodingField types
+         * @throws IllegalArgumentException if a value does not match any EncodingField type
+         */
+        static Set<EncodingField> fromValues(String value) {
+            Set<EncodingField> fields = EnumSet.of(IDS);
+            for (String name : value.split("\\s*,\\s*")) {
+                String key = name.replace("_", "");
+                boolean found = false;
+                for (EncodingField field : values()) {
+                    if (field.name().replace("_", "").equalsIgnoreCase(key)) {
+                        fields.add(field);
+                        found = true;
+                        break;
+                    }
+                }
+                if (!found) {
+                    throw new IllegalArgumentException("Invalid EncodingField: " + name);
+                }
+            }
+            return fields;
+        }
+    }
+
     /** The builder for creating huggingface tokenizer. */
     public static final class Builder {
 
@@ -784,6 +906,27 @@ public final class HuggingFaceTokenizer extends NativeResource<Long> implements
             return this;
         }
 
+        /**
+         * Sets the fields of the {@link Encoding} to return, for example {@code "ids",
+         * "attentionMask"}.
+         *
+         * <p>The token ids are always returned. Fields that are not selected are not retrieved from
+         * the native tokenizer, and their {@link Encoding} getters throw an {@link
+         * IllegalStateException}. The translators need the fields they read, for example {@code
+         * attentionMask} for the model inputs. Available fields are {@code ids},
+         * {@code typeIds}, {@code tokens}, {@code wordIds}, {@code attentionMask}, {@code
+         * specialTokenMask} and {@code charSpans}. All fields are returned by default.
+         *
+         * @param fields the names of the fields to return
+         * @return this builder
+         */
+        public Builder optEncodingFields(String... fields) {
+            String value = String.join(",", fields);
+            EncodingField.fromValues(value);
+            options.put("encodingFields", value);
+            return this;
+        }
+
         /**
          * Enables or Disables default truncation behavior for the tokenizer.
          *
@@ -37,6 +37,9 @@ public final class TokenizersLibrary {
 
     public native long[] batchEncode(long tokenizer, String[] inputs, boolean addSpecialTokens);
 
+    public native long[] batchEncodePacked(
+            long tokenizer, String[] inputs, boolean addSpecialTokens, boolean withTypeIds);
+
     public native long[] batchEncodePair(
             long tokenizer, String[] text, String[] textPair, boolean addSpecialTokens);
 
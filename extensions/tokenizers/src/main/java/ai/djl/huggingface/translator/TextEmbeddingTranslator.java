@@ -12,6 +12,7 @@
  */
 package ai.djl.huggingface.translator;
 
+import ai.djl.huggingface.tokenizers.BatchEncoding;
 import ai.djl.huggingface.tokenizers.Encoding;
 import ai.djl.huggingface.tokenizers.HuggingFaceTokenizer;
 import ai.djl.ndarray.NDArray;
@@ -123,24 +124,15 @@ public class TextEmbeddingTranslator implements Translator<String, float[]> {
     @Override
     public NDList batchProcessInput(TranslatorContext ctx, List<String> inputs) {
         NDManager manager = ctx.getNDManager();
-        Encoding[] encodings = tokenizer.batchEncode(inputs);
-        long[][] ids = new long[encodings.length][];
-        long[][] attentionMask = new long[encodings.length][];
-        long[][] typeIds = new long[encodings.length][];
-        for (int i = 0; i < encodings.length; i++) {
-            ids[i] = encodings[i].getIds();
-            attentionMask[i] = encodings[i].getAttentionMask();
-            if (includeTokenTypes) {
-                typeIds[i] = encodings[i].getTypeIds();
-            }
-        }
+        BatchEncoding encoding = tokenizer.batchEncodePacked(inputs, includeTokenTypes);
+        Shape shape = new Shape(encoding.getBatchSize(), encoding.getSeqLength());
         NDList list = new NDList();
-        list.add(manager.create(ids));
-        NDArray inputAttentionMask = manager.create(attentionMask);
+        list.add(manager.create(encoding.getIds(), shape));
+        NDArray inputAttentionMask = manager.create(encoding.getAttentionMask(), shape);
         list.add(inputAttentionMask);
         ctx.setAttachment("attentionMask", inputAttentionMask);
         if (includeTokenTypes) {
-            list.add(manager.create(typeIds));
+            list.add(manager.create(encoding.getTypeIds(), shape));
         }
         return list;
     }
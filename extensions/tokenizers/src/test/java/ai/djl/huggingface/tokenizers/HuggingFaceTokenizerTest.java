@@ -15,6 +15,9 @@ package ai.djl.huggingface.tokenizers;
 
 import ai.djl.engine.Engine;
 import ai.djl.huggingface.tokenizers.jni.CharSpan;
+import ai.djl.ndarray.NDList;
+import ai.djl.ndarray.NDManager;
+import ai.djl.ndarray.types.Shape;
 import ai.djl.testing.TestRequirements;
 import ai.djl.training.util.DownloadUtils;
 import ai.djl.util.PairList;
@@ -24,6 +27,7 @@ import org.testng.Assert;
 import org.testng.annotations.Test;
 
 import java.io.IOException;
+import java.nio.LongBuffer;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Arrays;
@@ -546,6 +550,62 @@ public class HuggingFaceTokenizerTest {
         }
     }
 
+    @Test
+    public void testBatchEncodePacked() throws IOException {
+        String[] inputs = {"Hello there friend", "Good weather I'd say"};
+        try (HuggingFaceTokenizer tokenizer =
+                HuggingFaceTokenizer.builder()
+                        .optTokenizerName("bert-base-cased")
+                        .optPadding(false)
+                        .build()) {
+            Encoding[] encodings = tokenizer.batchEncode(inputs.clone());
+            BatchEncoding batch = tokenizer.batchEncodePacked(inputs, true, true);
+            int seqLength = encodings[1].getIds().length;
+            Assert.assertEquals(batch.getBatchSize(), 2);
+            Assert.assertEquals(batch.getSeqLength(), seqLength);
+
+            long[] ids = Arrays.copyOf(encodings[0].getIds(), seqLength);
+            long[] mask = Arrays.copyOf(encodings[0].getAttentionMask(), seqLength);
+            Assert.assertEquals(toArray(batch.getIds(), 0, seqLength), ids);
+            Assert.assertEquals(toArray(batch.getAttentionMask(), 0, seqLength), mask);
+            Assert.assertEquals(
+                    toArray(batch.getIds(), seqLength, seqLength * 2), encodings[1].getIds());
+            Assert.assertEquals(
+                    toArray(batch.getTypeIds(), seqLength, seqLength * 2),
+                    encodings[1].getTypeIds());
+
+            try (NDManager manager = NDManager.newBaseManager()) {
+                NDList list = batch.toNDList(manager, true);
+                Assert.assertEquals(list.size(), 3);
+                Assert.assertEquals(list.get(0).getShape(), new Shape(2, seqLength));
+            }
+        }
+    }
+
+    @Test
+    public void testEncodingFields() throws IOException {
+        try (HuggingFaceTokenizer tokenizer =
+                HuggingFaceTokenizer.builder()
+                        .optTokenizerName("bert-base-cased")
+                        .optEncodingFields("ids", "attentionMask")
+                        .build()) {
+            Encoding encoding = tokenizer.encode("Hello there friend");
+            Assert.assertEquals(encoding.getIds().length, 5);
+            Assert.assertEquals(encoding.getAttentionMask(), new long[] {1, 1, 1, 1, 1});
+            Assert.assertThrows(IllegalStateException.class, encoding::getTokens);
+            Assert.assertThrows(IllegalStateException.class, encoding::getCharTokenSpans);
+
+            // tokenize() fetches the tokens even if they are not selected
+            List<String> tokens = tokenizer.tokenize("Hello there friend");
+            Assert.assertEquals(
+                    tokens, Arrays.asList("[CLS]", "Hello", "there", "friend", "[SEP]"));
+        }
+
+        Assert.assertThrows(
+                IllegalArgumentException.class,
+                () -> HuggingFaceTokenizer.builder().optEncodingFields("ids", "offsets"));
+    }
+
     @Test
     public void testTokenizerWithPresetPaddingConfiguration() throws IOException {
         try (HuggingFaceTokenizer tokenizer =
@@ -576,4 +636,11 @@ public class HuggingFaceTokenizerTest {
             System.clearProperty("HF_TOKEN");
         }
     }
+
+    private static long[] toArray(LongBuffer buf, int from, int to) {
+        long[] array = new long[to - from];
+        buf.position(from);
+        buf.get(array);
+        return array;
+    }
 }
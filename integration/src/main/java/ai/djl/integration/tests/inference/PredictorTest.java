@@ -15,23 +15,34 @@ package ai.djl.integration.tests.inference;
 import ai.djl.Device;
 import ai.djl.Model;
 import ai.djl.basicmodelzoo.basic.Mlp;
+import ai.djl.inference.BatchingPredictor;
 import ai.djl.inference.Predictor;
+import ai.djl.inference.PredictorPool;
 import ai.djl.integration.util.TestUtils;
+import ai.djl.metric.Metrics;
 import ai.djl.ndarray.NDList;
 import ai.djl.ndarray.NDManager;
 import ai.djl.ndarray.types.Shape;
 import ai.djl.nn.Block;
+import ai.djl.repository.zoo.ZooModel;
 import ai.djl.testing.TestRequirements;
 import ai.djl.training.DefaultTrainingConfig;
 import ai.djl.training.Trainer;
 import ai.djl.training.TrainingConfig;
 import ai.djl.training.loss.Loss;
+import ai.djl.translate.Batchifier;
 import ai.djl.translate.NoopTranslator;
 import ai.djl.translate.TranslateException;
 
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 public class PredictorTest {
 
     @Test
@@ -81,4 +92,148 @@ public class PredictorTest {
             }
         }
     }
+
+    @Test
+    public void testBatchingPredictor() throws TranslateException {
+        try (Model model = Model.newInstance("mlp", TestUtils.getEngine())) {
+            model.setBlock(new Mlp(10, 10, new int[] {10}));
+            TrainingConfig config = new DefaultTrainingConfig(Loss.softmaxCrossEntropyLoss());
+            try (Trainer trainer = model.newTrainer(config)) {
+                trainer.initialize(new Shape(1, 10));
+            }
+
+            Metrics metrics = new Metrics();
+            Predictor<NDList, NDList> predictor =
+                    model.newPredictor(new NoopTranslator(Batchifier.STACK));
+            try (BatchingPredictor<NDList, NDList> batching =
+                    new BatchingPredictor<>(predictor, 4, 50)) {
+                batching.setMetrics(metrics);
+                NDManager manager = model.getNDManager();
+                List<CompletableFuture<NDList>> futures = new ArrayList<>();
+                for (int i = 0; i < 8; ++i) {
+                    NDList input = new NDList(manager.ones(new Shape(10)));
+                    futures.add(batching.predictAsync(input));
+                }
+                for (CompletableFuture<NDList> future : futures) {
+                    Assert.assertEquals(future.join().head().getShape(), new Shape(10));
+                }
+                NDList result = batching.predict(new NDList(manager.ones(new Shape(10))));
+                Assert.assertEquals(result.head().getShape(), new Shape(10));
+            }
+            Assert.assertEquals(metrics.getMetric("QueueWait").size(), 9);
+            Assert.assertTrue(metrics.hasMetric("BatchSize"));
+            Assert.assertTrue(metrics.getMetric("BatchSize").size() < 9);
+        }
+    }
+
+    @Test
+    public void testParallelProcessing() throws TranslateException {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try (Model model = Model.newInstance("mlp", TestUtils.getEngine())) {
+            model.setBlock(new Mlp(10, 10, new int[] {10}));
+            TrainingConfig config = new DefaultTrainingConfig(Loss.softmaxCrossEntropyLoss());
+            try (Trainer trainer = model.newTrainer(config)) {
+                trainer.initialize(new Shape(1, 10));
+            }
+
+            Metrics metrics = new Metrics();
+            try (Predictor<NDList, NDList> predictor =
+                    model.newPredictor(new NoopTranslator(Batchifier.STACK))) {
+                predictor.setMetrics(metrics);
+                predictor.setExecutorService(executor);
+                NDManager manager = model.getNDManager();
+                List<NDList> inputs = new ArrayList<>();
+                for (int i = 0; i < 8; ++i) {
+                    inputs.add(new NDList(manager.ones(new Shape(10))));
+                }
+                List<NDList> results = predictor.batchPredict(inputs);
+                Assert.assertEquals(results.size(), 8);
+                Assert.assertEquals(results.get(7).head().getShape(), new Shape(10));
+            }
+            Assert.assertTrue(metrics.hasMetric("PreprocessWall"));
+            Assert.assertTrue(metrics.hasMetric("PostprocessWall"));
+            Assert.assertTrue(metrics.hasMetric("Prediction"));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testPredictorPool() throws TranslateException, InterruptedException {
+        try (Model model = Model.newInstance("mlp", TestUtils.getEngine())) {
+            model.setBlock(new Mlp(10, 10, new int[] {10}));
+            TrainingConfig config = new DefaultTrainingConfig(Loss.softmaxCrossEntropyLoss());
+            try (Trainer trainer = model.newTrainer(config)) {
+                trainer.initialize(new Shape(1, 10));
+            }
+
+            ZooModel<NDList, NDList> zooModel =
+                    new ZooModel<>(model, new NoopTranslator(Batchifier.STACK));
+            ExecutorService executor = Executors.newFixedThreadPool(8);
+            try (PredictorPool<NDList, NDList> pool = zooModel.newPredictorPool(2)) {
+                NDManager manager = model.getNDManager();
+                List<CompletableFuture<NDList>> futures = new ArrayList<>();
+                for (int i = 0; i < 16; ++i) {
+                    NDList input = new NDList(manager.ones(new Shape(10)));
+                    futures.add(
+                            CompletableFuture.supplyAsync(
+                                    () -> {
+                                        try {
+                                            return pool.predict(input);
+                                        } catch (TranslateException e) {
+                                            throw new IllegalStateException(e);
+                                        }
+                                    },
+                                    executor));
+                }
+                for (CompletableFuture<NDList> future : futures) {
+                    Assert.assertEquals(future.join().head().getShape(), new Shape(10));
+                }
+                Assert.assertTrue(pool.getCreatedCount() <= 2);
+                Assert.assertEquals(pool.getActiveCount(), 0);
+            } finally {
+                executor.shutdown();
+            }
+
+            // metrics set while a predictor is borrowed apply after it is returned
+            try (PredictorPool<NDList, NDList> pool = zooModel.newPredictorPool(1)) {
+                Predictor<NDList, NDList> predictor = pool.borrow();
+                Metrics metrics = new Metrics();
+                pool.setMetrics(metrics);
+                pool.release(predictor);
+                pool.predict(new NDList(model.getNDManager().ones(new Shape(10))));
+                Assert.assertTrue(metrics.hasMetric("Prediction"));
+            }
+        }
+    }
+
+    @Test
+    public void testPredictAsync() {
+        try (Model model = Model.newInstance("mlp", TestUtils.getEngine())) {
+            model.setBlock(new Mlp(10, 10, new int[] {10}));
+            TrainingConfig config = new DefaultTrainingConfig(Loss.softmaxCrossEntropyLoss());
+            try (Trainer trainer = model.newTrainer(config)) {
+                trainer.initialize(new Shape(1, 10));
+            }
+
+            Metrics metrics = new Metrics();
+            try (Predictor<NDList, NDList> predictor =
+                    model.newPredictor(new NoopTranslator(Batchifier.STACK))) {
+                predictor.setMetrics(metrics);
+                predictor.setPipelineConfig(4, 2);
+                NDManager manager = model.getNDManager();
+                List<CompletableFuture<NDList>> futures = new ArrayList<>();
+                for (int i = 0; i < 16; ++i) {
+                    NDList input = new NDList(manager.ones(new Shape(10)));
+                    futures.add(predictor.predictAsync(input));
+                }
+                for (CompletableFuture<NDList> future : futures) {
+                    Assert.assertEquals(future.join().head().getShape(), new Shape(10));
+                }
+                Assert.assertThrows(() -> predictor.setPipelineConfig(1, 1));
+            }
+            Assert.assertEquals(metrics.getMetric("Prediction").size(), 16);
+            Assert.assertTrue(metrics.hasMetric("PreprocessBackpressure"));
+        }
+    }
 }
@@ -15,6 +15,7 @@ package ai.djl.integration.tests.modality.cv;
 import ai.djl.integration.util.TestUtils;
 import ai.djl.modality.cv.Image;
 import ai.djl.modality.cv.ImageFactory;
+import ai.djl.modality.cv.util.NDImageUtils;
 import ai.djl.ndarray.NDArray;
 import ai.djl.ndarray.NDManager;
 import ai.djl.ndarray.types.DataType;
@@ -24,9 +25,11 @@ import ai.djl.testing.Assertions;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
+import java.awt.image.BufferedImage;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.util.Base64;
+import java.util.Random;
 
 public class BufferedImageFactoryTest {
 
@@ -63,4 +66,46 @@ public class BufferedImageFactoryTest {
             Assertions.assertAlmostEquals(array, converted);
         }
     }
+
+    @Test
+    public void testToTensor() {
+        try (NDManager manager = NDManager.newBaseManager(TestUtils.getEngine())) {
+            ImageFactory factory = ImageFactory.getInstance();
+            int[] types = {
+                BufferedImage.TYPE_3BYTE_BGR,
+                BufferedImage.TYPE_INT_RGB,
+                BufferedImage.TYPE_INT_ARGB,
+                BufferedImage.TYPE_BYTE_GRAY,
+                BufferedImage.TYPE_USHORT_565_RGB
+            };
+            float[] mean = {0.485f, 0.456f, 0.406f};
+            float[] std = {0.229f, 0.224f, 0.225f};
+            Random random = new Random(0);
+            for (int type : types) {
+                BufferedImage img = new BufferedImage(16, 12, type);
+                for (int y = 0; y < 12; ++y) {
+                    for (int x = 0; x < 16; ++x) {
+                        img.setRGB(x, y, random.nextInt());
+                    }
+                }
+                Image image = factory.fromImage(img.getSubimage(2, 3, 10, 8));
+                NDArray expected = image.toNDArray(manager);
+                Assert.assertEquals(expected.getShape(), new Shape(8, 10, 3));
+                if (type != BufferedImage.TYPE_BYTE_GRAY) {
+                    int red = (img.getRGB(4, 4) >> 16) & 0xFF;
+                    NDArray pixel = expected.get(1, 2, 0).toType(DataType.INT32, false);
+                    Assert.assertEquals(pixel.getInt(), red);
+                }
+
+                expected = NDImageUtils.toTensor(expected);
+                expected = NDImageUtils.normalize(expected, mean, std);
+                NDArray array = image.toTensor(manager, Image.Flag.COLOR, mean, std);
+                Assertions.assertAlmostEquals(array, expected);
+
+                expected = NDImageUtils.toTensor(image.toNDArray(manager, Image.Flag.GRAYSCALE));
+                array = image.toTensor(manager, Image.Flag.GRAYSCALE, null, null);
+                Assertions.assertAlmostEquals(array, expected);
+            }
+        }
+    }
 }
@@ -14,18 +14,31 @@ package ai.djl.integration.tests.modality.cv;
 
 import ai.djl.integration.util.TestUtils;
 import ai.djl.modality.cv.Image;
+import ai.djl.modality.cv.ImageFactory;
+import ai.djl.modality.cv.transform.CenterCrop;
+import ai.djl.modality.cv.transform.FusedImageTransform;
+import ai.djl.modality.cv.transform.Normalize;
+import ai.djl.modality.cv.transform.Resize;
+import ai.djl.modality.cv.transform.ToTensor;
 import ai.djl.modality.cv.util.NDImageUtils;
 import ai.djl.ndarray.NDArray;
+import ai.djl.ndarray.NDList;
 import ai.djl.ndarray.NDManager;
 import ai.djl.ndarray.index.NDIndex;
 import ai.djl.ndarray.types.DataType;
 import ai.djl.ndarray.types.Shape;
 import ai.djl.testing.Assertions;
+import ai.djl.translate.Pipeline;
+import ai.djl.translate.Transform;
 import ai.djl.util.cuda.CudaUtils;
 
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
 public class NDImageUtilsTest {
 
     @Test
@@ -149,6 +162,58 @@ public class NDImageUtilsTest {
         }
     }
 
+    @Test
+    public void testFusedImageTransform() {
+        TestUtils.requiresEngine("MXNet", "PyTorch");
+
+        try (NDManager manager = NDManager.newBaseManager(TestUtils.getEngine())) {
+            NDArray image = manager.randomUniform(0, 255, new Shape(40, 30, 3));
+            float[] mean = {0.485f, 0.456f, 0.406f};
+            float[] std = {0.229f, 0.224f, 0.225f};
+            Image.Interpolation[] interpolations = {
+                Image.Interpolation.NEAREST, Image.Interpolation.BILINEAR
+            };
+            for (Image.Interpolation interpolation : interpolations) {
+                Pipeline pipeline =
+                        new Pipeline(
+                                new Resize(24, 32, interpolation),
+                                new CenterCrop(20, 20),
+                                new ToTensor(),
+                                new Normalize(mean, std));
+                Pipeline fused = pipeline.fuse(FusedImageTransform::of);
+                NDArray expected = pipeline.transform(new NDList(image)).head();
+                NDArray result = fused.transform(new NDList(image)).head();
+                Assert.assertEquals(result.getShape(), new Shape(3, 20, 20));
+                Assertions.assertAlmostEquals(result, expected, 1e-3, 1e-3);
+            }
+
+            // not fusable
+            Assert.assertNull(FusedImageTransform.of(Collections.singletonList(new ToTensor())));
+            Assert.assertNull(
+                    FusedImageTransform.of(
+                            Arrays.asList(new Normalize(mean, std), new ToTensor())));
+
+            // uint8 image without resize
+            image = image.toType(DataType.UINT8, false);
+            Pipeline pipeline = new Pipeline(new CenterCrop(), new ToTensor());
+            NDArray expected = pipeline.transform(new NDList(image)).head();
+            NDArray result =
+                    pipeline.fuse(FusedImageTransform::of).transform(new NDList(image)).head();
+            Assert.assertEquals(result.getShape(), new Shape(3, 30, 30));
+            Assertions.assertAlmostEquals(result, expected);
+
+            // the pixels of an image are read directly without resize and crop
+            Image img = ImageFactory.getInstance().fromNDArray(image);
+            pipeline = new Pipeline(new ToTensor(), new Normalize(mean, std));
+            List<Transform> transforms = pipeline.fuse(FusedImageTransform::of).getTransforms(0);
+            Assert.assertEquals(transforms.size(), 1);
+            FusedImageTransform transform = (FusedImageTransform) transforms.get(0);
+            expected = pipeline.transform(new NDList(img.toNDArray(manager))).head();
+            result = transform.transform(img, manager, Image.Flag.COLOR);
+            Assertions.assertAlmostEquals(result, expected);
+        }
+    }
+
     @Test
     public void testCrop() {
         try (NDManager manager = NDManager.newBaseManager(TestUtils.getEngine())) {
@@ -13,15 +13,27 @@
 
 package ai.djl.integration.tests.training;
 
+import ai.djl.Device;
+import ai.djl.Model;
 import ai.djl.integration.util.TestUtils;
+import ai.djl.metric.Metrics;
 import ai.djl.ndarray.NDArray;
 import ai.djl.ndarray.NDList;
 import ai.djl.ndarray.NDManager;
 import ai.djl.ndarray.types.Shape;
+import ai.djl.nn.core.Linear;
+import ai.djl.training.DefaultTrainingConfig;
+import ai.djl.training.EasyTrain;
+import ai.djl.training.Trainer;
+import ai.djl.training.dataset.Batch;
 import ai.djl.training.evaluator.AbstractAccuracy;
 import ai.djl.training.evaluator.Accuracy;
 import ai.djl.training.evaluator.Coverage;
 import ai.djl.training.evaluator.TopKAccuracy;
+import ai.djl.training.listener.EvaluatorTrainingListener;
+import ai.djl.training.listener.TrainingListener;
+import ai.djl.training.loss.Loss;
+import ai.djl.translate.Batchifier;
 
 import org.testng.Assert;
 import org.testng.annotations.Test;
@@ -111,4 +123,85 @@ public class EvaluatorTest {
                     "Wrong accuracy, expected: " + expectedAccuracy + ", actual: " + accuracy);
         }
     }
+
+    @Test
+    public void testDeviceAccumulation() {
+        try (NDManager manager = NDManager.newBaseManager(TestUtils.getEngine())) {
+            NDList predictions =
+                    new NDList(
+                            manager.create(
+                                    new float[] {0.3f, 0.7f, 0, 1, 0.4f, 0.6f}, new Shape(3, 2)));
+            NDList labels1 = new NDList(manager.create(new int[] {0, 1, 1}, new Shape(3)));
+            NDList labels2 = new NDList(manager.create(new int[] {1, 1, 1}, new Shape(3)));
+            String[] keys = {"a", "b"};
+
+            Accuracy acc = new Accuracy();
+            acc.addAccumulator("a");
+            acc.addAccumulator("b");
+            acc.updateAccumulators(keys, labels1, predictions);
+            acc.updateAccumulators(keys, labels2, predictions);
+            Assert.assertEquals(acc.getAccumulator("a"), 5.f / 6);
+            // reading an accumulator must not lose the values read back
+            acc.updateAccumulators(new String[] {"a"}, labels1, predictions);
+            Assert.assertEquals(acc.getAccumulator("a"), 7.f / 9);
+            acc.resetAccumulator("b");
+            acc.updateAccumulators(new String[] {"b"}, labels2, predictions);
+            Assert.assertEquals(acc.getAccumulator("b"), 1f);
+
+            Loss loss = Loss.l1Loss();
+            NDList lossLabels = new NDList(manager.create(new float[] {1, 1}));
+            loss.addAccumulator("a");
+            loss.updateAccumulators(
+                    new String[] {"a"}, lossLabels, new NDList(manager.create(new float[] {0, 2})));
+            Assert.assertEquals(loss.getAccumulator("a"), 1f);
+            loss.updateAccumulators(
+                    new String[] {"a"}, lossLabels, new NDList(manager.create(new float[] {1, 1})));
+            Assert.assertEquals(loss.getAccumulator("a"), 0.5f);
+            loss.resetAccumulator("a");
+            Assert.assertTrue(Float.isNaN(loss.getAccumulator("a")));
+        }
+    }
+
+    @Test
+    public void testMetricsInterval() {
+        Device[] devices = TestUtils.getDevices(1);
+        DefaultTrainingConfig config =
+                new DefaultTrainingConfig(Loss.l2Loss())
+                        .optDevices(devices)
+                        .optMetricsInterval(2)
+                        .addTrainingListeners(TrainingListener.Defaults.basic());
+        Loss loss = config.getLossFunction();
+        try (Model model = Model.newInstance("model", devices[0], TestUtils.getEngine())) {
+            model.setBlock(Linear.builder().setUnits(1).build());
+            String name =
+                    EvaluatorTrainingListener.metricName(loss, EvaluatorTrainingListener.TRAIN_ALL);
+
+            try (Trainer trainer = model.newTrainer(config)) {
+                trainer.initialize(new Shape(2, 3));
+                trainer.setMetrics(new Metrics());
+                NDManager manager = trainer.getManager();
+                for (int i = 0; i < 5; ++i) {
+                    NDArray data = manager.ones(new Shape(2, 3));
+                    try (Batch batch =
+                            new Batch(
+                                    manager.newSubManager(),
+                                    new NDList(data),
+                                    new NDList(data.sum(new int[] {1}, true)),
+                                    2,
+                                    Batchifier.STACK,
+                                    Batchifier.STACK,
+                                    0,
+                                    0)) {
+                        EasyTrain.trainBatch(trainer, batch);
+                        trainer.step();
+                    }
+                }
+                Assert.assertEquals(trainer.getMetrics().getMetric(name).size(), 2);
+            }
+            // the sums on the devices are released at the end of the training, the totals are kept
+            float value = loss.getAccumulator(EvaluatorTrainingListener.TRAIN_ALL);
+            Assert.assertFalse(Float.isNaN(value));
+            Assert.assertEquals(loss.getAccumulator(EvaluatorTrainingListener.TRAIN_ALL), value);
+        }
+    }
 }
@@ -0,0 +1,181 @@
+/*
+ * Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.integration.tests.training;
+
+import ai.djl.Device;
+import ai.djl.Model;
+import ai.djl.integration.util.TestUtils;
+import ai.djl.metric.Metrics;
+import ai.djl.ndarray.NDArray;
+import ai.djl.ndarray.NDList;
+import ai.djl.ndarray.NDManager;
+import ai.djl.ndarray.index.NDIndex;
+import ai.djl.ndarray.types.Shape;
+import ai.djl.nn.Block;
+import ai.djl.nn.Parameter;
+import ai.djl.nn.core.Linear;
+import ai.djl.testing.Assertions;
+import ai.djl.training.DefaultTrainingConfig;
+import ai.djl.training.EasyTrain;
+import ai.djl.training.Trainer;
+import ai.djl.training.dataset.Batch;
+import ai.djl.training.initializer.Initializer;
+import ai.djl.training.listener.EvaluatorTrainingListener;
+import ai.djl.training.loss.Loss;
+import ai.djl.training.optimizer.Optimizer;
+import ai.djl.training.tracker.Tracker;
+import ai.djl.translate.Batchifier;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class GradientAccumulationTest {
+
+    private static final int BATCH_SIZE = 12;
+    private static final int CHANNELS = 4;
+
+    @Test
+    public void testGradientAccumulation() {
+        // only PyTorch accumulates the gradients of multiple gradient collectors
+        TestUtils.requiresEngine("PyTorch");
+        try (NDManager manager = NDManager.newBaseManager(TestUtils.getEngine())) {
+            NDArray data = manager.arange(0f, BATCH_SIZE * CHANNELS, 1f);
+            data = data.reshape(BATCH_SIZE, CHANNELS).div(BATCH_SIZE * CHANNELS);
+            NDArray label = data.sum(new int[] {1}, true);
+
+            NDArray expected = manager.create(train(newConfig(), data, label, BATCH_SIZE));
+            DefaultTrainingConfig config = newConfig().optGradientAccumulation(3);
+            NDArray accumulated = manager.create(train(config, data, label, BATCH_SIZE / 3));
+            Assertions.assertAlmostEquals(accumulated, expected);
+
+            config = newConfig().optMicroBatchSize(5);
+            NDArray micro = manager.create(train(config, data, label, BATCH_SIZE));
+            Assertions.assertAlmostEquals(micro, expected);
+        }
+    }
+
+    @Test
+    public void testAccumulationBoundary() {
+        TestUtils.requiresEngine("PyTorch");
+        Device[] devices = TestUtils.getDevices(1);
+        DefaultTrainingConfig config = newConfig().optGradientAccumulation(2).optDevices(devices);
+        Block block = Linear.builder().setUnits(1).build();
+        try (Model model = Model.newInstance("model", devices[0], TestUtils.getEngine())) {
+            model.setBlock(block);
+
+            try (Trainer trainer = model.newTrainer(config)) {
+                trainer.initialize(new Shape(BATCH_SIZE, CHANNELS));
+                NDManager manager = trainer.getManager();
+                NDArray data = manager.ones(new Shape(BATCH_SIZE, CHANNELS));
+                NDArray weight = block.getParameters().get("weight").getArray();
+                NDArray initial = weight.duplicate();
+
+                Assert.assertFalse(trainer.isAccumulationBoundary());
+                trainBatch(trainer, data, data.sum(new int[] {1}, true));
+                Assert.assertEquals(trainer.getAccumulatedBatches(), 1);
+                Assert.assertTrue(trainer.isAccumulationBoundary());
+                Assertions.assertAlmostEquals(weight, initial);
+
+                trainBatch(trainer, data, data.sum(new int[] {1}, true));
+                Assert.assertEquals(trainer.getAccumulatedBatches(), 0);
+                Assert.assertNotEquals(weight.toFloatArray(), initial.toFloatArray());
+            }
+        }
+    }
+
+    @Test
+    public void testPartialAccumulationMetrics() {
+        TestUtils.requiresEngine("PyTorch");
+        Device[] devices = TestUtils.getDevices(1);
+        DefaultTrainingConfig config =
+                newConfig()
+                        .optGradientAccumulation(2)
+                        .optDevices(devices)
+                        .addTrainingListeners(new EvaluatorTrainingListener());
+        Block block = Linear.builder().setUnits(1).build();
+        try (Model model = Model.newInstance("model", devices[0], TestUtils.getEngine())) {
+            model.setBlock(block);
+
+            try (Trainer trainer = model.newTrainer(config)) {
+                trainer.initialize(new Shape(BATCH_SIZE, CHANNELS));
+                trainer.setMetrics(new Metrics());
+                NDManager manager = trainer.getManager();
+                NDArray data = manager.ones(new Shape(BATCH_SIZE, CHANNELS));
+                for (int i = 0; i < 3; ++i) {
+                    trainBatch(trainer, data, data.sum(new int[] {1}, true));
+                }
+                String name =
+                        EvaluatorTrainingListener.metricName(
+                                trainer.getLoss(), EvaluatorTrainingListener.TRAIN_ALL);
+                Assert.assertEquals(trainer.getMetrics().getMetric(name).size(), 1);
+
+                // the last batch is applied at the end of the epoch
+                trainer.flushGradients();
+                trainer.notifyListeners(listener -> listener.onEpoch(trainer));
+                Assert.assertEquals(trainer.getMetrics().getMetric(name).size(), 2);
+            }
+        }
+    }
+
+    @Test
+    public void testInvalidMicroBatchSize() {
+        Assert.assertThrows(IllegalArgumentException.class, () -> newConfig().optMicroBatchSize(0));
+        Assert.assertThrows(
+                IllegalArgumentException.class, () -> newConfig().optMicroBatchSize(-2));
+        Assert.assertEquals(newConfig().optMicroBatchSize(-1).getMicroBatchSize(), -1);
+    }
+
+    private static DefaultTrainingConfig newConfig() {
+        Optimizer sgd = Optimizer.sgd().setLearningRateTracker(Tracker.fixed(0.1f)).build();
+        return new DefaultTrainingConfig(Loss.l2Loss())
+                .optInitializer(Initializer.ONES, Parameter.Type.WEIGHT)
+                .optOptimizer(sgd);
+    }
+
+    private static float[] train(
+            DefaultTrainingConfig config, NDArray data, NDArray label, int batchSize) {
+        Device[] devices = TestUtils.getDevices(1);
+        config.optDevices(devices);
+        Block block = Linear.builder().setUnits(1).build();
+        try (Model model = Model.newInstance("model", devices[0], TestUtils.getEngine())) {
+            model.setBlock(block);
+
+            try (Trainer trainer = model.newTrainer(config)) {
+                trainer.initialize(new Shape(batchSize, CHANNELS));
+                for (int i = 0; i < BATCH_SIZE; i += batchSize) {
+                    NDIndex index = new NDIndex("{}:{}", i, i + batchSize);
+                    trainBatch(trainer, data.get(index), label.get(index));
+                }
+                trainer.flushGradients();
+                return block.getParameters().get("weight").getArray().toFloatArray();
+            }
+        }
+    }
+
+    private static void trainBatch(Trainer trainer, NDArray data, NDArray label) {
+        int batchSize = Math.toIntExact(data.getShape().get(0));
+        try (Batch batch =
+                new Batch(
+                        trainer.getManager().newSubManager(),
+                        new NDList(data),
+                        new NDList(label),
+                        batchSize,
+                        Batchifier.STACK,
+                        Batchifier.STACK,
+                        0,
+                        0)) {
+            EasyTrain.trainBatch(trainer, batch);
+            trainer.step();
+        }
+    }
+}
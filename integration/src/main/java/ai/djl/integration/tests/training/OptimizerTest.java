@@ -327,6 +327,42 @@ public class OptimizerTest {
         }
     }
 
+    @Test
+    public void testFusedUpdate() {
+        Optimizer[] optimizers = {
+            Optimizer.sgd().setLearningRateTracker(Tracker.fixed(0.1f)).optMomentum(0.9f).build(),
+            Optimizer.adam().optLearningRateTracker(Tracker.fixed(0.1f)).build(),
+            Optimizer.adamW().optLearningRateTracker(Tracker.fixed(0.1f)).build()
+        };
+        float[][] expected = {
+            {0.2032f, -0.3984f}, {0.80060977f, -0.19939029f}, {0.7987207174301147f, -0.19939029f}
+        };
+
+        Device[] devices = TestUtils.getDevices(1);
+        for (int i = 0; i < optimizers.length; ++i) {
+            TrainingConfig config =
+                    new DefaultTrainingConfig(Loss.l2Loss())
+                            .optInitializer(Initializer.ONES, Parameter.Type.WEIGHT)
+                            .optOptimizer(optimizers[i])
+                            .optFusedUpdate(true)
+                            .optDevices(devices);
+            Block block = Linear.builder().setUnits(CHANNELS).build();
+            try (Model model = Model.newInstance("model", devices[0], TestUtils.getEngine())) {
+                model.setBlock(block);
+
+                try (Trainer trainer = model.newTrainer(config)) {
+                    int batchSize = config.getDevices().length * BATCH_SIZE;
+                    trainer.initialize(new Shape(batchSize, CHANNELS));
+
+                    NDManager manager = trainer.getManager();
+                    runOptimizer(manager, trainer, block, batchSize);
+                    NDArray result = runOptimizer(manager, trainer, block, batchSize);
+                    Assertions.assertAlmostEquals(result, manager.create(expected[i]));
+                }
+            }
+        }
+    }
+
     private NDArray runOptimizer(NDManager manager, Trainer trainer, Block block, int batchSize) {
         NDArray data = manager.ones(new Shape(batchSize, CHANNELS)).mul(2);
         NDArray label = data.mul(2);
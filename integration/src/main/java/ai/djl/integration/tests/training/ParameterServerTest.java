@@ -0,0 +1,252 @@
+/*
+ * Copyright 2024 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"). You may not use this file except in compliance
+ * with the License. A copy of the License is located at
+ *
+ * http://aws.amazon.com/apache2.0/
+ *
+ * or in the "license" file accompanying this file. This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package ai.djl.integration.tests.training;
+
+import ai.djl.Device;
+import ai.djl.Model;
+import ai.djl.engine.Engine;
+import ai.djl.integration.util.TestUtils;
+import ai.djl.ndarray.NDArray;
+import ai.djl.ndarray.NDList;
+import ai.djl.ndarray.NDManager;
+import ai.djl.ndarray.types.DataType;
+import ai.djl.ndarray.types.Shape;
+import ai.djl.nn.Block;
+import ai.djl.nn.Parameter;
+import ai.djl.nn.SequentialBlock;
+import ai.djl.nn.core.Linear;
+import ai.djl.testing.Assertions;
+import ai.djl.training.DefaultTrainingConfig;
+import ai.djl.training.DistributedParameterServer;
+import ai.djl.training.GradientCollector;
+import ai.djl.training.LocalParameterServer;
+import ai.djl.training.ParameterServer;
+import ai.djl.training.Trainer;
+import ai.djl.training.loss.Loss;
+import ai.djl.training.optimizer.Optimizer;
+import ai.djl.training.tracker.Tracker;
+import ai.djl.util.Pair;
+
+import org.testng.Assert;
+import org.testng.SkipException;
+import org.testng.annotations.Test;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class ParameterServerTest {
+
+    @Test
+    public void testLocalParameterServer() {
+        // the arrays of each "device" are on the same device, so it can run on CPU only
+        int numDevices = 3;
+        ExecutorService executor = Executors.newFixedThreadPool(numDevices);
+        Optimizer sgd = Optimizer.sgd().setLearningRateTracker(Tracker.fixed(1f)).build();
+        try (NDManager manager = NDManager.newBaseManager(TestUtils.getEngine());
+                ParameterServer ps = new LocalParameterServer(sgd, executor)) {
+            NDArray[] weights = new NDArray[numDevices];
+            NDArray[] grads = new NDArray[numDevices];
+            for (int i = 0; i < numDevices; ++i) {
+                weights[i] = manager.ones(new Shape(2, 2));
+                grads[i] = manager.full(new Shape(2, 2), i + 1f);
+            }
+            ps.update("weight", grads, weights);
+            NDArray expected = manager.full(new Shape(2, 2), -5f);
+            for (NDArray weight : weights) {
+                Assertions.assertAlmostEquals(weight, expected);
+            }
+
+            // small parameters are fused into a bucket
+            assertBatchUpdate(manager, ps, numDevices);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testFusedUpdate() {
+        int numDevices = 3;
+        ExecutorService executor = Executors.newFixedThreadPool(numDevices);
+        Optimizer sgd = Optimizer.sgd().setLearningRateTracker(Tracker.fixed(1f)).build();
+        try (NDManager manager = NDManager.newBaseManager(TestUtils.getEngine());
+                ParameterServer ps = new LocalParameterServer(sgd, executor, true)) {
+            assertBatchUpdate(manager, ps, numDevices);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testDistributedParameterServer() throws Exception {
+        int worldSize = 2;
+        InetSocketAddress[] workers = new InetSocketAddress[worldSize];
+        for (int i = 0; i < worldSize; ++i) {
+            try (ServerSocket socket = new ServerSocket(0)) {
+                workers[i] =
+                        new InetSocketAddress(
+                                InetAddress.getLoopbackAddress(), socket.getLocalPort());
+            }
+        }
+        Optimizer sgd = Optimizer.sgd().setLearningRateTracker(Tracker.fixed(1f)).build();
+        String[] ids = {"a", "b"};
+        Engine engine = Engine.getEngine(TestUtils.getEngine());
+        ExecutorService executor = Executors.newFixedThreadPool(worldSize);
+        try (NDManager manager = NDManager.newBaseManager(TestUtils.getEngine())) {
+            // the gradient of worker r is r + 1, and only worker 0 starts with ones
+            NDArray[][][] params = new NDArray[worldSize][ids.length][1];
+            try (GradientCollector collector = engine.newGradientCollector()) {
+                NDArray loss = manager.zeros(new Shape());
+                for (int r = 0; r < worldSize; ++r) {
+                    for (int p = 0; p < ids.length; ++p) {
+                        Shape shape = new Shape(p + 1, 3);
+                        NDArray param = r == 0 ? manager.ones(shape) : manager.zeros(shape);
+                        param.setRequiresGradient(true);
+                        params[r][p][0] = param;
+                        loss = loss.add(param.mul(r + 1).sum());
+                    }
+                }
+                collector.backward(loss);
+            }
+
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < worldSize; ++i) {
+                int rank = i;
+                futures.add(
+                        executor.submit(
+                                () -> {
+                                    // a small bucket size to split the parameters
+                                    try (DistributedParameterServer ps =
+                                            DistributedParameterServer.builder()
+                                                    .setOptimizer(sgd)
+                                                    .setRank(rank)
+                                                    .setWorkers(workers)
+                                                    .optBucketSize(12)
+                                                    .optTimeout(10_000)
+                                                    .build()) {
+                                        for (int p = 0; p < ids.length; ++p) {
+                                            ps.init(ids[p], params[rank][p]);
+                                        }
+                                        ps.batchUpdate(ids, params[rank]);
+                                    }
+                                    return null;
+                                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            for (int r = 0; r < worldSize; ++r) {
+                for (int p = 0; p < ids.length; ++p) {
+                    NDArray expected = manager.full(new Shape(p + 1, 3), -2f);
+                    Assertions.assertAlmostEquals(params[r][p][0], expected);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testInitOrder() throws Exception {
+        Device[] devices = TestUtils.getDevices(2);
+        if (devices.length < 2) {
+            throw new SkipException("This test requires two devices");
+        }
+        Block block =
+                new SequentialBlock()
+                        .add(Linear.builder().setUnits(4).build())
+                        .add(Linear.builder().setUnits(2).build());
+        List<String> expected = new ArrayList<>();
+        for (Pair<String, Parameter> pair : block.getParameters()) {
+            expected.add(pair.getValue().getId());
+        }
+        RecordingParameterServer ps = new RecordingParameterServer();
+        ExecutorService executor = Executors.newFixedThreadPool(devices.length);
+        DefaultTrainingConfig config =
+                new DefaultTrainingConfig(Loss.l2Loss())
+                        .optDevices(devices)
+                        .optExecutorService(executor)
+                        .optParameterServer(ps);
+        Shape shape = new Shape(2, 3);
+        try (Model model = Model.newInstance("model", devices[0], TestUtils.getEngine())) {
+            model.setBlock(block);
+            block.initialize(model.getNDManager(), DataType.FLOAT32, shape);
+            try (Trainer trainer = model.newTrainer(config)) {
+                NDManager manager = trainer.getManager();
+                // the forward passes of all the devices race to mirror the parameters
+                List<Future<NDList>> futures = new ArrayList<>();
+                for (Device device : devices) {
+                    NDArray input = manager.ones(shape, DataType.FLOAT32, device);
+                    futures.add(executor.submit(() -> trainer.forward(new NDList(input))));
+                }
+                for (Future<NDList> future : futures) {
+                    NDArray output = future.get().singletonOrThrow();
+                    Assert.assertEquals(output.getShape(), new Shape(2, 2));
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+        Assert.assertEquals(ps.ids, expected);
+    }
+
+    private static void assertBatchUpdate(NDManager manager, ParameterServer ps, int numDevices) {
+        String[] ids = {"a", "b"};
+        NDArray[][] params = new NDArray[ids.length][numDevices];
+        Engine engine = Engine.getEngine(TestUtils.getEngine());
+        try (GradientCollector collector = engine.newGradientCollector()) {
+            NDArray loss = manager.zeros(new Shape());
+            for (int p = 0; p < ids.length; ++p) {
+                for (int d = 0; d < numDevices; ++d) {
+                    NDArray param = manager.ones(new Shape(p + 1, 3));
+                    param.setRequiresGradient(true);
+                    params[p][d] = param;
+                    loss = loss.add(param.mul(d + 1).sum());
+                }
+            }
+            collector.backward(loss);
+        }
+        ps.batchUpdate(ids, params);
+        for (int p = 0; p < ids.length; ++p) {
+            NDArray expected = manager.full(new Shape(p + 1, 3), -5f);
+            for (NDArray param : params[p]) {
+                Assertions.assertAlmostEquals(param, expected);
+            }
+        }
+    }
+
+    private static final class RecordingParameterServer implements ParameterServer {
+
+        List<String> ids = Collections.synchronizedList(new ArrayList<>());
+
+        /** {@inheritDoc} */
+        @Override
+        public void init(String parameterId, NDArray[] value) {
+            ids.add(parameterId);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void update(String parameterId, NDArray[] grads, NDArray[] params) {}
+
+        /** {@inheritDoc} */
+        @Override
+        public void close() {}
+    }
+}